@@ -8,6 +8,8 @@
 plugins {
     // Apply the application plugin to add support for building a CLI application in Java.
     application
+    // Shares the town builder in src/testFixtures between the tests and the benchmarks.
+    `java-test-fixtures`
 }
 
 repositories {
@@ -37,6 +39,14 @@ application {
     mainClass = "io.github.sasori_256.town_planning.App"
 }
 
+tasks.register<JavaExec>("runHeadless") {
+    group = "application"
+    description = "Runs simulations without any UI and prints one CSV summary line per run."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass = "io.github.sasori_256.town_planning.headless.HeadlessRunner"
+    jvmArgs("-Djava.awt.headless=true")
+}
+
 tasks.named<Test>("test") {
     // Use JUnit Platform for unit tests.
     useJUnitPlatform()
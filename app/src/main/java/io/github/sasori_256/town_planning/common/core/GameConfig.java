@@ -128,6 +128,108 @@ public final class GameConfig {
     return getNonNegativeLong("pathfinding.costInf", 1_000_000L);
   }
 
+  public static int getPathfindingFlowFieldCacheMaxMegabytes() {
+    return getPositiveInt("pathfinding.flowFieldCacheMaxMegabytes", 64);
+  }
+
+  public static int getPathfindingHierarchicalClusterSize() {
+    return getPositiveInt("pathfinding.hierarchical.clusterSize", 16);
+  }
+
+  public static int getPathfindingHierarchicalMinMapCells() {
+    return getPositiveInt("pathfinding.hierarchical.minMapCells", 250_000);
+  }
+
+  public static double getSpatialIndexCellSizeTiles() {
+    return getPositiveDouble("spatial.cellSizeTiles", 4.0);
+  }
+
+  public static boolean isSimulationParallelEnabled() {
+    return getBoolean("simulation.parallel.enabled", true);
+  }
+
+  public static int getSimulationParallelThreads() {
+    return getNonNegativeInt("simulation.parallel.threads", 0);
+  }
+
+  public static int getSimulationParallelMinResidents() {
+    return getPositiveInt("simulation.parallel.minResidents", 1024);
+  }
+
+  public static int getSimulationParallelChunkSize() {
+    return getPositiveInt("simulation.parallel.chunkSize", 256);
+  }
+
+  public static boolean isCommandLogEnabled() {
+    return getBoolean("replay.commandLog.enabled", false);
+  }
+
+  public static String getCommandLogDirectory() {
+    return getString("replay.commandLog.directory", "logs");
+  }
+
+  public static boolean isTickMetricsEnabled() {
+    return getBoolean("metrics.tick.enabled", true);
+  }
+
+  public static int getTickMetricsWindowTicks() {
+    return getPositiveInt("metrics.tick.windowTicks", 300);
+  }
+
+  public static double getTickMetricsLogIntervalSeconds() {
+    return getNonNegativeDouble("metrics.tick.logIntervalSeconds", 0.0);
+  }
+
+  public static double getTickMetricsWarnRatio() {
+    return getPositiveDouble("metrics.tick.warnRatio", 0.8);
+  }
+
+  public static boolean isTickMetricsOverlayVisible() {
+    return getBoolean("metrics.overlay.visible", false);
+  }
+
+  public static RenderMode getRenderMode() {
+    String raw = getString("render.mode", RenderMode.DISPLAY.name());
+    RenderMode mode = RenderMode.parse(raw);
+    if (mode == null) {
+      recordError("CONFIG_PARSE_FAILED", "Invalid render mode for render.mode: " + raw);
+      return RenderMode.DISPLAY;
+    }
+    return mode;
+  }
+
+  public static double getRenderTargetFps() {
+    return getNonNegativeDouble("render.targetFps", 0.0);
+  }
+
+  public static double getRenderFallbackFps() {
+    return getPositiveDouble("render.fallbackFps", 60.0);
+  }
+
+  public static double getRenderFpsLogIntervalSeconds() {
+    return getNonNegativeDouble("render.fpsLogIntervalSeconds", 5.0);
+  }
+
+  public static boolean isTerrainCacheEnabled() {
+    return getBoolean("render.terrainCache.enabled", true);
+  }
+
+  public static int getTerrainCacheChunkTiles() {
+    return getPositiveInt("render.terrainCache.chunkTiles", 8);
+  }
+
+  public static int getTerrainCacheMaxMegabytes() {
+    return getPositiveInt("render.terrainCache.maxMegabytes", 128);
+  }
+
+  public static int getSpriteCacheMaxZoomLevels() {
+    return getNonNegativeInt("render.spriteCache.maxZoomLevels", 3);
+  }
+
+  public static int getSpriteAtlasPageSize() {
+    return getPositiveInt("render.spriteAtlas.pageSize", 2048);
+  }
+
   public static double getCameraZoomStep() {
     return getPositiveDouble("camera.zoom.step", 0.25);
   }
@@ -200,6 +302,30 @@ public final class GameConfig {
     getPathfindingSearchCooldownSeconds();
     getPathfindingMaxRandomTries();
     getPathfindingCostInf();
+    getPathfindingFlowFieldCacheMaxMegabytes();
+    getPathfindingHierarchicalClusterSize();
+    getPathfindingHierarchicalMinMapCells();
+    getSpatialIndexCellSizeTiles();
+    isSimulationParallelEnabled();
+    getSimulationParallelThreads();
+    getSimulationParallelMinResidents();
+    getSimulationParallelChunkSize();
+    isCommandLogEnabled();
+    getCommandLogDirectory();
+    isTickMetricsEnabled();
+    getTickMetricsWindowTicks();
+    getTickMetricsLogIntervalSeconds();
+    getTickMetricsWarnRatio();
+    isTickMetricsOverlayVisible();
+    getRenderMode();
+    getRenderTargetFps();
+    getRenderFallbackFps();
+    getRenderFpsLogIntervalSeconds();
+    isTerrainCacheEnabled();
+    getTerrainCacheChunkTiles();
+    getTerrainCacheMaxMegabytes();
+    getSpriteCacheMaxZoomLevels();
+    getSpriteAtlasPageSize();
     getCameraZoomStep();
     getCameraZoomMinLevel();
     getCameraZoomMaxLevel();
@@ -243,6 +369,14 @@ public final class GameConfig {
     return props;
   }
 
+  private static String getString(String key, String defaultValue) {
+    String raw = PROPERTIES.getProperty(key);
+    if (raw == null || raw.trim().isEmpty()) {
+      return defaultValue;
+    }
+    return raw.trim();
+  }
+
   private static double getDouble(String key, double defaultValue) {
     String raw = PROPERTIES.getProperty(key);
     if (raw == null) {
@@ -269,6 +403,22 @@ public final class GameConfig {
     }
   }
 
+  private static boolean getBoolean(String key, boolean defaultValue) {
+    String raw = PROPERTIES.getProperty(key);
+    if (raw == null) {
+      return defaultValue;
+    }
+    String value = raw.trim();
+    if (value.equalsIgnoreCase("true")) {
+      return true;
+    }
+    if (value.equalsIgnoreCase("false")) {
+      return false;
+    }
+    recordError("CONFIG_PARSE_FAILED", "Invalid boolean for " + key + ": " + raw);
+    return defaultValue;
+  }
+
   private static int getNonNegativeInt(String key, int defaultValue) {
     int value = getInt(key, defaultValue);
     return value < 0 ? defaultValue : value;
@@ -7,6 +7,13 @@ import javax.swing.SwingUtilities;
 /**
  * 固定タイムステップのゲームループを提供するクラス。
  * 更新処理(Update)と描画処理(Render)を制御する。
+ *
+ * <p>
+ * 描画の間隔は{@link GameConfig#getRenderMode()}で決める。{@link RenderMode#TICK}ではループの
+ * 1周ごとに描画を要求し、それ以外では{@link RenderLoop}が更新とは別の間隔で要求する。
+ * 更新しきれずに残った時間は{@link #getInterpolationAlpha()}で描画側に渡し、直近2ティックの間を
+ * 補間して描けるようにする。
+ * </p>
  */
 public class GameLoop implements Runnable {
   private final AtomicBoolean running = new AtomicBoolean(false);
@@ -20,7 +27,12 @@ public class GameLoop implements Runnable {
    */
   private final DoubleConsumer updateCallback;
   private final Runnable renderCallback;
+  private final RenderMode renderMode;
+  /** TICK以外の描画モードで描画を要求するループ。TICKではnull。 */
+  private final RenderLoop renderLoop;
   private Thread thread = null;
+  /** 最後の更新までで進めたシミュレーション時刻に対応する{@link System#nanoTime()}の値。 */
+  private volatile long simulatedUntilNanos;
 
   // 30 FPS target
   private static final double TIME_STEP = GameConfig.getGameLoopTimeStepSeconds();
@@ -30,11 +42,26 @@ public class GameLoop implements Runnable {
    * ゲームループを生成する。
    *
    * @param updateCallback 更新処理
-   * @param renderCallback 描画処理
+   * @param renderCallback 描画処理。EDTで実行し、描き終えてから戻ること
    */
   public GameLoop(DoubleConsumer updateCallback, Runnable renderCallback) {
+    this(updateCallback, renderCallback, GameConfig.getRenderMode());
+  }
+
+  /**
+   * 描画モードを指定してゲームループを生成する。
+   *
+   * @param updateCallback 更新処理
+   * @param renderCallback 描画処理。EDTで実行し、描き終えてから戻ること
+   * @param renderMode     描画モード
+   */
+  public GameLoop(DoubleConsumer updateCallback, Runnable renderCallback, RenderMode renderMode) {
     this.updateCallback = updateCallback;
     this.renderCallback = renderCallback;
+    this.renderMode = renderMode;
+    this.renderLoop = renderCallback == null || renderMode == RenderMode.TICK ? null
+        : new RenderLoop(renderCallback, renderMode, GameConfig.getRenderTargetFps(),
+            GameConfig.getRenderFallbackFps());
   }
 
   /**
@@ -48,6 +75,9 @@ public class GameLoop implements Runnable {
           thread = new Thread(this, "GameLoop-Thread");
           thread.setDaemon(true); // アプリ終了時に自動で落ちるように
           thread.start();
+          if (renderLoop != null) {
+            renderLoop.start();
+          }
         }
       } catch (Exception e) {
         running.set(false);
@@ -76,6 +106,9 @@ public class GameLoop implements Runnable {
    */
   public void stop() {
     running.set(false);
+    if (renderLoop != null) {
+      renderLoop.stop();
+    }
     try {
       Thread toJoin;
       synchronized (this) {
@@ -123,6 +156,38 @@ public class GameLoop implements Runnable {
     return paused.get();
   }
 
+  /**
+   * ループが実行中かどうかを返す。
+   *
+   * @return 実行中ならtrue
+   */
+  public boolean isRunning() {
+    return running.get();
+  }
+
+  /**
+   * 描画モードを返す。
+   *
+   * @return 描画モード
+   */
+  public RenderMode getRenderMode() {
+    return renderMode;
+  }
+
+  /**
+   * 最新のティックから次のティックまでの経過割合を返す。描画側はこの割合で直前のティックと
+   * 最新のティックの間を補間する。停止中・一時停止中は最新のティックをそのまま描くよう1.0を返す。
+   *
+   * @return 補間率(0.0-1.0)
+   */
+  public double getInterpolationAlpha() {
+    if (!running.get() || paused.get()) {
+      return 1.0;
+    }
+    double alpha = (double) (System.nanoTime() - simulatedUntilNanos) / TIME_STEP_NANO;
+    return Math.max(0.0, Math.min(1.0, alpha));
+  }
+
   /**
    * ループ処理を実行する。
    */
@@ -130,6 +195,7 @@ public class GameLoop implements Runnable {
   public void run() {
     long lastTime = System.nanoTime(); // 前フレームの時刻
     double accumulator = 0.0; // 経過時間
+    simulatedUntilNanos = lastTime;
 
     try {
       while (running.get()) {
@@ -150,13 +216,17 @@ public class GameLoop implements Runnable {
           while (accumulator >= TIME_STEP_NANO) {
             updateCallback.accept(TIME_STEP);
             accumulator -= TIME_STEP_NANO;
+            // 更新ごとに書き、公開された写しと補間率がずれる間を短くする
+            simulatedUntilNanos = now - (long) accumulator;
           }
         } else {
           accumulator = 0.0;
         }
 
-        // 描画処理はEDTに委譲する
-        requestRender();
+        // 描画処理はEDTに委譲する。TICK以外ではRenderLoopが要求する
+        if (renderLoop == null) {
+          requestRender();
+        }
 
         // フレームレート制御: 次のフレームまで待機
         long sleepTime = (TIME_STEP_NANO - (System.nanoTime() - now)) / 1_000_000;
@@ -0,0 +1,139 @@
+package io.github.sasori_256.town_planning.common.core;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.awt.HeadlessException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.SwingUtilities;
+
+/**
+ * シミュレーションの更新とは別の間隔で描画をEDTに要求するループ。
+ *
+ * <p>
+ * {@link RenderMode#DISPLAY}では画面のリフレッシュレート(取得できなければ設定値)の間隔で、
+ * {@link RenderMode#UNCAPPED}では前の描画が終わり次第要求する。前の描画が終わるまでは
+ * 次の要求を積まないため、描画が間に合わない場合も要求はたまらない。
+ * 描画処理は描き終えてから戻ること。再描画を予約するだけの処理では、描画の完了を待てない。
+ * </p>
+ */
+public class RenderLoop implements Runnable {
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  /** UNCAPPEDで描画の完了を待つ上限。取りこぼした起床を拾うため。 */
+  private static final long UNCAPPED_WAIT_NANOS = 1_000_000L;
+
+  private final AtomicBoolean running = new AtomicBoolean(false);
+  private final AtomicBoolean renderPending = new AtomicBoolean(false);
+  private final Runnable renderCallback;
+  private final RenderMode mode;
+  private final long frameNanos;
+  private Thread thread = null;
+
+  /**
+   * 描画ループを生成する。
+   *
+   * @param renderCallback 描画処理。EDTで実行し、描き終えてから戻ること
+   * @param mode           描画モード。{@link RenderMode#TICK}は扱わない
+   * @param targetFps      DISPLAYでの描画fps。0以下なら画面のリフレッシュレートに合わせる
+   * @param fallbackFps    リフレッシュレートを取得できない場合の描画fps
+   */
+  public RenderLoop(Runnable renderCallback, RenderMode mode, double targetFps,
+      double fallbackFps) {
+    if (mode == RenderMode.TICK) {
+      throw new IllegalArgumentException("RenderLoop does not handle TICK mode.");
+    }
+    this.renderCallback = renderCallback;
+    this.mode = mode;
+    double fps = targetFps > 0.0 ? targetFps : resolveRefreshRate(fallbackFps);
+    this.frameNanos = (long) (NANOS_PER_SECOND / fps);
+  }
+
+  /**
+   * 描画ループを開始する。
+   */
+  public synchronized void start() {
+    if (thread == null && running.compareAndSet(false, true)) {
+      thread = new Thread(this, "RenderLoop-Thread");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * 描画ループに停止を指示する。EDTから呼ばれる場合があるため終了は待たない。
+   */
+  public void stop() {
+    running.set(false);
+    Thread toWake;
+    synchronized (this) {
+      toWake = thread;
+    }
+    if (toWake != null) {
+      LockSupport.unpark(toWake);
+    }
+  }
+
+  /**
+   * ループ処理を実行する。
+   */
+  @Override
+  public void run() {
+    long next = System.nanoTime();
+    try {
+      while (running.get()) {
+        requestRender();
+        if (mode == RenderMode.UNCAPPED) {
+          while (running.get() && renderPending.get()) {
+            LockSupport.parkNanos(this, UNCAPPED_WAIT_NANOS);
+          }
+          continue;
+        }
+        next += frameNanos;
+        long now = System.nanoTime();
+        if (next < now - frameNanos) {
+          // 大きく遅れた場合は取り戻そうとせず、今から数え直す
+          next = now;
+        }
+        long wait;
+        while (running.get() && (wait = next - System.nanoTime()) > 0) {
+          LockSupport.parkNanos(this, wait);
+        }
+      }
+    } finally {
+      synchronized (this) {
+        thread = null;
+      }
+    }
+  }
+
+  private void requestRender() {
+    if (!renderPending.compareAndSet(false, true)) {
+      return;
+    }
+    Thread waiter = Thread.currentThread();
+    SwingUtilities.invokeLater(() -> {
+      try {
+        renderCallback.run();
+      } finally {
+        renderPending.set(false);
+        LockSupport.unpark(waiter);
+      }
+    });
+  }
+
+  /**
+   * 既定の画面のリフレッシュレートを返す。
+   */
+  private static double resolveRefreshRate(double fallbackFps) {
+    if (GraphicsEnvironment.isHeadless()) {
+      return fallbackFps;
+    }
+    try {
+      int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+          .getDisplayMode().getRefreshRate();
+      return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? fallbackFps : rate;
+    } catch (HeadlessException e) {
+      return fallbackFps;
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package io.github.sasori_256.town_planning.common.core;
+
+/**
+ * 描画を要求する間隔の決め方。
+ */
+public enum RenderMode {
+  /** ゲームループの1周ごとに描画する。描画はシミュレーションの更新間隔に揃う。 */
+  TICK,
+  /** 描画用のスレッドが画面のリフレッシュレートに合わせて描画する。 */
+  DISPLAY,
+  /** 前の描画が終わり次第次を描画する。達成したfpsを定期的にログに出す計測用のモード。 */
+  UNCAPPED;
+
+  /**
+   * 設定値から描画モードを返す。大文字・小文字は区別しない。
+   *
+   * @param value 設定値
+   * @return 描画モード。該当しない場合はnull
+   */
+  public static RenderMode parse(String value) {
+    for (RenderMode mode : values()) {
+      if (mode.name().equalsIgnoreCase(value)) {
+        return mode;
+      }
+    }
+    return null;
+  }
+}
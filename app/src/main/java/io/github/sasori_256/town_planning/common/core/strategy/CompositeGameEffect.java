@@ -3,14 +3,18 @@ package io.github.sasori_256.town_planning.common.core.strategy;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
 import io.github.sasori_256.town_planning.entity.model.GameEffect;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 複数のGameEffectをまとめて実行するコンポジットクラス。
+ * 保存時は{@link Persistable}なエフェクトの状態を追加順に書き出す。
  */
-public class CompositeGameEffect implements GameEffect {
+public class CompositeGameEffect implements GameEffect, Persistable {
   private final List<GameEffect> effects = new ArrayList<>();
 
   /**
@@ -40,4 +44,24 @@ public class CompositeGameEffect implements GameEffect {
       effect.execute(context, self);
     }
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    for (GameEffect effect : effects) {
+      if (effect instanceof Persistable persistable) {
+        persistable.writeState(out);
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    for (GameEffect effect : effects) {
+      if (effect instanceof Persistable persistable) {
+        persistable.readState(in);
+      }
+    }
+  }
 }
@@ -4,11 +4,15 @@ import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameAction;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
 import io.github.sasori_256.town_planning.entity.model.GameEffect;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 
 /**
- * 1つのGameAction（排他）と複数のGameEffect（並行）を管理し実行するStrategy
+ * 1つのGameAction（排他）と複数のGameEffect（並行）を管理し実行するStrategy。
+ * 保存時はエフェクト、アクションの順に{@link Persistable}なものの状態を書き出す。
  */
-public class CompositeUpdateStrategy implements UpdateStrategy {
+public class CompositeUpdateStrategy implements UpdateStrategy, Persistable {
   private GameAction action;
   private final CompositeGameEffect compositeEffect = new CompositeGameEffect();
 
@@ -56,4 +60,22 @@ public class CompositeUpdateStrategy implements UpdateStrategy {
       action.execute(context, self);
     }
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    compositeEffect.writeState(out);
+    if (action instanceof Persistable persistable) {
+      persistable.writeState(out);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    compositeEffect.readState(in);
+    if (action instanceof Persistable persistable) {
+      persistable.readState(in);
+    }
+  }
 }
@@ -11,19 +11,22 @@ import java.util.Objects;
 /**
  * 型安全なイベントバスの実装。
  * イベントクラス（Record推奨）をキーとしてPub/Subを行う。
- * EventBusはシングルトンとして実装している。
- * 使用する際は各クラスでEventBus.getInstance()によりインスタンスを取得し、フィールドとして持つこと。
- * ただしstaticなメソッドで使用する場合は都度EventBus.getInstance()で取得して使用すること。
+ * 画面全体で共有するインスタンスはEventBus.getInstance()で取得する。
+ * シミュレーションはGameModelごとに専用のインスタンスを持ち、マップや各マネージャへ渡すため、
+ * 同じJVMで複数のGameModelを動かしてもイベントは互いに届かない。
  */
 public class EventBus {
   private static final EventBus instance = new EventBus();
   private final Map<Class<?>, List<Consumer<?>>> listeners = new ConcurrentHashMap<>();
 
-  private EventBus() {
+  /**
+   * 購読者のいない新しいイベントバスを生成する。
+   */
+  public EventBus() {
   }
 
   /**
-   * イベントバスのシングルトンインスタンスを取得する。
+   * 画面全体で共有するイベントバスを取得する。
    *
    * @return イベントバスのインスタンス
    */
@@ -1,9 +1,21 @@
 package io.github.sasori_256.town_planning.common.event.events;
 
+import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 
 /**
  * マップ上の何かが更新された（建物建設など）ことを通知するイベント。
+ *
+ * @param position 更新の基準座標
+ * @param area     地形の変更や建物の配置・撤去で変化したセル範囲。地形や建物に変化がない場合はnull
  */
-public record MapUpdatedEvent(Point2D.Double position) {
+public record MapUpdatedEvent(Point2D.Double position, Rectangle area) {
+  /**
+   * セル範囲を伴わない更新イベントを生成する。
+   *
+   * @param position 更新の基準座標
+   */
+  public MapUpdatedEvent(Point2D.Double position) {
+    this(position, null);
+  }
 }
@@ -0,0 +1,31 @@
+package io.github.sasori_256.town_planning.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 災害の着弾処理のFlight Recorderイベント。
+ */
+@Name("io.github.sasori_256.town_planning.DisasterImpact")
+@Label("Disaster Impact")
+@Category({ "Town Planning", "Simulation" })
+@Description("Damage and panic applied by a disaster")
+public class JfrDisasterImpactEvent extends Event {
+  @Label("Disaster Type")
+  public String disasterType;
+
+  @Label("X")
+  public double x;
+
+  @Label("Y")
+  public double y;
+
+  @Label("Residents Damaged")
+  public int residentsDamaged;
+
+  @Label("Buildings Destroyed")
+  public int buildingsDestroyed;
+}
@@ -0,0 +1,38 @@
+package io.github.sasori_256.town_planning.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * マップ描画1回分のFlight Recorderイベント。
+ */
+@Name("io.github.sasori_256.town_planning.Paint")
+@Label("Map Paint")
+@Category({ "Town Planning", "Rendering" })
+@Description("One paintComponent call of the map panel")
+@StackTrace(false)
+public class JfrPaintEvent extends Event {
+  @Label("Tiles Drawn")
+  public int tilesDrawn;
+
+  @Label("Chunks Drawn")
+  @Description("Cached terrain chunks blitted instead of drawing tiles one by one")
+  public int chunksDrawn;
+
+  @Label("Actors Sorted")
+  public int actorsSorted;
+
+  @Label("Snapshot Age")
+  @Description("Time since the painted render snapshot was published")
+  @Timespan(Timespan.NANOSECONDS)
+  public long snapshotAge;
+
+  @Label("Interpolation")
+  @Description("Fraction of a tick the painted positions were advanced from the previous snapshot")
+  public double interpolation;
+}
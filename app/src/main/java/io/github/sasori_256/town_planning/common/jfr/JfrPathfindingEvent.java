@@ -0,0 +1,45 @@
+package io.github.sasori_256.town_planning.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 住民の経路計画1回分のFlight Recorderイベント。
+ */
+@Name("io.github.sasori_256.town_planning.Pathfinding")
+@Label("Pathfinding")
+@Category({ "Town Planning", "Simulation" })
+@Description("Route planning for one resident")
+@StackTrace(false)
+public class JfrPathfindingEvent extends Event {
+  @Label("Start X")
+  public int startX;
+
+  @Label("Start Y")
+  public int startY;
+
+  @Label("Goal X")
+  public int goalX;
+
+  @Label("Goal Y")
+  public int goalY;
+
+  @Label("Method")
+  @Description("astar, flowField, hierarchical or none when no route was found")
+  public String method;
+
+  @Label("Nodes Expanded")
+  @Description("Nodes closed by A* searches on this thread, including hierarchical abstract nodes")
+  public long nodesExpanded;
+
+  @Label("Path Length")
+  @Description("Cells for astar, waypoints for hierarchical, -1 when not known up front")
+  public int pathLength;
+
+  @Label("Found")
+  public boolean found;
+}
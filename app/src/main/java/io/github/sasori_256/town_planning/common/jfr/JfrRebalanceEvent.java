@@ -0,0 +1,26 @@
+package io.github.sasori_256.town_planning.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 日次の住民引っ越し調整のFlight Recorderイベント。
+ */
+@Name("io.github.sasori_256.town_planning.Rebalance")
+@Label("Resident Rebalance")
+@Category({ "Town Planning", "Simulation" })
+@Description("Daily redistribution of residents between houses")
+public class JfrRebalanceEvent extends Event {
+  @Label("Houses")
+  public int houses;
+
+  @Label("Residents")
+  public int residents;
+
+  @Label("Movers")
+  @Description("Residents given a new home")
+  public int movers;
+}
@@ -0,0 +1,68 @@
+package io.github.sasori_256.town_planning.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * シミュレーション1ティック分のFlight Recorderイベント。
+ * 区間ごとの時間はティック計測器の値で、計測が無効な場合は0になる。
+ */
+@Name("io.github.sasori_256.town_planning.Tick")
+@Label("Simulation Tick")
+@Category({ "Town Planning", "Simulation" })
+@Description("One fixed-step update of the game model")
+@StackTrace(false)
+public class JfrTickEvent extends Event {
+  @Label("Tick")
+  public long tick;
+
+  @Label("Lock Wait")
+  @Timespan(Timespan.NANOSECONDS)
+  public long lockWait;
+
+  @Label("Time Advance")
+  @Timespan(Timespan.NANOSECONDS)
+  public long time;
+
+  @Label("Rebalance")
+  @Timespan(Timespan.NANOSECONDS)
+  public long rebalance;
+
+  @Label("Residents Update")
+  @Timespan(Timespan.NANOSECONDS)
+  public long residentsUpdate;
+
+  @Label("Buildings Update")
+  @Timespan(Timespan.NANOSECONDS)
+  public long buildingsUpdate;
+
+  @Label("Disasters Update")
+  @Timespan(Timespan.NANOSECONDS)
+  public long disastersUpdate;
+
+  @Label("Animations")
+  @Timespan(Timespan.NANOSECONDS)
+  public long animations;
+
+  @Label("Deferred Operations")
+  @Timespan(Timespan.NANOSECONDS)
+  public long deferred;
+
+  @Label("Render Snapshot")
+  @Timespan(Timespan.NANOSECONDS)
+  public long snapshot;
+
+  @Label("Residents")
+  public int residents;
+
+  @Label("Buildings")
+  public int buildings;
+
+  @Label("Disasters")
+  public int disasters;
+}
@@ -23,12 +23,16 @@ import java.util.regex.Pattern;
 
 import javax.imageio.ImageIO;
 
+import io.github.sasori_256.town_planning.common.core.GameConfig;
+
 /**
  * アニメーション（連番 PNG）を管理し、フレームを取得するクラス。
  * JARファイル内でも動作するように修正済み。
  */
 public class AnimationManager {
   private final Map<String, AnimationStorage> animationStorages = new HashMap<>();
+  private final ScaledSpriteCache scaledFrames = new ScaledSpriteCache(
+      GameConfig.getSpriteCacheMaxZoomLevels(), GameConfig.getSpriteAtlasPageSize());
 
   public AnimationManager() {
     this.loadAnimations();
@@ -103,7 +107,9 @@ public class AnimationManager {
       }
     }
 
-    // 3. 読み込んだ画像をソートして保存
+    // 3. 読み込んだ画像をソートし、アトラスに詰めて保存
+    SpriteAtlas atlas = new SpriteAtlas(GameConfig.getSpriteAtlasPageSize());
+    int frameCount = 0;
     for (Map.Entry<String, List<FrameInfo>> entry : grouped.entrySet()) {
       String base = entry.getKey();
       List<FrameInfo> list = entry.getValue();
@@ -112,14 +118,20 @@ public class AnimationManager {
 
       List<BufferedImage> frames = new ArrayList<>();
       for (FrameInfo fi : list) {
-        frames.add(fi.image);
+        AtlasRegion region = atlas.add(fi.image);
+        BufferedImage frame = region.toImage();
+        scaledFrames.putBase(frame, region);
+        frames.add(frame);
       }
+      frameCount += frames.size();
 
       if (!frames.isEmpty()) {
         this.animationStorages.put(base, new AnimationStorage(base, frames));
         System.out.println("Loaded animation: " + base + " (" + frames.size() + " frames)");
       }
     }
+    System.out.println("Packed " + frameCount + " animation frames into " + atlas.getPageCount()
+        + " atlas pages");
   }
 
   // IDE用: 再帰的にディレクトリを探索
@@ -177,6 +189,18 @@ public class AnimationManager {
     return storage.frames.get(idx);
   }
 
+  /**
+   * フレームをカメラの拡大率に合わせて拡大縮小したもののアトラス上の矩形を返す。
+   * 拡大率ごとに一度だけ作って使い回す。EDTからだけ呼ぶこと。
+   *
+   * @param frame {@link #getFrame}で得たフレーム
+   * @param scale 拡大率
+   * @return アトラス上の矩形。作らない設定の場合はnull
+   */
+  public AtlasRegion getScaledRegion(BufferedImage frame, double scale) {
+    return scaledFrames.get(frame, scale);
+  }
+
   public int getFrameCount(String name) {
     if (name == null)
       return 0;
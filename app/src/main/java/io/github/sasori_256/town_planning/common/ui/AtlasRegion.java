@@ -0,0 +1,82 @@
+package io.github.sasori_256.town_planning.common.ui;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+
+/**
+ * {@link SpriteAtlas}のページ上で1つのスプライトが占める矩形。
+ */
+public final class AtlasRegion {
+  private final BufferedImage page;
+  private final int x;
+  private final int y;
+  private final int width;
+  private final int height;
+
+  /**
+   * 矩形を生成する。
+   *
+   * @param page   スプライトを含むページ
+   * @param x      ページ内の左端
+   * @param y      ページ内の上端
+   * @param width  幅
+   * @param height 高さ
+   */
+  AtlasRegion(BufferedImage page, int x, int y, int width, int height) {
+    this.page = page;
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * 矩形の部分をそのままの大きさで描画する。
+   *
+   * @param g        グラフィックスコンテキスト
+   * @param dx       描画先の左端
+   * @param dy       描画先の上端
+   * @param observer 画像の更新通知先
+   */
+  public void draw(Graphics g, int dx, int dy, ImageObserver observer) {
+    g.drawImage(page, dx, dy, dx + width, dy + height, x, y, x + width, y + height, observer);
+  }
+
+  /**
+   * 矩形の部分をページと画素を共有する画像として返す。
+   * 個別の画像を必要とする処理向けで、毎フレームの描画には{@link #draw}を使う。
+   *
+   * @return 部分画像
+   */
+  public BufferedImage toImage() {
+    return page.getSubimage(x, y, width, height);
+  }
+
+  /**
+   * スプライトを含むページを返す。
+   *
+   * @return ページ
+   */
+  public BufferedImage getPage() {
+    return page;
+  }
+
+  /**
+   * 幅を返す。
+   *
+   * @return 幅
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * 高さを返す。
+   *
+   * @return 高さ
+   */
+  public int getHeight() {
+    return height;
+  }
+}
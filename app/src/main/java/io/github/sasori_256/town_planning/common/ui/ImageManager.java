@@ -7,6 +7,7 @@ import java.awt.image.BufferedImage;
 import java.awt.image.RescaleOp;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
@@ -14,12 +15,16 @@ import java.util.Map;
 
 import javax.imageio.ImageIO;
 
+import io.github.sasori_256.town_planning.common.core.GameConfig;
+
 /**
  * 画像を管理するクラス
  * 画像の読み込みと取得を担当する
  */
 public class ImageManager extends Component {
   private final Map<String, ImageStorage> imageStorages = new HashMap<>();
+  private final ScaledSpriteCache scaledSprites = new ScaledSpriteCache(
+      GameConfig.getSpriteCacheMaxZoomLevels(), GameConfig.getSpriteAtlasPageSize());
 
   /**
    * 所定の場所にある全ての画像を読み込む (ClassLoader#getResourceAsStream を使用)
@@ -111,6 +116,25 @@ public class ImageManager extends Component {
       createAndCachePreview(baseStorage, false, previewStorages);
     }
     this.imageStorages.putAll(previewStorages);
+    this.packAtlas();
+  }
+
+  /**
+   * 読み込んだ画像をアトラスに詰め、各画像をアトラス上の矩形を参照するものに置き換える。
+   */
+  private void packAtlas() {
+    List<ImageStorage> storages = new ArrayList<>(this.imageStorages.values());
+    // 高い順に並べると行の隙間が減る
+    storages.sort(Comparator.comparingInt((ImageStorage storage) -> storage.image.getHeight())
+        .reversed().thenComparing(ImageStorage::getName));
+    SpriteAtlas atlas = new SpriteAtlas(GameConfig.getSpriteAtlasPageSize());
+    for (ImageStorage storage : storages) {
+      ImageStorage packed = new ImageStorage(storage.name, atlas.add(storage.image));
+      this.imageStorages.put(packed.name, packed);
+      this.scaledSprites.putBase(packed.image, packed.region);
+    }
+    System.out.println("Packed " + storages.size() + " images into " + atlas.getPageCount()
+        + " atlas pages");
   }
 
   private void createAndCachePreview(ImageStorage baseStorage, boolean buildable,
@@ -173,12 +197,25 @@ public class ImageManager extends Component {
     }
   }
 
+  /**
+   * 画像をカメラの拡大率に合わせて拡大縮小したもののアトラス上の矩形を返す。
+   * 拡大率ごとに一度だけ作って使い回す。EDTからだけ呼ぶこと。
+   *
+   * @param image 元画像。このマネージャーの画像か、それを加工して保持し続ける画像
+   * @param scale 拡大率
+   * @return アトラス上の矩形。作らない設定の場合はnull
+   */
+  public AtlasRegion getScaledRegion(BufferedImage image, double scale) {
+    return scaledSprites.get(image, scale);
+  }
+
   /**
    * 画像の名前、画像オブジェクト、画像サイズを保持するクラス(構造体)
    */
   public static final class ImageStorage {
     final String name;
     final BufferedImage image;
+    final AtlasRegion region;
     Point2D.Double size = new Point2D.Double(); // サイズは読み取り直しが必要な場合があるため、finalにしない
 
     /**
@@ -207,6 +244,20 @@ public class ImageManager extends Component {
     public ImageStorage(String name, BufferedImage image) {
       this.name = name;
       this.image = image;
+      this.region = null;
+      this.loadSize();
+    }
+
+    /**
+     * アトラス上の矩形を参照する画像情報を生成する。
+     *
+     * @param name   画像名
+     * @param region アトラス上の矩形
+     */
+    public ImageStorage(String name, AtlasRegion region) {
+      this.name = name;
+      this.image = region.toImage();
+      this.region = region;
       this.loadSize();
     }
 
@@ -228,6 +279,15 @@ public class ImageManager extends Component {
       return image;
     }
 
+    /**
+     * アトラス上の矩形を返す。
+     *
+     * @return アトラス上の矩形。アトラスに詰めていない場合はnull
+     */
+    public AtlasRegion getRegion() {
+      return region;
+    }
+
     /**
      * 画像サイズを返す。
      *
@@ -18,9 +18,11 @@ import io.github.sasori_256.town_planning.entity.Camera;
 import io.github.sasori_256.town_planning.entity.building.Building;
 import io.github.sasori_256.town_planning.entity.building.BuildingType;
 import io.github.sasori_256.town_planning.entity.disaster.Disaster;
+import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
 import io.github.sasori_256.town_planning.entity.resident.DebuffType;
 import io.github.sasori_256.town_planning.entity.resident.Resident;
 import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+import io.github.sasori_256.town_planning.entity.resident.ResidentType;
 import io.github.sasori_256.town_planning.map.model.GameMap;
 import io.github.sasori_256.town_planning.map.model.MapCell;
 
@@ -68,9 +70,26 @@ public class PaintGameObject {
    */
   public void paintTerrain(Graphics g, Point2D.Double pos, GameMap gameMap, Camera camera,
       ImageManager imageManager, JPanel panel) {
-    MapCell cell = gameMap.getCell(pos);
+    paintTerrain(g, (int) Math.round(pos.x), (int) Math.round(pos.y), gameMap, camera,
+        imageManager, panel);
+  }
+
+  /**
+   * 整数セル座標の地形を描画する
+   *
+   * @param g            グラフィックスコンテキスト
+   * @param x            セルX
+   * @param y            セルY
+   * @param gameMap      ゲームマップ
+   * @param camera       カメラ
+   * @param imageManager 画像取得用マネージャー
+   * @param panel        描画対象のパネル
+   */
+  public void paintTerrain(Graphics g, int x, int y, GameMap gameMap, Camera camera,
+      ImageManager imageManager, JPanel panel) {
+    MapCell cell = gameMap.getCell(x, y);
     String terrainName = cell.getTerrain().getDisplayName();
-    paint(g, pos, terrainName, camera, imageManager, panel, true);
+    paintAt(g, x, y, terrainName, camera, imageManager, panel);
   }
 
   /**
@@ -86,28 +105,67 @@ public class PaintGameObject {
    */
   public void paintBuilding(Graphics g, Point2D.Double pos, GameMap gameMap, Camera camera,
       ImageManager imageManager, AnimationManager animationManager, JPanel panel) {
-    MapCell cell = gameMap.getCell(pos);
-    if (cell.getBuilding() == null
-        || cell.getBuilding().getType().getTileImageName(cell.getLocalX(), cell.getLocalY()).equals("none")) {
+    paintBuilding(g, (int) Math.round(pos.x), (int) Math.round(pos.y), gameMap, camera,
+        imageManager, animationManager, panel);
+  }
+
+  /**
+   * 整数セル座標の建物を描画する
+   *
+   * @param g                グラフィックスコンテキスト
+   * @param x                セルX
+   * @param y                セルY
+   * @param gameMap          ゲームマップ
+   * @param camera           カメラ
+   * @param imageManager     画像取得用マネージャー
+   * @param animationManager アニメーション取得用マネージャー
+   * @param panel            描画対象のパネル
+   */
+  public void paintBuilding(Graphics g, int x, int y, GameMap gameMap, Camera camera,
+      ImageManager imageManager, AnimationManager animationManager, JPanel panel) {
+    MapCell cell = gameMap.getCell(x, y);
+    Building building = cell.getBuilding();
+    if (building == null) {
       return;
     }
-    Building building = cell.getBuilding();
-    String animationName = building.getType().getAnimationName(cell.getLocalX(), cell.getLocalY());
+    paintBuildingTile(g, x, y, building.getType(), cell.getLocalX(), cell.getLocalY(),
+        building.getAnimationElapsedSeconds(), camera, imageManager, animationManager, panel);
+  }
+
+  /**
+   * 建物種別とローカル座標を指定して整数セル座標の建物タイルを描画する
+   *
+   * @param g                グラフィックスコンテキスト
+   * @param x                セルX
+   * @param y                セルY
+   * @param type             建物種別
+   * @param localX           建物内のX座標
+   * @param localY           建物内のY座標
+   * @param animationSeconds 建物のアニメーション経過秒
+   * @param camera           カメラ
+   * @param imageManager     画像取得用マネージャー
+   * @param animationManager アニメーション取得用マネージャー
+   * @param panel            描画対象のパネル
+   */
+  public void paintBuildingTile(Graphics g, int x, int y, BuildingType type, int localX,
+      int localY, double animationSeconds, Camera camera, ImageManager imageManager,
+      AnimationManager animationManager, JPanel panel) {
+    String tileImageName = type.getTileImageName(localX, localY);
+    if (tileImageName == null || tileImageName.equals("none")) {
+      return;
+    }
+    String animationName = type.getAnimationName(localX, localY);
     if (animationManager != null && animationName != null) {
-      int frameIndex = building.getAnimationFrameIndex(cell.getLocalX(), cell.getLocalY());
-      boolean loop = building.getType().isAnimationLoop(cell.getLocalX(), cell.getLocalY());
+      int frameIndex = type.getAnimationFrameIndex(localX, localY, animationSeconds);
+      boolean loop = type.isAnimationLoop(localX, localY);
       BufferedImage frame = animationManager.getFrame(animationName, frameIndex, loop);
       if (frame != null) {
-        paintImage(g, pos, frame, camera, panel, true);
+        paintImageAt(g, x, y, frame, animationManager.getScaledRegion(frame, camera.getScale()),
+            camera, panel);
         return;
       }
     }
-
-    String tileImageName = building.getType().getTileImageName(cell.getLocalX(), cell.getLocalY());
-    if (tileImageName == null) {
-      return;
-    }
-    paint(g, pos, tileImageName, camera, imageManager, panel, true);
+    paintAt(g, x, y, tileImageName, camera, imageManager, panel);
   }
 
   /**
@@ -150,7 +208,31 @@ public class PaintGameObject {
     if (resident == null || resident.getType() == null) {
       return;
     }
-    String imageName = resident.getType().getImageName();
+    Point2D.Double pos = resident.getPosition();
+    paintResident(g, pos.x, pos.y, resident.getType(), resident.getState(), resident.isDamaged(),
+        resident.hasDebuff(DebuffType.PLAGUE), resident.getDeathAnimationProgress(), camera,
+        imageManager, panel);
+  }
+
+  /**
+   * 位置と見た目を指定して住民を描画する
+   *
+   * @param g             グラフィックスコンテキスト
+   * @param x             X座標
+   * @param y             Y座標
+   * @param type          住民の種別
+   * @param state         住民の状態
+   * @param damaged       ダメージを受けているか
+   * @param plague        疫病にかかっているか
+   * @param deathProgress 死亡演出の進捗
+   * @param camera        カメラ
+   * @param imageManager  画像取得用マネージャー
+   * @param panel         描画対象のパネル
+   */
+  public void paintResident(Graphics g, double x, double y, ResidentType type, ResidentState state,
+      boolean damaged, boolean plague, double deathProgress, Camera camera,
+      ImageManager imageManager, JPanel panel) {
+    String imageName = type.getImageName();
     if (imageName == null) {
       return;
     }
@@ -158,33 +240,35 @@ public class PaintGameObject {
     if (imageStorage == null || imageStorage.image == null) {
       return;
     }
-    Point2D.Double pos = resident.getPosition();
-    if (resident.getState() == ResidentState.DEAD) {
-      paintDeadResident((Graphics2D) g, pos, imageStorage, imageName, camera, panel,
-          resident.getDeathAnimationProgress());
+    if (state == ResidentState.DEAD) {
+      paintDeadResident((Graphics2D) g, new Point2D.Double(x, y), imageStorage, imageName, camera,
+          panel, deathProgress);
       return;
     }
 
     // ダメージ表現
-    if (resident.isDamaged()) {
+    if (damaged) {
       BufferedImage damagedImg = getDamagedTintedImage(imageName, imageStorage.image);
       if (damagedImg != null) {
-        paintImage(g, pos, damagedImg, camera, panel, false);
+        paintImageAt(g, x, y, damagedImg,
+            imageManager.getScaledRegion(damagedImg, camera.getScale()), camera, panel);
         return;
       }
     }
 
     // 疫病表現 (紫色)
-    if (resident.hasDebuff(DebuffType.PLAGUE)) {
+    if (plague) {
       BufferedImage plagueImg = getPlagueTintedImage(imageName, imageStorage.image);
       if (plagueImg != null) {
-        paintImage(g, pos, plagueImg, camera, panel, false);
+        paintImageAt(g, x, y, plagueImg,
+            imageManager.getScaledRegion(plagueImg, camera.getScale()), camera, panel);
         return;
       }
     }
 
     // Residents move with sub-tile positions, so don't snap to grid.
-    paintImage(g, pos, imageStorage.image, camera, panel, false);
+    paintImageAt(g, x, y, imageStorage.image,
+        imageManager.getScaledRegion(imageStorage.image, camera.getScale()), camera, panel);
   }
 
   /**
@@ -202,22 +286,50 @@ public class PaintGameObject {
     if (disaster == null || disaster.getType() == null) {
       return;
     }
-    String animationName = disaster.getAnimationName();
+    Point2D.Double pos = disaster.getPosition();
+    paintDisaster(g, pos.x, pos.y, disaster.getType(), disaster.getAnimationName(),
+        disaster.getAnimationFrameIndex(), disaster.isAnimationLoop(), camera, imageManager,
+        animationManager, panel);
+  }
+
+  /**
+   * 位置とアニメーションを指定して災害を描画する
+   *
+   * @param g                グラフィックスコンテキスト
+   * @param x                X座標
+   * @param y                Y座標
+   * @param type             災害種別
+   * @param animationName    アニメーション名。無ければnull
+   * @param frameIndex       アニメーションのフレーム番号
+   * @param loop             アニメーションがループするか
+   * @param camera           カメラ
+   * @param imageManager     画像取得用マネージャー
+   * @param animationManager アニメーション取得用マネージャー
+   * @param panel            描画対象のパネル
+   */
+  public void paintDisaster(Graphics g, double x, double y, DisasterType type, String animationName,
+      int frameIndex, boolean loop, Camera camera, ImageManager imageManager,
+      AnimationManager animationManager, JPanel panel) {
     if (animationManager != null && animationName != null) {
-      BufferedImage frame = animationManager.getFrame(animationName, disaster.getAnimationFrameIndex(),
-          disaster.isAnimationLoop());
+      BufferedImage frame = animationManager.getFrame(animationName, frameIndex, loop);
       if (frame != null) {
-        paintImage(g, disaster.getPosition(), frame, camera, panel, false);
+        paintImageAt(g, x, y, frame, animationManager.getScaledRegion(frame, camera.getScale()),
+            camera, panel);
         System.out.println("Painting disaster animation: " + animationName + " frame "
-            + disaster.getAnimationFrameIndex());
+            + frameIndex);
         return;
       }
     }
-    String imageName = disaster.getType().getImageName();
+    String imageName = type.getImageName();
     if (imageName == null) {
       return;
     }
-    paint(g, disaster.getPosition(), imageName, camera, imageManager, panel, false);
+    ImageStorage imageStorage = imageManager.getImageStorage(imageName);
+    if (imageStorage == null || imageStorage.image == null) {
+      return;
+    }
+    paintImageAt(g, x, y, imageStorage.image,
+        imageManager.getScaledRegion(imageStorage.image, camera.getScale()), camera, panel);
   }
 
   /**
@@ -239,28 +351,87 @@ public class PaintGameObject {
     if (imageStorage == null || imageStorage.image == null) {
       return;
     }
-    paintImage(g, pos, imageStorage.image, camera, panel, snapToGrid);
+    paintImage(g, pos, imageStorage.image, camera, imageManager, panel, snapToGrid);
   }
 
   private void paintImage(Graphics g, Point2D.Double pos, BufferedImage image, Camera camera,
-      JPanel panel, boolean snapToGrid) {
+      ImageManager imageManager, JPanel panel, boolean snapToGrid) {
+    AtlasRegion scaled = imageManager.getScaledRegion(image, camera.getScale());
+    if (snapToGrid) {
+      paintImageAt(g, Math.round(pos.x), Math.round(pos.y), image, scaled, camera, panel);
+    } else {
+      paintImageAt(g, pos.x, pos.y, image, scaled, camera, panel);
+    }
+  }
+
+  /**
+   * 整数セル座標に名前で指定した画像を描画する。
+   */
+  private void paintAt(Graphics g, int x, int y, String name, Camera camera,
+      ImageManager imageManager, JPanel panel) {
+    ImageStorage imageStorage = imageManager.getImageStorage(name);
+    if (imageStorage == null || imageStorage.image == null) {
+      return;
+    }
+    paintImageAt(g, x, y, imageStorage.image,
+        imageManager.getScaledRegion(imageStorage.image, camera.getScale()), camera, panel);
+  }
+
+  /**
+   * アイソメトリック座標に画像を描画する。
+   * 毎フレーム全タイルから呼ばれるため、座標オブジェクトを生成せずに計算する。
+   * 拡大縮小済みの矩形があればアトラスからそのまま転送し、無ければ元画像を拡大縮小して描く。
+   */
+  private void paintImageAt(Graphics g, double isoX, double isoY, BufferedImage image,
+      AtlasRegion scaled, Camera camera, JPanel panel) {
     if (image == null) {
       return;
     }
-    Graphics2D g2d = (Graphics2D) g;
-    Point2D.Double renderPos = pos;
-    if (snapToGrid) {
-      renderPos = new Point2D.Double(Math.round(pos.x), Math.round(pos.y));
+    int imageWidth = image.getWidth();
+    int imageHeight = image.getHeight();
+    if (imageWidth == 0 || imageHeight == 0) { // 0除算防止
+      System.err.println("Warning: Invalid image size for shift calculation.");
+      return;
     }
-    Point2D.Double screenPos = camera.isoToScreen(renderPos);
     double cameraScale = camera.getScale();
-    Point2D.Double imageSize = new Point2D.Double(image.getWidth(), image.getHeight());
-    Point2D.Double posShift = calculateShiftImage(imageSize, cameraScale);
-    int xPos = (int) Math.round(screenPos.x + posShift.x);
-    int yPos = (int) Math.round(screenPos.y + posShift.y);
-    int width = (int) (imageSize.x * cameraScale);
-    int height = (int) (imageSize.y * cameraScale);
-    g2d.drawImage(image, xPos, yPos, width, height, panel);
+    int xPos = imageLeft(camera.isoToScreenX(isoX, isoY), imageWidth, cameraScale);
+    int yPos = imageTop(camera.isoToScreenY(isoX, isoY), imageWidth, imageHeight, cameraScale);
+    if (scaled != null) {
+      scaled.draw(g, xPos, yPos, panel);
+      return;
+    }
+    int width = (int) (imageWidth * cameraScale);
+    int height = (int) (imageHeight * cameraScale);
+    g.drawImage(image, xPos, yPos, width, height, panel);
+  }
+
+  /**
+   * セルの基準点に置く画像の左端のスクリーンX座標を返す。
+   * {@link #calculateShiftImage}と同じシフト量を座標オブジェクトを生成せずに求める。
+   *
+   * @param screenX     セルの基準点のスクリーンX
+   * @param imageWidth  画像の元の幅
+   * @param cameraScale カメラのスケール
+   * @return 左端のスクリーンX
+   */
+  public static int imageLeft(double screenX, int imageWidth, double cameraScale) {
+    return (int) Math.round(screenX - imageWidth / 2.0 * cameraScale);
+  }
+
+  /**
+   * セルの基準点に置く画像の上端のスクリーンY座標を返す。
+   *
+   * @param screenY     セルの基準点のスクリーンY
+   * @param imageWidth  画像の元の幅
+   * @param imageHeight 画像の元の高さ
+   * @param cameraScale カメラのスケール
+   * @return 上端のスクリーンY
+   */
+  public static int imageTop(double screenY, int imageWidth, int imageHeight,
+      double cameraScale) {
+    double shiftY = -imageHeight / 2.0 * cameraScale
+        - ((double) imageHeight / imageWidth - 0.5) * cameraScale * imageWidth / 2;
+    return (int) Math.round(screenY + shiftY);
   }
 
   private void paintDeadResident(Graphics2D g2d, Point2D.Double pos, ImageStorage imageStorage,
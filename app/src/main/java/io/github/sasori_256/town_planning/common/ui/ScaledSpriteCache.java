@@ -0,0 +1,117 @@
+package io.github.sasori_256.town_planning.common.ui;
+
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 拡大率ごとに拡大縮小済みのスプライトを持つキャッシュ。
+ *
+ * <p>
+ * 拡大率はカメラのズームレベルから決まる有限個の値なので、拡大率ごとに元画像から
+ * {@link SpriteAtlas}上の拡大縮小済みの矩形を引く表を持つ。矩形は初めて描くときにその拡大率の
+ * アトラスへ追加するため、以降の描画は拡大縮小を伴わない転送になる。表は直近に使った拡大率から
+ * 一定数だけ残し、ズームで使わなくなった拡大率のものからアトラスごと捨てる。
+ * 等倍では読み込み時に作ったアトラスの矩形を{@link #putBase}で登録しておけばそれを返す。
+ * 描画はEDTからだけ行うこと。
+ * </p>
+ */
+public class ScaledSpriteCache {
+  private final int pageSize;
+  /** 読み込み時のアトラス上にある等倍の矩形。 */
+  private final Map<BufferedImage, AtlasRegion> baseRegions = new HashMap<>();
+  /** 拡大率ごとのアトラスと矩形の表。アクセス順に並べる。 */
+  private final Map<Double, Level> levels;
+
+  /**
+   * キャッシュを生成する。
+   *
+   * @param maxLevels 残す拡大率の数。0なら等倍の登録分のほかは拡大縮小済みの矩形を作らない
+   * @param pageSize  拡大率ごとのアトラスのページの一辺の長さ(ピクセル)
+   */
+  public ScaledSpriteCache(int maxLevels, int pageSize) {
+    this.pageSize = pageSize;
+    this.levels = maxLevels <= 0 ? null
+        : new LinkedHashMap<>(maxLevels + 1, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Double, Level> eldest) {
+            return size() > maxLevels;
+          }
+        };
+  }
+
+  /**
+   * 読み込み時のアトラスに置いた画像を等倍の矩形として登録する。
+   *
+   * @param image  元画像
+   * @param region アトラス上の矩形
+   */
+  public void putBase(BufferedImage image, AtlasRegion region) {
+    baseRegions.put(image, region);
+  }
+
+  /**
+   * 拡大縮小済みの矩形を返す。大きさは元画像の幅・高さに拡大率を掛けて切り捨てたもの。
+   *
+   * @param source 元画像
+   * @param scale  拡大率
+   * @return アトラス上の矩形。キャッシュが無効な場合や大きさが0になる場合はnull
+   */
+  public AtlasRegion get(BufferedImage source, double scale) {
+    if (source == null) {
+      return null;
+    }
+    if (scale == 1.0) {
+      AtlasRegion base = baseRegions.get(source);
+      if (base != null) {
+        return base;
+      }
+    }
+    if (levels == null) {
+      return null;
+    }
+    Level level = levels.computeIfAbsent(scale, k -> new Level(pageSize));
+    AtlasRegion region = level.regions.get(source);
+    if (region == null) {
+      int width = (int) (source.getWidth() * scale);
+      int height = (int) (source.getHeight() * scale);
+      if (width <= 0 || height <= 0) {
+        return null;
+      }
+      region = level.atlas.add(source, width, height);
+      level.regions.put(source, region);
+    }
+    return region;
+  }
+
+  /**
+   * 画面と同じ形式の透過画像を作る。画面が無い環境では通常の画像にする。
+   *
+   * @param width  幅
+   * @param height 高さ
+   * @return 画像
+   */
+  static BufferedImage createCompatibleImage(int width, int height) {
+    if (!GraphicsEnvironment.isHeadless()) {
+      return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+          .getDefaultConfiguration().createCompatibleImage(width, height,
+              Transparency.TRANSLUCENT);
+    }
+    return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+  }
+
+  /**
+   * 1つの拡大率のアトラスと、元画像からその上の矩形への表。
+   */
+  private static final class Level {
+    final SpriteAtlas atlas;
+    final Map<BufferedImage, AtlasRegion> regions = new HashMap<>();
+
+    Level(int pageSize) {
+      this.atlas = new SpriteAtlas(pageSize);
+    }
+  }
+}
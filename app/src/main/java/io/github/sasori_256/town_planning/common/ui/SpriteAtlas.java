@@ -0,0 +1,115 @@
+package io.github.sasori_256.town_planning.common.ui;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 複数のスプライトを少数の大きな画像(ページ)に詰めて持つアトラス。
+ *
+ * <p>
+ * ページは画面と同じ形式で作り、スプライトは左上から行(シェルフ)単位で並べる。
+ * 描画側は{@link AtlasRegion}を通してページの一部分を転送するため、
+ * 描くスプライトが変わっても転送元の画像はページの数しか増えない。
+ * ページに収まらない大きさのスプライトはそれだけで1ページにする。
+ * </p>
+ */
+public class SpriteAtlas {
+  private final int pageSize;
+  private final List<BufferedImage> pages = new ArrayList<>();
+  private BufferedImage currentPage = null;
+  private int shelfX;
+  private int shelfY;
+  private int shelfHeight;
+
+  /**
+   * アトラスを生成する。ページは最初のスプライトを追加したときに作る。
+   *
+   * @param pageSize ページの一辺の長さ(ピクセル)
+   */
+  public SpriteAtlas(int pageSize) {
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * スプライトを元の大きさで追加する。
+   *
+   * @param image 追加する画像
+   * @return ページ内の位置
+   */
+  public AtlasRegion add(BufferedImage image) {
+    return add(image, image.getWidth(), image.getHeight());
+  }
+
+  /**
+   * スプライトを指定の大きさに拡大縮小して追加する。
+   * 補間は画面に直接拡大縮小して描く場合と同じ既定のものを使う。
+   *
+   * @param image  追加する画像
+   * @param width  ページ上の幅
+   * @param height ページ上の高さ
+   * @return ページ内の位置
+   */
+  public AtlasRegion add(BufferedImage image, int width, int height) {
+    BufferedImage page;
+    int x;
+    int y;
+    if (width > pageSize || height > pageSize) {
+      page = ScaledSpriteCache.createCompatibleImage(width, height);
+      pages.add(page);
+      x = 0;
+      y = 0;
+    } else {
+      if (currentPage == null || shelfX + width > pageSize) {
+        // 今の行に入らなければ次の行へ
+        shelfX = 0;
+        shelfY += shelfHeight;
+        shelfHeight = 0;
+      }
+      if (currentPage == null || shelfY + height > pageSize) {
+        currentPage = ScaledSpriteCache.createCompatibleImage(pageSize, pageSize);
+        pages.add(currentPage);
+        shelfX = 0;
+        shelfY = 0;
+        shelfHeight = 0;
+      }
+      page = currentPage;
+      x = shelfX;
+      y = shelfY;
+      shelfX += width;
+      shelfHeight = Math.max(shelfHeight, height);
+    }
+    Graphics2D g2d = page.createGraphics();
+    try {
+      g2d.setComposite(AlphaComposite.Src);
+      g2d.drawImage(image, x, y, width, height, null);
+    } finally {
+      g2d.dispose();
+    }
+    return new AtlasRegion(page, x, y, width, height);
+  }
+
+  /**
+   * 作ったページの数を返す。
+   *
+   * @return ページ数
+   */
+  public int getPageCount() {
+    return pages.size();
+  }
+
+  /**
+   * 作ったページの画素数の合計を返す。
+   *
+   * @return 画素数
+   */
+  public long getPixelCount() {
+    long pixels = 0L;
+    for (BufferedImage page : pages) {
+      pixels += (long) page.getWidth() * page.getHeight();
+    }
+    return pixels;
+  }
+}
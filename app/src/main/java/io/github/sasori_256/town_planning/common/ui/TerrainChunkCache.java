@@ -0,0 +1,374 @@
+package io.github.sasori_256.town_planning.common.ui;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import io.github.sasori_256.town_planning.common.event.Subscription;
+import io.github.sasori_256.town_planning.common.event.events.MapUpdatedEvent;
+import io.github.sasori_256.town_planning.common.ui.ImageManager.ImageStorage;
+import io.github.sasori_256.town_planning.entity.Camera;
+import io.github.sasori_256.town_planning.entity.IsoViewRange;
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+import io.github.sasori_256.town_planning.map.model.BuildingLayer;
+import io.github.sasori_256.town_planning.map.model.CompactMapGrid;
+import io.github.sasori_256.town_planning.map.model.GameMap;
+
+/**
+ * 地形と床タイルをチャンク単位の画像に描き溜め、毎フレームはチャンク画像を貼るだけにするキャッシュ。
+ *
+ * <p>
+ * チャンクは一辺{@code chunkTiles}セルの正方形で、カメラの拡大率ごとに別の画像を持つ。
+ * 画像は見えたときに作り、合計の大きさが上限を超えたら長く使っていないものから捨てる。
+ * 建物の配置・撤去を知らせる{@link MapUpdatedEvent}を受け取ると、その範囲を含むチャンクだけを
+ * 捨てて描き直す。イベントはティックの途中で届くため、変化を含む建物配置の写しを描画側が
+ * 受け取るまで捨てるのを待ち、古い配置で描き直さないようにする。
+ * </p>
+ *
+ * <p>
+ * 建物のうちアクタとして描くタイルとアニメーションする床タイルは画像に含めず、
+ * {@link #paint}の呼び出し側に渡して毎フレーム描かせる。描画はEDTからだけ行うこと。
+ * </p>
+ */
+public class TerrainChunkCache {
+  private static final int BYTES_PER_PIXEL = 4;
+  /** 可視判定で見込む、画像がセルから上にはみ出す量(拡大率1のピクセル)。 */
+  private static final int MAX_SPRITE_OVERHANG = 200;
+
+  private final GameMap gameMap;
+  private final ImageManager imageManager;
+  private final int chunkTiles;
+  private final long maxBytes;
+  /** 作成済みのチャンク。アクセス順に並べ、先頭から捨てる。 */
+  private final Map<ChunkKey, Chunk> chunks = new LinkedHashMap<>(64, 0.75f, true);
+  /** 建物配置の写しが追いつくのを待っている描き直し範囲。 */
+  private final ConcurrentLinkedQueue<Invalidation> pending = new ConcurrentLinkedQueue<>();
+  private long cachedBytes;
+  private Subscription mapSub;
+
+  /**
+   * キャッシュを生成し、マップの更新の購読を始める。
+   *
+   * @param gameMap      マップ
+   * @param imageManager 画像管理
+   * @param chunkTiles   1チャンクの一辺のセル数
+   * @param maxMegabytes チャンク画像に使うメモリの上限(MB)
+   */
+  public TerrainChunkCache(GameMap gameMap, ImageManager imageManager, int chunkTiles,
+      int maxMegabytes) {
+    this.gameMap = gameMap;
+    this.imageManager = imageManager;
+    this.chunkTiles = chunkTiles;
+    this.maxBytes = (long) maxMegabytes * 1024 * 1024;
+    // 配置の変更はシミュレーションのスレッドで書き込みロック内に届くため、バージョンを直接読める
+    this.mapSub = gameMap.getEventBus().subscribe(MapUpdatedEvent.class, event -> {
+      if (event.area() != null) {
+        pending.add(new Invalidation(new Rectangle(event.area()), gameMap.getLayoutVersion()));
+      }
+    });
+  }
+
+  /**
+   * 購読を解除し、チャンク画像を捨てる。
+   */
+  public void dispose() {
+    if (mapSub != null) {
+      mapSub.unsubscribe();
+      mapSub = null;
+    }
+    chunks.clear();
+    cachedBytes = 0L;
+  }
+
+  /**
+   * 画面に入るチャンクを奥から順に貼る。
+   *
+   * @param g            描画に使用するGraphicsオブジェクト
+   * @param layer        描画する建物配置の写し
+   * @param camera       カメラ
+   * @param viewWidth    描画先の幅
+   * @param viewHeight   描画先の高さ
+   * @param dynamicCells 画像に含めず毎フレーム描くセルを受け取る処理
+   * @return 貼ったチャンク数
+   */
+  public int paint(Graphics g, BuildingLayer layer, Camera camera, int viewWidth,
+      int viewHeight, CellVisitor dynamicCells) {
+    applyInvalidations(layer.getVersion());
+
+    double originX = camera.isoToScreenX(0, 0);
+    double originY = camera.isoToScreenY(0, 0);
+    int baseX = (int) Math.floor(originX);
+    int baseY = (int) Math.floor(originY);
+    double fracX = originX - baseX;
+    double fracY = originY - baseY;
+    double scale = camera.getScale();
+    double halfWidth = camera.getCellWidth() / 2.0;
+    double halfHeight = camera.getCellHeight() / 2.0;
+
+    // 画面に入りうるセルを囲むチャンクだけをたどる
+    IsoViewRange range = camera.getVisibleRange(viewWidth, viewHeight, camera.getCellWidth(),
+        MAX_SPRITE_OVERHANG * scale);
+    if (range.isEmpty()) {
+      return 0;
+    }
+    int minCx = range.getMinCellX() / chunkTiles;
+    int maxCx = range.getMaxCellX() / chunkTiles;
+    int minCy = range.getMinCellY() / chunkTiles;
+    int maxCy = range.getMaxCellY() / chunkTiles;
+
+    int drawn = 0;
+    for (int cz = minCx + minCy; cz <= maxCx + maxCy; cz++) {
+      int cxStart = Math.max(minCx, cz - maxCy);
+      int cxEnd = Math.min(maxCx, cz - minCy);
+      for (int cx = cxStart; cx <= cxEnd; cx++) {
+        int cy = cz - cx;
+        // 毎フレーム描くセルの背の高い画像も拾えるよう、はみ出しを見込んだ範囲で判定する
+        if (!isVisible(cx, cy, baseX, baseY, halfWidth, halfHeight, scale, viewWidth,
+            viewHeight)) {
+          continue;
+        }
+        ChunkKey key = new ChunkKey(scale, fracX, fracY, cx, cy);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+          chunk = render(layer, cx, cy, fracX, fracY, halfWidth, halfHeight, scale);
+          store(key, chunk);
+        }
+        if (chunk.image != null && baseX + chunk.left < viewWidth && baseX + chunk.right > 0
+            && baseY + chunk.top < viewHeight && baseY + chunk.bottom > 0) {
+          g.drawImage(chunk.image, baseX + chunk.left, baseY + chunk.top, null);
+          drawn++;
+        }
+        for (int cell : chunk.dynamicCells) {
+          dynamicCells.visit(cell & 0xFFFF, cell >>> 16);
+        }
+      }
+    }
+    return drawn;
+  }
+
+  /**
+   * 写しが追いついた描き直し範囲を含むチャンクを捨てる。
+   */
+  private void applyInvalidations(int layerVersion) {
+    Invalidation invalidation;
+    while ((invalidation = pending.peek()) != null && invalidation.version() <= layerVersion) {
+      pending.poll();
+      Rectangle area = invalidation.area();
+      int minCx = Math.floorDiv(area.x, chunkTiles);
+      int maxCx = Math.floorDiv(area.x + area.width - 1, chunkTiles);
+      int minCy = Math.floorDiv(area.y, chunkTiles);
+      int maxCy = Math.floorDiv(area.y + area.height - 1, chunkTiles);
+      Iterator<Map.Entry<ChunkKey, Chunk>> it = chunks.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<ChunkKey, Chunk> entry = it.next();
+        ChunkKey key = entry.getKey();
+        if (key.cx() >= minCx && key.cx() <= maxCx && key.cy() >= minCy && key.cy() <= maxCy) {
+          cachedBytes -= entry.getValue().bytes;
+          it.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * チャンクを登録し、上限を超えた分を古いものから捨てる。
+   */
+  private void store(ChunkKey key, Chunk chunk) {
+    chunks.put(key, chunk);
+    cachedBytes += chunk.bytes;
+    Iterator<Chunk> it = chunks.values().iterator();
+    while (cachedBytes > maxBytes && chunks.size() > 1 && it.hasNext()) {
+      Chunk eldest = it.next();
+      if (eldest == chunk) {
+        break;
+      }
+      cachedBytes -= eldest.bytes;
+      it.remove();
+    }
+  }
+
+  /**
+   * チャンクのセルの画像が画面に入りうるかをセルの範囲から判定する。
+   */
+  private boolean isVisible(int cx, int cy, int baseX, int baseY, double halfWidth,
+      double halfHeight, double scale, int viewWidth, int viewHeight) {
+    int x0 = cx * chunkTiles;
+    int y0 = cy * chunkTiles;
+    int x1 = Math.min(x0 + chunkTiles, gameMap.getWidth()) - 1;
+    int y1 = Math.min(y0 + chunkTiles, gameMap.getHeight()) - 1;
+    double left = baseX + (x0 - y1 - 1) * halfWidth;
+    double right = baseX + (x1 - y0 + 1) * halfWidth;
+    double top = baseY + (x0 + y0 - 1) * halfHeight - MAX_SPRITE_OVERHANG * scale;
+    double bottom = baseY + (x1 + y1 + 1) * halfHeight;
+    return left < viewWidth && right > 0 && top < viewHeight && bottom > 0;
+  }
+
+  /**
+   * チャンクの地形と床タイルを奥から順に1枚の画像に描く。
+   */
+  private Chunk render(BuildingLayer layer, int cx, int cy, double fracX, double fracY,
+      double halfWidth, double halfHeight, double scale) {
+    int x0 = cx * chunkTiles;
+    int y0 = cy * chunkTiles;
+    int x1 = Math.min(x0 + chunkTiles, gameMap.getWidth()) - 1;
+    int y1 = Math.min(y0 + chunkTiles, gameMap.getHeight()) - 1;
+
+    List<BufferedImage> images = new ArrayList<>();
+    List<int[]> rects = new ArrayList<>();
+    List<Integer> dynamic = new ArrayList<>();
+    int left = Integer.MAX_VALUE;
+    int top = Integer.MAX_VALUE;
+    int right = Integer.MIN_VALUE;
+    int bottom = Integer.MIN_VALUE;
+    for (int z = x0 + y0; z <= x1 + y1; z++) {
+      int xStart = Math.max(x0, z - y1);
+      int xEnd = Math.min(x1, z - y0);
+      for (int x = xStart; x <= xEnd; x++) {
+        int y = z - x;
+        double screenX = (x - y) * halfWidth + fracX;
+        double screenY = (x + y) * halfHeight + fracY;
+        for (BufferedImage image : cellImages(layer, x, y, dynamic)) {
+          int imageWidth = image.getWidth();
+          int imageHeight = image.getHeight();
+          if (imageWidth == 0 || imageHeight == 0) {
+            continue;
+          }
+          int[] rect = {
+              PaintGameObject.imageLeft(screenX, imageWidth, scale),
+              PaintGameObject.imageTop(screenY, imageWidth, imageHeight, scale),
+              (int) (imageWidth * scale),
+              (int) (imageHeight * scale)
+          };
+          if (rect[2] <= 0 || rect[3] <= 0) {
+            continue;
+          }
+          images.add(image);
+          rects.add(rect);
+          left = Math.min(left, rect[0]);
+          top = Math.min(top, rect[1]);
+          right = Math.max(right, rect[0] + rect[2]);
+          bottom = Math.max(bottom, rect[1] + rect[3]);
+        }
+      }
+    }
+
+    int[] dynamicCells = new int[dynamic.size()];
+    for (int i = 0; i < dynamicCells.length; i++) {
+      dynamicCells[i] = dynamic.get(i);
+    }
+    if (images.isEmpty()) {
+      return new Chunk(null, 0, 0, 0, 0, dynamicCells);
+    }
+    BufferedImage chunkImage = ScaledSpriteCache.createCompatibleImage(right - left, bottom - top);
+    Graphics2D g2d = chunkImage.createGraphics();
+    try {
+      for (int i = 0; i < images.size(); i++) {
+        int[] rect = rects.get(i);
+        AtlasRegion scaled = imageManager.getScaledRegion(images.get(i), scale);
+        if (scaled != null) {
+          scaled.draw(g2d, rect[0] - left, rect[1] - top, null);
+        } else {
+          g2d.drawImage(images.get(i), rect[0] - left, rect[1] - top, rect[2], rect[3], null);
+        }
+      }
+    } finally {
+      g2d.dispose();
+    }
+    return new Chunk(chunkImage, left, top, right, bottom, dynamicCells);
+  }
+
+  /**
+   * セルに描き溜める画像を奥から順に返し、毎フレーム描くセルは{@code dynamic}に積む。
+   */
+  private List<BufferedImage> cellImages(BuildingLayer layer, int x, int y,
+      List<Integer> dynamic) {
+    List<BufferedImage> result = new ArrayList<>(2);
+    addImage(result, gameMap.getCell(x, y).getTerrain().getDisplayName());
+    int buildingId = layer.getBuildingId(x, y);
+    if (buildingId == CompactMapGrid.NO_BUILDING) {
+      return result;
+    }
+    BuildingType type = layer.getType(buildingId);
+    int localX = layer.getLocalX(x, y);
+    int localY = layer.getLocalY(x, y);
+    if (type.getDrawGroup(localX, localY) != BuildingType.DrawGroup.FLOOR
+        || type.getAnimationName(localX, localY) != null) {
+      dynamic.add((y << 16) | x);
+      return result;
+    }
+    String tileImageName = type.getTileImageName(localX, localY);
+    if (tileImageName != null && !tileImageName.equals("none")) {
+      addImage(result, tileImageName);
+    }
+    return result;
+  }
+
+  private void addImage(List<BufferedImage> images, String name) {
+    ImageStorage storage = imageManager.getImageStorage(name);
+    if (storage != null && storage.image != null) {
+      images.add(storage.image);
+    }
+  }
+
+  /**
+   * 画像に含めず毎フレーム描くセルを受け取る処理。
+   */
+  @FunctionalInterface
+  public interface CellVisitor {
+    /**
+     * セルを受け取る。
+     *
+     * @param x セルX
+     * @param y セルY
+     */
+    void visit(int x, int y);
+  }
+
+  /**
+   * チャンクの識別子。拡大率と原点の端数が変わると描画位置が変わるため別のチャンクとして扱う。
+   */
+  private record ChunkKey(double scale, double fracX, double fracY, int cx, int cy) {
+  }
+
+  /**
+   * 描き直しを待っている範囲。
+   *
+   * @param area    変化したセル範囲
+   * @param version 変化を含む建物配置のバージョン
+   */
+  private record Invalidation(Rectangle area, int version) {
+  }
+
+  /**
+   * 描き溜めたチャンク。座標はアイソ原点のスクリーン座標(の整数部)からの相対値。
+   */
+  private static final class Chunk {
+    private final BufferedImage image;
+    private final int left;
+    private final int top;
+    private final int right;
+    private final int bottom;
+    /** 毎フレーム描くセル。上位16bitがY、下位16bitがX。 */
+    private final int[] dynamicCells;
+    private final long bytes;
+
+    private Chunk(BufferedImage image, int left, int top, int right, int bottom,
+        int[] dynamicCells) {
+      this.image = image;
+      this.left = left;
+      this.top = top;
+      this.right = right;
+      this.bottom = bottom;
+      this.dynamicCells = dynamicCells;
+      this.bytes = (long) (right - left) * (bottom - top) * BYTES_PER_PIXEL
+          + (long) dynamicCells.length * Integer.BYTES;
+    }
+  }
+}
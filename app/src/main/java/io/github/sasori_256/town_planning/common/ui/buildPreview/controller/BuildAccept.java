@@ -2,6 +2,7 @@ package io.github.sasori_256.town_planning.common.ui.buildPreview.controller;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.geom.Point2D;
 
 import io.github.sasori_256.town_planning.common.event.EventBus;
 import io.github.sasori_256.town_planning.common.event.events.CancelBuildEvent;
@@ -9,6 +10,7 @@ import io.github.sasori_256.town_planning.common.event.events.EntitySpawnFailedE
 import io.github.sasori_256.town_planning.common.event.events.EntitySpawnFailureReason;
 import io.github.sasori_256.town_planning.common.event.events.EntitySpawnKind;
 import io.github.sasori_256.town_planning.entity.building.Building;
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameModel;
 import io.github.sasori_256.town_planning.map.model.BuildingPreview;
@@ -27,14 +29,17 @@ public class BuildAccept implements ActionListener {
   public void actionPerformed(ActionEvent e) {
     // System.out.println("Placing building at: " + isoPoint);
 
-    BaseGameEntity entity = buildingPreview.getEntityGenerator().apply(buildingPreview.getBuildingPreviewPos());
+    Point2D.Double pos = buildingPreview.getBuildingPreviewPos();
+    BaseGameEntity entity = buildingPreview.getEntityGenerator().apply(pos);
     if (entity instanceof Building building) {
-      gameModel.constructBuilding(buildingPreview.getBuildingPreviewPos(), building.getType());
+      // ティックを待たずに戻れるよう、建設は次のティックの先頭で適用する
+      BuildingType type = building.getType();
+      gameModel.submit(() -> gameModel.constructBuilding(pos, type));
     } else {
       eventBus.publish(new EntitySpawnFailedEvent(
           EntitySpawnKind.BUILDING,
           EntitySpawnFailureReason.INVALID_ENTITY,
-          buildingPreview.getBuildingPreviewPos(),
+          pos,
           "generated=" + (entity == null ? "null" : entity.getClass().getSimpleName())));
     }
     eventBus.publish(new CancelBuildEvent());
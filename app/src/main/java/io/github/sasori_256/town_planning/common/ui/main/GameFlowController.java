@@ -99,7 +99,7 @@ public class GameFlowController implements GameFlowNavigator {
     currentSession.getView().requestFocusInWindow();
     attachSessionSubscriptions(currentSession);
     updateCameraToWindow();
-    currentSession.start(window::repaint);
+    currentSession.start(window::paintNow);
   }
 
   /** {@inheritDoc} */
@@ -2,12 +2,16 @@ package io.github.sasori_256.town_planning.common.ui.main;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
-import java.util.concurrent.locks.ReadWriteLock;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import javax.swing.AbstractAction;
 import javax.swing.JComponent;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
 
+import io.github.sasori_256.town_planning.common.core.GameConfig;
 import io.github.sasori_256.town_planning.common.event.EventBus;
 import io.github.sasori_256.town_planning.common.event.Subscription;
 import io.github.sasori_256.town_planning.common.event.events.MapUpdatedEvent;
@@ -18,6 +22,9 @@ import io.github.sasori_256.town_planning.common.ui.gameObjectSelect.controller.
 import io.github.sasori_256.town_planning.common.ui.main.scene.GameMapPanel;
 import io.github.sasori_256.town_planning.entity.Camera;
 import io.github.sasori_256.town_planning.entity.model.GameModel;
+import io.github.sasori_256.town_planning.entity.model.manager.PopulationSnapshot;
+import io.github.sasori_256.town_planning.entity.model.replay.CommandLogHeader;
+import io.github.sasori_256.town_planning.entity.model.replay.CommandLogWriter;
 import io.github.sasori_256.town_planning.map.controller.GameMapController;
 import io.github.sasori_256.town_planning.map.model.GameMap;
 
@@ -26,7 +33,6 @@ public class GameSession {
   private final GameModel gameModel;
   private final GameMap gameMap;
   private final Camera camera;
-  private final ReadWriteLock stateLock;
   private final GameMapController gameMapController;
   private final GameMapPanel gameMapPanel;
   private final GameFlowNavigator navigator;
@@ -52,16 +58,17 @@ public class GameSession {
       long seed,
       ImageManager imageManager,
       GameFlowNavigator navigator) {
-    this.gameModel = new GameModel(mapWidth, mapHeight, seed);
+    this.gameModel = new GameModel(mapWidth, mapHeight, seed, eventBus);
+    if (GameConfig.isCommandLogEnabled()) {
+      startCommandLog(mapWidth, mapHeight, seed);
+    }
     this.gameMap = gameModel.getGameMap();
-    this.stateLock = gameModel.getStateLock();
     this.camera = new Camera(1, windowWidth, windowHeight, mapWidth, mapHeight);
-    this.gameMapController = new GameMapController(camera, stateLock);
+    this.gameMapController = new GameMapController(camera, gameModel);
     this.navigator = navigator;
 
     CategoryNode root = NodeMenuInitializer.setup(this.gameMapController, this.gameModel);
-    this.gameMapPanel = new GameMapPanel(this.gameMap, this.gameModel, this.camera, root, this.stateLock,
-        imageManager);
+    this.gameMapPanel = new GameMapPanel(this.gameMap, this.gameModel, this.camera, root, imageManager);
     this.gameMapPanel.addMouseListener(this.gameMapController);
     this.gameMapPanel.addMouseMotionListener(this.gameMapController);
     this.gameMapPanel.addMouseWheelListener(this.gameMapController);
@@ -79,6 +86,23 @@ public class GameSession {
     });
   }
 
+  /**
+   * 外部からの操作の記録を開始する。失敗した場合は記録せずにゲームを続ける。
+   */
+  private void startCommandLog(int mapWidth, int mapHeight, long seed) {
+    String name = "session-"
+        + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+        + "-" + seed + ".tplog";
+    Path path = Path.of(GameConfig.getCommandLogDirectory(), name);
+    try {
+      gameModel.setCommandLog(CommandLogWriter.create(path, new CommandLogHeader(seed, mapWidth,
+          mapHeight, GameConfig.getGameLoopTimeStepSeconds())));
+    } catch (IOException e) {
+      System.err.println("Failed to start command log: " + path);
+      e.printStackTrace();
+    }
+  }
+
   /**
    * ゲーム画面のコンポーネントを返す。
    */
@@ -126,21 +150,24 @@ public class GameSession {
   public void dispose() {
     stop();
     buildPreviewEventHandler.dispose();
+    gameMapPanel.dispose();
     if (mapSub != null) {
       mapSub.unsubscribe();
       mapSub = null;
     }
+    gameModel.dispose();
   }
 
   /**
    * 結果画面向けのスナップショットを取得する。
    */
   public GameResult snapshot() {
+    PopulationSnapshot population = gameModel.getPopulationSnapshot();
     return new GameResult(
         gameModel.getDay(),
         gameModel.getSoul(),
-        gameModel.getPopulationMax(),
-        gameModel.getPopulationTotalDeaths());
+        population.max(),
+        population.totalDeaths());
   }
 
   /**
@@ -151,6 +178,14 @@ public class GameSession {
   }
 
   private void setupNavigationBindings() {
+    gameMapPanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+        .put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleTickMetrics");
+    gameMapPanel.getActionMap().put("toggleTickMetrics", new AbstractAction() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        gameMapPanel.toggleTickMetrics();
+      }
+    });
     if (navigator == null) {
       return;
     }
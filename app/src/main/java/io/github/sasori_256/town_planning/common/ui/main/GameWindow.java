@@ -11,6 +11,7 @@ import java.util.Map;
 import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
+import javax.swing.JRootPane;
 
 import io.github.sasori_256.town_planning.common.ui.ToastManager;
 
@@ -87,6 +88,15 @@ public class GameWindow extends JFrame {
     toastManager.show(message, type);
   }
 
+  /**
+   * ウィンドウ全体をその場で描き直す。EDTから呼ぶこと。
+   * {@link #repaint()}と違い描き終えてから戻るため、描画ループは次の要求を描画の完了まで待てる。
+   */
+  public void paintNow() {
+    JRootPane root = getRootPane();
+    root.paintImmediately(0, 0, root.getWidth(), root.getHeight());
+  }
+
   /**
    * 現在のシーン領域サイズを返す。
    */
@@ -0,0 +1,214 @@
+package io.github.sasori_256.town_planning.common.ui.main.scene;
+
+import java.util.Arrays;
+
+/**
+ * アクタ系タイル・住民・災害を奥から手前の順に並べる描画リスト。
+ *
+ * <p>
+ * 毎フレーム使い回すため、要素は配列に持ちオブジェクトを生成しない。並べ替えは深さ(x + y)の
+ * 整数部ごとのバケットに振り分けてから、各バケットの中を挿入ソートで並べる。順序は深さ、y、x、
+ * 種類({@link #BUILDING_TILE}、{@link #RESIDENT}、{@link #DISASTER}の順)の昇順で、
+ * すべて等しい要素は追加した順を保つ。EDTからだけ使うこと。
+ * </p>
+ */
+final class DepthDrawList {
+  /** 建物のアクタ系タイル。 */
+  static final int BUILDING_TILE = 0;
+  /** 住民。 */
+  static final int RESIDENT = 1;
+  /** 災害。 */
+  static final int DISASTER = 2;
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private double[] xs = new double[INITIAL_CAPACITY];
+  private double[] ys = new double[INITIAL_CAPACITY];
+  private double[] depths = new double[INITIAL_CAPACITY];
+  private int[] kinds = new int[INITIAL_CAPACITY];
+  private int[] indices = new int[INITIAL_CAPACITY];
+  /** 並べ替え後のi番目の要素の添字。 */
+  private int[] order = new int[INITIAL_CAPACITY];
+  private int[] bucketStarts = new int[INITIAL_CAPACITY];
+  private int size;
+  private int minBucket;
+  private int maxBucket;
+
+  /**
+   * 要素をすべて取り除く。配列はそのまま使い回す。
+   */
+  void clear() {
+    size = 0;
+  }
+
+  /**
+   * 建物のアクタ系タイルを追加する。
+   *
+   * @param x セルX
+   * @param y セルY
+   */
+  void addBuildingTile(int x, int y) {
+    add(BUILDING_TILE, x, y, -1);
+  }
+
+  /**
+   * 住民を追加する。
+   *
+   * @param index 写しの中での住民の添字
+   * @param x     描画するX座標
+   * @param y     描画するY座標
+   */
+  void addResident(int index, double x, double y) {
+    add(RESIDENT, x, y, index);
+  }
+
+  /**
+   * 災害を追加する。
+   *
+   * @param index 写しの中での災害の添字
+   * @param x     描画するX座標
+   * @param y     描画するY座標
+   */
+  void addDisaster(int index, double x, double y) {
+    add(DISASTER, x, y, index);
+  }
+
+  private void add(int kind, double x, double y, int index) {
+    if (size == xs.length) {
+      int capacity = size * 2;
+      xs = Arrays.copyOf(xs, capacity);
+      ys = Arrays.copyOf(ys, capacity);
+      depths = Arrays.copyOf(depths, capacity);
+      kinds = Arrays.copyOf(kinds, capacity);
+      indices = Arrays.copyOf(indices, capacity);
+      order = new int[capacity];
+    }
+    double depth = x + y;
+    int bucket = (int) Math.floor(depth);
+    if (size == 0) {
+      minBucket = bucket;
+      maxBucket = bucket;
+    } else {
+      minBucket = Math.min(minBucket, bucket);
+      maxBucket = Math.max(maxBucket, bucket);
+    }
+    xs[size] = x;
+    ys[size] = y;
+    depths[size] = depth;
+    kinds[size] = kind;
+    indices[size] = index;
+    size++;
+  }
+
+  /**
+   * 要素を奥から手前の順に並べる。以降{@link #kindAt}などは並べ替え後の順で返す。
+   */
+  void sort() {
+    if (size == 0) {
+      return;
+    }
+    int buckets = maxBucket - minBucket + 1;
+    if (bucketStarts.length < buckets + 1) {
+      bucketStarts = new int[Math.max(buckets + 1, bucketStarts.length * 2)];
+    }
+    Arrays.fill(bucketStarts, 0, buckets + 1, 0);
+    for (int i = 0; i < size; i++) {
+      bucketStarts[bucketOf(i) + 1]++;
+    }
+    for (int b = 0; b < buckets; b++) {
+      bucketStarts[b + 1] += bucketStarts[b];
+    }
+    // 追加した順に振り分けるため、同じバケットの中では元の順が保たれる
+    for (int i = 0; i < size; i++) {
+      order[bucketStarts[bucketOf(i)]++] = i;
+    }
+    // 振り分けで各バケットの開始位置は次のバケットの開始位置まで進んでいる
+    int start = 0;
+    for (int b = 0; b < buckets; b++) {
+      int end = bucketStarts[b];
+      insertionSort(start, end);
+      start = end;
+    }
+  }
+
+  private int bucketOf(int i) {
+    return (int) Math.floor(depths[i]) - minBucket;
+  }
+
+  private void insertionSort(int from, int to) {
+    for (int i = from + 1; i < to; i++) {
+      int item = order[i];
+      int j = i - 1;
+      while (j >= from && compare(order[j], item) > 0) {
+        order[j + 1] = order[j];
+        j--;
+      }
+      order[j + 1] = item;
+    }
+  }
+
+  private int compare(int a, int b) {
+    int result = Double.compare(depths[a], depths[b]);
+    if (result != 0) {
+      return result;
+    }
+    result = Double.compare(ys[a], ys[b]);
+    if (result != 0) {
+      return result;
+    }
+    result = Double.compare(xs[a], xs[b]);
+    if (result != 0) {
+      return result;
+    }
+    return Integer.compare(kinds[a], kinds[b]);
+  }
+
+  /**
+   * 要素数を返す。
+   *
+   * @return 要素数
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * 並べ替え後のi番目の要素の種類を返す。
+   *
+   * @param i 並べ替え後の位置
+   * @return {@link #BUILDING_TILE}、{@link #RESIDENT}、{@link #DISASTER}のいずれか
+   */
+  int kindAt(int i) {
+    return kinds[order[i]];
+  }
+
+  /**
+   * 並べ替え後のi番目の要素のX座標を返す。
+   *
+   * @param i 並べ替え後の位置
+   * @return X座標
+   */
+  double xAt(int i) {
+    return xs[order[i]];
+  }
+
+  /**
+   * 並べ替え後のi番目の要素のY座標を返す。
+   *
+   * @param i 並べ替え後の位置
+   * @return Y座標
+   */
+  double yAt(int i) {
+    return ys[order[i]];
+  }
+
+  /**
+   * 並べ替え後のi番目の要素の、写しの中での住民・災害の添字を返す。
+   *
+   * @param i 並べ替え後の位置
+   * @return 添字。建物タイルでは-1
+   */
+  int indexAt(int i) {
+    return indices[order[i]];
+  }
+}
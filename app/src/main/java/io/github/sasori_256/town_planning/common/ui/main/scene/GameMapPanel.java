@@ -2,36 +2,46 @@ package io.github.sasori_256.town_planning.common.ui.main.scene;
 
 import java.awt.Color;
 import java.awt.Graphics;
-import java.awt.geom.Point2D;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.Locale;
 
 import javax.swing.JPanel;
+import io.github.sasori_256.town_planning.common.core.GameConfig;
+import io.github.sasori_256.town_planning.common.core.RenderMode;
+import io.github.sasori_256.town_planning.common.jfr.JfrPaintEvent;
 import io.github.sasori_256.town_planning.common.ui.AnimationManager;
 import io.github.sasori_256.town_planning.common.ui.ImageManager;
 import io.github.sasori_256.town_planning.common.ui.PaintGameObject;
+import io.github.sasori_256.town_planning.common.ui.TerrainChunkCache;
 import io.github.sasori_256.town_planning.common.ui.buildPreview.view.BuildPreviewUI;
 import io.github.sasori_256.town_planning.common.ui.gameObjectSelect.controller.CategoryNode;
 import io.github.sasori_256.town_planning.common.ui.gameObjectSelect.view.PaintObjectSelectUI;
 import io.github.sasori_256.town_planning.common.ui.main.GameFlowNavigator;
 import io.github.sasori_256.town_planning.common.ui.main.UiRefreshable;
+import io.github.sasori_256.town_planning.common.ui.metrics.model.FrameRateMeter;
+import io.github.sasori_256.town_planning.common.ui.metrics.view.PaintTickMetricsUI;
 import io.github.sasori_256.town_planning.common.ui.resourceViewer.view.PaintResourceViewerUI;
 import io.github.sasori_256.town_planning.entity.Camera;
+import io.github.sasori_256.town_planning.entity.IsoViewRange;
 import io.github.sasori_256.town_planning.entity.building.BuildingType;
-import io.github.sasori_256.town_planning.entity.disaster.Disaster;
 import io.github.sasori_256.town_planning.entity.model.GameModel;
-import io.github.sasori_256.town_planning.entity.resident.Resident;
-import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+import io.github.sasori_256.town_planning.entity.model.render.RenderFrames;
+import io.github.sasori_256.town_planning.entity.model.render.RenderSnapshot;
+import io.github.sasori_256.town_planning.map.model.BuildingLayer;
+import io.github.sasori_256.town_planning.map.model.CompactMapGrid;
 import io.github.sasori_256.town_planning.map.model.GameMap;
-import io.github.sasori_256.town_planning.map.model.MapCell;
 
 /**
  * gameMapの内容を描画するクラス
  */
 public class GameMapPanel extends JPanel implements UiRefreshable {
+  /** 画面外でも描くセルの基準点の余白(拡大率1のピクセル)。 */
+  private static final int VIEW_MARGIN = 32;
+  /** 画面の下側に追加で取る余白(拡大率1のピクセル)。背の高い画像が下から入るため。 */
+  private static final int VIEW_BOTTOM_MARGIN = 160;
+  /** 補間する1ティックあたりの最大移動量(タイル)。 */
+  private static final double MAX_INTERPOLATION_TILES = 2.0;
   private final GameMap gameMap;
   private final GameModel gameModel;
   private final Camera camera;
@@ -41,7 +51,18 @@ public class GameMapPanel extends JPanel implements UiRefreshable {
   private final PaintGameObject paintGameObject;
   private final PaintObjectSelectUI paintObjectSelectUI;
   private final BuildPreviewUI buildPreviewUI;
-  private final ReadWriteLock stateLock;
+  private final PaintTickMetricsUI tickMetricsUI;
+  private final FrameRateMeter frameRateMeter;
+  /** 地形と床タイルの描き溜め。無効にした場合はnull。 */
+  private final TerrainChunkCache terrainCache;
+  /** 奥から順に描くアクタ系タイル・住民・災害。毎フレーム使い回す。 */
+  private final DepthDrawList drawList = new DepthDrawList();
+  /** 描き溜めに含めないセルを{@link #drawList}に積む処理。毎フレーム生成しないよう保持する。 */
+  private final TerrainChunkCache.CellVisitor dynamicCellCollector = (x, y) -> {
+    if (isInsideCameraView(x, y)) {
+      drawList.addBuildingTile(x, y);
+    }
+  };
 
   /**
    * マップ描画パネルを生成する。
@@ -50,14 +71,13 @@ public class GameMapPanel extends JPanel implements UiRefreshable {
    * @param gameModel ゲームモデル
    * @param camera    カメラ
    * @param root      ルートカテゴリ
-   * @param stateLock 状態ロック
+   * @param imageManager 画像管理
    */
   public GameMapPanel(
       GameMap gameMap,
       GameModel gameModel,
       Camera camera,
       CategoryNode root,
-      ReadWriteLock stateLock,
       ImageManager imageManager) {
     this.gameMap = gameMap;
     this.gameModel = gameModel;
@@ -65,8 +85,11 @@ public class GameMapPanel extends JPanel implements UiRefreshable {
     this.root = root;
     this.imageManager = imageManager;
     this.animationManager = new AnimationManager();
+    this.terrainCache = GameConfig.isTerrainCacheEnabled()
+        ? new TerrainChunkCache(gameMap, imageManager, GameConfig.getTerrainCacheChunkTiles(),
+            GameConfig.getTerrainCacheMaxMegabytes())
+        : null;
     this.paintGameObject = new PaintGameObject();
-    this.stateLock = stateLock;
     this.setLayout(null);
     setBackground(new Color(19, 175, 251)); // 海の色
     this.buildPreviewUI = new BuildPreviewUI(imageManager, camera, gameModel);
@@ -74,6 +97,19 @@ public class GameMapPanel extends JPanel implements UiRefreshable {
     this.add(new PaintResourceViewerUI(gameModel, imageManager, 1.0));
     buildPreviewUI.setVisible(false);
     this.add(buildPreviewUI);
+    RenderMode renderMode = GameConfig.getRenderMode();
+    this.frameRateMeter = new FrameRateMeter(renderMode.name().toLowerCase(Locale.ROOT),
+        renderMode == RenderMode.UNCAPPED ? GameConfig.getRenderFpsLogIntervalSeconds() : 0.0);
+    this.tickMetricsUI = new PaintTickMetricsUI(gameModel, frameRateMeter,
+        GameConfig.getTickMetricsWarnRatio());
+    tickMetricsUI.setVisible(GameConfig.isTickMetricsOverlayVisible());
+    this.add(tickMetricsUI);
+    this.addComponentListener(new ComponentAdapter() {
+      @Override
+      public void componentResized(ComponentEvent e) {
+        tickMetricsUI.layoutIn(getWidth(), getHeight());
+      }
+    });
 
     paintObjectSelectUI.paint();
     revalidate();
@@ -93,103 +129,207 @@ public class GameMapPanel extends JPanel implements UiRefreshable {
   public void paintComponent(Graphics g) {
 
     super.paintComponent(g);
-    Lock readLock = stateLock.readLock();
-    readLock.lock();
-    try {
-      int maxZ = gameMap.getWidth() + gameMap.getHeight();
+    JfrPaintEvent event = new JfrPaintEvent();
+    event.begin();
+    RenderFrames frames = gameModel.getRenderFrames();
+    RenderSnapshot current = frames.current();
+    long now = System.nanoTime();
+    event.snapshotAge = now - current.getPublishedNanos();
+    // 更新しきれずに残った時間の分だけ、直前のティックから最新のティックへ進めて描く
+    double alpha = gameModel.getInterpolationAlpha();
+    event.interpolation = alpha;
+    frameRateMeter.recordFrame(now);
+    PaintStats stats = paintScene(g, frames.previous(), current, alpha);
+    event.tilesDrawn = stats.tilesDrawn();
+    event.chunksDrawn = stats.chunksDrawn();
+    event.actorsSorted = stats.actorsSorted();
+    event.commit();
+  }
 
-      // 地形と床系タイルを描画し、アクタ系タイルを収集
-      List<DrawEntry> actors = new ArrayList<>();
-      for (int z = 0; z < maxZ; z++) {
-        for (int x = 0; x <= z; x++) {
-          int y = z - x;
-          if (x < gameMap.getWidth() && y < gameMap.getHeight() && isInsideCameraView(x, y)) {
-            Point2D.Double pos = new Point2D.Double(x, y);
-            paintGameObject.paintTerrain(g, pos, gameMap, camera, imageManager, this);
+  /**
+   * 描画用の写しからマップ・アクタ・建物プレビューを描画する。ロックは取らない。
+   * 地形は生成後に変わらないためマップから直接読む。地形と床タイルは描き溜めが有効なら
+   * チャンク画像を貼り、無効ならタイルごとに描く。
+   *
+   * @param g        描画に使用するGraphicsオブジェクト
+   * @param previous 1つ前のティックの写し
+   * @param current  最新のティックの写し
+   * @param alpha    前の写しから最新の写しへの補間率(0.0-1.0)
+   * @return 描画の集計
+   */
+  private PaintStats paintScene(Graphics g, RenderSnapshot previous, RenderSnapshot current,
+      double alpha) {
+    BuildingLayer layer = current.getBuildingLayer();
+    int tilesDrawn = 0;
+    int chunksDrawn = 0;
 
-            MapCell cell = gameMap.getCell(pos);
-            if (cell.getBuilding() == null) {
-              continue;
-            }
-            BuildingType.DrawGroup group = cell.getBuilding().getType()
-                .getDrawGroup(cell.getLocalX(), cell.getLocalY());
-            if (group == BuildingType.DrawGroup.FLOOR) {
-              paintGameObject.paintBuilding(g, pos, gameMap, camera, imageManager,
-                  animationManager, this);
-            } else if (group == BuildingType.DrawGroup.ACTOR) {
-              actors.add(DrawEntry.forBuilding(pos));
-            }
-          }
-        }
+    // 地形と床系タイルを描画し、アクタ系タイルを収集
+    drawList.clear();
+    if (terrainCache != null) {
+      chunksDrawn = terrainCache.paint(g, layer, camera, getWidth(), getHeight(),
+          dynamicCellCollector);
+    } else {
+      tilesDrawn = paintTiles(g, current);
+    }
+
+    for (int i = 0; i < current.getResidentCount(); i++) {
+      double px = current.getResidentX(i);
+      double py = current.getResidentY(i);
+      int p = current.findPreviousResident(previous, i);
+      if (p >= 0) {
+        px = interpolate(previous.getResidentX(p), px, alpha);
+        py = interpolate(previous.getResidentY(p), py, alpha);
+      }
+      int x = (int) Math.floor(px);
+      int y = (int) Math.floor(py);
+      if (x < 0 || y < 0 || x >= gameMap.getWidth() || y >= gameMap.getHeight()) {
+        continue;
       }
+      if (!isInsideCameraView(x, y)) {
+        continue;
+      }
+      drawList.addResident(i, px, py);
+    }
 
-      gameModel.getResidentEntities().forEach(resident -> {
-        ResidentState state = resident.getState();
-        if (state == ResidentState.AT_HOME) {
-          return;
-        }
-        Point2D.Double pos = resident.getPosition();
-        int x = (int) Math.floor(pos.getX());
-        int y = (int) Math.floor(pos.getY());
-        if (x < 0 || y < 0 || x >= gameMap.getWidth() || y >= gameMap.getHeight()) {
-          return;
-        }
-        if (!isInsideCameraView(x, y)) {
-          return;
-        }
-        actors.add(DrawEntry.forResident(resident));
-      });
+    for (int i = 0; i < current.getDisasterCount(); i++) {
+      double px = current.getDisasterX(i);
+      double py = current.getDisasterY(i);
+      int p = current.findPreviousDisaster(previous, i);
+      if (p >= 0) {
+        px = interpolate(previous.getDisasterX(p), px, alpha);
+        py = interpolate(previous.getDisasterY(p), py, alpha);
+      }
+      if (!isInsideCameraView((int) Math.floor(px), (int) Math.floor(py))) {
+        continue;
+      }
+      drawList.addDisaster(i, px, py);
+    }
 
-      gameModel.getDisasterEntities().forEach(disaster -> {
-        Point2D.Double pos = disaster.getPosition();
-        int x = (int) Math.floor(pos.getX());
-        int y = (int) Math.floor(pos.getY());
-        if (!isInsideCameraView(x, y)) {
-          return;
-        }
-        actors.add(DrawEntry.forDisaster(disaster));
-      });
+    drawList.sort();
+    for (int n = 0; n < drawList.size(); n++) {
+      int kind = drawList.kindAt(n);
+      if (kind == DepthDrawList.BUILDING_TILE) {
+        paintBuildingTile(g, current, (int) drawList.xAt(n), (int) drawList.yAt(n));
+      } else if (kind == DepthDrawList.RESIDENT) {
+        int i = drawList.indexAt(n);
+        paintGameObject.paintResident(g, drawList.xAt(n), drawList.yAt(n),
+            current.getResidentType(i),
+            current.getResidentState(i), current.hasResidentFlag(i, RenderSnapshot.FLAG_DAMAGED),
+            current.hasResidentFlag(i, RenderSnapshot.FLAG_PLAGUE),
+            current.getResidentDeathProgress(i), camera, imageManager, this);
+      } else if (kind == DepthDrawList.DISASTER) {
+        int i = drawList.indexAt(n);
+        paintGameObject.paintDisaster(g, drawList.xAt(n), drawList.yAt(n),
+            current.getDisasterType(i),
+            current.getDisasterAnimation(i), current.getDisasterFrame(i),
+            current.hasDisasterFlag(i, RenderSnapshot.FLAG_LOOP), camera, imageManager,
+            animationManager, this);
+      }
+    }
+
+    // 建物プレビューを描画
+    if (gameModel.getBuildingPreview().getBuildingPreviewType() != null
+        && gameModel.getBuildingPreview().getBuildingPreviewPos() != null) {
+      paintGameObject.paintPreviewBuilding(g, gameModel.getBuildingPreview().getBuildingPreviewPos(),
+          gameModel.getBuildingPreview().getBuildingPreviewType(), camera, imageManager, this,
+          gameModel.getBuildingPreview().getBuildable());
+    }
+    return new PaintStats(tilesDrawn, chunksDrawn, drawList.size());
+  }
 
-      actors.sort(DrawEntry.DEPTH_ORDER);
-      for (DrawEntry entry : actors) {
-        if (entry.kind == DrawKind.BUILDING_TILE) {
-          paintGameObject.paintBuilding(g, entry.pos, gameMap, camera, imageManager,
-              animationManager, this);
-        } else if (entry.kind == DrawKind.RESIDENT) {
-          paintGameObject.paintResident(g, entry.resident, camera, imageManager, animationManager, this);
-        } else if (entry.kind == DrawKind.DISASTER) {
-          paintGameObject.paintDisaster(g, entry.disaster, camera, imageManager,
-              animationManager, this);
+  /**
+   * 地形と床系タイルをタイルごとに描画し、アクタ系タイルを収集する。
+   * 画面に入るセルの範囲だけを奥から順にたどる。
+   *
+   * @return 描画した地形タイル数
+   */
+  private int paintTiles(Graphics g, RenderSnapshot current) {
+    BuildingLayer layer = current.getBuildingLayer();
+    int tilesDrawn = 0;
+    double cameraScale = camera.getScale();
+    IsoViewRange range = camera.getVisibleRange(getWidth(), getHeight(),
+        (int) (cameraScale * VIEW_MARGIN), (int) (cameraScale * VIEW_BOTTOM_MARGIN));
+    if (range.isEmpty()) {
+      return 0;
+    }
+    for (int z = range.getMinDepth(); z <= range.getMaxDepth(); z++) {
+      int xEnd = range.getMaxX(z);
+      for (int x = range.getMinX(z); x <= xEnd; x++) {
+        int y = z - x;
+        paintGameObject.paintTerrain(g, x, y, gameMap, camera, imageManager, this);
+        tilesDrawn++;
+
+        int buildingId = layer.getBuildingId(x, y);
+        if (buildingId == CompactMapGrid.NO_BUILDING) {
+          continue;
+        }
+        BuildingType.DrawGroup group = layer.getType(buildingId)
+            .getDrawGroup(layer.getLocalX(x, y), layer.getLocalY(x, y));
+        if (group == BuildingType.DrawGroup.FLOOR) {
+          paintBuildingTile(g, current, x, y);
+        } else if (group == BuildingType.DrawGroup.ACTOR) {
+          drawList.addBuildingTile(x, y);
         }
       }
+    }
+    return tilesDrawn;
+  }
 
-      // 建物プレビューを描画
-      if (gameModel.getBuildingPreview().getBuildingPreviewType() != null
-          && gameModel.getBuildingPreview().getBuildingPreviewPos() != null) {
-        paintGameObject.paintPreviewBuilding(g, gameModel.getBuildingPreview().getBuildingPreviewPos(),
-            gameModel.getBuildingPreview().getBuildingPreviewType(), camera, imageManager, this,
-            gameModel.getBuildingPreview().getBuildable());
-      }
-    } finally {
-      readLock.unlock();
+  /**
+   * 写しの建物配置から1タイル分の建物を描画する。
+   */
+  private void paintBuildingTile(Graphics g, RenderSnapshot snapshot, int x, int y) {
+    BuildingLayer layer = snapshot.getBuildingLayer();
+    int buildingId = layer.getBuildingId(x, y);
+    paintGameObject.paintBuildingTile(g, x, y, layer.getType(buildingId), layer.getLocalX(x, y),
+        layer.getLocalY(x, y), snapshot.getBuildingAnimationSeconds(buildingId), camera,
+        imageManager, animationManager, this);
+  }
+
+  /**
+   * 前後のティックの座標を補間する。1ティックで大きく動いた場合は移動ではなく
+   * 配置替えとみなし、最新の座標をそのまま使う。
+   */
+  private static double interpolate(double from, double to, double alpha) {
+    if (Math.abs(to - from) > MAX_INTERPOLATION_TILES) {
+      return to;
     }
+    return from + (to - from) * alpha;
   }
 
   boolean isInsideCameraView(int x, int y) {
-    Point2D.Double screenPos = camera.isoToScreen(new Point2D.Double(x + 0, y));
+    double screenX = camera.isoToScreenX(x, y);
+    double screenY = camera.isoToScreenY(x, y);
     int panelWidth = this.getWidth();
     int panelHeight = this.getHeight();
     double cameraScale = camera.getScale();
-    int margin = (int) (cameraScale * 32);
-    int downnMergin = (int) (cameraScale * 160); // 画面下部は余裕を多めに取る
+    int margin = (int) (cameraScale * VIEW_MARGIN);
+    int downnMergin = (int) (cameraScale * VIEW_BOTTOM_MARGIN); // 画面下部は余裕を多めに取る
     // 画面外にある場合は描画しない
-    if (screenPos.x < -margin || screenPos.x > panelWidth + margin || screenPos.y < -margin
-        || screenPos.y > panelHeight + margin + downnMergin) {
+    if (screenX < -margin || screenX > panelWidth + margin || screenY < -margin
+        || screenY > panelHeight + margin + downnMergin) {
       return false;
     }
     return true;
   }
 
+  /**
+   * ティックの計測値のオーバーレイの表示を切り替える。
+   */
+  public void toggleTickMetrics() {
+    tickMetricsUI.layoutIn(getWidth(), getHeight());
+    tickMetricsUI.setVisible(!tickMetricsUI.isVisible());
+  }
+
+  /**
+   * パネルが保持する購読や描き溜めを解放する。
+   */
+  public void dispose() {
+    if (terrainCache != null) {
+      terrainCache.dispose();
+    }
+  }
+
   /**
    * UIを再描画する。
    */
@@ -223,56 +363,13 @@ public class GameMapPanel extends JPanel implements UiRefreshable {
     buildPreviewUI.updateUpPos(gameModel.getBuildingPreview().getBuildingPreviewPos());
   }
 
-  private enum DrawKind {
-    BUILDING_TILE,
-    RESIDENT,
-    DISASTER
-  }
-
-  private static final class DrawEntry {
-    private static final Comparator<DrawEntry> DEPTH_ORDER = Comparator
-        .comparingDouble((DrawEntry entry) -> entry.depth)
-        .thenComparingDouble(entry -> entry.y)
-        .thenComparingDouble(entry -> entry.x)
-        .thenComparingInt(entry -> {
-          if (entry.kind == DrawKind.BUILDING_TILE) {
-            return 0;
-          }
-          if (entry.kind == DrawKind.RESIDENT) {
-            return 1;
-          }
-          return 2;
-        });
-
-    private final double x;
-    private final double y;
-    private final double depth;
-    private final DrawKind kind;
-    private final Point2D.Double pos;
-    private final Resident resident;
-    private final Disaster disaster;
-
-    private static DrawEntry forBuilding(Point2D.Double pos) {
-      return new DrawEntry(DrawKind.BUILDING_TILE, pos, null, null);
-    }
-
-    private static DrawEntry forResident(Resident resident) {
-      return new DrawEntry(DrawKind.RESIDENT, resident.getPosition(), resident, null);
-    }
-
-    private static DrawEntry forDisaster(Disaster disaster) {
-      return new DrawEntry(DrawKind.DISASTER, disaster.getPosition(), null, disaster);
-    }
-
-    private DrawEntry(DrawKind kind, Point2D.Double pos, Resident resident,
-        Disaster disaster) {
-      this.kind = kind;
-      this.pos = new Point2D.Double(pos.getX(), pos.getY());
-      this.x = this.pos.getX();
-      this.y = this.pos.getY();
-      this.depth = this.x + this.y;
-      this.resident = resident;
-      this.disaster = disaster;
-    }
+  /**
+   * 1フレームの描画の集計。
+   *
+   * @param tilesDrawn   タイルごとに描画した地形タイル数
+   * @param chunksDrawn  貼った地形チャンク数
+   * @param actorsSorted 深度順に並べたアクタ数
+   */
+  private record PaintStats(int tilesDrawn, int chunksDrawn, int actorsSorted) {
   }
 }
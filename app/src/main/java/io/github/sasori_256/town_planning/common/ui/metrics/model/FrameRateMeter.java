@@ -0,0 +1,81 @@
+package io.github.sasori_256.town_planning.common.ui.metrics.model;
+
+import java.util.Locale;
+
+/**
+ * 描画したフレーム数から達成したfpsを求める。EDTからだけ呼ぶこと。
+ */
+public class FrameRateMeter {
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  /** 表示用のfpsを求め直す間隔。 */
+  private static final long SAMPLE_NANOS = NANOS_PER_SECOND / 2;
+
+  private final String label;
+  private final long logIntervalNanos;
+  private long sampleStartNanos = -1L;
+  private int sampleFrames;
+  private double framesPerSecond;
+  private long logStartNanos = -1L;
+  private long logFrames;
+
+  /**
+   * 計測器を生成する。
+   *
+   * @param label              ログに出す描画モードの名前
+   * @param logIntervalSeconds 達成したfpsをログに出す間隔(秒)。0以下なら出さない
+   */
+  public FrameRateMeter(String label, double logIntervalSeconds) {
+    this.label = label;
+    this.logIntervalNanos = (long) (logIntervalSeconds * NANOS_PER_SECOND);
+  }
+
+  /**
+   * 1フレームの描画を記録する。
+   *
+   * @param nowNanos {@link System#nanoTime()}の値
+   */
+  public void recordFrame(long nowNanos) {
+    if (sampleStartNanos < 0L) {
+      sampleStartNanos = nowNanos;
+      logStartNanos = nowNanos;
+      return;
+    }
+    sampleFrames++;
+    long sampleElapsed = nowNanos - sampleStartNanos;
+    if (sampleElapsed >= SAMPLE_NANOS) {
+      framesPerSecond = sampleFrames * (double) NANOS_PER_SECOND / sampleElapsed;
+      sampleFrames = 0;
+      sampleStartNanos = nowNanos;
+    }
+    if (logIntervalNanos <= 0L) {
+      return;
+    }
+    logFrames++;
+    long logElapsed = nowNanos - logStartNanos;
+    if (logElapsed >= logIntervalNanos) {
+      System.out.println(String.format(Locale.ROOT, "[render] %s %.1f fps (%d frames / %.1fs)",
+          label, logFrames * (double) NANOS_PER_SECOND / logElapsed, logFrames,
+          logElapsed / (double) NANOS_PER_SECOND));
+      logFrames = 0L;
+      logStartNanos = nowNanos;
+    }
+  }
+
+  /**
+   * 直近に求めたfpsを返す。
+   *
+   * @return fps。まだ求めていなければ0
+   */
+  public double getFramesPerSecond() {
+    return framesPerSecond;
+  }
+
+  /**
+   * 描画モードの名前を返す。
+   *
+   * @return 描画モードの名前
+   */
+  public String getLabel() {
+    return label;
+  }
+}
@@ -0,0 +1,97 @@
+package io.github.sasori_256.town_planning.common.ui.metrics.view;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.util.Locale;
+
+import javax.swing.JPanel;
+
+import io.github.sasori_256.town_planning.common.ui.metrics.model.FrameRateMeter;
+import io.github.sasori_256.town_planning.entity.model.GameModel;
+import io.github.sasori_256.town_planning.entity.model.metrics.PhaseStats;
+import io.github.sasori_256.town_planning.entity.model.metrics.TickMetrics;
+import io.github.sasori_256.town_planning.entity.model.metrics.TickPhase;
+
+/**
+ * ティックの処理時間の計測値を画面左下に重ねて表示するUI。
+ * 親パネルの再描画に合わせて最新の集計を描く。
+ */
+public class PaintTickMetricsUI extends JPanel {
+  private static final int PADDING = 6;
+  private static final Color BACKGROUND = new Color(0, 0, 0, 160);
+  private static final Color NORMAL = new Color(220, 220, 220);
+  private static final Color WARNING = new Color(255, 200, 60);
+  private static final Color OVER_BUDGET = new Color(255, 90, 90);
+
+  private final GameModel gameModel;
+  private final FrameRateMeter frameRateMeter;
+  private final double warnRatio;
+
+  /**
+   * 計測値のオーバーレイを生成する。
+   *
+   * @param gameModel      ゲームモデル
+   * @param frameRateMeter 描画のfpsの計測器
+   * @param warnRatio      予算に対するp99の割合がこれ以上なら警告色で表示する
+   */
+  public PaintTickMetricsUI(GameModel gameModel, FrameRateMeter frameRateMeter,
+      double warnRatio) {
+    this.gameModel = gameModel;
+    this.frameRateMeter = frameRateMeter;
+    this.warnRatio = warnRatio;
+    this.setFocusable(false);
+    this.setOpaque(false);
+    this.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+  }
+
+  /**
+   * 親パネルの大きさに合わせて左下に配置する。
+   *
+   * @param parentWidth  親パネルの幅
+   * @param parentHeight 親パネルの高さ
+   */
+  public void layoutIn(int parentWidth, int parentHeight) {
+    FontMetrics fm = getFontMetrics(getFont());
+    int lines = TickPhase.values().length + 3;
+    int width = fm.stringWidth("animations 000.00 / 000.00 / 000.00 ms") + PADDING * 2;
+    int height = fm.getHeight() * lines + PADDING * 2;
+    setBounds(10, Math.max(0, parentHeight - height - 10), width, height);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void paintComponent(Graphics g) {
+    TickMetrics metrics = gameModel.getTickMetrics();
+    g.setColor(BACKGROUND);
+    g.fillRect(0, 0, getWidth(), getHeight());
+    g.setFont(getFont());
+    FontMetrics fm = g.getFontMetrics();
+    int lineHeight = fm.getHeight();
+    int y = PADDING + fm.getAscent();
+
+    double usage = metrics.budgetUsage();
+    g.setColor(usage >= 1.0 ? OVER_BUDGET : usage >= warnRatio ? WARNING : NORMAL);
+    g.drawString(String.format(Locale.ROOT, "tick %.1fms  p99 %.0f%%  over %d/%d",
+        metrics.budgetMillis(), usage * 100.0, metrics.overruns(), metrics.samples()), PADDING, y);
+    y += lineHeight;
+
+    g.setColor(NORMAL);
+    for (TickPhase phase : TickPhase.values()) {
+      PhaseStats stats = metrics.phase(phase);
+      g.drawString(String.format(Locale.ROOT, "%-10s%5.2f / %5.2f / %5.2f ms", phase.getLabel(),
+          stats.p50Millis(), stats.p99Millis(), stats.maxMillis()), PADDING, y);
+      y += lineHeight;
+    }
+
+    String alloc = metrics.allocatedBytesPerSecond() < 0 ? "-"
+        : String.format(Locale.ROOT, "%.1fMB/s", metrics.allocatedBytesPerSecond() / 1048576.0);
+    g.drawString(String.format(Locale.ROOT, "R%d B%d D%d alloc %s", metrics.residents(),
+        metrics.buildings(), metrics.disasters(), alloc), PADDING, y);
+    y += lineHeight;
+
+    g.drawString(String.format(Locale.ROOT, "render %s %.1f fps", frameRateMeter.getLabel(),
+        frameRateMeter.getFramesPerSecond()), PADDING, y);
+  }
+}
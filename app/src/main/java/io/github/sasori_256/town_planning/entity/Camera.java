@@ -208,9 +208,64 @@ public class Camera {
    * @return スクリーン座標
    */
   public Point2D.Double isoToScreen(Point2D.Double isoPos) {
-    double screenX = (isoPos.x - isoPos.y) * (this.cellWidth / 2.0) + this.isoOriginByScreen.x + this.offsetX;
-    double screenY = (isoPos.x + isoPos.y) * (this.cellHeight / 2.0) + this.isoOriginByScreen.y + this.offsetY;
-    return new Point2D.Double(screenX, screenY);
+    return new Point2D.Double(isoToScreenX(isoPos.x, isoPos.y), isoToScreenY(isoPos.x, isoPos.y));
+  }
+
+  /**
+   * アイソメトリック座標をスクリーンX座標に変換する。描画ループ向けに座標オブジェクトを生成しない。
+   *
+   * @param isoX アイソメトリックX
+   * @param isoY アイソメトリックY
+   * @return スクリーンX
+   */
+  public double isoToScreenX(double isoX, double isoY) {
+    return (isoX - isoY) * (this.cellWidth / 2.0) + this.isoOriginByScreen.x + this.offsetX;
+  }
+
+  /**
+   * アイソメトリック座標をスクリーンY座標に変換する。描画ループ向けに座標オブジェクトを生成しない。
+   *
+   * @param isoX アイソメトリックX
+   * @param isoY アイソメトリックY
+   * @return スクリーンY
+   */
+  public double isoToScreenY(double isoX, double isoY) {
+    return (isoX + isoY) * (this.cellHeight / 2.0) + this.isoOriginByScreen.y + this.offsetY;
+  }
+
+  /**
+   * 描画先の矩形の四隅をアイソ座標に戻し、基準点が矩形に入るセルの範囲を求める。
+   * 画像はセルの基準点からはみ出すため、はみ出し分を余白として矩形を広げて指定する。
+   * 描画側は範囲内のセルだけを奥から順にたどればよく、マップ全体を走査しなくて済む。
+   *
+   * @param viewWidth          描画先の幅
+   * @param viewHeight         描画先の高さ
+   * @param marginPixels       上下左右に広げる余白(ピクセル)
+   * @param bottomMarginPixels 下側に追加で広げる余白(ピクセル)。背の高い画像用
+   * @return マップ内に収めた範囲
+   */
+  public IsoViewRange getVisibleRange(int viewWidth, int viewHeight, double marginPixels,
+      double bottomMarginPixels) {
+    double halfWidth = this.cellWidth / 2.0;
+    double halfHeight = this.cellHeight / 2.0;
+    if (halfWidth <= 0 || halfHeight <= 0) {
+      return new IsoViewRange(0, -1, 0, -1, this.mapWidth, this.mapHeight);
+    }
+    double originX = isoToScreenX(0, 0);
+    double originY = isoToScreenY(0, 0);
+    // スクリーンYは深さ(x + y)だけで、スクリーンXは横位置(x - y)だけで決まる
+    int minDepth = (int) Math.ceil((-marginPixels - originY) / halfHeight);
+    int maxDepth = (int) Math.floor(
+        (viewHeight + marginPixels + bottomMarginPixels - originY) / halfHeight);
+    int minDiff = (int) Math.ceil((-marginPixels - originX) / halfWidth);
+    int maxDiff = (int) Math.floor((viewWidth + marginPixels - originX) / halfWidth);
+    return new IsoViewRange(
+        Math.max(0, minDepth),
+        Math.min(this.mapWidth + this.mapHeight - 2, maxDepth),
+        Math.max(-(this.mapHeight - 1), minDiff),
+        Math.min(this.mapWidth - 1, maxDiff),
+        this.mapWidth,
+        this.mapHeight);
   }
 
   /**
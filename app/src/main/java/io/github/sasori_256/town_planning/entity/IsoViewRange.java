@@ -0,0 +1,122 @@
+package io.github.sasori_256.town_planning.entity;
+
+/**
+ * 画面に入るセルの範囲をアイソメトリック座標で表したもの。
+ *
+ * <p>
+ * 画面の矩形はアイソ座標では45度傾いた矩形になるため、深さ(x + y)と横位置(x - y)の範囲で持つ。
+ * 深さの小さい順に{@link #getMinX(int)}から{@link #getMaxX(int)}までをたどれば、
+ * 範囲内のセルだけを奥から順に列挙できる。{@link Camera#getVisibleRange}で作る。
+ * </p>
+ */
+public final class IsoViewRange {
+  private final int minDepth;
+  private final int maxDepth;
+  private final int minDiff;
+  private final int maxDiff;
+  private final int mapWidth;
+  private final int mapHeight;
+
+  /**
+   * 範囲を生成する。深さと横位置はマップ内に収めてから渡すこと。
+   *
+   * @param minDepth  深さ(x + y)の最小値
+   * @param maxDepth  深さ(x + y)の最大値
+   * @param minDiff   横位置(x - y)の最小値
+   * @param maxDiff   横位置(x - y)の最大値
+   * @param mapWidth  マップの幅(セル数)
+   * @param mapHeight マップの高さ(セル数)
+   */
+  IsoViewRange(int minDepth, int maxDepth, int minDiff, int maxDiff, int mapWidth,
+      int mapHeight) {
+    this.minDepth = minDepth;
+    this.maxDepth = maxDepth;
+    this.minDiff = minDiff;
+    this.maxDiff = maxDiff;
+    this.mapWidth = mapWidth;
+    this.mapHeight = mapHeight;
+  }
+
+  /**
+   * 範囲にセルが無いかを返す。
+   *
+   * @return 無い場合はtrue
+   */
+  public boolean isEmpty() {
+    return minDepth > maxDepth || minDiff > maxDiff;
+  }
+
+  /**
+   * 深さ(x + y)の最小値を返す。
+   *
+   * @return 深さの最小値
+   */
+  public int getMinDepth() {
+    return minDepth;
+  }
+
+  /**
+   * 深さ(x + y)の最大値を返す。
+   *
+   * @return 深さの最大値
+   */
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * 指定の深さで範囲に入る最小のセルXを返す。
+   *
+   * @param depth 深さ(x + y)
+   * @return セルX。{@link #getMaxX(int)}より大きければその深さにセルは無い
+   */
+  public int getMinX(int depth) {
+    return Math.max(Math.max(0, depth - (mapHeight - 1)), -Math.floorDiv(-(depth + minDiff), 2));
+  }
+
+  /**
+   * 指定の深さで範囲に入る最大のセルXを返す。
+   *
+   * @param depth 深さ(x + y)
+   * @return セルX
+   */
+  public int getMaxX(int depth) {
+    return Math.min(Math.min(mapWidth - 1, depth), Math.floorDiv(depth + maxDiff, 2));
+  }
+
+  /**
+   * 範囲を囲むセルXの最小値を返す。
+   *
+   * @return セルX
+   */
+  public int getMinCellX() {
+    return Math.max(0, -Math.floorDiv(-(minDepth + minDiff), 2));
+  }
+
+  /**
+   * 範囲を囲むセルXの最大値を返す。
+   *
+   * @return セルX
+   */
+  public int getMaxCellX() {
+    return Math.min(mapWidth - 1, Math.floorDiv(maxDepth + maxDiff, 2));
+  }
+
+  /**
+   * 範囲を囲むセルYの最小値を返す。
+   *
+   * @return セルY
+   */
+  public int getMinCellY() {
+    return Math.max(0, -Math.floorDiv(-(minDepth - maxDiff), 2));
+  }
+
+  /**
+   * 範囲を囲むセルYの最大値を返す。
+   *
+   * @return セルY
+   */
+  public int getMaxCellY() {
+    return Math.min(mapHeight - 1, Math.floorDiv(maxDepth - minDiff, 2));
+  }
+}
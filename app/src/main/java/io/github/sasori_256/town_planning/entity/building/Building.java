@@ -6,6 +6,8 @@ import java.util.function.Supplier;
 import io.github.sasori_256.town_planning.common.core.strategy.CompositeUpdateStrategy;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameEffect;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 
 /**
  * 建物オブジェクトを表すクラス。
@@ -156,10 +158,37 @@ public class Building extends BaseGameEntity {
    * @param localY 建物内のY座標
    */
   public int getAnimationFrameIndex(int localX, int localY) {
-    int fps = type.getAnimationFrameRate(localX, localY);
-    if (fps <= 0) {
-      return 0;
-    }
-    return (int) Math.floor(animationElapsedSeconds * fps);
+    return type.getAnimationFrameIndex(localX, localY, animationElapsedSeconds);
+  }
+
+  /**
+   * アニメーションの経過秒を返す。
+   *
+   * @return 経過秒
+   */
+  public double getAnimationElapsedSeconds() {
+    return animationElapsedSeconds;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    super.writeState(out);
+    out.writeInt(currentDurability);
+    out.writeInt(currentPopulation);
+    out.writeInt(originX);
+    out.writeInt(originY);
+    out.writeDouble(animationElapsedSeconds);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    super.readState(in);
+    currentDurability = in.readInt();
+    currentPopulation = in.readInt();
+    originX = in.readInt();
+    originY = in.readInt();
+    animationElapsedSeconds = in.readDouble();
   }
 }
@@ -329,6 +329,22 @@ public enum BuildingType {
     return getAnimationName(localX, localY) != null ? 6 : 0;
   }
 
+  /**
+   * 経過秒から指定タイルのアニメーションフレーム番号を求める。
+   *
+   * @param localX         建物内のX座標
+   * @param localY         建物内のY座標
+   * @param elapsedSeconds アニメーションの経過秒
+   * @return フレーム番号
+   */
+  public int getAnimationFrameIndex(int localX, int localY, double elapsedSeconds) {
+    int fps = getAnimationFrameRate(localX, localY);
+    if (fps <= 0) {
+      return 0;
+    }
+    return (int) Math.floor(elapsedSeconds * fps);
+  }
+
   /**
    * 指定タイルのアニメーションがループするかを返す。
    *
@@ -5,18 +5,21 @@ import io.github.sasori_256.town_planning.entity.building.Building;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
 import io.github.sasori_256.town_planning.entity.model.GameEffect;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 import io.github.sasori_256.town_planning.entity.resident.Resident;
 import io.github.sasori_256.town_planning.entity.resident.ResidentState;
 import io.github.sasori_256.town_planning.entity.resident.ResidentType;
 import java.awt.geom.Point2D;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * 住居の機能：人口増加。
  * 一定時間ごとに新しい住民を生成する。
  * GameEffectとして実装（並行動作可能）。
  */
-public class PopulationGrowthEffect implements GameEffect {
+public class PopulationGrowthEffect implements GameEffect, Persistable {
   // 住民生成の判定間隔(秒)。
   private static final double SPAWN_INTERVAL = GameConfig.getResidentGrowthSpawnIntervalSeconds();
   private static final int MIN_HOME_POPULATION = GameConfig.getResidentGrowthMinHomePopulation();
@@ -58,20 +61,32 @@ public class PopulationGrowthEffect implements GameEffect {
     }
     timer = 0.0;
 
-    if (ThreadLocalRandom.current().nextDouble() >= SPAWN_CHANCE) {
+    if (building.getRandom().nextDouble() >= SPAWN_CHANCE) {
       return;
     }
 
     Point2D.Double homePos = building.getPosition();
-    ResidentType type = selectResidentType();
+    ResidentType type = selectResidentType(building.getRandom());
     Resident resident = new Resident(new Point2D.Double(homePos.getX(), homePos.getY()), type,
         ResidentState.AT_HOME, homePos);
     context.spawnEntity(resident);
     building.setCurrentPopulation(currentPopulation + 1);
   }
 
-  private ResidentType selectResidentType() {
+  private ResidentType selectResidentType(RandomGenerator rng) {
     ResidentType[] types = ResidentType.values();
-    return types[ThreadLocalRandom.current().nextInt(types.length)];
+    return types[rng.nextInt(types.length)];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    out.writeDouble(timer);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    timer = in.readDouble();
   }
 }
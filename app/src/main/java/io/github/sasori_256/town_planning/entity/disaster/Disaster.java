@@ -5,6 +5,8 @@ import java.awt.geom.Point2D;
 import io.github.sasori_256.town_planning.common.core.strategy.CompositeUpdateStrategy;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameAction;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 
 /**
  * 災害エンティティを表すクラス。
@@ -118,4 +120,24 @@ public class Disaster extends BaseGameEntity {
     }
     animationElapsedSeconds += dt;
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    super.writeState(out);
+    out.writeString(animationName);
+    out.writeInt(animationFrameRate);
+    out.writeBoolean(animationLoop);
+    out.writeDouble(animationElapsedSeconds);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    super.readState(in);
+    animationName = in.readString();
+    animationFrameRate = in.readInt();
+    animationLoop = in.readBoolean();
+    animationElapsedSeconds = in.readDouble();
+  }
 }
@@ -10,17 +10,19 @@ import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameAction;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 
 /**
  * 隕石などの単発災害のロジック。
  * 生成されてから一定時間後に着弾し、範囲ダメージを与える。
  */
-public class MeteorDisasterAction implements GameAction {
+public class MeteorDisasterAction implements GameAction, Persistable {
   private static final String IMPACT_ANIMATION_NAME = "meteor_hit";
   private static final int IMPACT_ANIMATION_FPS = GameConfig.getDisasterMeteorAnimationFps();
   private static final double IMPACT_EFFECT_DURATION = GameConfig.getDisasterMeteorEffectDurationSeconds();
-  private final EventBus eventBus = EventBus.getInstance();
-  private final Point2D.Double targetPos;
+  private Point2D.Double targetPos;
   private final DisasterType type;
   private double timer;
   private final double impactTime;
@@ -80,6 +82,24 @@ public class MeteorDisasterAction implements GameAction {
 
     context.applyDisasterImpact(targetPos, type);
 
-    eventBus.publish(new DisasterOccurredEvent(type));
+    context.getEventBus().publish(new DisasterOccurredEvent(type));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    // 落下中はエンティティの位置が着弾点と異なるため、着弾点も保存する。
+    out.writeDouble(targetPos.getX());
+    out.writeDouble(targetPos.getY());
+    out.writeDouble(timer);
+    out.writeBoolean(impacted);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    targetPos = new Point2D.Double(in.readDouble(), in.readDouble());
+    timer = in.readDouble();
+    impacted = in.readBoolean();
   }
 }
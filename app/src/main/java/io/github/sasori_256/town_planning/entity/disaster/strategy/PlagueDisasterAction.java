@@ -11,6 +11,9 @@ import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameAction;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 import io.github.sasori_256.town_planning.entity.resident.DebuffType;
 import io.github.sasori_256.town_planning.entity.resident.Resident;
 import io.github.sasori_256.town_planning.entity.resident.ResidentState;
@@ -19,15 +22,14 @@ import io.github.sasori_256.town_planning.entity.resident.ResidentState;
  * 疫病災害のロジック。
  * 一定範囲内の住民に疫病デバフをばら撒く。
  */
-public class PlagueDisasterAction implements GameAction {
+public class PlagueDisasterAction implements GameAction, Persistable {
   // 定数定義
   private static final double DURATION = 10.0;
   private static final double SPREAD_INTERVAL = 1.0;
   private static final int INITIAL_INFECTION_LEVEL = 5; // 初期感染レベル（最強）
   private static final double INFECTION_DURATION = 10.0; // デバフ持続時間
 
-  private final EventBus eventBus = EventBus.getInstance();
-  private final Point2D.Double center;
+  private Point2D.Double center;
   private final DisasterType type;
   private double timer;
   private double lastSpreadTime;
@@ -57,7 +59,7 @@ public class PlagueDisasterAction implements GameAction {
     // 初回実行時の処理
     if (!started) {
       started = true;
-      eventBus.publish(new DisasterOccurredEvent(type));
+      context.getEventBus().publish(new DisasterOccurredEvent(type));
       // 位置を確定
       self.setPosition(center);
       // アニメーション設定（仮でloadingを使用）
@@ -84,13 +86,10 @@ public class PlagueDisasterAction implements GameAction {
   }
 
   private void spreadPlague(GameContext context) {
-    double radiusSq = type.getRadius() * type.getRadius();
-
     // 範囲内の生存住民を取得
-    List<Resident> targets = context.getResidentEntities()
+    List<Resident> targets = context.getResidentsWithin(center, type.getRadius()).stream()
         .filter(r -> r.getState() != ResidentState.DEAD)
         .filter(r -> r.getState() != ResidentState.AT_HOME) // 家にいる住民は対象外
-        .filter(r -> r.getPosition().distanceSq(center) <= radiusSq)
         .collect(Collectors.toList());
 
     for (Resident resident : targets) {
@@ -103,4 +102,23 @@ public class PlagueDisasterAction implements GameAction {
       }
     }
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    out.writeDouble(center.getX());
+    out.writeDouble(center.getY());
+    out.writeDouble(timer);
+    out.writeDouble(lastSpreadTime);
+    out.writeBoolean(started);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    center = new Point2D.Double(in.readDouble(), in.readDouble());
+    timer = in.readDouble();
+    lastSpreadTime = in.readDouble();
+    started = in.readBoolean();
+  }
 }
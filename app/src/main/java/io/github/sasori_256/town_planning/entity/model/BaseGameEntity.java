@@ -4,13 +4,18 @@ import java.awt.geom.Point2D;
 
 import io.github.sasori_256.town_planning.common.core.Animatable;
 import io.github.sasori_256.town_planning.common.core.strategy.UpdateStrategy;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 
 /**
  * ゲーム内の全ての動的オブジェクトのインターフェースのデフォルト実装を提供するクラス。
  * Strategyパターンを用いて振る舞いを定義する。
  * 継承による拡張ではなく、コンポジション（Strategy）による機能追加を推奨する。
+ * 保存時は位置と描画層、固有の乱数の状態に続けて、{@link Persistable}なStrategyの状態を書き出す。
+ * 種別などコンストラクタで決まる値は呼び出し側で保存し、同じ値で生成してから読み戻すこと。
  */
-public abstract class BaseGameEntity implements GameEntity, Animatable, LifecycleAware {
+public abstract class BaseGameEntity implements GameEntity, Animatable, LifecycleAware, Persistable {
   protected int layerIndex = 0;
   protected Point2D.Double position;
 
@@ -28,6 +33,8 @@ public abstract class BaseGameEntity implements GameEntity, Animatable, Lifecycl
 
   // Strategies
   private UpdateStrategy updateStrategy;
+  /** エンティティ固有の乱数。ゲーム世界への追加時にシミュレーションの乱数から分岐する。 */
+  private SplitMix64 random;
 
   /**
    * 位置を指定してエンティティを生成する。
@@ -66,6 +73,32 @@ public abstract class BaseGameEntity implements GameEntity, Animatable, Lifecycl
     this.position = position;
   }
 
+  /**
+   * エンティティ固有の乱数を返す。
+   *
+   * <p>
+   * 並列更新でもスレッドの割り当てに関係なく同じ列を引けるよう、振る舞いの乱数は常にこれを使う。
+   * ゲーム世界に追加される前は固定シードの乱数を返す。
+   * </p>
+   *
+   * @return 乱数生成器
+   */
+  public SplitMix64 getRandom() {
+    if (random == null) {
+      random = new SplitMix64(0L);
+    }
+    return random;
+  }
+
+  /**
+   * エンティティ固有の乱数を設定する。
+   *
+   * @param random 乱数生成器
+   */
+  public void setRandom(SplitMix64 random) {
+    this.random = random;
+  }
+
   /** {@inheritDoc} */
   @Override
   public void setUpdateStrategy(UpdateStrategy updateStrategy) {
@@ -100,4 +133,27 @@ public abstract class BaseGameEntity implements GameEntity, Animatable, Lifecycl
   public void advanceAnimation(double dt) {
     // No-op by default
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    out.writeDouble(position.getX());
+    out.writeDouble(position.getY());
+    out.writeInt(layerIndex);
+    out.writeLong(getRandom().getState());
+    if (updateStrategy instanceof Persistable persistable) {
+      persistable.writeState(out);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    position = new Point2D.Double(in.readDouble(), in.readDouble());
+    layerIndex = in.readInt();
+    random = new SplitMix64(in.readLong());
+    if (updateStrategy instanceof Persistable persistable) {
+      persistable.readState(in);
+    }
+  }
 }
@@ -1,11 +1,15 @@
 package io.github.sasori_256.town_planning.entity.model;
 
+import io.github.sasori_256.town_planning.common.event.EventBus;
 import io.github.sasori_256.town_planning.entity.building.Building;
 import io.github.sasori_256.town_planning.entity.disaster.Disaster;
 import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
 import io.github.sasori_256.town_planning.entity.resident.Resident;
+import io.github.sasori_256.town_planning.map.model.FlowFieldCache;
 import io.github.sasori_256.town_planning.map.model.GameMap;
 import java.awt.geom.Point2D;
+import java.util.List;
+import java.util.function.Consumer;
 
 // Streamとは
 // Streamは、Java 8で導入されたjava.util.streamパッケージに属するクラスであり、
@@ -34,6 +38,13 @@ public interface GameContext {
    */
   GameMap getMap();
 
+  /**
+   * 目的地ごとのフローフィールドキャッシュを返す。
+   *
+   * @return フローフィールドキャッシュ
+   */
+  FlowFieldCache getFlowFieldCache();
+
   /**
    * 建物エンティティのストリームを返す。
    *
@@ -55,6 +66,16 @@ public interface GameContext {
    */
   Stream<Disaster> getDisasterEntities();
 
+  /**
+   * 指定円内(境界含む)にいる住民を返す。
+   * 空間インデックスを使うため、全住民を走査するより高速。
+   *
+   * @param center 中心座標
+   * @param radius 半径
+   * @return 該当する住民の一覧
+   */
+  List<Resident> getResidentsWithin(Point2D.Double center, double radius);
+
   /**
    * 前フレームからの経過時間(秒)を返す。
    *
@@ -136,4 +157,40 @@ public interface GameContext {
    */
   void applyDisasterImpact(Point2D.Double center, DisasterType type);
 
+  /**
+   * 他のエンティティへの作用やイベント発行などの副作用を実行する。
+   *
+   * <p>
+   * 住民の更新中は、並列かどうかに依らず呼び出し元のコマンドバッファに積み、
+   * 全住民の更新が終わった直後に住民の並び順どおりに実行する。
+   * 建物・災害の更新中など、住民の更新中でなければその場で実行する。
+   * コマンドには実行時点のコンテキストが渡される。
+   * </p>
+   *
+   * @param command 実行する副作用
+   */
+  void enqueueCommand(Consumer<GameContext> command);
+
+  /**
+   * マップのシード値から導いたシミュレーションの乱数を返す。
+   *
+   * <p>
+   * 同じシードと同じ操作列から同じ結果を得るため、シミュレーション中の乱数はすべてここから分岐させる。
+   * エンティティの振る舞いには追加時に分岐した{@link BaseGameEntity#getRandom()}を使い、
+   * これを直接使うのは更新スレッドだけとする。住民の更新中は並列かどうかに依らず取得できない。
+   * </p>
+   *
+   * @return 分岐可能な乱数生成器
+   * @throws IllegalStateException 住民の更新中に呼び出した場合
+   */
+  SplitMix64 getRandom();
+
+  /**
+   * このシミュレーションのイベントバスを返す。
+   * 複数のシミュレーションを同じJVMで動かしても、イベントは互いに届かない。
+   *
+   * @return イベントバス
+   */
+  EventBus getEventBus();
+
 }
@@ -1,11 +1,20 @@
 package io.github.sasori_256.town_planning.entity.model;
 
 import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -14,8 +23,11 @@ import io.github.sasori_256.town_planning.common.core.GameConfig;
 import io.github.sasori_256.town_planning.common.core.GameLoop;
 import io.github.sasori_256.town_planning.common.core.SimulationStep;
 import io.github.sasori_256.town_planning.common.event.EventBus;
+import io.github.sasori_256.town_planning.common.event.Subscription;
 import io.github.sasori_256.town_planning.common.event.events.EntitySpawnFailureReason;
 import io.github.sasori_256.town_planning.common.event.events.ResidentDiedEvent;
+import io.github.sasori_256.town_planning.common.event.events.SoulHarvestedEvent;
+import io.github.sasori_256.town_planning.common.jfr.JfrDisasterImpactEvent;
 import io.github.sasori_256.town_planning.entity.building.Building;
 import io.github.sasori_256.town_planning.entity.building.BuildingType;
 import io.github.sasori_256.town_planning.entity.disaster.Disaster;
@@ -23,14 +35,25 @@ import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
 import io.github.sasori_256.town_planning.entity.model.manager.BuildingManager;
 import io.github.sasori_256.town_planning.entity.model.manager.EntityManager;
 import io.github.sasori_256.town_planning.entity.model.manager.PopulationManager;
+import io.github.sasori_256.town_planning.entity.model.manager.PopulationSnapshot;
 import io.github.sasori_256.town_planning.entity.model.manager.ResidentPanicManager;
 import io.github.sasori_256.town_planning.entity.model.manager.RelocationManager;
 import io.github.sasori_256.town_planning.entity.model.manager.SoulManager;
 import io.github.sasori_256.town_planning.entity.model.manager.TimeManager;
+import io.github.sasori_256.town_planning.entity.model.metrics.TickMetrics;
+import io.github.sasori_256.town_planning.entity.model.metrics.TickPhase;
+import io.github.sasori_256.town_planning.entity.model.metrics.TickProfiler;
+import io.github.sasori_256.town_planning.entity.model.render.RenderFrames;
+import io.github.sasori_256.town_planning.entity.model.render.RenderPublisher;
+import io.github.sasori_256.town_planning.entity.model.replay.CommandLogWriter;
+import io.github.sasori_256.town_planning.entity.model.replay.GameCommand;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 import io.github.sasori_256.town_planning.entity.resident.Resident;
 import io.github.sasori_256.town_planning.entity.resident.ResidentState;
 import io.github.sasori_256.town_planning.entity.resident.ResidentType;
 import io.github.sasori_256.town_planning.map.model.BuildingPreview;
+import io.github.sasori_256.town_planning.map.model.FlowFieldCache;
 import io.github.sasori_256.town_planning.map.model.GameMap;
 import io.github.sasori_256.town_planning.map.model.TerrainType;
 
@@ -39,24 +62,67 @@ import io.github.sasori_256.town_planning.map.model.TerrainType;
  * GameContextの実装であり、GameLoopのホストでもある。
  *
  * <h2>スレッド安全性とロック</h2>
- * 本クラスはReadWriteLockで状態アクセスを保護する。
+ * 本クラスは{@link StateLock}で状態アクセスを保護する。
  * ネストしたロック取得やデッドロックを避けるため、更新サイクル中に呼ばれた
  * エンティティの生成・削除はEntityManagerでキューに積み、更新後にまとめて処理する。
+ * 経過秒・ティック数・日付・魂量のようにティック単位で確定する値はロックを取らずに読める。
+ * 描画と建設プレビューの設置可否の判定は毎ティックの終わりに公開する不変の写し
+ * ({@link #getRenderFrames()}と{@link GameMap#canPlaceBuildingOnPublishedLayer})を読む。
+ * UIスレッドからの状態変更は{@link #submit(Runnable)}でキューに積んで次のティックの先頭で
+ * 適用するため、描画や入力がティックを止めることも、ティックの更新を待つこともない。
+ *
+ * <h2>操作の記録</h2>
+ * 外部から状態を変える公開メソッド(建設、災害の発生、魂の増減など)は書き込みロック内で
+ * {@link GameCommand}として操作ログに記録してから実行する。更新は1ティック分を書き込みロック内で
+ * 行うため、操作は必ずティックの合間に入り、記録したティック番号の更新前に適用すれば再現できる。
+ * 更新中にシミュレーション自身が呼んだものは記録しない。
+ *
+ * <h2>保存と読み込み</h2>
+ * {@link #save(Path)}は読み込みロック内で全状態をバイナリ形式で書き出し、{@link #load(Path)}は
+ * ファイルをメモリマップして読み戻す。形式は次の並びで、値はリトルエンディアンの固定長で書く。
+ *
+ * <pre>
+ * magic(int) version(int) seed(long) tick(long) lastDeltaTime(double) animationAccumulator(double)
+ * random(long) map(GameMap) time(TimeManager) soul(SoulManager) population(PopulationManager)
+ * entities(EntityManager) magic(int)
+ * </pre>
+ *
+ * <p>
+ * 列挙値は序数で書くため、列挙型の並びや各クラスの保存項目を変えた場合はバージョンを上げること。
+ * シミュレーションと各エンティティの乱数も{@link SplitMix64}の状態として書くため、
+ * 読み込んだモデルは保存しなかった場合と同じ展開をたどる。
+ * </p>
+ *
+ * <h2>処理時間の計測</h2>
+ * 1ティックの更新は{@link TickPhase}の区間ごとに所要時間を計測し、書き込みロックの取得待ちも
+ * 区間の1つとして数える。直近のp50/p99とエンティティ数は{@link #getTickMetrics()}で取得できる。
  */
 public class GameModel implements GameContext, SimulationStep {
   /** 初期魂所持量。 */
   private static final int INITIAL_SOUL = GameConfig.getSoulInitialAmount();
   /** アニメーション進行の固定ステップ(秒)。 */
   private static final double ANIMATION_STEP = GameConfig.getAnimationStepSeconds();
+  /** セーブデータの識別子("TPSV")。 */
+  private static final int SAVE_MAGIC = 0x54505356;
+  /** セーブデータ形式のバージョン。 */
+  private static final int SAVE_VERSION = 2;
 
-  /** イベント通知に使用するイベントバス。 */
-  private final EventBus eventBus = EventBus.getInstance();
+  /** イベント通知に使用するイベントバス。マップと共有する。 */
+  private final EventBus eventBus;
+  /** マップのシード値。 */
+  private final long seed;
   /** マップ状態の本体。 */
   private final GameMap gameMap;
   /** 共有状態を保護する読み書きロック。 */
-  private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+  private final StateLock stateLock = new StateLock();
+  /** UIスレッドから受け付けた、次のティックの先頭で適用する操作。 */
+  private final ConcurrentLinkedQueue<Runnable> pendingCommands = new ConcurrentLinkedQueue<>();
   /** 建設プレビュー情報。 */
   private final BuildingPreview buildingPreview;
+  /** 目的地ごとのフローフィールドキャッシュ。 */
+  private final FlowFieldCache flowFieldCache;
+  /** シミュレーションの乱数。マップのシード値から生成し、読み込み時は保存した状態から再開する。 */
+  private final SplitMix64 random;
   /** ゲームループの参照。startGameLoop() で初期化される。 */
   private GameLoop gameLoop;
 
@@ -74,34 +140,190 @@ public class GameModel implements GameContext, SimulationStep {
   private final BuildingManager buildingManager;
   /** 住民のパニック管理。 */
   private final ResidentPanicManager residentPanicManager;
+  /** ティックの区間ごとの処理時間の計測。 */
+  private final TickProfiler tickProfiler = new TickProfiler(GameConfig.isTickMetricsEnabled(),
+      GameConfig.getTickMetricsWindowTicks(), GameConfig.getGameLoopTimeStepSeconds(),
+      GameConfig.getTickMetricsLogIntervalSeconds(), GameConfig.getTickMetricsWarnRatio());
+
+  /** 描画用の写しの公開。 */
+  private final RenderPublisher renderPublisher = new RenderPublisher();
+  /** 描画用の写しを作るかどうか。ヘッドレス実行では作らないよう、最初に要求されたときに有効にする。 */
+  private volatile boolean renderSnapshotsEnabled = false;
+  /** 完了したティック数。書き込みはロック内で行い、読み取りはロックを取らない。 */
+  private volatile long tick = 0;
+  /** 更新処理の実行中かどうか。更新中の操作はシミュレーション自身によるものなので記録しない。 */
+  private boolean stepping = false;
+  /** 操作ログ。記録しない場合はnull。 */
+  private CommandLogWriter commandLog;
+  /** 外部から発行された魂獲得イベントを記録するための購読。 */
+  private final Subscription soulHarvestSub;
 
   /** アニメーション進行用の経過時間バッファ。 */
   private double animationAccumulator = 0.0;
-  /** 前フレームからの経過秒。 */
-  private double lastDeltaTime = 0;
+  /** 前フレームからの経過秒。書き込みはロック内で行い、読み取りはロックを取らない。 */
+  private volatile double lastDeltaTime = 0;
 
   /**
-   * ゲームモデルを生成する。
+   * 専用のイベントバスを持つゲームモデルを生成する。
    *
    * @param mapWidth  マップの横幅
    * @param mapHeight マップの縦幅
+   * @param seed      マップのシード値
    */
   public GameModel(int mapWidth, int mapHeight, long seed) {
-    this.gameMap = new GameMap(mapWidth, mapHeight, seed);
-    this.buildingPreview = new BuildingPreview(stateLock, gameMap);
-    this.entityManager = new EntityManager(stateLock);
-    this.soulManager = new SoulManager(stateLock, entityManager, INITIAL_SOUL);
-    this.timeManager = new TimeManager(stateLock);
+    this(mapWidth, mapHeight, seed, new EventBus());
+  }
+
+  /**
+   * ゲームモデルを生成する。イベントはすべて指定のバスに発行される。
+   *
+   * @param mapWidth  マップの横幅
+   * @param mapHeight マップの縦幅
+   * @param seed      マップのシード値
+   * @param eventBus  イベントバス。UIと共有する場合はUIが購読しているもの
+   */
+  public GameModel(int mapWidth, int mapHeight, long seed, EventBus eventBus) {
+    this(new GameMap(mapWidth, mapHeight, seed, eventBus), seed, seed);
+    GenerateTownHall(seed); // マップ中央付近に町の中心を生成
+  }
+
+  /**
+   * 生成済みのマップからエンティティのないゲームモデルを生成する。
+   * イベントバスはマップのものを使う。
+   *
+   * @param gameMap    マップ
+   * @param seed       マップのシード値
+   * @param randomSeed シミュレーションの乱数の初期状態
+   */
+  private GameModel(GameMap gameMap, long seed, long randomSeed) {
+    int mapWidth = gameMap.getWidth();
+    int mapHeight = gameMap.getHeight();
+    this.eventBus = gameMap.getEventBus();
+    this.seed = seed;
+    this.gameMap = gameMap;
+    this.buildingPreview = new BuildingPreview(eventBus, gameMap);
+    this.flowFieldCache = new FlowFieldCache(gameMap);
+    this.random = new SplitMix64(randomSeed);
+    this.entityManager = new EntityManager(eventBus, stateLock, mapWidth, mapHeight);
+    this.soulManager = new SoulManager(eventBus, stateLock, entityManager, INITIAL_SOUL);
+    this.timeManager = new TimeManager(eventBus, stateLock);
     this.relocationManager = new RelocationManager(stateLock, entityManager);
-    this.populationManager = new PopulationManager(stateLock, entityManager);
-    this.buildingManager = new BuildingManager(gameMap, stateLock, soulManager,
+    this.populationManager = new PopulationManager(eventBus, stateLock, entityManager);
+    this.buildingManager = new BuildingManager(eventBus, gameMap, stateLock, soulManager,
         entityManager);
     this.residentPanicManager = new ResidentPanicManager(stateLock, entityManager);
 
     this.gameLoop = null;
+    this.soulHarvestSub = eventBus.subscribe(SoulHarvestedEvent.class,
+        event -> withWriteLock(() -> record(new GameCommand.AddSoul(event.amount()))));
 
     GameConfig.preload();
-    GenerateTownHall(seed); // マップ中央付近に町の中心を生成
+  }
+
+  /**
+   * {@link #save(Path)}で保存したファイルから、専用のイベントバスを持つゲームモデルを読み込む。
+   *
+   * @param path セーブデータ
+   * @return ゲームモデル。ゲームループは起動していない
+   * @throws IOException 読み込みに失敗した場合、または形式が不正な場合
+   */
+  public static GameModel load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Save file is too large: " + path);
+      }
+      SaveInput in = new SaveInput(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+      try {
+        if (in.readInt() != SAVE_MAGIC) {
+          throw new IOException("Not a save file: " + path);
+        }
+        int version = in.readInt();
+        if (version != SAVE_VERSION) {
+          throw new IOException("Unsupported save version " + version + ": " + path);
+        }
+        return readState(in);
+      } catch (BufferUnderflowException | IllegalArgumentException | IllegalStateException e) {
+        throw new IOException("Corrupted save file: " + path, e);
+      }
+    }
+  }
+
+  private static GameModel readState(SaveInput in) {
+    long seed = in.readLong();
+    long tick = in.readLong();
+    double lastDeltaTime = in.readDouble();
+    double animationAccumulator = in.readDouble();
+    long randomState = in.readLong();
+    GameMap map = GameMap.restore(in, seed, new EventBus());
+    GameModel model = new GameModel(map, seed, randomState);
+    try {
+      model.withWriteLock(() -> {
+        model.tick = tick;
+        model.lastDeltaTime = lastDeltaTime;
+        model.animationAccumulator = animationAccumulator;
+        model.timeManager.readState(in);
+        model.soulManager.readState(in);
+        model.populationManager.readState(in);
+        model.entityManager.readState(in, map);
+        if (in.readInt() != SAVE_MAGIC) {
+          throw new IllegalStateException("Missing end marker.");
+        }
+      });
+      return model;
+    } catch (RuntimeException e) {
+      model.dispose();
+      throw e;
+    }
+  }
+
+  /**
+   * 現在の状態をファイルに保存する。一時ファイルに書いてから置き換えるため、
+   * 書き込みに失敗しても既存のファイルは壊れない。
+   *
+   * @param path 保存先
+   * @throws IOException 書き込みに失敗した場合
+   */
+  public void save(Path path) throws IOException {
+    Path target = path.toAbsolutePath();
+    Path directory = target.getParent();
+    Files.createDirectories(directory);
+    Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+    try {
+      try (SaveOutput out = new SaveOutput(
+          FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+        withReadLock(() -> {
+          writeState(out);
+          return null;
+        });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      try {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private void writeState(SaveOutput out) {
+    out.writeInt(SAVE_MAGIC);
+    out.writeInt(SAVE_VERSION);
+    out.writeLong(seed);
+    out.writeLong(tick);
+    out.writeDouble(lastDeltaTime);
+    out.writeDouble(animationAccumulator);
+    out.writeLong(random.getState());
+    gameMap.writeState(out);
+    timeManager.writeState(out);
+    soulManager.writeState(out);
+    populationManager.writeState(out);
+    entityManager.writeState(out, gameMap);
+    out.writeInt(SAVE_MAGIC);
   }
 
   /**
@@ -115,6 +337,27 @@ public class GameModel implements GameContext, SimulationStep {
     this.gameLoop.start();
   }
 
+  /**
+   * モデルが保持する購読などの資源を解放する。
+   */
+  public void dispose() {
+    flowFieldCache.dispose();
+    entityManager.dispose();
+    populationManager.dispose();
+    soulManager.dispose();
+    soulHarvestSub.unsubscribe();
+    setCommandLog(null);
+  }
+
+  /**
+   * 住民を並列に更新するかを、設定と住民数に依らず指定する。
+   *
+   * @param parallel trueなら常に並列、falseなら常に逐次。nullなら設定と住民数で決める
+   */
+  void setParallelOverride(Boolean parallel) {
+    entityManager.setParallelOverride(parallel);
+  }
+
   // --- GameContext Implementation ---
 
   /** {@inheritDoc} */
@@ -123,6 +366,12 @@ public class GameModel implements GameContext, SimulationStep {
     return gameMap;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public FlowFieldCache getFlowFieldCache() {
+    return flowFieldCache;
+  }
+
   /** {@inheritDoc} */
   @Override
   public Stream<Building> getBuildingEntities() {
@@ -141,10 +390,16 @@ public class GameModel implements GameContext, SimulationStep {
     return entityManager.getDisasterEntities();
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public List<Resident> getResidentsWithin(Point2D.Double center, double radius) {
+    return entityManager.findResidentsWithin(center, radius);
+  }
+
   /** {@inheritDoc} */
   @Override
   public double getDeltaTime() {
-    return withReadLock(() -> lastDeltaTime);
+    return lastDeltaTime;
   }
 
   /** {@inheritDoc} */
@@ -213,6 +468,15 @@ public class GameModel implements GameContext, SimulationStep {
     return populationManager.getTotalDeaths();
   }
 
+  /**
+   * 住民数の集計をロックを取らずに返す。UIの表示更新向け。
+   *
+   * @return 住民数の集計
+   */
+  public PopulationSnapshot getPopulationSnapshot() {
+    return populationManager.snapshot();
+  }
+
   /**
    * Spawns a new entity into the game world.
    * 
@@ -249,30 +513,45 @@ public class GameModel implements GameContext, SimulationStep {
     double damageRadius = type.getRadius();
     int damage = type.getDamage();
     double panicRadius = damageRadius + GameConfig.getDisasterPanicRadiusOffsetTiles();
+    JfrDisasterImpactEvent event = new JfrDisasterImpactEvent();
+    event.begin();
     withWriteLock(() -> {
-      damageResidentsWithin(center, damageRadius, damage);
+      event.residentsDamaged = damageResidentsWithin(center, damageRadius, damage);
       List<Building> destroyed = buildingManager.damageBuildings(this, center, damageRadius, damage);
+      event.buildingsDestroyed = destroyed.size();
       residentPanicManager.panicResidentsByDestroyedBuildings(this, destroyed);
       residentPanicManager.panicResidentsInRing(this, center, damageRadius, panicRadius);
     });
+    event.end();
+    if (event.shouldCommit()) {
+      event.disasterType = type.name();
+      event.x = center.getX();
+      event.y = center.getY();
+      event.commit();
+    }
   }
 
-  private void damageResidentsWithin(Point2D.Double center, double radius, double amount) {
+  /** {@inheritDoc} */
+  @Override
+  public void enqueueCommand(Consumer<GameContext> command) {
+    if (command != null) {
+      command.accept(this);
+    }
+  }
+
+  private int damageResidentsWithin(Point2D.Double center, double radius, double amount) {
     if (center == null || radius <= 0.0) {
-      return;
+      return 0;
     }
-    double radiusSq = radius * radius;
-    for (Resident resident : entityManager.snapshotResidents()) {
-      if (resident == null) {
-        continue;
-      }
+    int damaged = 0;
+    for (Resident resident : entityManager.findResidentsWithin(center, radius)) {
       if (resident.getState() == ResidentState.DEAD || resident.getState() == ResidentState.AT_HOME) {
         continue;
       }
-      if (resident.getPosition().distanceSq(center) <= radiusSq) {
-        resident.damage(amount);
-      }
+      resident.damage(amount);
+      damaged++;
     }
+    return damaged;
   }
 
   // --- Game Logic API ---
@@ -283,7 +562,15 @@ public class GameModel implements GameContext, SimulationStep {
    * @param entity 住民
    */
   public void addResidentEntity(Resident entity) {
-    spawnEntity(entity);
+    withWriteLock(() -> {
+      if (entity != null) {
+        Point2D.Double pos = entity.getPosition();
+        Point2D.Double home = entity.getHomePosition();
+        record(new GameCommand.AddResident(pos.getX(), pos.getY(), entity.getType(),
+            entity.getState(), home.getX(), home.getY()));
+      }
+      spawnEntity(entity);
+    });
   }
 
   /**
@@ -292,7 +579,13 @@ public class GameModel implements GameContext, SimulationStep {
    * @param entity 建物
    */
   public void addBuildingEntity(Building entity) {
-    spawnEntity(entity);
+    withWriteLock(() -> {
+      if (entity != null) {
+        record(new GameCommand.AddBuilding(entity.getPosition().getX(),
+            entity.getPosition().getY(), entity.getType()));
+      }
+      spawnEntity(entity);
+    });
   }
 
   /**
@@ -301,7 +594,13 @@ public class GameModel implements GameContext, SimulationStep {
    * @param entity 災害
    */
   public void addDisasterEntity(Disaster entity) {
-    spawnEntity(entity);
+    withWriteLock(() -> {
+      if (entity != null) {
+        record(new GameCommand.AddDisaster(entity.getPosition().getX(),
+            entity.getPosition().getY(), entity.getType()));
+      }
+      spawnEntity(entity);
+    });
   }
 
   /**
@@ -310,7 +609,13 @@ public class GameModel implements GameContext, SimulationStep {
    * @param entity 建物
    */
   public void removeBuildingEntity(Building entity) {
-    buildingManager.removeBuildingEntity(entity);
+    withWriteLock(() -> {
+      if (entity != null) {
+        record(new GameCommand.RemoveBuilding(entity.getPosition().getX(),
+            entity.getPosition().getY()));
+      }
+      buildingManager.removeBuildingEntity(entity);
+    });
   }
 
   /**
@@ -319,7 +624,10 @@ public class GameModel implements GameContext, SimulationStep {
    * @param amount 追加量
    */
   public void addSoul(int amount) {
-    soulManager.addSoul(amount);
+    withWriteLock(() -> {
+      record(new GameCommand.AddSoul(amount));
+      soulManager.addSoul(amount);
+    });
   }
 
   /**
@@ -328,7 +636,10 @@ public class GameModel implements GameContext, SimulationStep {
    * @param soul 魂所持量
    */
   public void setSoul(int soul) {
-    soulManager.setSoul(soul);
+    withWriteLock(() -> {
+      record(new GameCommand.SetSoul(soul));
+      soulManager.setSoul(soul);
+    });
   }
 
   /**
@@ -338,7 +649,12 @@ public class GameModel implements GameContext, SimulationStep {
    * @return 収穫できた場合はtrue
    */
   public boolean harvestSoulAt(Point2D pos) {
-    return soulManager.harvestSoulAt(this, pos);
+    return withWriteLock(() -> {
+      if (pos != null) {
+        record(new GameCommand.HarvestSoulAt(pos.getX(), pos.getY()));
+      }
+      return soulManager.harvestSoulAt(this, pos);
+    });
   }
 
   /**
@@ -349,12 +665,140 @@ public class GameModel implements GameContext, SimulationStep {
    * @return 建設できた場合はtrue
    */
   public boolean constructBuilding(Point2D.Double pos, BuildingType type) {
-    boolean constructed = buildingManager.constructBuilding(this, pos, type);
-    if (constructed) {
-      // 建設直後に住民の割り当てを再計算し、空き家への移動を促す。
-      relocationManager.rebalanceResidents();
+    return withWriteLock(() -> {
+      if (pos != null && type != null) {
+        record(new GameCommand.ConstructBuilding(pos.getX(), pos.getY(), type));
+      }
+      boolean constructed = buildingManager.constructBuilding(this, pos, type);
+      if (constructed) {
+        // 建設直後に住民の割り当てを再計算し、空き家への移動を促す。
+        relocationManager.rebalanceResidents();
+      }
+      return constructed;
+    });
+  }
+
+  /**
+   * マップのシード値を返す。
+   *
+   * @return シード値
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * 完了したティック数を返す。
+   *
+   * @return ティック数
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /**
+   * UIスレッドからの状態変更を受け付ける。ゲームループの実行中は操作をキューに積んで次のティックの
+   * 先頭で書き込みロック内で適用し、呼び出し元はロックを待たずに戻る。ループが止まっている場合や
+   * 一時停止中はその場で書き込みロックを取って適用する。
+   *
+   * @param command 状態変更の処理
+   */
+  public void submit(Runnable command) {
+    pendingCommands.add(command);
+    GameLoop loop = gameLoop;
+    if (loop == null || !loop.isRunning() || loop.isPaused()) {
+      withWriteLock(() -> {
+        drainCommands();
+        // ティックが進まないため、適用結果が設置可否の判定と描画に出るようここで写し直す
+        gameMap.publishBuildingLayer();
+        if (renderSnapshotsEnabled) {
+          renderPublisher.publish(tick, gameMap, entityManager);
+        }
+      });
+    }
+  }
+
+  /**
+   * 描画用の直近2ティック分の写しを返す。ロックは取らない。
+   * 初回の呼び出しで写しの作成を有効にし、その時点の状態を写す。
+   *
+   * @return 写しの組
+   */
+  public RenderFrames getRenderFrames() {
+    if (!renderSnapshotsEnabled) {
+      withWriteLock(() -> {
+        if (!renderSnapshotsEnabled) {
+          renderPublisher.publish(tick, gameMap, entityManager);
+          renderSnapshotsEnabled = true;
+        }
+      });
+    }
+    return renderPublisher.getFrames();
+  }
+
+  /**
+   * 描画で直前のティックと最新のティックの間を補間する割合を返す。ロックは取らない。
+   * ゲームループが動いていない場合は最新のティックをそのまま描くよう1.0を返す。
+   *
+   * @return 補間率(0.0-1.0)
+   */
+  public double getInterpolationAlpha() {
+    GameLoop loop = gameLoop;
+    return loop == null ? 1.0 : loop.getInterpolationAlpha();
+  }
+
+  /**
+   * 受け付け済みの操作を順に適用する。書き込みロック内で呼ぶこと。
+   * 1つの操作が失敗しても残りは適用する。
+   */
+  private void drainCommands() {
+    Runnable command;
+    while ((command = pendingCommands.poll()) != null) {
+      try {
+        command.run();
+      } catch (RuntimeException e) {
+        System.err.println("Failed to apply command.");
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * 外部からの操作を記録する操作ログを設定する。以前のログは閉じる。
+   *
+   * @param commandLog 操作ログ。記録をやめる場合はnull
+   */
+  public void setCommandLog(CommandLogWriter commandLog) {
+    CommandLogWriter previous = withWriteLock(() -> {
+      CommandLogWriter old = this.commandLog;
+      this.commandLog = commandLog;
+      return old;
+    });
+    if (previous != null && previous != commandLog) {
+      try {
+        previous.close();
+      } catch (IOException e) {
+        System.err.println("Failed to close command log.");
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * 外部からの操作を現在のティック番号で記録する。書き込みロック内で呼ぶこと。
+   * 書き込みに失敗した場合は以降の記録をやめる。
+   */
+  private void record(GameCommand command) {
+    if (commandLog == null || stepping) {
+      return;
+    }
+    try {
+      commandLog.append(tick, command);
+    } catch (IOException e) {
+      System.err.println("Failed to write command log. Recording is stopped.");
+      e.printStackTrace();
+      setCommandLog(null);
     }
-    return constructed;
   }
 
   /**
@@ -368,6 +812,18 @@ public class GameModel implements GameContext, SimulationStep {
     return buildingManager.validateConstruction(pos, type);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public SplitMix64 getRandom() {
+    return random;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public EventBus getEventBus() {
+    return eventBus;
+  }
+
   // getters / setters
   /**
    * マップを返す。
@@ -378,12 +834,21 @@ public class GameModel implements GameContext, SimulationStep {
     return gameMap;
   }
 
+  /**
+   * 直近のティックの処理時間とエンティティ数の集計を返す。ロックは取らない。
+   *
+   * @return 計測値のスナップショット
+   */
+  public TickMetrics getTickMetrics() {
+    return tickProfiler.snapshot();
+  }
+
   /**
    * 状態ロックを返す。
    *
    * @return 状態ロック
    */
-  public ReadWriteLock getStateLock() {
+  public StateLock getStateLock() {
     return stateLock;
   }
 
@@ -420,7 +885,7 @@ public class GameModel implements GameContext, SimulationStep {
    * @return delta time
    */
   public double getLastDeltaTime() {
-    return withReadLock(() -> lastDeltaTime);
+    return lastDeltaTime;
   }
 
   /**
@@ -493,17 +958,35 @@ public class GameModel implements GameContext, SimulationStep {
    * @param dt      経過秒
    */
   private void stepInternal(GameContext context, double dt) {
-    withWriteLock(() -> {
+    long tickStart = tickProfiler.beginTick();
+    Lock writeLock = stateLock.writeLock();
+    writeLock.lock();
+    long completedTick;
+    try {
+      long t = tickProfiler.mark(TickPhase.LOCK_WAIT, tickStart);
+      // UIから受け付けた操作は外部からの操作として、このティックの更新前に適用する
+      drainCommands();
       // updateサイクル中の生成/削除を遅延する
       entityManager.beginUpdateCycle();
+      stepping = true;
       try {
         this.lastDeltaTime = dt;
 
         // 日付進行と日次処理をまとめて実行
-        timeManager.advance(dt, day -> relocationManager.rebalanceResidents());
+        timeManager.advance(dt, day -> {
+          long rebalanceStart = tickProfiler.now();
+          relocationManager.rebalanceResidents();
+          tickProfiler.mark(TickPhase.REBALANCE, rebalanceStart);
+        });
+        t = tickProfiler.mark(TickPhase.TIME, t);
 
         // 住民・建物・災害の更新
-        entityManager.updateEntities(context);
+        entityManager.updateResidents(context);
+        t = tickProfiler.mark(TickPhase.RESIDENTS, t);
+        entityManager.updateBuildings(context);
+        t = tickProfiler.mark(TickPhase.BUILDINGS, t);
+        entityManager.updateDisasters(context);
+        t = tickProfiler.mark(TickPhase.DISASTERS, t);
 
         // 6fps相当のアニメーション進行
         animationAccumulator += dt;
@@ -511,13 +994,30 @@ public class GameModel implements GameContext, SimulationStep {
           animationAccumulator -= ANIMATION_STEP;
           entityManager.advanceAnimations(ANIMATION_STEP);
         }
+        t = tickProfiler.mark(TickPhase.ANIMATIONS, t);
 
         // update中に溜まった生成/削除を反映
         entityManager.processDeferredOperations(context);
+        t = tickProfiler.mark(TickPhase.DEFERRED, t);
+        tick++;
+        completedTick = tick;
+
+        // 設置可否の判定がロックなしで読む建物配置と、描画用の写しを公開する
+        gameMap.publishBuildingLayer();
+        if (renderSnapshotsEnabled) {
+          renderPublisher.publish(tick, gameMap, entityManager);
+        }
+        tickProfiler.mark(TickPhase.SNAPSHOT, t);
       } finally {
+        stepping = false;
         entityManager.endUpdateCycle();
       }
-    });
+    } finally {
+      writeLock.unlock();
+    }
+    // ログ出力を含むため、ロックの外で確定する
+    tickProfiler.endTick(tickStart, completedTick, entityManager.getResidentCount(),
+        entityManager.getBuildingCount(), entityManager.getDisasterCount());
   }
 
   /**
@@ -541,7 +1041,7 @@ public class GameModel implements GameContext, SimulationStep {
       offsetY = (int) Math.round(rand.nextGaussian() * height / 10);
       townHallX = centerX + offsetX;
       townHallY = centerY + offsetY;
-      if (gameMap.getCell(new Point2D.Double(townHallX, townHallY)).getTerrain() != TerrainType.WATER) {
+      if (gameMap.getCell(townHallX, townHallY).getTerrain() != TerrainType.WATER) {
         foundProperPos = true;
         break;
       }
@@ -551,7 +1051,7 @@ public class GameModel implements GameContext, SimulationStep {
     // 10回試行しても陸地が見つからない場合はマップを全探索し、最初に見つけた陸地に配置する
     for (int y = 0; y < height && !foundProperPos; y++) {
       for (int x = 0; x < width && !foundProperPos; x++) {
-        if (gameMap.getCell(new Point2D.Double(x, y)).getTerrain() != TerrainType.WATER) {
+        if (gameMap.getCell(x, y).getTerrain() != TerrainType.WATER) {
           townHallX = x;
           townHallY = y;
           foundProperPos = true;
@@ -0,0 +1,80 @@
+package io.github.sasori_256.town_planning.entity.model;
+
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+
+/**
+ * 状態が1つのlong値だけのSplitMix64乱数生成器。
+ *
+ * <p>
+ * {@link java.util.SplittableRandom}と違い状態を取り出して復元できるため、
+ * シミュレーションとエンティティの乱数をセーブデータに書いて、続きから同じ列を引ける。
+ * 分岐した生成器は親から引いた値を初期状態にする。スレッドセーフではない。
+ * </p>
+ */
+public final class SplitMix64 implements RandomGenerator.SplittableGenerator {
+  /** 状態の増分(黄金比由来の定数)。 */
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private long state;
+
+  /**
+   * 状態を指定して生成する。{@link #getState()}の値を渡すとその時点の列から再開する。
+   *
+   * @param state 初期状態
+   */
+  public SplitMix64(long state) {
+    this.state = state;
+  }
+
+  /**
+   * 現在の状態を返す。
+   *
+   * @return 状態
+   */
+  public long getState() {
+    return state;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long nextLong() {
+    state += GOLDEN_GAMMA;
+    long z = state;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public SplitMix64 split() {
+    return new SplitMix64(nextLong());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public SplitMix64 split(RandomGenerator.SplittableGenerator source) {
+    return new SplitMix64(source.nextLong());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Stream<RandomGenerator.SplittableGenerator> splits(long streamSize) {
+    return splits(streamSize, this);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Stream<RandomGenerator.SplittableGenerator> splits(
+      RandomGenerator.SplittableGenerator source) {
+    return Stream.generate(() -> split(source));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Stream<RandomGenerator.SplittableGenerator> splits(long streamSize,
+      RandomGenerator.SplittableGenerator source) {
+    return splits(source).limit(streamSize);
+  }
+}
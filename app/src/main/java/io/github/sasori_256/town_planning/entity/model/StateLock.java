@@ -0,0 +1,47 @@
+package io.github.sasori_256.town_planning.entity.model;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ゲーム状態を保護するロック。
+ *
+ * <p>
+ * 各管理クラスの入れ子の取得に対応するため{@link ReentrantReadWriteLock}で読み書きを保護する。
+ * 更新は1ティック分を書き込みロック内で行うため、描画や建設プレビューなどUIスレッドの読み取りは
+ * このロックを取らず、ティックの終わりに公開される不変の写しを読む。
+ * </p>
+ *
+ * <p>
+ * {@link #writeLock()}は内部の書き込みロックそのものを返すため、
+ * {@link Lock#newCondition()}の条件変数も{@link ReentrantReadWriteLock.WriteLock}と同じく使える。
+ * 待機中は入れ子の取得も含めて書き込みロックを手放し、再開時に同じ深さで取り直す。
+ * 読み込みロックは条件変数に対応しない。
+ * </p>
+ */
+public final class StateLock implements ReadWriteLock {
+  /** 入れ子の取得に対応する読み書きロック。 */
+  private final ReentrantReadWriteLock rw = new ReentrantReadWriteLock();
+
+  /** {@inheritDoc} */
+  @Override
+  public Lock readLock() {
+    return rw.readLock();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Lock writeLock() {
+    return rw.writeLock();
+  }
+
+  /**
+   * 現在のスレッドが書き込みロックを保持しているかを返す。
+   *
+   * @return 保持している場合はtrue
+   */
+  public boolean isWriteLockedByCurrentThread() {
+    return rw.isWriteLockedByCurrentThread();
+  }
+}
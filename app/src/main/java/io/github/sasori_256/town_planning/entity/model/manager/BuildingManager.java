@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
 import io.github.sasori_256.town_planning.common.event.EventBus;
@@ -22,7 +23,7 @@ import io.github.sasori_256.town_planning.map.model.GameMap;
  */
 public class BuildingManager {
   /** イベント通知に使用するイベントバス。 */
-  private final EventBus eventBus = EventBus.getInstance();
+  private final EventBus eventBus;
   /** マップ本体。 */
   private final GameMap gameMap;
   /** 状態同期に使用するロック。 */
@@ -35,13 +36,15 @@ public class BuildingManager {
   /**
    * 建物管理を生成する。
    *
+   * @param eventBus      イベントバス
    * @param gameMap       マップ
    * @param stateLock     状態ロック
    * @param soulManager   魂管理
    * @param entityManager エンティティ管理
    */
-  public BuildingManager(GameMap gameMap, ReadWriteLock stateLock,
+  public BuildingManager(EventBus eventBus, GameMap gameMap, ReadWriteLock stateLock,
       SoulManager soulManager, EntityManager entityManager) {
+    this.eventBus = eventBus;
     this.gameMap = gameMap;
     this.stateLock = stateLock;
     this.soulManager = soulManager;
@@ -81,13 +84,15 @@ public class BuildingManager {
 
   /**
    * 建物を建設できるか判定する。
+   * ロックを取らず、直近に公開した建物配置の写しで判定するため、UIスレッドからティックの更新を
+   * 待たずに呼べる。建設時には書き込みロック内で改めて判定する。
    *
    * @param pos  設置位置
    * @param type 建物種別
    * @return 問題があれば失敗理由、問題なければnull
    */
   public EntitySpawnFailureReason validateConstruction(Point2D.Double pos, BuildingType type) {
-    return withReadLock(() -> validateConstructionInternal(pos, type));
+    return validate(pos, type, () -> gameMap.canPlaceBuildingOnPublishedLayer(pos, type));
   }
 
   /**
@@ -173,29 +178,24 @@ public class BuildingManager {
     }
   }
 
-  private <T> T withReadLock(Supplier<T> supplier) {
-    Lock readLock = stateLock.readLock();
-    readLock.lock();
-    try {
-      return supplier.get();
-    } finally {
-      readLock.unlock();
-    }
-  }
-
   private void publishSpawnFailure(Point2D.Double pos, EntitySpawnFailureReason reason,
       String detail) {
     eventBus.publish(new EntitySpawnFailedEvent(EntitySpawnKind.BUILDING, reason, pos, detail));
   }
 
   private EntitySpawnFailureReason validateConstructionInternal(Point2D.Double pos, BuildingType type) {
+    return validate(pos, type, () -> gameMap.canPlaceBuilding(pos, type));
+  }
+
+  private EntitySpawnFailureReason validate(Point2D.Double pos, BuildingType type,
+      BooleanSupplier placeable) {
     if (type == null) {
       return EntitySpawnFailureReason.INVALID_ENTITY;
     }
     if (pos == null || !gameMap.isValidPosition(pos)) {
       return EntitySpawnFailureReason.INVALID_POSITION;
     }
-    if (!gameMap.canPlaceBuilding(pos, type)) {
+    if (!placeable.getAsBoolean()) {
       return EntitySpawnFailureReason.PLACEMENT_BLOCKED;
     }
     if (!soulManager.canAffordInternal(type.getCost())) {
@@ -0,0 +1,71 @@
+package io.github.sasori_256.town_planning.entity.model.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
+import io.github.sasori_256.town_planning.entity.model.GameContext;
+
+/**
+ * 住民の更新の1タスク分の副作用を記録するコマンドバッファ。
+ *
+ * <p>
+ * 1つのバッファは1つのタスク(住民の連続した範囲)だけが書き込むため同期は不要。
+ * 更新後、タスクの並び順にマージすることで住民の並び順どおりに副作用を反映する。
+ * </p>
+ */
+final class CommandBuffer {
+  /** 生成要求の一覧。 */
+  private final List<BaseGameEntity> spawns = new ArrayList<>();
+  /** 削除要求の一覧。 */
+  private final List<BaseGameEntity> removals = new ArrayList<>();
+  /** 副作用コマンドの一覧。 */
+  private final List<Consumer<GameContext>> commands = new ArrayList<>();
+
+  /**
+   * エンティティの生成要求を記録する。
+   *
+   * @param entity 生成するエンティティ
+   */
+  void spawn(BaseGameEntity entity) {
+    spawns.add(entity);
+  }
+
+  /**
+   * エンティティの削除要求を記録する。
+   *
+   * @param entity 削除するエンティティ
+   */
+  void remove(BaseGameEntity entity) {
+    removals.add(entity);
+  }
+
+  /**
+   * 副作用コマンドを記録する。
+   *
+   * @param command 実行する副作用
+   */
+  void enqueue(Consumer<GameContext> command) {
+    commands.add(command);
+  }
+
+  /**
+   * 記録したコマンドを実行し、生成・削除要求を待機列へ移す。
+   *
+   * @param context     コマンドに渡すコンテキスト
+   * @param spawnQueue  生成要求の移し先
+   * @param removeQueue 削除要求の移し先
+   */
+  void drainTo(GameContext context, List<BaseGameEntity> spawnQueue,
+      List<BaseGameEntity> removeQueue) {
+    for (Consumer<GameContext> command : commands) {
+      command.accept(context);
+    }
+    spawnQueue.addAll(spawns);
+    removeQueue.addAll(removals);
+    commands.clear();
+    spawns.clear();
+    removals.clear();
+  }
+}
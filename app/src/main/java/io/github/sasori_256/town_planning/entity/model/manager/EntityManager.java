@@ -3,51 +3,89 @@ package io.github.sasori_256.town_planning.entity.model.manager;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import io.github.sasori_256.town_planning.common.core.GameConfig;
 import io.github.sasori_256.town_planning.common.event.EventBus;
 import io.github.sasori_256.town_planning.common.event.events.DisasterOccurredEvent;
 import io.github.sasori_256.town_planning.common.event.events.MapUpdatedEvent;
 import io.github.sasori_256.town_planning.common.event.events.ResidentBornEvent;
 import io.github.sasori_256.town_planning.entity.building.Building;
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
 import io.github.sasori_256.town_planning.entity.disaster.Disaster;
+import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 import io.github.sasori_256.town_planning.entity.resident.Resident;
 import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+import io.github.sasori_256.town_planning.entity.resident.ResidentType;
+import io.github.sasori_256.town_planning.map.model.GameMap;
 
 /**
  * エンティティの生成・削除・更新をまとめて扱う管理クラス。
  */
 public class EntityManager {
   /** イベント通知に使用するイベントバス。 */
-  private final EventBus eventBus = EventBus.getInstance();
+  private final EventBus eventBus;
   /** 状態同期に使用するロック。 */
   private final ReadWriteLock stateLock;
   /** 建物エンティティ一覧。 */
-  private final List<Building> buildingEntities = new CopyOnWriteArrayList<>();
+  private final EntityStore<Building> buildingEntities = new EntityStore<>();
   /** 住民エンティティ一覧。 */
-  private final List<Resident> residentEntities = new CopyOnWriteArrayList<>();
+  private final EntityStore<Resident> residentEntities = new EntityStore<>();
   /** 災害エンティティ一覧。 */
-  private final List<Disaster> disasterEntities = new CopyOnWriteArrayList<>();
+  private final EntityStore<Disaster> disasterEntities = new EntityStore<>();
   /** updateサイクル中かどうかを判定するフラグ。 */
   private final ThreadLocal<Boolean> inUpdateCycle = ThreadLocal.withInitial(() -> false);
   /** update中に追加されたエンティティの待機列。 */
-  private final List<BaseGameEntity> entitiesToSpawn = new CopyOnWriteArrayList<>();
+  private final List<BaseGameEntity> entitiesToSpawn = new ArrayList<>();
   /** update中に削除されたエンティティの待機列。 */
-  private final List<BaseGameEntity> entitiesToRemove = new CopyOnWriteArrayList<>();
+  private final List<BaseGameEntity> entitiesToRemove = new ArrayList<>();
+  /** 住民の位置による空間インデックス。 */
+  private final SpatialHashGrid<Resident> residentIndex;
+  /** 住民の位置変更を空間インデックスへ反映する通知先。 */
+  private final Consumer<Resident> residentMoved;
+  /** 住民の状態ごとの人数。 */
+  private final ResidentStateCounts residentStateCounts = new ResidentStateCounts();
+  /** 住民の状態遷移を人数集計へ反映する通知先。 */
+  private final BiConsumer<ResidentState, ResidentState> residentStateChanged =
+      residentStateCounts::transition;
+  /** 住民の更新中かどうか。更新中は空間インデックスを更新しない。 */
+  private volatile boolean residentPhase;
+  /** 並列更新用のスレッドプール。初回の並列更新時に生成する。 */
+  private ForkJoinPool updatePool;
+  /** 住民を並列に更新するかの指定。nullなら設定と住民数で決める。 */
+  private volatile Boolean parallelOverride;
 
   /**
    * エンティティ管理を生成する。
    *
+   * @param eventBus  イベントバス
    * @param stateLock 状態ロック
+   * @param mapWidth  マップの横幅(セル数)
+   * @param mapHeight マップの縦幅(セル数)
    */
-  public EntityManager(ReadWriteLock stateLock) {
+  public EntityManager(EventBus eventBus, ReadWriteLock stateLock, int mapWidth,
+      int mapHeight) {
+    this.eventBus = eventBus;
     this.stateLock = stateLock;
+    this.residentIndex = new SpatialHashGrid<>(mapWidth, mapHeight,
+        GameConfig.getSpatialIndexCellSizeTiles());
+    this.residentMoved = resident -> {
+      if (!residentPhase) {
+        residentIndex.update(resident);
+      }
+    };
   }
 
   /**
@@ -79,29 +117,108 @@ public class EntityManager {
 
   /**
    * 建物のスナップショットを返す。
+   * 変更がなければ同じインスタンスを共有するため、呼び出しごとのコピーは発生しない。
    *
-   * @return 建物リストのコピー
+   * @return 建物の不変リスト
    */
   public List<Building> snapshotBuildings() {
-    return withReadLock(() -> new ArrayList<>(buildingEntities));
+    return buildingEntities.snapshot();
   }
 
   /**
    * 住民のスナップショットを返す。
+   * 変更がなければ同じインスタンスを共有するため、呼び出しごとのコピーは発生しない。
    *
-   * @return 住民リストのコピー
+   * @return 住民の不変リスト
    */
   public List<Resident> snapshotResidents() {
-    return withReadLock(() -> new ArrayList<>(residentEntities));
+    return residentEntities.snapshot();
   }
 
   /**
    * 災害のスナップショットを返す。
+   * 変更がなければ同じインスタンスを共有するため、呼び出しごとのコピーは発生しない。
    *
-   * @return 災害リストのコピー
+   * @return 災害の不変リスト
    */
   public List<Disaster> snapshotDisasters() {
-    return withReadLock(() -> new ArrayList<>(disasterEntities));
+    return disasterEntities.snapshot();
+  }
+
+  /**
+   * {@link #snapshotResidents()}と同じ並びで住民のハンドルを書き出す。
+   *
+   * @param reuse 書き出し先の配列。nullでもよい
+   * @return ハンドルを先頭から住民数分書いた配列
+   */
+  public long[] snapshotResidentHandles(long[] reuse) {
+    return residentEntities.snapshotHandles(reuse);
+  }
+
+  /**
+   * {@link #snapshotDisasters()}と同じ並びで災害のハンドルを書き出す。
+   *
+   * @param reuse 書き出し先の配列。nullでもよい
+   * @return ハンドルを先頭から災害数分書いた配列
+   */
+  public long[] snapshotDisasterHandles(long[] reuse) {
+    return disasterEntities.snapshotHandles(reuse);
+  }
+
+  /**
+   * 登録済みの建物数を返す。ロックは不要。
+   *
+   * @return 建物数
+   */
+  public int getBuildingCount() {
+    return buildingEntities.size();
+  }
+
+  /**
+   * 登録済みの住民数を返す。ロックは不要。
+   *
+   * @return 住民数
+   */
+  public int getResidentCount() {
+    return residentEntities.size();
+  }
+
+  /**
+   * 登録済みの災害数を返す。ロックは不要。
+   *
+   * @return 災害数
+   */
+  public int getDisasterCount() {
+    return disasterEntities.size();
+  }
+
+  /**
+   * 住民の状態ごとの人数を返す。ロックは不要。
+   *
+   * @return 人数集計
+   */
+  ResidentStateCounts getResidentStateCounts() {
+    return residentStateCounts;
+  }
+
+  /**
+   * 住民のハンドルを返す。
+   *
+   * @param resident 対象の住民
+   * @return ハンドル。未登録なら{@link EntityStore#NO_HANDLE}
+   */
+  public long getResidentHandle(Resident resident) {
+    return residentEntities.handleOf(resident);
+  }
+
+  /**
+   * ハンドルが指す住民を返す。
+   *
+   * @param handle {@link #getResidentHandle(Resident)}で得たハンドル
+   * @return 住民。削除済みなど古いハンドルならnull
+   */
+  public Resident findResident(long handle) {
+    return residentEntities.get(handle);
   }
 
   /**
@@ -158,31 +275,166 @@ public class EntityManager {
 
   /**
    * 住民を追加する内部処理。
+   * 追加したエンティティには追加順にシミュレーションの乱数から分岐した乱数を持たせる。
    */
   private void addResidentInternal(Resident entity, GameContext context) {
-    residentEntities.add(entity);
+    if (!registerResident(entity)) {
+      return;
+    }
+    entity.setRandom(context.getRandom().split());
     entity.onSpawn(context);
     eventBus.publish(new ResidentBornEvent(entity.getPosition(), context.getPopulationAlive()));
   }
 
+  /**
+   * 住民を一覧と集計に登録する。
+   *
+   * @return 登録した場合はtrue
+   */
+  private boolean registerResident(Resident entity) {
+    if (!residentEntities.add(entity)) {
+      return false;
+    }
+    residentIndex.insert(entity);
+    residentStateCounts.added(entity.getState());
+    entity.setStateObserver(residentStateChanged);
+    entity.setPositionObserver(residentMoved);
+    return true;
+  }
+
   /**
    * 建物を追加する内部処理。
    */
   private void addBuildingInternal(Building entity, GameContext context) {
-    buildingEntities.add(entity);
+    if (!registerBuilding(entity)) {
+      return;
+    }
+    entity.setRandom(context.getRandom().split());
     entity.onSpawn(context);
     eventBus.publish(new MapUpdatedEvent(entity.getPosition()));
   }
 
+  private boolean registerBuilding(Building entity) {
+    if (!buildingEntities.add(entity)) {
+      return false;
+    }
+    return true;
+  }
+
   /**
    * 災害を追加する内部処理。
    */
   private void addDisasterInternal(Disaster entity, GameContext context) {
-    disasterEntities.add(entity);
+    if (!registerDisaster(entity)) {
+      return;
+    }
+    entity.setRandom(context.getRandom().split());
     entity.onSpawn(context);
     eventBus.publish(new DisasterOccurredEvent(entity.getType()));
   }
 
+  private boolean registerDisaster(Disaster entity) {
+    if (!disasterEntities.add(entity)) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * 全エンティティを登録順に書き込む。書き込みを止めるロックは呼び出し側で取ること。
+   *
+   * <p>
+   * マップに配置済みの建物は{@link GameMap#writeState(SaveOutput)}が状態ごと書くため、
+   * ここではアンカー座標だけを書き、読み込み時にマップ上の同じインスタンスを登録する。
+   * </p>
+   *
+   * @param out 書き込み先
+   * @param map 建物の配置先のマップ
+   */
+  public void writeState(SaveOutput out, GameMap map) {
+    List<Building> buildings = buildingEntities.snapshot();
+    out.writeInt(buildings.size());
+    for (Building building : buildings) {
+      int anchorX = (int) Math.round(building.getPosition().getX());
+      int anchorY = (int) Math.round(building.getPosition().getY());
+      boolean placed = map.inBounds(anchorX, anchorY)
+          && map.getCell(anchorX, anchorY).getBuilding() == building;
+      out.writeBoolean(placed);
+      if (placed) {
+        out.writeInt(anchorX);
+        out.writeInt(anchorY);
+      } else {
+        out.writeEnum(building.getType());
+        building.writeState(out);
+      }
+    }
+    List<Resident> residents = residentEntities.snapshot();
+    out.writeInt(residents.size());
+    for (Resident resident : residents) {
+      out.writeEnum(resident.getType());
+      resident.writeState(out);
+    }
+    List<Disaster> disasters = disasterEntities.snapshot();
+    out.writeInt(disasters.size());
+    for (Disaster disaster : disasters) {
+      out.writeEnum(disaster.getType());
+      disaster.writeState(out);
+    }
+  }
+
+  /**
+   * {@link #writeState(SaveOutput, GameMap)}で書いたエンティティを読み込んで登録する。
+   * 既にゲーム世界にいたものを戻すだけなので、生成時の処理とイベントは実行せず、
+   * 乱数も分岐させずに保存した状態のものを使う。
+   *
+   * @param in  読み込み元
+   * @param map 読み込み済みのマップ
+   */
+  public void readState(SaveInput in, GameMap map) {
+    BuildingType[] buildingTypes = BuildingType.values();
+    int buildings = in.readCount();
+    for (int i = 0; i < buildings; i++) {
+      Building building;
+      if (in.readBoolean()) {
+        int anchorX = in.readInt();
+        int anchorY = in.readInt();
+        building = map.inBounds(anchorX, anchorY) ? map.getCell(anchorX, anchorY).getBuilding()
+            : null;
+        if (building == null) {
+          throw new IllegalStateException("No building at (" + anchorX + ", " + anchorY + ")");
+        }
+      } else {
+        building = new Building(new Point2D.Double(0, 0), requireType(in.readEnum(buildingTypes)));
+        building.readState(in);
+      }
+      registerBuilding(building);
+    }
+    ResidentType[] residentTypes = ResidentType.values();
+    int residents = in.readCount();
+    for (int i = 0; i < residents; i++) {
+      Point2D.Double origin = new Point2D.Double(0, 0);
+      Resident resident = new Resident(origin, requireType(in.readEnum(residentTypes)),
+          ResidentState.AT_HOME, origin);
+      resident.readState(in);
+      registerResident(resident);
+    }
+    DisasterType[] disasterTypes = DisasterType.values();
+    int disasters = in.readCount();
+    for (int i = 0; i < disasters; i++) {
+      Disaster disaster = new Disaster(new Point2D.Double(0, 0),
+          requireType(in.readEnum(disasterTypes)));
+      disaster.readState(in);
+      registerDisaster(disaster);
+    }
+  }
+
+  private static <T> T requireType(T type) {
+    if (type == null) {
+      throw new IllegalStateException("Entity type is missing.");
+    }
+    return type;
+  }
+
   /**
    * エンティティをゲーム世界から削除する。
    *
@@ -214,7 +466,13 @@ public class EntityManager {
   void removeEntityInternal(BaseGameEntity entity, GameContext context) {
     entity.onRemove(context);
     if (entity instanceof Resident) {
-      residentEntities.remove(entity);
+      Resident resident = (Resident) entity;
+      if (residentEntities.remove(resident)) {
+        residentStateCounts.removed(resident.getState());
+      }
+      residentIndex.remove(resident);
+      resident.setStateObserver(null);
+      resident.setPositionObserver(null);
     } else if (entity instanceof Building) {
       buildingEntities.remove(entity);
     } else if (entity instanceof Disaster) {
@@ -224,34 +482,171 @@ public class EntityManager {
 
   /**
    * update処理で各エンティティの状態を更新する。
+   * 住民、建物、災害の順に{@link #updateResidents(GameContext)}などを呼ぶのと同じ。
    *
    * @param context ゲームコンテキスト
    */
   public void updateEntities(GameContext context) {
-    for (Resident resident : residentEntities) {
-      resident.update(context);
+    updateResidents(context);
+    updateBuildings(context);
+    updateDisasters(context);
+  }
+
+  /**
+   * 住民の状態を更新する。住民数が多い場合は並列に更新する。
+   *
+   * <p>
+   * 住民は連続した範囲ごとのタスクに分け、各タスクに読み取り専用の{@link ResidentUpdateContext}と
+   * 専用のコマンドバッファを渡す。逐次更新では全住民を1つのタスクとして同じように更新するため、
+   * 副作用が反映される時点は並列かどうかに依らない。フェーズ中は空間インデックスを固定し、
+   * 終了後に全住民の位置をまとめて反映してから、バッファをタスク順に実行する。
+   * バッファ内の生成・削除は待機列に積まれ、{@link #processDeferredOperations(GameContext)}で反映される。
+   * </p>
+   *
+   * @param context ゲームコンテキスト
+   */
+  public void updateResidents(GameContext context) {
+    List<Resident> residents = residentEntities.snapshot();
+    if (residents.isEmpty()) {
+      return;
     }
-    for (Building building : buildingEntities) {
+    boolean parallel = shouldUpdateInParallel();
+    int chunkSize = parallel ? GameConfig.getSimulationParallelChunkSize() : residents.size();
+    int chunkCount = (residents.size() + chunkSize - 1) / chunkSize;
+    ResidentUpdateContext.Values values = ResidentUpdateContext.Values.capture(context);
+    List<CommandBuffer> buffers = new ArrayList<>(chunkCount);
+    List<ResidentChunk> chunks = new ArrayList<>(chunkCount);
+    for (int i = 0; i < chunkCount; i++) {
+      CommandBuffer buffer = new CommandBuffer();
+      buffers.add(buffer);
+      chunks.add(new ResidentChunk(residents, i * chunkSize,
+          Math.min(residents.size(), (i + 1) * chunkSize),
+          new ResidentUpdateContext(context, this, values, buffer)));
+    }
+    residentPhase = true;
+    try {
+      if (parallel) {
+        updatePool().invoke(new RecursiveAction() {
+          @Override
+          protected void compute() {
+            invokeAll(chunks);
+          }
+        });
+      } else {
+        chunks.get(0).compute();
+      }
+    } finally {
+      residentPhase = false;
+    }
+    for (Resident resident : residents) {
+      residentIndex.update(resident);
+    }
+    // コマンド内の生成・削除も待機列に積まれる。
+    withWriteLock(() -> {
+      for (CommandBuffer buffer : buffers) {
+        buffer.drainTo(context, entitiesToSpawn, entitiesToRemove);
+      }
+    });
+  }
+
+  /**
+   * 建物の状態を更新する。
+   *
+   * @param context ゲームコンテキスト
+   */
+  public void updateBuildings(GameContext context) {
+    for (Building building : buildingEntities.snapshot()) {
       building.update(context);
     }
-    for (Disaster disaster : disasterEntities) {
+  }
+
+  /**
+   * 災害の状態を更新する。
+   *
+   * @param context ゲームコンテキスト
+   */
+  public void updateDisasters(GameContext context) {
+    for (Disaster disaster : disasterEntities.snapshot()) {
       disaster.update(context);
     }
   }
 
+  /**
+   * 住民を並列に更新するかを、設定と住民数に依らず指定する。
+   * 並列かどうかで結果が変わらないことを同じ町で確かめる場合に使う。
+   *
+   * @param parallel trueなら常に並列、falseなら常に逐次。nullなら設定と住民数で決める
+   */
+  public void setParallelOverride(Boolean parallel) {
+    this.parallelOverride = parallel;
+  }
+
+  private boolean shouldUpdateInParallel() {
+    Boolean override = parallelOverride;
+    if (override != null) {
+      return override;
+    }
+    return GameConfig.isSimulationParallelEnabled()
+        && residentEntities.size() >= GameConfig.getSimulationParallelMinResidents();
+  }
+
+  private synchronized ForkJoinPool updatePool() {
+    if (updatePool == null) {
+      int threads = GameConfig.getSimulationParallelThreads();
+      updatePool = new ForkJoinPool(
+          threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+    return updatePool;
+  }
+
+  /**
+   * 並列更新用のスレッドプールを停止する。
+   */
+  public synchronized void dispose() {
+    if (updatePool != null) {
+      updatePool.shutdown();
+      updatePool = null;
+    }
+  }
+
+  /**
+   * 住民配列の連続した範囲を更新するタスク。
+   */
+  private static final class ResidentChunk extends RecursiveAction {
+    private final List<Resident> residents;
+    private final int from;
+    private final int to;
+    private final GameContext context;
+
+    private ResidentChunk(List<Resident> residents, int from, int to, GameContext context) {
+      this.residents = residents;
+      this.from = from;
+      this.to = to;
+      this.context = context;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void compute() {
+      for (int i = from; i < to; i++) {
+        residents.get(i).update(context);
+      }
+    }
+  }
+
   /**
    * 各エンティティのアニメーション進行を行う。
    *
    * @param dt 前回からの経過秒
    */
   public void advanceAnimations(double dt) {
-    for (Resident resident : residentEntities) {
+    for (Resident resident : residentEntities.snapshot()) {
       resident.advanceAnimation(dt);
     }
-    for (Building building : buildingEntities) {
+    for (Building building : buildingEntities.snapshot()) {
       building.advanceAnimation(dt);
     }
-    for (Disaster disaster : disasterEntities) {
+    for (Disaster disaster : disasterEntities.snapshot()) {
       disaster.advanceAnimation(dt);
     }
   }
@@ -276,22 +671,64 @@ public class EntityManager {
   }
 
   /**
-   * 指定座標の周辺にいる死亡住民を検索する。
+   * 指定座標の周辺にいる死亡住民のうち最も近いものを検索する。
    *
    * @param pos    検索中心
    * @param radius 探索半径
    * @return 対象の住民。見つからない場合はnull
    */
   public Resident findDeadResidentWithin(Point2D pos, double radius) {
-    return withReadLock(() -> {
-      for (Resident resident : residentEntities) {
-        if (resident.getState() == ResidentState.DEAD
-            && resident.getPosition().distance(pos) <= radius) {
-          return resident;
-        }
-      }
-      return null;
-    });
+    return findNearestResident(pos, radius,
+        resident -> resident.getState() == ResidentState.DEAD);
+  }
+
+  /**
+   * 指定円内(境界含む)にいる住民を返す。
+   *
+   * @param center 中心座標
+   * @param radius 半径
+   * @return 該当する住民の一覧
+   */
+  public List<Resident> findResidentsWithin(Point2D center, double radius) {
+    return withReadLock(() -> residentIndex.queryRadius(center, radius));
+  }
+
+  /**
+   * ロックを取得せずに指定円内の住民を返す。
+   * 並列更新中は空間インデックスが変更されないため、ワーカーからはこちらを使う。
+   *
+   * @param center 中心座標
+   * @param radius 半径
+   * @return 該当する住民の一覧
+   */
+  List<Resident> queryResidentsWithin(Point2D center, double radius) {
+    return residentIndex.queryRadius(center, radius);
+  }
+
+  /**
+   * 指定リング内(innerRadius &lt; 距離 &lt;= outerRadius)にいる住民を返す。
+   *
+   * @param center      中心座標
+   * @param innerRadius 内側半径
+   * @param outerRadius 外側半径
+   * @return 該当する住民の一覧
+   */
+  public List<Resident> findResidentsInRing(Point2D center, double innerRadius,
+      double outerRadius) {
+    return withReadLock(() -> residentIndex.queryRing(center, innerRadius, outerRadius));
+  }
+
+  /**
+   * 指定半径内で条件を満たす最も近い住民を返す。
+   *
+   * @param center 中心座標
+   * @param radius 探索半径
+   * @param filter 条件。nullなら全件対象
+   * @return 対象の住民。見つからない場合はnull
+   */
+  public Resident findNearestResident(Point2D center, double radius,
+      Predicate<? super Resident> filter) {
+    return withReadLock(() -> residentIndex.nearest(center, radius, filter));
   }
 
   /**
@@ -0,0 +1,220 @@
+package io.github.sasori_256.town_planning.entity.model.manager;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
+
+/**
+ * エンティティを密な配列で保持するストア。
+ *
+ * <p>
+ * 追加は末尾への書き込み、削除は末尾要素との入れ替え(swap-remove)でどちらもO(1)。
+ * 各エンティティには追加時に整数IDを割り当て、削除後も同じIDは再利用されるが世代番号が進むため、
+ * ハンドル(世代とIDの組)から古い参照を検出できる。
+ * 読み取り側には変更のたびに1回だけ作り直す不変スナップショットを共有するため、
+ * 読み取りごとのコピーは発生しない。各操作はストア自身で同期する。
+ * </p>
+ *
+ * @param <T> 保持するエンティティ型
+ */
+public final class EntityStore<T> {
+  /** 無効なハンドル。 */
+  public static final long NO_HANDLE = -1L;
+
+  /** 登録順(削除で入れ替わる)に詰めたエンティティ。 */
+  private Object[] dense = new Object[16];
+  /** dense上の位置ごとのID。 */
+  private int[] idOfSlot = new int[16];
+  /** IDごとのdense上の位置。未使用のIDは-1。 */
+  private int[] slotOfId = new int[16];
+  /** IDごとの世代番号。削除のたびに進む。 */
+  private int[] generation = new int[16];
+  /** 再利用待ちのID。 */
+  private int[] freeIds = new int[16];
+  private int freeCount;
+  /** 発行済みIDの数。 */
+  private int idCount;
+  /** 保持数。 */
+  private int size;
+  /** エンティティからIDへの対応。 */
+  private final Map<T, Integer> idOf = new IdentityHashMap<>();
+  /** 読み取り用スナップショット。変更後の最初の読み取りで作り直す。 */
+  private List<T> snapshot = List.of();
+  private boolean dirty;
+
+  /**
+   * エンティティを追加する。
+   *
+   * @param entity 追加するエンティティ
+   * @return 追加した場合はtrue。登録済みならfalse
+   */
+  public synchronized boolean add(T entity) {
+    if (entity == null || idOf.containsKey(entity)) {
+      return false;
+    }
+    int id = freeCount > 0 ? freeIds[--freeCount] : newId();
+    if (size == dense.length) {
+      dense = Arrays.copyOf(dense, size * 2);
+      idOfSlot = Arrays.copyOf(idOfSlot, size * 2);
+    }
+    dense[size] = entity;
+    idOfSlot[size] = id;
+    slotOfId[id] = size;
+    size++;
+    idOf.put(entity, id);
+    dirty = true;
+    return true;
+  }
+
+  private int newId() {
+    if (idCount == slotOfId.length) {
+      slotOfId = Arrays.copyOf(slotOfId, idCount * 2);
+      generation = Arrays.copyOf(generation, idCount * 2);
+    }
+    return idCount++;
+  }
+
+  /**
+   * エンティティを削除する。空いた位置には末尾の要素を移す。
+   *
+   * @param entity 削除するエンティティ
+   * @return 削除した場合はtrue
+   */
+  public synchronized boolean remove(Object entity) {
+    Integer boxed = entity == null ? null : idOf.remove(entity);
+    if (boxed == null) {
+      return false;
+    }
+    int id = boxed;
+    int slot = slotOfId[id];
+    int last = size - 1;
+    if (slot != last) {
+      dense[slot] = dense[last];
+      idOfSlot[slot] = idOfSlot[last];
+      slotOfId[idOfSlot[slot]] = slot;
+    }
+    dense[last] = null;
+    size = last;
+    slotOfId[id] = -1;
+    generation[id]++;
+    if (freeCount == freeIds.length) {
+      freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+    }
+    freeIds[freeCount++] = id;
+    dirty = true;
+    return true;
+  }
+
+  /**
+   * 保持数を返す。
+   *
+   * @return 保持数
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * エンティティのハンドルを返す。
+   *
+   * @param entity 対象エンティティ
+   * @return 上位32bitが世代、下位32bitがIDのハンドル。未登録なら{@link #NO_HANDLE}
+   */
+  public synchronized long handleOf(T entity) {
+    Integer id = entity == null ? null : idOf.get(entity);
+    if (id == null) {
+      return NO_HANDLE;
+    }
+    return ((long) generation[id] << 32) | id;
+  }
+
+  /**
+   * ハンドルが指すエンティティを返す。
+   *
+   * @param handle {@link #handleOf(Object)}で得たハンドル
+   * @return エンティティ。削除済みなど古いハンドルならnull
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized T get(long handle) {
+    int id = (int) handle;
+    if (handle == NO_HANDLE || id < 0 || id >= idCount
+        || generation[id] != (int) (handle >>> 32) || slotOfId[id] < 0) {
+      return null;
+    }
+    return (T) dense[slotOfId[id]];
+  }
+
+  /**
+   * 現在の内容の不変スナップショットを返す。
+   * 変更がなければ前回と同じインスタンスを返すため、繰り返し呼んでもコピーは発生しない。
+   *
+   * @return 不変リスト
+   */
+  public synchronized List<T> snapshot() {
+    if (dirty) {
+      snapshot = new ArrayView<>(Arrays.copyOf(dense, size));
+      dirty = false;
+    }
+    return snapshot;
+  }
+
+  /**
+   * {@link #snapshot()}と同じ並びで各エンティティのハンドルを書き出す。
+   * 受け取った配列が足りない場合は新しく確保して返す。
+   *
+   * @param reuse 書き出し先の配列。nullでもよい
+   * @return ハンドルを先頭から保持数分書いた配列
+   */
+  public synchronized long[] snapshotHandles(long[] reuse) {
+    snapshot();
+    long[] handles = reuse != null && reuse.length >= size ? reuse : new long[size];
+    for (int slot = 0; slot < size; slot++) {
+      int id = idOfSlot[slot];
+      handles[slot] = ((long) generation[id] << 32) | id;
+    }
+    return handles;
+  }
+
+  /**
+   * スナップショットのストリームを返す。
+   *
+   * @return ストリーム
+   */
+  public Stream<T> stream() {
+    return snapshot().stream();
+  }
+
+  /**
+   * 配列をそのまま見せる不変リスト。
+   */
+  private static final class ArrayView<T> extends AbstractList<T> implements RandomAccess {
+    private final Object[] elements;
+
+    private ArrayView(Object[] elements) {
+      this.elements = elements;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+      return (T) elements[index];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+      return elements.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object[] toArray() {
+      return elements.clone();
+    }
+  }
+}
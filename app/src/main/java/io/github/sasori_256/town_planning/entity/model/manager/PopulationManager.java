@@ -3,34 +3,38 @@ package io.github.sasori_256.town_planning.entity.model.manager;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.function.Supplier;
 
 import io.github.sasori_256.town_planning.common.event.EventBus;
 import io.github.sasori_256.town_planning.common.event.Subscription;
 import io.github.sasori_256.town_planning.common.event.events.GameOverEvent;
 import io.github.sasori_256.town_planning.common.event.events.ResidentBornEvent;
 import io.github.sasori_256.town_planning.common.event.events.ResidentDiedEvent;
-import io.github.sasori_256.town_planning.entity.resident.Resident;
-import io.github.sasori_256.town_planning.entity.resident.ResidentState;
-
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 /**
  * 住民数の集計を管理する。
+ *
+ * <p>
+ * 現在の住民数は{@link EntityManager}が状態遷移ごとに増減するカウンタから読み、
+ * 全住民を走査しない。読み取りはいずれもロックを取らない。
+ * </p>
  */
-public class PopulationManager {
+public class PopulationManager implements Persistable {
   /** イベント通知に使用するイベントバス。 */
-  private final EventBus eventBus = EventBus.getInstance();
+  private final EventBus eventBus;
   /** 状態同期に使用するロック。 */
   private final ReadWriteLock stateLock;
-  /** エンティティ管理。 */
-  private final EntityManager entityManager;
   /** ResidentDiedEvent用のunsubscriber。 */
   private Subscription diedSub;
   /** ResidentBornEvent用のunsubscriber。 */
   private Subscription bornSub;
-  /** 最大生存住民数。 */
-  private int maxPopulation;
-  /** 累計死亡住民数。 */
-  private int totalDeaths;
+  /** 状態ごとの住民数。 */
+  private final ResidentStateCounts counts;
+  /** 最大生存住民数。書き込みは状態ロック内で行う。 */
+  private volatile int maxPopulation;
+  /** 累計死亡住民数。書き込みは状態ロック内で行う。 */
+  private volatile int totalDeaths;
   /** ゲームオーバー処理の多重実行防止。 */
   private final AtomicBoolean gameOverTriggered = new AtomicBoolean(false);
 
@@ -41,9 +45,11 @@ public class PopulationManager {
    * @param stateLock     状態ロック
    * @param entityManager エンティティ管理
    */
-  public PopulationManager(ReadWriteLock stateLock, EntityManager entityManager) {
+  public PopulationManager(EventBus eventBus, ReadWriteLock stateLock,
+      EntityManager entityManager) {
+    this.eventBus = eventBus;
     this.stateLock = stateLock;
-    this.entityManager = entityManager;
+    this.counts = entityManager.getResidentStateCounts();
 
     this.maxPopulation = getAlivePopulation();
     this.totalDeaths = 0;
@@ -60,7 +66,7 @@ public class PopulationManager {
       withWriteLock(() -> {
         totalDeaths++;
       });
-      if (event.populationAlive() == 0 && gameOverTriggered.compareAndSet(false, true)) {
+      if (snapshot().alive() == 0 && gameOverTriggered.compareAndSet(false, true)) {
         // ゲーム全体でゲームオーバー処理を開始するためにイベントを発行。
         this.eventBus.publish(new GameOverEvent());
         // ResidentDiedEventの購読を解除。
@@ -85,15 +91,7 @@ public class PopulationManager {
    * @return 生存住民数
    */
   public int getAlivePopulation() {
-    return withReadLock(() -> {
-      int count = 0;
-      for (Resident resident : entityManager.snapshotResidents()) {
-        if (resident.getState() != ResidentState.DEAD) {
-          count++;
-        }
-      }
-      return count;
-    });
+    return counts.alive();
   }
 
   /**
@@ -102,15 +100,7 @@ public class PopulationManager {
    * @return 死亡住民数
    */
   public int getDeadPopulation() {
-    return withReadLock(() -> {
-      int count = 0;
-      for (Resident resident : entityManager.snapshotResidents()) {
-        if (resident.getState() == ResidentState.DEAD) {
-          count++;
-        }
-      }
-      return count;
-    });
+    return counts.dead();
   }
 
   /**
@@ -119,7 +109,7 @@ public class PopulationManager {
    * @return 最大生存住民数
    */
   public int getMaxPopulation() {
-    return withReadLock(() -> maxPopulation);
+    return maxPopulation;
   }
 
   /**
@@ -128,24 +118,45 @@ public class PopulationManager {
    * @return 累計死亡住民数
    */
   public int getTotalDeaths() {
-    return withReadLock(() -> totalDeaths);
+    return totalDeaths;
   }
 
   /**
-   * 読み込みロック内で処理を実行する。
+   * 現在の住民数の集計をロックを取らずに返す。
+   * 各値は個別に読むため、更新中に呼んだ場合は値同士が厳密に揃わないことがある。
    *
-   * @param supplier 実行処理
-   * @param <T>      返り値型
-   * @return 実行結果
+   * @return 住民数の集計
    */
-  private <T> T withReadLock(Supplier<T> supplier) {
-    Lock readLock = stateLock.readLock();
-    readLock.lock();
-    try {
-      return supplier.get();
-    } finally {
-      readLock.unlock();
-    }
+  public PopulationSnapshot snapshot() {
+    return new PopulationSnapshot(counts.alive(), counts.dead(), maxPopulation, totalDeaths);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   * 現在の住民数は住民の一覧から復元されるため、最大生存住民数と累計死亡住民数だけを書く。
+   * </p>
+   */
+  @Override
+  public void writeState(SaveOutput out) {
+    out.writeInt(maxPopulation);
+    out.writeInt(totalDeaths);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    maxPopulation = in.readInt();
+    totalDeaths = in.readInt();
+  }
+
+  /**
+   * イベントの購読を解除する。
+   */
+  public void dispose() {
+    diedSub.unsubscribe();
+    bornSub.unsubscribe();
   }
 
   /**
@@ -0,0 +1,12 @@
+package io.github.sasori_256.town_planning.entity.model.manager;
+
+/**
+ * ある時点の住民数の集計。
+ *
+ * @param alive       生存住民数
+ * @param dead        死亡住民数(遺体が残っている数)
+ * @param max         最大生存住民数
+ * @param totalDeaths 累計死亡住民数
+ */
+public record PopulationSnapshot(int alive, int dead, int max, int totalDeaths) {
+}
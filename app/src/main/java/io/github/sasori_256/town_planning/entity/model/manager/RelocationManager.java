@@ -9,6 +9,7 @@ import java.util.concurrent.locks.ReadWriteLock;
 import java.util.function.Supplier;
 
 import io.github.sasori_256.town_planning.common.core.GameConfig;
+import io.github.sasori_256.town_planning.common.jfr.JfrRebalanceEvent;
 import io.github.sasori_256.town_planning.entity.building.Building;
 import io.github.sasori_256.town_planning.entity.building.BuildingType;
 import io.github.sasori_256.town_planning.entity.model.CategoryType;
@@ -42,6 +43,8 @@ public class RelocationManager {
    * 住民数を住宅に均等化し、引っ越し対象を決める。
    */
   public void rebalanceResidents() {
+    JfrRebalanceEvent event = new JfrRebalanceEvent();
+    event.begin();
     withWriteLock(() -> {
       List<Building> houses = new ArrayList<>();
       for (Building building : entityManager.snapshotBuildings()) {
@@ -49,6 +52,7 @@ public class RelocationManager {
           houses.add(building);
         }
       }
+      event.houses = houses.size();
       if (houses.isEmpty()) {
         return null;
       }
@@ -86,6 +90,7 @@ public class RelocationManager {
         }
         totalResidents++;
       }
+      event.residents = totalResidents;
       if (totalResidents == 0) {
         for (Building building : houses) {
           building.setCurrentPopulation(0);
@@ -153,6 +158,7 @@ public class RelocationManager {
           resident.setState(ResidentState.RELOCATING);
           need.house.assignedCount++;
           need.remaining--;
+          event.movers++;
         }
       }
 
@@ -162,6 +168,7 @@ public class RelocationManager {
 
       return null;
     });
+    event.commit();
   }
 
   /**
@@ -3,7 +3,6 @@ package io.github.sasori_256.town_planning.entity.model.manager;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.function.Supplier;
@@ -56,14 +55,8 @@ public class ResidentPanicManager {
       return;
     }
     withWriteLock(() -> {
-      for (Resident resident : entityManager.snapshotResidents()) {
-        if (resident == null) {
-          continue;
-        }
-        double distance = resident.getPosition().distance(center);
-        if (distance > innerRadius && distance <= outerRadius) {
-          applyPanic(context, resident);
-        }
+      for (Resident resident : entityManager.findResidentsInRing(center, innerRadius, outerRadius)) {
+        applyPanic(context, resident);
       }
       return null;
     });
@@ -119,7 +112,7 @@ public class ResidentPanicManager {
       return;
     }
     if (resident.getState() == ResidentState.AT_HOME) {
-      Point2D.Double exit = findHomeExit(context.getMap(), resident.getHomePosition());
+      Point2D.Double exit = findHomeExit(context.getMap(), resident);
       if (exit != null) {
         resident.setPosition(exit);
       }
@@ -127,7 +120,8 @@ public class ResidentPanicManager {
     resident.setState(ResidentState.PANICKING);
   }
 
-  private Point2D.Double findHomeExit(GameMap map, Point2D.Double home) {
+  private Point2D.Double findHomeExit(GameMap map, Resident resident) {
+    Point2D.Double home = resident.getHomePosition();
     if (map == null || home == null) {
       return null;
     }
@@ -143,7 +137,7 @@ public class ResidentPanicManager {
     if (candidates.isEmpty()) {
       return null;
     }
-    return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+    return candidates.get(resident.getRandom().nextInt(candidates.size()));
   }
 
   private boolean isWalkable(GameMap map, Point2D.Double pos) {
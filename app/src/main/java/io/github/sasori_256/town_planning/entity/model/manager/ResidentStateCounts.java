@@ -0,0 +1,87 @@
+package io.github.sasori_256.town_planning.entity.model.manager;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+
+/**
+ * 住民の状態ごとの人数を増分で管理するカウンタ。
+ *
+ * <p>
+ * 住民の追加・削除と状態遷移のたびに該当する状態の人数だけを増減するため、
+ * 人数の取得に全住民の走査は不要。並列更新中のワーカーからも遷移が通知されるため、
+ * 各カウンタはアトミックに更新し、読み取りはロックを取らない。
+ * </p>
+ */
+final class ResidentStateCounts {
+  private static final ResidentState[] STATES = ResidentState.values();
+  /** 状態の序数ごとの人数。 */
+  private final AtomicIntegerArray counts = new AtomicIntegerArray(STATES.length);
+
+  /**
+   * 住民の追加を反映する。
+   *
+   * @param state 追加した住民の状態
+   */
+  void added(ResidentState state) {
+    if (state != null) {
+      counts.incrementAndGet(state.ordinal());
+    }
+  }
+
+  /**
+   * 住民の削除を反映する。
+   *
+   * @param state 削除した住民の状態
+   */
+  void removed(ResidentState state) {
+    if (state != null) {
+      counts.decrementAndGet(state.ordinal());
+    }
+  }
+
+  /**
+   * 状態遷移を反映する。
+   *
+   * @param from 遷移前の状態
+   * @param to   遷移後の状態
+   */
+  void transition(ResidentState from, ResidentState to) {
+    removed(from);
+    added(to);
+  }
+
+  /**
+   * 指定状態の人数を返す。
+   *
+   * @param state 状態
+   * @return 人数
+   */
+  int get(ResidentState state) {
+    return counts.get(state.ordinal());
+  }
+
+  /**
+   * 生存住民数を返す。
+   *
+   * @return 死亡以外の状態の人数の合計
+   */
+  int alive() {
+    int alive = 0;
+    for (ResidentState state : STATES) {
+      if (state != ResidentState.DEAD) {
+        alive += counts.get(state.ordinal());
+      }
+    }
+    return alive;
+  }
+
+  /**
+   * 死亡住民数を返す。
+   *
+   * @return 死亡状態の人数
+   */
+  int dead() {
+    return get(ResidentState.DEAD);
+  }
+}
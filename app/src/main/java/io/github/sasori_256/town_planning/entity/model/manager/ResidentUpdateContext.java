@@ -0,0 +1,222 @@
+package io.github.sasori_256.town_planning.entity.model.manager;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import io.github.sasori_256.town_planning.common.event.EventBus;
+import io.github.sasori_256.town_planning.entity.building.Building;
+import io.github.sasori_256.town_planning.entity.disaster.Disaster;
+import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
+import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
+import io.github.sasori_256.town_planning.entity.model.GameContext;
+import io.github.sasori_256.town_planning.entity.model.SplitMix64;
+import io.github.sasori_256.town_planning.entity.resident.Resident;
+import io.github.sasori_256.town_planning.map.model.FlowFieldCache;
+import io.github.sasori_256.town_planning.map.model.GameMap;
+
+/**
+ * 住民の更新中に各住民へ渡す読み取り専用のコンテキスト。
+ *
+ * <p>
+ * 並列更新では更新スレッドが書き込みロックを保持したままワーカーを待つため、ワーカーから
+ * 状態ロックを取得するとデッドロックする。そこで経過時間や住民数などの値はフェーズ開始時に
+ * 取り込んでおき、ロックを介さずに返す。エンティティ一覧、マップ、空間インデックスはフェーズ中に
+ * 変更されないためそのまま参照する。生成・削除・副作用コマンドはタスクごとの{@link CommandBuffer}に
+ * 積む。逐次更新でも全住民を1つのタスクとして同じコンテキストで更新するため、結果は並列かどうかに
+ * 依らない。
+ * </p>
+ */
+final class ResidentUpdateContext implements GameContext {
+  private final GameContext base;
+  private final EntityManager entityManager;
+  private final Values values;
+  private final CommandBuffer buffer;
+
+  /**
+   * 住民の更新用のコンテキストを生成する。
+   *
+   * @param base          更新スレッドのコンテキスト
+   * @param entityManager エンティティ管理
+   * @param values        フェーズ開始時に取り込んだ値
+   * @param buffer        このタスクのコマンドバッファ
+   */
+  ResidentUpdateContext(GameContext base, EntityManager entityManager, Values values,
+      CommandBuffer buffer) {
+    this.base = base;
+    this.entityManager = entityManager;
+    this.values = values;
+    this.buffer = buffer;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public GameMap getMap() {
+    return base.getMap();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public FlowFieldCache getFlowFieldCache() {
+    return base.getFlowFieldCache();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Stream<Building> getBuildingEntities() {
+    return entityManager.getBuildingEntities();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Stream<Resident> getResidentEntities() {
+    return entityManager.getResidentEntities();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Stream<Disaster> getDisasterEntities() {
+    return entityManager.getDisasterEntities();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public List<Resident> getResidentsWithin(Point2D.Double center, double radius) {
+    return entityManager.queryResidentsWithin(center, radius);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double getDeltaTime() {
+    return values.deltaTime();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int getDay() {
+    return values.day();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double getTimeOfDaySeconds() {
+    return values.timeOfDaySeconds();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double getTimeOfDayNormalized() {
+    return values.timeOfDayNormalized();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double getDayLengthSeconds() {
+    return values.dayLengthSeconds();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int getSoul() {
+    return values.soul();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int getPopulationTotal() {
+    return values.populationTotal();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int getPopulationAlive() {
+    return values.populationAlive();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int getPopulationDead() {
+    return values.populationDead();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public <T extends BaseGameEntity> void spawnEntity(T entity) {
+    if (entity != null) {
+      buffer.spawn(entity);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public <T extends BaseGameEntity> void removeEntity(T entity) {
+    if (entity != null) {
+      buffer.remove(entity);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void applyDisasterImpact(Point2D.Double center, DisasterType type) {
+    buffer.enqueue(context -> context.applyDisasterImpact(center, type));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void enqueueCommand(Consumer<GameContext> command) {
+    if (command != null) {
+      buffer.enqueue(command);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   * 共有の乱数を引く順序は並列更新ではスレッドの割り当てで変わるため、住民には渡さない。
+   * </p>
+   */
+  @Override
+  public SplitMix64 getRandom() {
+    throw new IllegalStateException(
+        "Use the entity's own random generator during the resident update.");
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public EventBus getEventBus() {
+    return base.getEventBus();
+  }
+
+  /**
+   * 住民の更新フェーズの開始時に取り込む値。
+   *
+   * @param deltaTime           経過時間(秒)
+   * @param day                 日数
+   * @param timeOfDaySeconds    1日の経過秒
+   * @param timeOfDayNormalized 1日の経過率
+   * @param dayLengthSeconds    1日の長さ(秒)
+   * @param soul                魂所持量
+   * @param populationTotal     総住民数
+   * @param populationAlive     生存住民数
+   * @param populationDead      死亡住民数
+   */
+  record Values(double deltaTime, int day, double timeOfDaySeconds,
+      double timeOfDayNormalized, double dayLengthSeconds, int soul, int populationTotal,
+      int populationAlive, int populationDead) {
+
+    /**
+     * コンテキストから現在の値を取り込む。
+     *
+     * @param context 取り込み元
+     * @return 取り込んだ値
+     */
+    static Values capture(GameContext context) {
+      return new Values(context.getDeltaTime(), context.getDay(),
+          context.getTimeOfDaySeconds(), context.getTimeOfDayNormalized(),
+          context.getDayLengthSeconds(), context.getSoul(), context.getPopulationTotal(),
+          context.getPopulationAlive(), context.getPopulationDead());
+    }
+  }
+}
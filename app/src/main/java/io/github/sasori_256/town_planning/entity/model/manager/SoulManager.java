@@ -11,19 +11,22 @@ import io.github.sasori_256.town_planning.common.event.events.GameOverEvent;
 import io.github.sasori_256.town_planning.common.event.events.SoulChangedEvent;
 import io.github.sasori_256.town_planning.common.event.events.SoulHarvestedEvent;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 
 /**
  * 魂の所持量と魂回収処理を管理する。
  */
-public class SoulManager {
+public class SoulManager implements Persistable {
   /** イベント通知に使用するイベントバス。 */
-  private final EventBus eventBus = EventBus.getInstance();
+  private final EventBus eventBus;
   /** 状態同期に使用するロック。 */
   private final ReadWriteLock stateLock;
   /** 住民の検索と削除に使用するエンティティ管理。 */
   private final EntityManager entityManager;
-  /** 現在の魂所持量。 */
-  private int soul;
+  /** 現在の魂所持量。書き込みはロック内で行い、読み取りはロックを取らない。 */
+  private volatile int soul;
   /** SoulHarvestedEvent用のunsubscriber。 */
   private Subscription harvestSub;
   /** GameOverEvent用のunsubscriber。 */
@@ -32,12 +35,14 @@ public class SoulManager {
   /**
    * 魂管理を生成する。
    *
+   * @param eventBus      イベントバス
    * @param stateLock     状態ロック
    * @param entityManager エンティティ管理
    * @param initialSoul   初期魂量
    */
-  public SoulManager(ReadWriteLock stateLock, EntityManager entityManager,
+  public SoulManager(EventBus eventBus, ReadWriteLock stateLock, EntityManager entityManager,
       int initialSoul) {
+    this.eventBus = eventBus;
     this.stateLock = stateLock;
     this.entityManager = entityManager;
     this.soul = initialSoul;
@@ -49,13 +54,21 @@ public class SoulManager {
     });
   }
 
+  /**
+   * イベントの購読を解除する。
+   */
+  public void dispose() {
+    harvestSub.unsubscribe();
+    gameOverSub.unsubscribe();
+  }
+
   /**
    * 現在の魂所持量を返す。
    *
    * @return 魂所持量
    */
   public int getSoul() {
-    return withReadLock(() -> this.soul);
+    return this.soul;
   }
 
   /**
@@ -99,7 +112,7 @@ public class SoulManager {
    * @return 支払い可能ならtrue
    */
   public boolean canAfford(int cost) {
-    return withReadLock(() -> canAffordInternal(cost));
+    return canAffordInternal(cost);
   }
 
   /**
@@ -141,20 +154,21 @@ public class SoulManager {
   }
 
   /**
-   * 読み込みロック内で処理を実行する。
+   * {@inheritDoc}
    *
-   * @param supplier 実行処理
-   * @param <T>      返り値型
-   * @return 実行結果
+   * <p>
+   * ロックは呼び出し側で取ること。
+   * </p>
    */
-  private <T> T withReadLock(Supplier<T> supplier) {
-    Lock readLock = stateLock.readLock();
-    readLock.lock();
-    try {
-      return supplier.get();
-    } finally {
-      readLock.unlock();
-    }
+  @Override
+  public void writeState(SaveOutput out) {
+    out.writeInt(soul);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    this.soul = in.readInt();
   }
 
   /**
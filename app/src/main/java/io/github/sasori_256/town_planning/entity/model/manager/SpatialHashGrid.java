@@ -0,0 +1,242 @@
+package io.github.sasori_256.town_planning.entity.model.manager;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import io.github.sasori_256.town_planning.entity.model.GameEntity;
+
+/**
+ * エンティティの位置を一様グリッドで索引する空間インデックス。
+ *
+ * <p>
+ * マップをcellSize四方のバケットに分割し、半径検索では中心周辺のバケットだけを走査する。
+ * マップ外の座標は端のバケットに丸めて格納するため、検索結果は常に実座標で距離判定する。
+ * スレッド安全ではないため、呼び出し側で状態ロックを保持すること。
+ * </p>
+ *
+ * @param <T> 索引するエンティティ型
+ */
+public class SpatialHashGrid<T extends GameEntity> {
+  /** バケット1辺の長さ(タイル)。 */
+  private final double cellSize;
+  /** 横方向のバケット数。 */
+  private final int columns;
+  /** 縦方向のバケット数。 */
+  private final int rows;
+  /** バケット本体。インデックスは row * columns + column。 */
+  private final List<List<T>> buckets;
+  /** エンティティが現在所属しているバケット番号。 */
+  private final Map<T, Integer> bucketOf = new IdentityHashMap<>();
+
+  /**
+   * 空間インデックスを生成する。
+   *
+   * @param mapWidth  マップの横幅(セル数)
+   * @param mapHeight マップの縦幅(セル数)
+   * @param cellSize  バケット1辺の長さ(タイル)
+   */
+  public SpatialHashGrid(int mapWidth, int mapHeight, double cellSize) {
+    if (cellSize <= 0.0) {
+      throw new IllegalArgumentException("cellSize must be positive.");
+    }
+    this.cellSize = cellSize;
+    this.columns = Math.max(1, (int) Math.ceil(Math.max(1, mapWidth) / cellSize));
+    this.rows = Math.max(1, (int) Math.ceil(Math.max(1, mapHeight) / cellSize));
+    this.buckets = new ArrayList<>(columns * rows);
+    for (int i = 0; i < columns * rows; i++) {
+      buckets.add(new ArrayList<>());
+    }
+  }
+
+  /**
+   * エンティティを登録する。登録済みの場合は位置を更新する。
+   *
+   * @param entity 登録するエンティティ
+   */
+  public void insert(T entity) {
+    if (entity == null) {
+      return;
+    }
+    update(entity);
+  }
+
+  /**
+   * エンティティの現在位置に合わせて所属バケットを更新する。
+   * 未登録のエンティティは新規登録する。
+   *
+   * @param entity 対象エンティティ
+   */
+  public void update(T entity) {
+    Point2D.Double pos = entity.getPosition();
+    if (pos == null) {
+      remove(entity);
+      return;
+    }
+    int next = bucketIndex(pos.getX(), pos.getY());
+    Integer current = bucketOf.get(entity);
+    if (current != null && current == next) {
+      return;
+    }
+    if (current != null) {
+      buckets.get(current).remove(entity);
+    }
+    buckets.get(next).add(entity);
+    bucketOf.put(entity, next);
+  }
+
+  /**
+   * エンティティを索引から削除する。
+   *
+   * @param entity 削除するエンティティ
+   */
+  public void remove(T entity) {
+    Integer current = bucketOf.remove(entity);
+    if (current != null) {
+      buckets.get(current).remove(entity);
+    }
+  }
+
+  /**
+   * 全エンティティを削除する。
+   */
+  public void clear() {
+    for (List<T> bucket : buckets) {
+      bucket.clear();
+    }
+    bucketOf.clear();
+  }
+
+  /**
+   * 登録数を返す。
+   *
+   * @return 登録数
+   */
+  public int size() {
+    return bucketOf.size();
+  }
+
+  /**
+   * 指定円内(境界含む)にいるエンティティを返す。
+   *
+   * @param center 中心座標
+   * @param radius 半径
+   * @return 該当エンティティ
+   */
+  public List<T> queryRadius(Point2D center, double radius) {
+    return queryRing(center, -1.0, radius);
+  }
+
+  /**
+   * 指定リング内(innerRadius &lt; 距離 &lt;= outerRadius)にいるエンティティを返す。
+   *
+   * @param center      中心座標
+   * @param innerRadius 内側半径。負値なら中心も含む
+   * @param outerRadius 外側半径
+   * @return 該当エンティティ
+   */
+  public List<T> queryRing(Point2D center, double innerRadius, double outerRadius) {
+    List<T> result = new ArrayList<>();
+    if (center == null || outerRadius < 0.0 || outerRadius <= innerRadius) {
+      return result;
+    }
+    double cx = center.getX();
+    double cy = center.getY();
+    double outerSq = outerRadius * outerRadius;
+    double innerSq = innerRadius < 0.0 ? -1.0 : innerRadius * innerRadius;
+    int minCol = columnOf(cx - outerRadius);
+    int maxCol = columnOf(cx + outerRadius);
+    int minRow = rowOf(cy - outerRadius);
+    int maxRow = rowOf(cy + outerRadius);
+    for (int row = minRow; row <= maxRow; row++) {
+      for (int col = minCol; col <= maxCol; col++) {
+        for (T entity : buckets.get(row * columns + col)) {
+          double distSq = entity.getPosition().distanceSq(cx, cy);
+          if (distSq <= outerSq && distSq > innerSq) {
+            result.add(entity);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 指定半径内で条件を満たす最も近いエンティティを返す。
+   *
+   * @param center    中心座標
+   * @param maxRadius 探索半径
+   * @param filter    条件。nullなら全件対象
+   * @return 最も近いエンティティ。見つからない場合はnull
+   */
+  public T nearest(Point2D center, double maxRadius, Predicate<? super T> filter) {
+    if (center == null || maxRadius < 0.0) {
+      return null;
+    }
+    double cx = center.getX();
+    double cy = center.getY();
+    int originCol = columnOf(cx);
+    int originRow = rowOf(cy);
+    int maxRing = Math.max(columns, rows);
+    double maxSq = maxRadius * maxRadius;
+    T best = null;
+    double bestSq = Double.MAX_VALUE;
+    // 中心バケットから同心の正方形リング状に広げ、これ以上近い候補が出ない時点で打ち切る。
+    for (int ring = 0; ring <= maxRing; ring++) {
+      double ringMinDist = (ring - 1) * cellSize;
+      if (ringMinDist > maxRadius || (best != null && ringMinDist > 0.0
+          && ringMinDist * ringMinDist > bestSq)) {
+        break;
+      }
+      for (int row = originRow - ring; row <= originRow + ring; row++) {
+        if (row < 0 || row >= rows) {
+          continue;
+        }
+        boolean edgeRow = row == originRow - ring || row == originRow + ring;
+        int step = edgeRow ? 1 : Math.max(1, ring * 2);
+        for (int col = originCol - ring; col <= originCol + ring; col += step) {
+          if (col < 0 || col >= columns) {
+            continue;
+          }
+          for (T entity : buckets.get(row * columns + col)) {
+            double distSq = entity.getPosition().distanceSq(cx, cy);
+            if (distSq > maxSq || distSq >= bestSq) {
+              continue;
+            }
+            if (filter != null && !filter.test(entity)) {
+              continue;
+            }
+            best = entity;
+            bestSq = distSq;
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  private int bucketIndex(double x, double y) {
+    return rowOf(y) * columns + columnOf(x);
+  }
+
+  private int columnOf(double x) {
+    return clamp((int) Math.floor(x / cellSize), columns);
+  }
+
+  private int rowOf(double y) {
+    return clamp((int) Math.floor(y / cellSize), rows);
+  }
+
+  private static int clamp(int index, int limit) {
+    if (index < 0) {
+      return 0;
+    }
+    if (index >= limit) {
+      return limit - 1;
+    }
+    return index;
+  }
+}
@@ -8,25 +8,37 @@ import java.util.function.Supplier;
 import io.github.sasori_256.town_planning.common.event.EventBus;
 import io.github.sasori_256.town_planning.common.event.events.DayPassedEvent;
 import io.github.sasori_256.town_planning.entity.model.GameTime;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 
 /**
  * ゲーム内時間の進行を管理する。
+ *
+ * <p>
+ * 時刻は更新のたびに不変の値として公開するため、参照側はロックを取らずに読める。
+ * </p>
  */
-public class TimeManager {
+public class TimeManager implements Persistable {
   /** イベント通知に使用するイベントバス。 */
-  private final EventBus eventBus = EventBus.getInstance();
+  private final EventBus eventBus;
   /** 状態同期に使用するロック。 */
   private final ReadWriteLock stateLock;
   /** ゲーム内時間の本体。 */
   private final GameTime gameTime = new GameTime();
+  /** 直近に公開した時刻。ロックを取らずに読むための写し。 */
+  private volatile Clock clock;
 
   /**
    * 時間管理を生成する。
    *
+   * @param eventBus  イベントバス
    * @param stateLock 状態ロック
    */
-  public TimeManager(ReadWriteLock stateLock) {
+  public TimeManager(EventBus eventBus, ReadWriteLock stateLock) {
+    this.eventBus = eventBus;
     this.stateLock = stateLock;
+    publish();
   }
 
   /**
@@ -40,6 +52,7 @@ public class TimeManager {
     return withWriteLock(() -> {
       int previousDay = gameTime.getDayCount();
       int daysAdvanced = gameTime.advance(dt);
+      publish();
       if (daysAdvanced > 0) {
         int currentDay = gameTime.getDayCount();
         for (int dayNumber = previousDay + 1; dayNumber <= currentDay; dayNumber++) {
@@ -59,7 +72,7 @@ public class TimeManager {
    * @return 日数
    */
   public int getDay() {
-    return withReadLock(() -> gameTime.getDayCount());
+    return clock.day();
   }
 
   /**
@@ -68,7 +81,7 @@ public class TimeManager {
    * @return 経過秒
    */
   public double getTimeOfDaySeconds() {
-    return withReadLock(() -> gameTime.getTimeOfDaySeconds());
+    return clock.timeOfDaySeconds();
   }
 
   /**
@@ -77,7 +90,7 @@ public class TimeManager {
    * @return 経過率
    */
   public double getTimeOfDayNormalized() {
-    return withReadLock(() -> gameTime.getTimeOfDayNormalized());
+    return clock.timeOfDayNormalized();
   }
 
   /**
@@ -86,7 +99,7 @@ public class TimeManager {
    * @return 1日の長さ(秒)
    */
   public double getDayLengthSeconds() {
-    return withReadLock(() -> gameTime.getDayLengthSeconds());
+    return clock.dayLengthSeconds();
   }
 
   /**
@@ -97,25 +110,47 @@ public class TimeManager {
   public void setDay(int day) {
     withWriteLock(() -> {
       gameTime.setDayCount(day);
+      publish();
       return null;
     });
   }
 
   /**
-   * 読み込みロック内で処理を実行する。
+   * {@inheritDoc}
    *
-   * @param supplier 実行処理
-   * @param <T>      返り値型
-   * @return 実行結果
+   * <p>
+   * 日数と1日の経過秒を書く。1日の長さと時間スケールは設定から決まるため保存しない。
+   * ロックは呼び出し側で取ること。
+   * </p>
    */
-  private <T> T withReadLock(Supplier<T> supplier) {
-    Lock readLock = stateLock.readLock();
-    readLock.lock();
-    try {
-      return supplier.get();
-    } finally {
-      readLock.unlock();
-    }
+  @Override
+  public void writeState(SaveOutput out) {
+    out.writeInt(gameTime.getDayCount());
+    out.writeDouble(gameTime.getTimeOfDaySeconds());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   * 設定変更で1日が保存時より短くなっている場合は、その日の始めに戻す。
+   * </p>
+   */
+  @Override
+  public void readState(SaveInput in) {
+    gameTime.setDayCount(in.readInt());
+    double timeOfDay = in.readDouble();
+    gameTime.setTimeOfDaySeconds(
+        timeOfDay < gameTime.getDayLengthSeconds() ? timeOfDay : 0.0);
+    publish();
+  }
+
+  /**
+   * 現在の時刻を参照用に公開する。書き込みロック内で呼ぶこと。
+   */
+  private void publish() {
+    clock = new Clock(gameTime.getDayCount(), gameTime.getTimeOfDaySeconds(),
+        gameTime.getTimeOfDayNormalized(), gameTime.getDayLengthSeconds());
   }
 
   /**
@@ -134,4 +169,16 @@ public class TimeManager {
       writeLock.unlock();
     }
   }
+
+  /**
+   * ある時点のゲーム内時刻。
+   *
+   * @param day                 日数
+   * @param timeOfDaySeconds    1日の経過秒
+   * @param timeOfDayNormalized 1日の経過率
+   * @param dayLengthSeconds    1日の長さ(秒)
+   */
+  private record Clock(int day, double timeOfDaySeconds, double timeOfDayNormalized,
+      double dayLengthSeconds) {
+  }
 }
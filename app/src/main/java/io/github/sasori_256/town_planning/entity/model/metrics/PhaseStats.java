@@ -0,0 +1,13 @@
+package io.github.sasori_256.town_planning.entity.model.metrics;
+
+/**
+ * 計測区間ごとの直近ウィンドウ内の所要時間の集計。
+ *
+ * @param p50Millis 中央値(ミリ秒)
+ * @param p99Millis 99パーセンタイル(ミリ秒)
+ * @param maxMillis 最大値(ミリ秒)
+ */
+public record PhaseStats(double p50Millis, double p99Millis, double maxMillis) {
+  /** 計測値がないときの集計。 */
+  public static final PhaseStats EMPTY = new PhaseStats(0.0, 0.0, 0.0);
+}
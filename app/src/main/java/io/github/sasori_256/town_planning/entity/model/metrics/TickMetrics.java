@@ -0,0 +1,63 @@
+package io.github.sasori_256.town_planning.entity.model.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ある時点のティック計測値のスナップショット。
+ *
+ * @param tick                    最後に計測したティック番号
+ * @param samples                 集計に使ったティック数
+ * @param budgetMillis            1ティックの予算(ミリ秒)。ゲームループの固定ステップと同じ
+ * @param overruns                集計範囲内で予算を超えたティック数
+ * @param phases                  計測区間ごとの集計
+ * @param residents               住民数
+ * @param buildings               建物数
+ * @param disasters               災害数
+ * @param allocatedBytesPerSecond 全スレッドの1秒あたりのメモリ割り当て量。計測できない場合は負の値
+ */
+public record TickMetrics(long tick, int samples, double budgetMillis, int overruns,
+    Map<TickPhase, PhaseStats> phases, int residents, int buildings, int disasters,
+    long allocatedBytesPerSecond) {
+
+  /**
+   * 指定した計測区間の集計を返す。
+   *
+   * @param phase 計測区間
+   * @return 集計。計測値がなければ{@link PhaseStats#EMPTY}
+   */
+  public PhaseStats phase(TickPhase phase) {
+    return phases.getOrDefault(phase, PhaseStats.EMPTY);
+  }
+
+  /**
+   * ティック全体のp99が予算に占める割合を返す。1.0を超えると予算超過が常態化している。
+   *
+   * @return 予算使用率
+   */
+  public double budgetUsage() {
+    return budgetMillis <= 0.0 ? 0.0 : phase(TickPhase.TOTAL).p99Millis() / budgetMillis;
+  }
+
+  /**
+   * ログ出力用の1行表現を返す。
+   *
+   * @return 計測値の要約
+   */
+  public String toLogLine() {
+    StringBuilder sb = new StringBuilder(256);
+    sb.append(String.format(Locale.ROOT, "tick=%d budget=%.1fms usage=%.0f%% overruns=%d/%d",
+        tick, budgetMillis, budgetUsage() * 100.0, overruns, samples));
+    for (TickPhase phase : TickPhase.values()) {
+      PhaseStats stats = phase(phase);
+      sb.append(String.format(Locale.ROOT, " %s=%.2f/%.2f", phase.getLabel(), stats.p50Millis(),
+          stats.p99Millis()));
+    }
+    sb.append(String.format(Locale.ROOT, " entities(r/b/d)=%d/%d/%d", residents,
+        buildings, disasters));
+    if (allocatedBytesPerSecond >= 0) {
+      sb.append(String.format(Locale.ROOT, " alloc=%.1fMB/s", allocatedBytesPerSecond / 1048576.0));
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,42 @@
+package io.github.sasori_256.town_planning.entity.model.metrics;
+
+/**
+ * 1ティックの更新処理を区切った計測区間。
+ */
+public enum TickPhase {
+  /** 状態ロックの書き込みロックを取得するまでの待ち時間。 */
+  LOCK_WAIT("lock"),
+  /** 時間の進行。日次処理の時間は含まない。 */
+  TIME("time"),
+  /** 日付が変わったときの住民の引っ越し処理。 */
+  REBALANCE("rebalance"),
+  /** 住民の更新。 */
+  RESIDENTS("residents"),
+  /** 建物の更新。 */
+  BUILDINGS("buildings"),
+  /** 災害の更新。 */
+  DISASTERS("disasters"),
+  /** アニメーションの進行。 */
+  ANIMATIONS("animations"),
+  /** 更新中に溜まった生成・削除の反映。 */
+  DEFERRED("deferred"),
+  /** 描画用スナップショットの作成。 */
+  SNAPSHOT("snapshot"),
+  /** ロック待ちを含むティック全体。 */
+  TOTAL("total");
+
+  private final String label;
+
+  TickPhase(String label) {
+    this.label = label;
+  }
+
+  /**
+   * ログやオーバーレイに表示する短い名前を返す。
+   *
+   * @return 表示名
+   */
+  public String getLabel() {
+    return label;
+  }
+}
@@ -0,0 +1,276 @@
+package io.github.sasori_256.town_planning.entity.model.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import io.github.sasori_256.town_planning.common.jfr.JfrTickEvent;
+
+/**
+ * ティックの計測区間ごとの所要時間を記録し、直近のウィンドウからパーセンタイルを求める。
+ *
+ * <p>
+ * 記録はゲームループのスレッドから行う。ティックの開始時刻は{@link #beginTick()}で取り、
+ * 区間は{@link #mark(TickPhase, long)}で経過時間を加算して次の区間の開始時刻を受け取る。
+ * 1ティック分の値は{@link #endTick(long, long, int, int, int)}でリングバッファに確定し、
+ * 同じ値を{@link JfrTickEvent}としてFlight Recorderにも送る。
+ * 無効な場合は時刻を取らず、記録も行わない。Flight Recorderのイベントは無効でも送る。
+ * </p>
+ *
+ * <p>
+ * パーセンタイルは{@link #snapshot()}の呼び出し時にウィンドウを並べ替えて求め、
+ * 新しいティックが確定するまでは同じ結果を返す。メモリ割り当て量は生存している全スレッドの
+ * 累計を1秒ごとに取得し、その差分から求める。終了したスレッドの分は数えない。
+ * </p>
+ */
+public class TickProfiler {
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  private static final int PHASE_COUNT = TickPhase.values().length;
+
+  private final boolean enabled;
+  private final int window;
+  private final long budgetNanos;
+  private final long logIntervalNanos;
+  private final double warnRatio;
+  /** 割り当て量の取得に使うMXBean。取得できない場合はnull。 */
+  private final com.sun.management.ThreadMXBean allocationBean;
+
+  /** 確定前のティックの区間ごとの合計(ナノ秒)。 */
+  private final long[] current = new long[PHASE_COUNT];
+  /** 区間ごとのリングバッファ(ナノ秒)。 */
+  private final long[][] samples;
+  private int cursor = 0;
+  private int count = 0;
+  private long lastTick = -1;
+  private int residents;
+  private int buildings;
+  private int disasters;
+
+  private long allocationSampleNanos;
+  private long allocationSampleBytes = -1;
+  private long allocatedBytesPerSecond = -1;
+  private long lastLogNanos;
+
+  /** 記録中のティックのFlight Recorderイベント。 */
+  private JfrTickEvent tickEvent;
+
+  /** 最後に作ったスナップショットと、その時点のティック番号。 */
+  private TickMetrics cached;
+  private long cachedTick = Long.MIN_VALUE;
+
+  /**
+   * 計測器を生成する。
+   *
+   * @param enabled            計測するかどうか
+   * @param window             パーセンタイルを求める直近のティック数
+   * @param budgetSeconds      1ティックの予算(秒)
+   * @param logIntervalSeconds ログを出す間隔(秒)。0以下なら出さない
+   * @param warnRatio          予算に対するp99の割合がこれ以上ならログを警告として出す
+   */
+  public TickProfiler(boolean enabled, int window, double budgetSeconds, double logIntervalSeconds,
+      double warnRatio) {
+    this.enabled = enabled;
+    this.window = Math.max(1, window);
+    this.budgetNanos = (long) (budgetSeconds * NANOS_PER_SECOND);
+    this.logIntervalNanos = (long) (logIntervalSeconds * NANOS_PER_SECOND);
+    this.warnRatio = warnRatio;
+    this.samples = new long[PHASE_COUNT][enabled ? this.window : 0];
+    this.allocationBean = enabled ? resolveAllocationBean() : null;
+    long start = System.nanoTime();
+    this.allocationSampleNanos = start;
+    this.lastLogNanos = start;
+  }
+
+  private static com.sun.management.ThreadMXBean resolveAllocationBean() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean allocationBean
+        && allocationBean.isThreadAllocatedMemorySupported()
+        && allocationBean.isThreadAllocatedMemoryEnabled()) {
+      return allocationBean;
+    }
+    return null;
+  }
+
+  /**
+   * 生存している全スレッドの累計割り当て量を返す。
+   */
+  private long totalAllocatedBytes() {
+    long total = 0;
+    for (long bytes : allocationBean.getThreadAllocatedBytes(allocationBean.getAllThreadIds())) {
+      if (bytes > 0) {
+        total += bytes;
+      }
+    }
+    return total;
+  }
+
+  /**
+   * 計測が有効かどうかを返す。
+   *
+   * @return 有効ならtrue
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * ティックの計測を開始する。ロックを取得する前に呼ぶこと。
+   *
+   * @return 開始時刻(ナノ秒)。無効なら0
+   */
+  public long beginTick() {
+    tickEvent = new JfrTickEvent();
+    tickEvent.begin();
+    return now();
+  }
+
+  /**
+   * 区間の開始時刻を返す。
+   *
+   * @return 現在時刻(ナノ秒)。無効なら0
+   */
+  public long now() {
+    return enabled ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * 開始時刻からの経過時間を区間に加算する。同じティック内で複数回呼ぶと合計される。
+   *
+   * @param phase 計測区間
+   * @param start {@link #now()}で取得した開始時刻
+   * @return 現在時刻。続く区間の開始時刻として使える。無効なら0
+   */
+  public long mark(TickPhase phase, long start) {
+    if (!enabled) {
+      return 0L;
+    }
+    long end = System.nanoTime();
+    current[phase.ordinal()] += end - start;
+    return end;
+  }
+
+  /**
+   * 1ティック分の計測を確定する。ロックを解放した後に呼ぶこと。
+   *
+   * @param tickStart ロック取得前に{@link #now()}で取得した時刻
+   * @param tick      完了したティック番号
+   * @param residents 住民数
+   * @param buildings 建物数
+   * @param disasters 災害数
+   */
+  public void endTick(long tickStart, long tick, int residents, int buildings, int disasters) {
+    if (enabled) {
+      current[TickPhase.TOTAL.ordinal()] = System.nanoTime() - tickStart;
+      // 日次処理は時間進行の区間の内側で計測しているため、重複分を差し引く。
+      current[TickPhase.TIME.ordinal()] -= current[TickPhase.REBALANCE.ordinal()];
+    }
+    commitTickEvent(tick, residents, buildings, disasters);
+    if (!enabled) {
+      return;
+    }
+    long end = System.nanoTime();
+    boolean log;
+    synchronized (this) {
+      for (int i = 0; i < PHASE_COUNT; i++) {
+        samples[i][cursor] = current[i];
+      }
+      cursor = (cursor + 1) % window;
+      count = Math.min(count + 1, window);
+      lastTick = tick;
+      this.residents = residents;
+      this.buildings = buildings;
+      this.disasters = disasters;
+      if (allocationBean != null && end - allocationSampleNanos >= NANOS_PER_SECOND) {
+        long bytes = totalAllocatedBytes();
+        if (allocationSampleBytes >= 0) {
+          // 終了したスレッドの分が抜けて負になった区間は0とする。
+          allocatedBytesPerSecond = Math.max(0L, bytes - allocationSampleBytes) * NANOS_PER_SECOND
+              / (end - allocationSampleNanos);
+        }
+        allocationSampleBytes = bytes;
+        allocationSampleNanos = end;
+      }
+      log = logIntervalNanos > 0 && end - lastLogNanos >= logIntervalNanos;
+      if (log) {
+        lastLogNanos = end;
+      }
+    }
+    Arrays.fill(current, 0L);
+    if (log) {
+      TickMetrics metrics = snapshot();
+      if (metrics.budgetUsage() >= warnRatio) {
+        System.err.println("[tick] near budget: " + metrics.toLogLine());
+      } else {
+        System.out.println("[tick] " + metrics.toLogLine());
+      }
+    }
+  }
+
+  private void commitTickEvent(long tick, int residents, int buildings, int disasters) {
+    JfrTickEvent event = tickEvent;
+    tickEvent = null;
+    if (event == null) {
+      return;
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.tick = tick;
+      event.lockWait = current[TickPhase.LOCK_WAIT.ordinal()];
+      event.time = current[TickPhase.TIME.ordinal()];
+      event.rebalance = current[TickPhase.REBALANCE.ordinal()];
+      event.residentsUpdate = current[TickPhase.RESIDENTS.ordinal()];
+      event.buildingsUpdate = current[TickPhase.BUILDINGS.ordinal()];
+      event.disastersUpdate = current[TickPhase.DISASTERS.ordinal()];
+      event.animations = current[TickPhase.ANIMATIONS.ordinal()];
+      event.deferred = current[TickPhase.DEFERRED.ordinal()];
+      event.snapshot = current[TickPhase.SNAPSHOT.ordinal()];
+      event.residents = residents;
+      event.buildings = buildings;
+      event.disasters = disasters;
+      event.commit();
+    }
+  }
+
+  /**
+   * 直近のウィンドウの集計を返す。
+   *
+   * @return 計測値のスナップショット
+   */
+  public synchronized TickMetrics snapshot() {
+    if (cached != null && cachedTick == lastTick) {
+      return cached;
+    }
+    Map<TickPhase, PhaseStats> phases = new EnumMap<>(TickPhase.class);
+    int overruns = 0;
+    if (count > 0) {
+      long[] sorted = new long[count];
+      for (TickPhase phase : TickPhase.values()) {
+        System.arraycopy(samples[phase.ordinal()], 0, sorted, 0, count);
+        Arrays.sort(sorted);
+        phases.put(phase, new PhaseStats(percentileMillis(sorted, 0.50),
+            percentileMillis(sorted, 0.99), sorted[count - 1] / 1_000_000.0));
+        if (phase == TickPhase.TOTAL) {
+          for (int i = count - 1; i >= 0 && sorted[i] > budgetNanos; i--) {
+            overruns++;
+          }
+        }
+      }
+    }
+    cached = new TickMetrics(lastTick, count, budgetNanos / 1_000_000.0, overruns,
+        Collections.unmodifiableMap(phases), residents, buildings, disasters,
+        allocatedBytesPerSecond);
+    cachedTick = lastTick;
+    return cached;
+  }
+
+  /**
+   * 並べ替え済みの値から最近傍順位法でパーセンタイルを求める。
+   */
+  private static double percentileMillis(long[] sorted, double p) {
+    int index = (int) Math.ceil(p * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1_000_000.0;
+  }
+}
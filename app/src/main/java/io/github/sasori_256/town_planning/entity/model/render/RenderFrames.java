@@ -0,0 +1,23 @@
+package io.github.sasori_256.town_planning.entity.model.render;
+
+/**
+ * 描画に使う直近2ティック分の写しの組。
+ *
+ * <p>
+ * 2つを1つの不変な組にまとめて公開するため、描画側は1回の読み取りで前後の写しを矛盾なく得られる。
+ * </p>
+ *
+ * @param previous 1つ前のティックの写し
+ * @param current  最新のティックの写し
+ */
+public record RenderFrames(RenderSnapshot previous, RenderSnapshot current) {
+  /**
+   * 最新の写しを差し替えた組を返す。
+   *
+   * @param next 新しい写し
+   * @return 現在の写しを1つ前とした組
+   */
+  public RenderFrames advance(RenderSnapshot next) {
+    return new RenderFrames(current, next);
+  }
+}
@@ -0,0 +1,135 @@
+package io.github.sasori_256.town_planning.entity.model.render;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+
+import io.github.sasori_256.town_planning.entity.building.Building;
+import io.github.sasori_256.town_planning.entity.disaster.Disaster;
+import io.github.sasori_256.town_planning.entity.model.manager.EntityManager;
+import io.github.sasori_256.town_planning.entity.resident.DebuffType;
+import io.github.sasori_256.town_planning.entity.resident.Resident;
+import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+import io.github.sasori_256.town_planning.map.model.BuildingLayer;
+import io.github.sasori_256.town_planning.map.model.GameMap;
+
+/**
+ * ティックの終わりに描画用の写しを作り、直近2つを1回のvolatile書き込みで公開する。
+ *
+ * <p>
+ * {@link #publish}は書き込みロック内でシミュレーションのスレッドから呼び、{@link #getFrames()}は
+ * ロックを取らずにどのスレッドからでも呼べる。
+ * </p>
+ */
+public final class RenderPublisher {
+  /** 公開中の写しの組。最初の公開まではnull。 */
+  private volatile RenderFrames frames;
+  /** 住民のハンドルの書き出し先。シミュレーションのスレッドだけが使う。 */
+  private long[] residentHandles;
+  /** 災害のハンドルの書き出し先。シミュレーションのスレッドだけが使う。 */
+  private long[] disasterHandles;
+
+  /**
+   * 公開中の写しの組を返す。
+   *
+   * @return 写しの組。まだ公開していなければnull
+   */
+  public RenderFrames getFrames() {
+    return frames;
+  }
+
+  /**
+   * 現在の状態を写して公開する。書き込みロック内で呼ぶこと。
+   *
+   * @param tick          完了ティック数
+   * @param map           マップ
+   * @param entityManager エンティティ管理
+   */
+  public void publish(long tick, GameMap map, EntityManager entityManager) {
+    RenderSnapshot snapshot = capture(tick, map, entityManager);
+    RenderFrames previous = frames;
+    frames = previous == null ? new RenderFrames(snapshot, snapshot) : previous.advance(snapshot);
+  }
+
+  private RenderSnapshot capture(long tick, GameMap map, EntityManager entityManager) {
+    BuildingLayer layer = map.getBuildingLayer();
+    float[] animationSeconds = new float[layer.getBuildingCapacity()];
+    for (int id = 0; id < animationSeconds.length; id++) {
+      if (layer.getType(id) != null && layer.getType(id).hasAnimation()) {
+        Building building = map.getBuildingById(id);
+        if (building != null) {
+          animationSeconds[id] = (float) building.getAnimationElapsedSeconds();
+        }
+      }
+    }
+
+    List<Resident> residents = entityManager.snapshotResidents();
+    residentHandles = entityManager.snapshotResidentHandles(residentHandles);
+    int visible = 0;
+    for (Resident resident : residents) {
+      if (resident.getState() != ResidentState.AT_HOME) {
+        visible++;
+      }
+    }
+    long[] handles = new long[visible];
+    float[] xs = new float[visible];
+    float[] ys = new float[visible];
+    byte[] flags = new byte[visible];
+    byte[] states = new byte[visible];
+    byte[] types = new byte[visible];
+    float[] deathProgress = new float[visible];
+    int n = 0;
+    for (int i = 0; i < residents.size(); i++) {
+      Resident resident = residents.get(i);
+      ResidentState state = resident.getState();
+      if (state == ResidentState.AT_HOME) {
+        continue;
+      }
+      Point2D.Double pos = resident.getPosition();
+      handles[n] = residentHandles[i];
+      xs[n] = (float) pos.x;
+      ys[n] = (float) pos.y;
+      int flag = 0;
+      if (resident.isDamaged()) {
+        flag |= RenderSnapshot.FLAG_DAMAGED;
+      }
+      if (resident.hasDebuff(DebuffType.PLAGUE)) {
+        flag |= RenderSnapshot.FLAG_PLAGUE;
+      }
+      flags[n] = (byte) flag;
+      states[n] = (byte) state.ordinal();
+      types[n] = (byte) resident.getType().ordinal();
+      deathProgress[n] = (float) resident.getDeathAnimationProgress();
+      n++;
+    }
+    RenderSnapshot.Entities residentEntities = new RenderSnapshot.Entities(n, handles, xs, ys,
+        flags);
+
+    List<Disaster> disasters = entityManager.snapshotDisasters();
+    disasterHandles = entityManager.snapshotDisasterHandles(disasterHandles);
+    int count = disasters.size();
+    long[] dHandles = new long[count];
+    float[] dxs = new float[count];
+    float[] dys = new float[count];
+    byte[] dFlags = new byte[count];
+    byte[] dTypes = new byte[count];
+    String[] animations = new String[count];
+    int[] animationFrames = new int[count];
+    for (int i = 0; i < count; i++) {
+      Disaster disaster = disasters.get(i);
+      Point2D.Double pos = disaster.getPosition();
+      dHandles[i] = disasterHandles[i];
+      dxs[i] = (float) pos.x;
+      dys[i] = (float) pos.y;
+      dFlags[i] = (byte) (disaster.isAnimationLoop() ? RenderSnapshot.FLAG_LOOP : 0);
+      dTypes[i] = (byte) disaster.getType().ordinal();
+      animations[i] = disaster.getAnimationName();
+      animationFrames[i] = disaster.getAnimationFrameIndex();
+    }
+    RenderSnapshot.Entities disasterEntities = new RenderSnapshot.Entities(count, dHandles, dxs,
+        dys, dFlags);
+
+    return new RenderSnapshot(tick, System.nanoTime(), layer, animationSeconds,
+        residentEntities, states, types, deathProgress, disasterEntities, dTypes, animations,
+        animationFrames);
+  }
+}
@@ -0,0 +1,323 @@
+package io.github.sasori_256.town_planning.entity.model.render;
+
+import java.util.Arrays;
+
+import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
+import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+import io.github.sasori_256.town_planning.entity.resident.ResidentType;
+import io.github.sasori_256.town_planning.map.model.BuildingLayer;
+
+/**
+ * 1ティック分の描画に必要な状態の不変な写し。
+ *
+ * <p>
+ * ティックの終わりに書き込みロック内で{@link RenderPublisher}が作る。住民と災害は位置・種別・状態を
+ * プリミティブ配列の並びで持ち、描画側はロックを取らずに読める。各エンティティは
+ * {@link io.github.sasori_256.town_planning.entity.model.manager.EntityStore}のハンドルを持つため、
+ * 前のティックの写しから同じエンティティを引いて位置を補間できる。
+ * 在宅中の住民は描画しないため含めない。
+ * </p>
+ */
+public final class RenderSnapshot {
+  /** ダメージを受けている住民の印。 */
+  public static final int FLAG_DAMAGED = 1;
+  /** 疫病にかかっている住民の印。 */
+  public static final int FLAG_PLAGUE = 1 << 1;
+  /** 災害のアニメーションがループする印。 */
+  public static final int FLAG_LOOP = 1 << 2;
+
+  private static final ResidentState[] RESIDENT_STATES = ResidentState.values();
+  private static final ResidentType[] RESIDENT_TYPES = ResidentType.values();
+  private static final DisasterType[] DISASTER_TYPES = DisasterType.values();
+
+  private final long tick;
+  private final long publishedNanos;
+  private final BuildingLayer buildingLayer;
+  /** 建物番号ごとのアニメーション経過秒。 */
+  private final float[] buildingAnimationSeconds;
+  private final Entities residents;
+  private final Entities disasters;
+  /** 住民ごとの状態の序数。 */
+  private final byte[] residentStates;
+  /** 住民ごとの種別の序数。 */
+  private final byte[] residentTypes;
+  /** 住民ごとの死亡演出の進捗。 */
+  private final float[] residentDeathProgress;
+  /** 災害ごとの種別の序数。 */
+  private final byte[] disasterTypes;
+  /** 災害ごとのアニメーション名。 */
+  private final String[] disasterAnimations;
+  /** 災害ごとのアニメーションフレーム番号。 */
+  private final int[] disasterFrames;
+
+  RenderSnapshot(long tick, long publishedNanos, BuildingLayer buildingLayer,
+      float[] buildingAnimationSeconds, Entities residents, byte[] residentStates,
+      byte[] residentTypes, float[] residentDeathProgress, Entities disasters,
+      byte[] disasterTypes, String[] disasterAnimations, int[] disasterFrames) {
+    this.tick = tick;
+    this.publishedNanos = publishedNanos;
+    this.buildingLayer = buildingLayer;
+    this.buildingAnimationSeconds = buildingAnimationSeconds;
+    this.residents = residents;
+    this.residentStates = residentStates;
+    this.residentTypes = residentTypes;
+    this.residentDeathProgress = residentDeathProgress;
+    this.disasters = disasters;
+    this.disasterTypes = disasterTypes;
+    this.disasterAnimations = disasterAnimations;
+    this.disasterFrames = disasterFrames;
+  }
+
+  /**
+   * 写したときの完了ティック数を返す。
+   *
+   * @return ティック数
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /**
+   * 公開した時刻を返す。
+   *
+   * @return {@link System#nanoTime()}の値
+   */
+  public long getPublishedNanos() {
+    return publishedNanos;
+  }
+
+  /**
+   * 建物配置の写しを返す。
+   *
+   * @return 建物配置
+   */
+  public BuildingLayer getBuildingLayer() {
+    return buildingLayer;
+  }
+
+  /**
+   * 建物のアニメーション経過秒を返す。
+   *
+   * @param buildingId {@link BuildingLayer}の建物番号
+   * @return 経過秒
+   */
+  public double getBuildingAnimationSeconds(int buildingId) {
+    return buildingAnimationSeconds[buildingId];
+  }
+
+  /**
+   * 住民数を返す。
+   *
+   * @return 住民数
+   */
+  public int getResidentCount() {
+    return residents.count;
+  }
+
+  /**
+   * 住民のX座標を返す。
+   *
+   * @param index 住民の添字
+   * @return X座標
+   */
+  public double getResidentX(int index) {
+    return residents.x[index];
+  }
+
+  /**
+   * 住民のY座標を返す。
+   *
+   * @param index 住民の添字
+   * @return Y座標
+   */
+  public double getResidentY(int index) {
+    return residents.y[index];
+  }
+
+  /**
+   * 住民の状態を返す。
+   *
+   * @param index 住民の添字
+   * @return 状態
+   */
+  public ResidentState getResidentState(int index) {
+    return RESIDENT_STATES[residentStates[index]];
+  }
+
+  /**
+   * 住民の種別を返す。
+   *
+   * @param index 住民の添字
+   * @return 種別
+   */
+  public ResidentType getResidentType(int index) {
+    return RESIDENT_TYPES[residentTypes[index]];
+  }
+
+  /**
+   * 住民が指定の印を持つかを返す。
+   *
+   * @param index 住民の添字
+   * @param flag  {@link #FLAG_DAMAGED}などの印
+   * @return 持つ場合はtrue
+   */
+  public boolean hasResidentFlag(int index, int flag) {
+    return (residents.flags[index] & flag) != 0;
+  }
+
+  /**
+   * 住民の死亡演出の進捗を返す。
+   *
+   * @param index 住民の添字
+   * @return 進捗(0.0-1.0)
+   */
+  public double getResidentDeathProgress(int index) {
+    return residentDeathProgress[index];
+  }
+
+  /**
+   * 前の写しで同じ住民が居た添字を返す。
+   *
+   * @param previous 前の写し
+   * @param index    この写しでの住民の添字
+   * @return 前の写しでの添字。居なければ-1
+   */
+  public int findPreviousResident(RenderSnapshot previous, int index) {
+    return previous == null ? -1 : previous.residents.indexOf(residents.handles[index]);
+  }
+
+  /**
+   * 災害数を返す。
+   *
+   * @return 災害数
+   */
+  public int getDisasterCount() {
+    return disasters.count;
+  }
+
+  /**
+   * 災害のX座標を返す。
+   *
+   * @param index 災害の添字
+   * @return X座標
+   */
+  public double getDisasterX(int index) {
+    return disasters.x[index];
+  }
+
+  /**
+   * 災害のY座標を返す。
+   *
+   * @param index 災害の添字
+   * @return Y座標
+   */
+  public double getDisasterY(int index) {
+    return disasters.y[index];
+  }
+
+  /**
+   * 災害の種別を返す。
+   *
+   * @param index 災害の添字
+   * @return 種別
+   */
+  public DisasterType getDisasterType(int index) {
+    return DISASTER_TYPES[disasterTypes[index]];
+  }
+
+  /**
+   * 災害のアニメーション名を返す。
+   *
+   * @param index 災害の添字
+   * @return アニメーション名。無ければnull
+   */
+  public String getDisasterAnimation(int index) {
+    return disasterAnimations[index];
+  }
+
+  /**
+   * 災害のアニメーションフレーム番号を返す。
+   *
+   * @param index 災害の添字
+   * @return フレーム番号
+   */
+  public int getDisasterFrame(int index) {
+    return disasterFrames[index];
+  }
+
+  /**
+   * 災害が指定の印を持つかを返す。
+   *
+   * @param index 災害の添字
+   * @param flag  {@link #FLAG_LOOP}などの印
+   * @return 持つ場合はtrue
+   */
+  public boolean hasDisasterFlag(int index, int flag) {
+    return (disasters.flags[index] & flag) != 0;
+  }
+
+  /**
+   * 前の写しで同じ災害が居た添字を返す。
+   *
+   * @param previous 前の写し
+   * @param index    この写しでの災害の添字
+   * @return 前の写しでの添字。居なければ-1
+   */
+  public int findPreviousDisaster(RenderSnapshot previous, int index) {
+    return previous == null ? -1 : previous.disasters.indexOf(disasters.handles[index]);
+  }
+
+  /**
+   * 住民・災害に共通する位置とハンドルの並び。
+   */
+  static final class Entities {
+    private final int count;
+    private final long[] handles;
+    private final float[] x;
+    private final float[] y;
+    private final byte[] flags;
+    /** ハンドルのIDごとの添字。含まないIDは-1。 */
+    private final int[] indexById;
+
+    /**
+     * 並びを生成し、ハンドルから添字を引く表を作る。
+     *
+     * @param count   要素数
+     * @param handles ハンドル
+     * @param x       X座標
+     * @param y       Y座標
+     * @param flags   印
+     */
+    Entities(int count, long[] handles, float[] x, float[] y, byte[] flags) {
+      this.count = count;
+      this.handles = handles;
+      this.x = x;
+      this.y = y;
+      this.flags = flags;
+      int maxId = -1;
+      for (int i = 0; i < count; i++) {
+        maxId = Math.max(maxId, (int) handles[i]);
+      }
+      this.indexById = new int[maxId + 1];
+      Arrays.fill(indexById, -1);
+      for (int i = 0; i < count; i++) {
+        indexById[(int) handles[i]] = i;
+      }
+    }
+
+    /**
+     * ハンドルの添字を返す。
+     *
+     * @param handle ハンドル
+     * @return 添字。含まない場合や世代が違う場合は-1
+     */
+    int indexOf(long handle) {
+      int id = (int) handle;
+      if (id < 0 || id >= indexById.length) {
+        return -1;
+      }
+      int index = indexById[id];
+      return index >= 0 && handles[index] == handle ? index : -1;
+    }
+  }
+}
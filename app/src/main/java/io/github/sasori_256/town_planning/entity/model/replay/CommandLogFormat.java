@@ -0,0 +1,198 @@
+package io.github.sasori_256.town_planning.entity.model.replay;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
+import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+import io.github.sasori_256.town_planning.entity.resident.ResidentType;
+
+/**
+ * 操作ログのバイナリ形式。
+ *
+ * <pre>
+ * ヘッダ: magic(int) version(short) seed(long) width(int) height(int) timeStep(double)
+ * レコード: tickDelta(varint) opcode(byte) payload
+ * </pre>
+ *
+ * <p>
+ * ティックは直前のレコードからの差分、列挙値は序数、整数はzigzag varintで書く。
+ * 座標は整数値ならvarint、そうでなければdoubleをそのまま書く。
+ * 列挙型の並びを変えた場合はバージョンを上げること。
+ * </p>
+ */
+final class CommandLogFormat {
+  /** ファイル先頭の識別子("TPLG")。 */
+  static final int MAGIC = 0x54504C47;
+  /** 形式のバージョン。 */
+  static final short VERSION = 1;
+
+  private static final byte CONSTRUCT_BUILDING = 1;
+  private static final byte ADD_BUILDING = 2;
+  private static final byte REMOVE_BUILDING = 3;
+  private static final byte ADD_RESIDENT = 4;
+  private static final byte ADD_DISASTER = 5;
+  private static final byte ADD_SOUL = 6;
+  private static final byte SET_SOUL = 7;
+  private static final byte HARVEST_SOUL_AT = 8;
+
+  /** 整数として書ける座標の上限。 */
+  private static final double MAX_INTEGRAL_COORD = 1 << 30;
+
+  private CommandLogFormat() {
+  }
+
+  /**
+   * 操作を書き込む。
+   *
+   * @param out     出力先
+   * @param command 操作
+   * @throws IOException 書き込みに失敗した場合
+   */
+  static void writeCommand(DataOutput out, GameCommand command) throws IOException {
+    switch (command) {
+      case GameCommand.ConstructBuilding c -> {
+        out.writeByte(CONSTRUCT_BUILDING);
+        writeCoord(out, c.x());
+        writeCoord(out, c.y());
+        writeVarLong(out, c.type().ordinal());
+      }
+      case GameCommand.AddBuilding c -> {
+        out.writeByte(ADD_BUILDING);
+        writeCoord(out, c.x());
+        writeCoord(out, c.y());
+        writeVarLong(out, c.type().ordinal());
+      }
+      case GameCommand.RemoveBuilding c -> {
+        out.writeByte(REMOVE_BUILDING);
+        writeCoord(out, c.x());
+        writeCoord(out, c.y());
+      }
+      case GameCommand.AddResident c -> {
+        out.writeByte(ADD_RESIDENT);
+        writeCoord(out, c.x());
+        writeCoord(out, c.y());
+        writeVarLong(out, c.type().ordinal());
+        writeVarLong(out, c.state().ordinal());
+        writeCoord(out, c.homeX());
+        writeCoord(out, c.homeY());
+      }
+      case GameCommand.AddDisaster c -> {
+        out.writeByte(ADD_DISASTER);
+        writeCoord(out, c.x());
+        writeCoord(out, c.y());
+        writeVarLong(out, c.type().ordinal());
+      }
+      case GameCommand.AddSoul c -> {
+        out.writeByte(ADD_SOUL);
+        writeVarLong(out, zigzag(c.amount()));
+      }
+      case GameCommand.SetSoul c -> {
+        out.writeByte(SET_SOUL);
+        writeVarLong(out, zigzag(c.soul()));
+      }
+      case GameCommand.HarvestSoulAt c -> {
+        out.writeByte(HARVEST_SOUL_AT);
+        writeCoord(out, c.x());
+        writeCoord(out, c.y());
+      }
+    }
+  }
+
+  /**
+   * 操作を読み込む。
+   *
+   * @param in 入力元
+   * @return 操作
+   * @throws IOException 読み込みに失敗した場合、または未知の操作種別の場合
+   */
+  static GameCommand readCommand(DataInput in) throws IOException {
+    byte opcode = in.readByte();
+    return switch (opcode) {
+      case CONSTRUCT_BUILDING -> new GameCommand.ConstructBuilding(readCoord(in), readCoord(in),
+          readEnum(in, BuildingType.values()));
+      case ADD_BUILDING -> new GameCommand.AddBuilding(readCoord(in), readCoord(in),
+          readEnum(in, BuildingType.values()));
+      case REMOVE_BUILDING -> new GameCommand.RemoveBuilding(readCoord(in), readCoord(in));
+      case ADD_RESIDENT -> new GameCommand.AddResident(readCoord(in), readCoord(in),
+          readEnum(in, ResidentType.values()), readEnum(in, ResidentState.values()),
+          readCoord(in), readCoord(in));
+      case ADD_DISASTER -> new GameCommand.AddDisaster(readCoord(in), readCoord(in),
+          readEnum(in, DisasterType.values()));
+      case ADD_SOUL -> new GameCommand.AddSoul((int) unzigzag(readVarLong(in)));
+      case SET_SOUL -> new GameCommand.SetSoul((int) unzigzag(readVarLong(in)));
+      case HARVEST_SOUL_AT -> new GameCommand.HarvestSoulAt(readCoord(in), readCoord(in));
+      default -> throw new IOException("Unknown command opcode: " + opcode);
+    };
+  }
+
+  /**
+   * 非負の整数を7bitずつの可変長で書き込む。
+   *
+   * @param out   出力先
+   * @param value 非負の値
+   * @throws IOException 書き込みに失敗した場合
+   */
+  static void writeVarLong(DataOutput out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  /**
+   * 可変長の非負整数を読み込む。
+   *
+   * @param in 入力元
+   * @return 値
+   * @throws IOException 読み込みに失敗した場合
+   */
+  static long readVarLong(DataInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint.");
+  }
+
+  private static void writeCoord(DataOutput out, double value) throws IOException {
+    if (value == Math.rint(value) && Math.abs(value) < MAX_INTEGRAL_COORD) {
+      writeVarLong(out, zigzag((long) value) << 1);
+    } else {
+      writeVarLong(out, 1);
+      out.writeDouble(value);
+    }
+  }
+
+  private static double readCoord(DataInput in) throws IOException {
+    long raw = readVarLong(in);
+    if ((raw & 1) == 0) {
+      return unzigzag(raw >>> 1);
+    }
+    return in.readDouble();
+  }
+
+  private static <E extends Enum<E>> E readEnum(DataInput in, E[] values) throws IOException {
+    long ordinal = readVarLong(in);
+    if (ordinal >= values.length) {
+      throw new IOException("Unknown ordinal " + ordinal + " for "
+          + values.getClass().getComponentType().getSimpleName());
+    }
+    return values[(int) ordinal];
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
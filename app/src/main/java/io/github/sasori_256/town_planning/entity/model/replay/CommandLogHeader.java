@@ -0,0 +1,12 @@
+package io.github.sasori_256.town_planning.entity.model.replay;
+
+/**
+ * 操作ログのヘッダ。再実行に必要なモデルの生成条件を持つ。
+ *
+ * @param seed     マップのシード値
+ * @param width    マップの横幅
+ * @param height   マップの縦幅
+ * @param timeStep 1ティックの経過秒
+ */
+public record CommandLogHeader(long seed, int width, int height, double timeStep) {
+}
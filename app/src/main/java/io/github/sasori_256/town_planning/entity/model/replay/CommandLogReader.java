@@ -0,0 +1,81 @@
+package io.github.sasori_256.town_planning.entity.model.replay;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 操作ログの読み込み側。
+ */
+public final class CommandLogReader {
+  private CommandLogReader() {
+  }
+
+  /**
+   * 読み込んだログ。
+   *
+   * @param header   ヘッダ
+   * @param commands ティック順の操作
+   */
+  public record CommandLog(CommandLogHeader header, List<RecordedCommand> commands) {
+  }
+
+  /**
+   * ファイルからログを読み込む。
+   *
+   * @param path ログファイル
+   * @return 読み込んだログ
+   * @throws IOException 読み込みに失敗した場合、または形式が不正な場合
+   */
+  public static CommandLog read(Path path) throws IOException {
+    try (InputStream input = Files.newInputStream(path)) {
+      return read(input);
+    }
+  }
+
+  /**
+   * ストリームからログを読み込む。
+   * 書き込み途中で終了したセッションの末尾の不完全なレコードは読み飛ばす。
+   *
+   * @param input 入力元
+   * @return 読み込んだログ
+   * @throws IOException 読み込みに失敗した場合、または形式が不正な場合
+   */
+  public static CommandLog read(InputStream input) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+    if (in.readInt() != CommandLogFormat.MAGIC) {
+      throw new IOException("Not a command log.");
+    }
+    short version = in.readShort();
+    if (version != CommandLogFormat.VERSION) {
+      throw new IOException("Unsupported command log version: " + version);
+    }
+    CommandLogHeader header = new CommandLogHeader(in.readLong(), in.readInt(), in.readInt(),
+        in.readDouble());
+    List<RecordedCommand> commands = new ArrayList<>();
+    long tick = 0;
+    while (true) {
+      long delta;
+      try {
+        delta = CommandLogFormat.readVarLong(in);
+      } catch (EOFException e) {
+        break;
+      }
+      GameCommand command;
+      try {
+        command = CommandLogFormat.readCommand(in);
+      } catch (EOFException e) {
+        break;
+      }
+      tick += delta;
+      commands.add(new RecordedCommand(tick, command));
+    }
+    return new CommandLog(header, List.copyOf(commands));
+  }
+}
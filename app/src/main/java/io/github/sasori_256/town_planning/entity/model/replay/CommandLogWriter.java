@@ -0,0 +1,83 @@
+package io.github.sasori_256.town_planning.entity.model.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 操作をティック番号と組にして追記していくログの書き込み側。
+ *
+ * <p>
+ * 異常終了したセッションも再現できるよう、1件書くごとにフラッシュする。
+ * 操作はプレイヤー入力の頻度でしか発生しないため、フラッシュの負荷は問題にならない。
+ * </p>
+ */
+public final class CommandLogWriter implements Closeable {
+  private final DataOutputStream out;
+  private long lastTick;
+
+  /**
+   * 出力先にヘッダを書いてログを開始する。
+   *
+   * @param output   出力先
+   * @param header   ヘッダ
+   * @throws IOException 書き込みに失敗した場合
+   */
+  public CommandLogWriter(OutputStream output, CommandLogHeader header) throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(output));
+    out.writeInt(CommandLogFormat.MAGIC);
+    out.writeShort(CommandLogFormat.VERSION);
+    out.writeLong(header.seed());
+    out.writeInt(header.width());
+    out.writeInt(header.height());
+    out.writeDouble(header.timeStep());
+    out.flush();
+  }
+
+  /**
+   * 新しいファイルを作成してログを開始する。既存のファイルは上書きしない。
+   *
+   * @param path   出力ファイル
+   * @param header ヘッダ
+   * @return 書き込み側
+   * @throws IOException ファイルの作成に失敗した場合
+   */
+  public static CommandLogWriter create(Path path, CommandLogHeader header) throws IOException {
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    return new CommandLogWriter(
+        Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+        header);
+  }
+
+  /**
+   * 操作を追記する。
+   *
+   * @param tick    操作を適用したティック(そのティックの更新前に適用したもの)
+   * @param command 操作
+   * @throws IOException              書き込みに失敗した場合
+   * @throws IllegalArgumentException ティックが前の記録より小さい場合
+   */
+  public synchronized void append(long tick, GameCommand command) throws IOException {
+    if (tick < lastTick) {
+      throw new IllegalArgumentException("tick must not go backwards: " + tick + " < " + lastTick);
+    }
+    CommandLogFormat.writeVarLong(out, tick - lastTick);
+    CommandLogFormat.writeCommand(out, command);
+    out.flush();
+    lastTick = tick;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized void close() throws IOException {
+    out.close();
+  }
+}
@@ -0,0 +1,162 @@
+package io.github.sasori_256.town_planning.entity.model.replay;
+
+import java.awt.geom.Point2D;
+
+import io.github.sasori_256.town_planning.entity.building.Building;
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+import io.github.sasori_256.town_planning.entity.disaster.Disaster;
+import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
+import io.github.sasori_256.town_planning.entity.model.GameModel;
+import io.github.sasori_256.town_planning.entity.resident.Resident;
+import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+import io.github.sasori_256.town_planning.entity.resident.ResidentType;
+
+/**
+ * ゲームの外側(プレイヤー操作など)から{@link GameModel}の状態を変える操作。
+ *
+ * <p>
+ * 操作はティックの合間に状態ロック内で実行されるため、ティック番号と組にして記録しておけば、
+ * 同じシードから同じ順序で再実行することで元のセッションを再現できる。
+ * </p>
+ */
+public sealed interface GameCommand {
+
+  /**
+   * 操作をモデルに適用する。
+   *
+   * @param model 対象のモデル
+   */
+  void apply(GameModel model);
+
+  /**
+   * 魂を消費する通常の建設。
+   *
+   * @param x    設置位置X
+   * @param y    設置位置Y
+   * @param type 建物種別
+   */
+  record ConstructBuilding(double x, double y, BuildingType type) implements GameCommand {
+    /** {@inheritDoc} */
+    @Override
+    public void apply(GameModel model) {
+      model.constructBuilding(new Point2D.Double(x, y), type);
+    }
+  }
+
+  /**
+   * 建設判定を通さない建物の追加。
+   * 記録元では呼び出し側がマップへの配置を済ませているため、再実行時は配置してから追加する。
+   *
+   * @param x    設置位置X
+   * @param y    設置位置Y
+   * @param type 建物種別
+   */
+  record AddBuilding(double x, double y, BuildingType type) implements GameCommand {
+    /** {@inheritDoc} */
+    @Override
+    public void apply(GameModel model) {
+      Point2D.Double pos = new Point2D.Double(x, y);
+      Building building = new Building(pos, type);
+      if (model.getGameMap().canPlaceBuilding(pos, type)) {
+        model.getGameMap().placeBuilding(pos, building);
+      }
+      model.addBuildingEntity(building);
+    }
+  }
+
+  /**
+   * 建物の撤去。
+   *
+   * @param x 建物の位置X
+   * @param y 建物の位置Y
+   */
+  record RemoveBuilding(double x, double y) implements GameCommand {
+    /** {@inheritDoc} */
+    @Override
+    public void apply(GameModel model) {
+      Point2D.Double pos = new Point2D.Double(x, y);
+      if (!model.getGameMap().isValidPosition(pos)) {
+        return;
+      }
+      Building building = model.getGameMap().getCell(pos).getBuilding();
+      if (building != null) {
+        model.removeBuildingEntity(building);
+      }
+    }
+  }
+
+  /**
+   * 住民の追加。
+   *
+   * @param x     位置X
+   * @param y     位置Y
+   * @param type  住民種別
+   * @param state 初期状態
+   * @param homeX 自宅の位置X
+   * @param homeY 自宅の位置Y
+   */
+  record AddResident(double x, double y, ResidentType type, ResidentState state, double homeX,
+      double homeY) implements GameCommand {
+    /** {@inheritDoc} */
+    @Override
+    public void apply(GameModel model) {
+      model.addResidentEntity(new Resident(new Point2D.Double(x, y), type, state,
+          new Point2D.Double(homeX, homeY)));
+    }
+  }
+
+  /**
+   * 災害の発生。
+   *
+   * @param x    発生位置X
+   * @param y    発生位置Y
+   * @param type 災害種別
+   */
+  record AddDisaster(double x, double y, DisasterType type) implements GameCommand {
+    /** {@inheritDoc} */
+    @Override
+    public void apply(GameModel model) {
+      model.addDisasterEntity(new Disaster(new Point2D.Double(x, y), type));
+    }
+  }
+
+  /**
+   * 魂の加算。
+   *
+   * @param amount 加算量
+   */
+  record AddSoul(int amount) implements GameCommand {
+    /** {@inheritDoc} */
+    @Override
+    public void apply(GameModel model) {
+      model.addSoul(amount);
+    }
+  }
+
+  /**
+   * 魂所持量の設定。
+   *
+   * @param soul 設定値
+   */
+  record SetSoul(int soul) implements GameCommand {
+    /** {@inheritDoc} */
+    @Override
+    public void apply(GameModel model) {
+      model.setSoul(soul);
+    }
+  }
+
+  /**
+   * 遺体からの魂の刈り取り。
+   *
+   * @param x 位置X
+   * @param y 位置Y
+   */
+  record HarvestSoulAt(double x, double y) implements GameCommand {
+    /** {@inheritDoc} */
+    @Override
+    public void apply(GameModel model) {
+      model.harvestSoulAt(new Point2D.Double(x, y));
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package io.github.sasori_256.town_planning.entity.model.replay;
+
+/**
+ * ログに記録された操作。
+ *
+ * @param tick    適用したティック(そのティックの更新前に適用したもの)
+ * @param command 操作
+ */
+public record RecordedCommand(long tick, GameCommand command) {
+}
@@ -0,0 +1,93 @@
+package io.github.sasori_256.town_planning.entity.model.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import io.github.sasori_256.town_planning.entity.model.GameModel;
+
+/**
+ * 操作ログからセッションを再実行するエンジン。
+ *
+ * <p>
+ * ヘッダのシード値とマップサイズから{@link GameModel}を作り直し、各ティックの更新前に
+ * そのティックで記録された操作を適用しながら、待ち時間なしで指定ティックまで進める。
+ * シミュレーションの乱数はシード値から導かれるため、記録時と同じ状態が得られる。
+ * </p>
+ */
+public final class ReplayEngine {
+  private final CommandLogHeader header;
+  private final List<RecordedCommand> commands;
+
+  /**
+   * 読み込んだログから再実行エンジンを生成する。
+   *
+   * @param log 操作ログ
+   */
+  public ReplayEngine(CommandLogReader.CommandLog log) {
+    this.header = log.header();
+    this.commands = log.commands();
+  }
+
+  /**
+   * ログファイルを読み込んで再実行エンジンを生成する。
+   *
+   * @param path ログファイル
+   * @return 再実行エンジン
+   * @throws IOException 読み込みに失敗した場合
+   */
+  public static ReplayEngine load(Path path) throws IOException {
+    return new ReplayEngine(CommandLogReader.read(path));
+  }
+
+  /**
+   * ログのヘッダを返す。
+   *
+   * @return ヘッダ
+   */
+  public CommandLogHeader getHeader() {
+    return header;
+  }
+
+  /**
+   * 最後に記録された操作のティックを返す。
+   *
+   * @return ティック。操作がなければ0
+   */
+  public long getLastCommandTick() {
+    return commands.isEmpty() ? 0 : commands.get(commands.size() - 1).tick();
+  }
+
+  /**
+   * 指定ティックより前に記録された操作の数を返す。
+   *
+   * @param tick ティック
+   * @return 操作の数
+   */
+  public int countCommandsBefore(long tick) {
+    int count = 0;
+    while (count < commands.size() && commands.get(count).tick() < tick) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * モデルを作り直し、指定ティック数の更新が終わった時点まで再実行する。
+   * 返したモデルは呼び出し側で{@link GameModel#dispose()}すること。
+   *
+   * @param targetTick 更新するティック数
+   * @return 再実行したモデル
+   */
+  public GameModel replay(long targetTick) {
+    GameModel model = new GameModel(header.width(), header.height(), header.seed());
+    int next = 0;
+    for (long tick = 0; tick < targetTick; tick++) {
+      while (next < commands.size() && commands.get(next).tick() <= tick) {
+        commands.get(next++).command().apply(model);
+      }
+      model.step(header.timeStep());
+    }
+    return model;
+  }
+}
@@ -0,0 +1,25 @@
+package io.github.sasori_256.town_planning.entity.model.save;
+
+/**
+ * セーブデータに内部状態を書き出し、読み戻せるオブジェクト。
+ *
+ * <p>
+ * 読み込み時は生成直後のインスタンスに対して{@link #readState(SaveInput)}を呼び、
+ * 書き込み時と同じ順序で値を読む。
+ * </p>
+ */
+public interface Persistable {
+  /**
+   * 内部状態を書き込む。
+   *
+   * @param out 書き込み先
+   */
+  void writeState(SaveOutput out);
+
+  /**
+   * 内部状態を読み込む。
+   *
+   * @param in 読み込み元
+   */
+  void readState(SaveInput in);
+}
@@ -0,0 +1,156 @@
+package io.github.sasori_256.town_planning.entity.model.save;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * セーブデータの読み込み側。
+ *
+ * <p>
+ * ファイルを読み取り専用でメモリマップしたバッファから、{@link SaveOutput}と同じ並びで値を読む。
+ * 途中で尽きた場合は{@link BufferUnderflowException}、値が範囲外の場合は
+ * {@link IllegalStateException}を投げる。呼び出し側でまとめて読み込み失敗として扱うこと。
+ * </p>
+ */
+public final class SaveInput {
+  private final ByteBuffer buffer;
+
+  /**
+   * 読み込み元のバッファを指定して生成する。
+   *
+   * @param buffer 読み込み元。現在位置から読む
+   */
+  public SaveInput(ByteBuffer buffer) {
+    this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * 1バイト読み込む。
+   *
+   * @return 値
+   */
+  public byte readByte() {
+    return buffer.get();
+  }
+
+  /**
+   * 真偽値を読み込む。
+   *
+   * @return 値
+   */
+  public boolean readBoolean() {
+    return buffer.get() != 0;
+  }
+
+  /**
+   * int値を読み込む。
+   *
+   * @return 値
+   */
+  public int readInt() {
+    return buffer.getInt();
+  }
+
+  /**
+   * long値を読み込む。
+   *
+   * @return 値
+   */
+  public long readLong() {
+    return buffer.getLong();
+  }
+
+  /**
+   * double値を読み込む。
+   *
+   * @return 値
+   */
+  public double readDouble() {
+    return buffer.getDouble();
+  }
+
+  /**
+   * 序数で書かれた列挙値を読み込む。
+   *
+   * @param values 列挙型の全値({@code values()}の結果)
+   * @param <E>    列挙型
+   * @return 値。-1ならnull
+   */
+  public <E extends Enum<E>> E readEnum(E[] values) {
+    int ordinal = readInt();
+    if (ordinal == -1) {
+      return null;
+    }
+    if (ordinal < 0 || ordinal >= values.length) {
+      throw new IllegalStateException("Invalid ordinal: " + ordinal);
+    }
+    return values[ordinal];
+  }
+
+  /**
+   * 文字列を読み込む。
+   *
+   * @return 値。長さ-1ならnull
+   */
+  public String readString() {
+    int length = readLength(true);
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * 長さ付きのバイト列を読み込む。
+   *
+   * @return 値
+   */
+  public byte[] readBytes() {
+    byte[] values = new byte[readLength(false)];
+    buffer.get(values);
+    return values;
+  }
+
+  /**
+   * 長さ付きのint配列を読み込む。
+   *
+   * @return 値。長さ-1ならnull
+   */
+  public int[] readInts() {
+    int length = readLength(true);
+    if (length < 0) {
+      return null;
+    }
+    if ((long) length * Integer.BYTES > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    int[] values = new int[length];
+    buffer.asIntBuffer().get(values);
+    buffer.position(buffer.position() + length * Integer.BYTES);
+    return values;
+  }
+
+  /**
+   * 要素数を読み込む。
+   *
+   * @return 要素数
+   */
+  public int readCount() {
+    return readLength(false);
+  }
+
+  private int readLength(boolean nullable) {
+    int length = readInt();
+    if (nullable && length == -1) {
+      return -1;
+    }
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalStateException("Invalid length: " + length);
+    }
+    return length;
+  }
+}
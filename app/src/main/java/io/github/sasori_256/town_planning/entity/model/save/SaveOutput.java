@@ -0,0 +1,169 @@
+package io.github.sasori_256.town_planning.entity.model.save;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * セーブデータの書き込み側。
+ *
+ * <p>
+ * ダイレクトバッファに詰めてから{@link FileChannel}へまとめて書き出す。
+ * 書き込み中にファイルをメモリマップしないのは、マップ中のファイルを切り詰められない
+ * 環境(Windows)があり、最終サイズが事前に分からないためである。
+ * 値はリトルエンディアンの固定長で書き、読み込み側の{@link SaveInput}と対になる。
+ * </p>
+ */
+public final class SaveOutput implements Closeable {
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+      .order(ByteOrder.LITTLE_ENDIAN);
+
+  /**
+   * 書き込み先のチャネルを指定して生成する。
+   *
+   * @param channel 書き込み可能なチャネル
+   */
+  public SaveOutput(FileChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * 1バイト書き込む。
+   *
+   * @param value 値
+   */
+  public void writeByte(int value) {
+    ensure(Byte.BYTES).put((byte) value);
+  }
+
+  /**
+   * 真偽値を書き込む。
+   *
+   * @param value 値
+   */
+  public void writeBoolean(boolean value) {
+    writeByte(value ? 1 : 0);
+  }
+
+  /**
+   * int値を書き込む。
+   *
+   * @param value 値
+   */
+  public void writeInt(int value) {
+    ensure(Integer.BYTES).putInt(value);
+  }
+
+  /**
+   * long値を書き込む。
+   *
+   * @param value 値
+   */
+  public void writeLong(long value) {
+    ensure(Long.BYTES).putLong(value);
+  }
+
+  /**
+   * double値を書き込む。
+   *
+   * @param value 値
+   */
+  public void writeDouble(double value) {
+    ensure(Double.BYTES).putDouble(value);
+  }
+
+  /**
+   * 列挙値を序数で書き込む。nullは-1とする。
+   *
+   * @param value 値
+   */
+  public void writeEnum(Enum<?> value) {
+    writeInt(value == null ? -1 : value.ordinal());
+  }
+
+  /**
+   * 文字列をUTF-8で書き込む。nullは長さ-1とする。
+   *
+   * @param value 値
+   */
+  public void writeString(String value) {
+    if (value == null) {
+      writeInt(-1);
+      return;
+    }
+    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * バイト列を長さ付きで書き込む。
+   *
+   * @param values 値
+   */
+  public void writeBytes(byte[] values) {
+    writeInt(values.length);
+    int offset = 0;
+    while (offset < values.length) {
+      int length = Math.min(values.length - offset, BUFFER_SIZE);
+      ensure(length).put(values, offset, length);
+      offset += length;
+    }
+  }
+
+  /**
+   * int配列を長さ付きで書き込む。nullは長さ-1とする。
+   *
+   * @param values 値
+   */
+  public void writeInts(int[] values) {
+    if (values == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(values.length);
+    for (int value : values) {
+      writeInt(value);
+    }
+  }
+
+  private ByteBuffer ensure(int bytes) {
+    if (buffer.remaining() < bytes) {
+      drain();
+    }
+    return buffer;
+  }
+
+  private void drain() {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * 残りを書き出してチャネルを閉じる。
+   *
+   * @throws IOException 書き込みに失敗した場合
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      drain();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      channel.close();
+    }
+  }
+}
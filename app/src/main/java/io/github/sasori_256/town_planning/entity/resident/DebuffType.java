@@ -17,21 +17,20 @@ public enum DebuffType {
       // 伝染処理
       if (level > 0) { // レベルが0なら感染力なし
         double infectionRadius = 1.5; // 1.5タイル以内
-        double radiusSq = infectionRadius * infectionRadius;
-        
-        // 近くの生存者を探す
-        // 注意: 毎フレーム全探索は重いが、今回はResident数が数百程度と仮定。
-        // 必要ならSpatialPartitioningなどを導入するが、まずはシンプルに実装。
-        context.getResidentEntities()
-            .filter(r -> r.getState() != ResidentState.DEAD)
-            .filter(r -> r.getState() != ResidentState.AT_HOME) // 家にいる住民は対象外
-            .filter(r -> r != self) // 自分以外
-            .filter(r -> r.getPosition().distanceSq(self.getPosition()) <= radiusSq)
-            .forEach(target -> {
-               // 感染（レベルを下げて伝染）。持続時間は10秒でリセット。
-               // 既に感染していても、より高いレベル（若い世代）の菌なら更新されるロジックはaddDebuff側で制御
-               target.addDebuff(PLAGUE, INFECTION_DURATION_SECONDS, level - 1);
-            });
+
+        // 他の住民への作用なので、全住民の更新後に実行されるようコマンドとして積む
+        context.enqueueCommand(ctx -> {
+          // 近くの生存者を空間インデックスから探す
+          ctx.getResidentsWithin(self.getPosition(), infectionRadius).stream()
+              .filter(r -> r.getState() != ResidentState.DEAD)
+              .filter(r -> r.getState() != ResidentState.AT_HOME) // 家にいる住民は対象外
+              .filter(r -> r != self) // 自分以外
+              .forEach(target -> {
+                 // 感染（レベルを下げて伝染）。持続時間は10秒でリセット。
+                 // 既に感染していても、より高いレベル（若い世代）の菌なら更新されるロジックはaddDebuff側で制御
+                 target.addDebuff(PLAGUE, INFECTION_DURATION_SECONDS, level - 1);
+              });
+        });
       }
     }
   };
@@ -3,11 +3,15 @@ package io.github.sasori_256.town_planning.entity.resident;
 import java.awt.geom.Point2D;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import io.github.sasori_256.town_planning.common.core.GameConfig;
 import io.github.sasori_256.town_planning.common.core.strategy.CompositeUpdateStrategy;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 import io.github.sasori_256.town_planning.entity.resident.strategy.ResidentBehaviorAction;
 import io.github.sasori_256.town_planning.entity.resident.strategy.ResidentCorpseCleanupEffect;
 import io.github.sasori_256.town_planning.entity.resident.strategy.ResidentLifeCycleEffect;
@@ -36,6 +40,10 @@ public class Resident extends BaseGameEntity {
   private final Map<DebuffType, Integer> debuffLevels = new HashMap<>();
   private final Map<DebuffType, Double> debuffIntervals = new HashMap<>();
   private double damageEffectTimer = 0.0;
+  /** 位置変更の通知先。EntityManagerが空間インデックスの更新に使用する。 */
+  private Consumer<Resident> positionObserver;
+  /** 状態遷移(遷移前, 遷移後)の通知先。EntityManagerが状態ごとの人数集計に使用する。 */
+  private BiConsumer<ResidentState, ResidentState> stateObserver;
 
   /**
    * 住民を生成する。
@@ -78,6 +86,33 @@ public class Resident extends BaseGameEntity {
     this(position, residentType, state, position);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void setPosition(Point2D.Double position) {
+    super.setPosition(position);
+    if (positionObserver != null) {
+      positionObserver.accept(this);
+    }
+  }
+
+  /**
+   * 位置変更の通知先を設定する。
+   *
+   * @param positionObserver 通知先。解除する場合はnull
+   */
+  public void setPositionObserver(Consumer<Resident> positionObserver) {
+    this.positionObserver = positionObserver;
+  }
+
+  /**
+   * 状態遷移の通知先を設定する。
+   *
+   * @param stateObserver 遷移前と遷移後の状態を受け取る通知先。解除する場合はnull
+   */
+  public void setStateObserver(BiConsumer<ResidentState, ResidentState> stateObserver) {
+    this.stateObserver = stateObserver;
+  }
+
   /**
    * ダメージを受ける。
    *
@@ -241,7 +276,11 @@ public class Resident extends BaseGameEntity {
     if (state == ResidentState.DEAD && this.state != ResidentState.DEAD) {
       this.deathAnimationElapsed = 0.0;
     }
+    ResidentState previous = this.state;
     this.state = state;
+    if (previous != state && stateObserver != null) {
+      stateObserver.accept(previous, state);
+    }
   }
 
   /**
@@ -382,4 +421,69 @@ public class Resident extends BaseGameEntity {
     }
     deathAnimationElapsed = Math.min(DEATH_ANIMATION_DURATION, deathAnimationElapsed + dt);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    super.writeState(out);
+    out.writeDouble(homePosition.getX());
+    out.writeDouble(homePosition.getY());
+    out.writeBoolean(relocationTarget != null);
+    if (relocationTarget != null) {
+      out.writeDouble(relocationTarget.getX());
+      out.writeDouble(relocationTarget.getY());
+    }
+    out.writeDouble(age);
+    out.writeInt(faith);
+    out.writeInt(layerIndex);
+    out.writeEnum(state);
+    out.writeDouble(deathAnimationElapsed);
+    out.writeDouble(maxHp);
+    out.writeDouble(currentHp);
+    out.writeDouble(damageEffectTimer);
+    out.writeInt(debuffTimers.size());
+    for (Map.Entry<DebuffType, Double> entry : debuffTimers.entrySet()) {
+      DebuffType type = entry.getKey();
+      out.writeEnum(type);
+      out.writeDouble(entry.getValue());
+      out.writeInt(debuffLevels.getOrDefault(type, 0));
+      out.writeDouble(debuffIntervals.getOrDefault(type, 0.0));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   * 状態は通知先を経由せずに書き戻すため、ゲーム世界へ追加する前に呼ぶこと。
+   * </p>
+   */
+  @Override
+  public void readState(SaveInput in) {
+    super.readState(in);
+    homePosition = new Point2D.Double(in.readDouble(), in.readDouble());
+    relocationTarget = in.readBoolean() ? new Point2D.Double(in.readDouble(), in.readDouble())
+        : null;
+    age = in.readDouble();
+    faith = in.readInt();
+    layerIndex = in.readInt();
+    state = in.readEnum(ResidentState.values());
+    if (state == null) {
+      throw new IllegalStateException("Resident state is missing.");
+    }
+    deathAnimationElapsed = in.readDouble();
+    maxHp = in.readDouble();
+    currentHp = in.readDouble();
+    damageEffectTimer = in.readDouble();
+    debuffTimers.clear();
+    debuffLevels.clear();
+    debuffIntervals.clear();
+    int debuffs = in.readCount();
+    for (int i = 0; i < debuffs; i++) {
+      DebuffType type = in.readEnum(DebuffType.values());
+      debuffTimers.put(type, in.readDouble());
+      debuffLevels.put(type, in.readInt());
+      debuffIntervals.put(type, in.readDouble());
+    }
+  }
 }
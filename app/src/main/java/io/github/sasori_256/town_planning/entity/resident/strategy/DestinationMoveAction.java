@@ -1,26 +1,34 @@
 package io.github.sasori_256.town_planning.entity.resident.strategy;
 
 import io.github.sasori_256.town_planning.common.core.GameConfig;
+import io.github.sasori_256.town_planning.common.jfr.JfrPathfindingEvent;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameAction;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
+import io.github.sasori_256.town_planning.map.model.FlowField;
+import io.github.sasori_256.town_planning.map.model.FlowFieldCache;
 import io.github.sasori_256.town_planning.map.model.GameMap;
-import io.github.sasori_256.town_planning.map.model.MapCell;
-import java.awt.Point;
+import io.github.sasori_256.town_planning.map.model.HierarchicalPathFinder;
+import io.github.sasori_256.town_planning.map.model.PathFinder;
+import io.github.sasori_256.town_planning.map.model.WalkableRegions;
 import java.awt.geom.Point2D;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-import java.util.PriorityQueue;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 目的地を決めて最短経路で移動するStrategy。
  * 他の動作（働く、祈るなど）と分離させたいのでGameActionとして実装（排他動作）。
+ * 外部から指定された目的地は住民間で共有されやすいため{@link FlowFieldCache}のフィールドを辿り、
+ * 自動選択したランダムな目的地は個別にA*で経路を求める。
+ *
+ * <p>
+ * 保存するのは目的地、詳細化済みの経路区間、フローフィールド上の位置と階層型経路の通過点まで。
+ * フィールドと経路の本体はマップから同じものを作り直せるため、読み込み後の最初の更新で
+ * キャッシュと階層型探索から取り直す。
+ * </p>
  */
-public class DestinationMoveAction implements GameAction {
+public class DestinationMoveAction implements GameAction, Persistable {
   /**
    * 移動処理の結果ステータス。
    * execute() 呼び出しごとに更新される。
@@ -39,15 +47,30 @@ public class DestinationMoveAction implements GameAction {
   private static final double ARRIVAL_EPSILON = GameConfig.getPathfindingArrivalEpsilonTiles();
   private static final double SEARCH_COOLDOWN = GameConfig.getPathfindingSearchCooldownSeconds();
   private static final int MAX_RANDOM_TRIES = GameConfig.getPathfindingMaxRandomTries();
-  private static final long COST_INF = GameConfig.getPathfindingCostInf();
 
   private final double speed;
   private final boolean autoDestination;
   private double searchCooldown;
   private Point2D.Double destination;
-  private List<Point2D.Double> path;
+  /** 目的地が外部から指定されたもの(フローフィールドを共有する対象)か。 */
+  private boolean sharedDestination;
+  /** 経路のセル番号列。{@link PathFinder}の形式。 */
+  private int[] path;
+  /** 経路のセル番号を求めたときのマップ横幅。 */
+  private int pathWidth;
   private int pathIndex;
+  /** 辿っているフローフィールド。A*経路を使う場合はnull。 */
+  private FlowField flowField;
+  /** フローフィールド上で最後に到達したセル番号。 */
+  private int flowCell;
+  /** 辿っている階層型経路。pathには詳細化済みの現在区間が入る。 */
+  private HierarchicalPathFinder.Route hierarchicalRoute;
   private MoveStatus lastStatus;
+  /** 読み込んだ状態がフローフィールドを辿っていたか。最初の更新で取り直す。 */
+  private boolean restoreFlowField;
+  /** 読み込んだ階層型経路の通過点。最初の更新で経路に戻す。 */
+  private int[] restoreWaypoints;
+  private int restoreSegmentIndex;
 
   /**
    * 目的地を自動選択する移動アクションを作成する。
@@ -80,8 +103,13 @@ public class DestinationMoveAction implements GameAction {
       return;
     }
     this.destination = new Point2D.Double(destination.getX(), destination.getY());
+    this.sharedDestination = true;
     this.path = null;
     this.pathIndex = 0;
+    this.flowField = null;
+    this.hierarchicalRoute = null;
+    this.restoreFlowField = false;
+    this.restoreWaypoints = null;
     this.searchCooldown = 0.0;
     this.lastStatus = MoveStatus.IDLE;
   }
@@ -125,6 +153,7 @@ public class DestinationMoveAction implements GameAction {
     if (map == null || self == null) {
       return;
     }
+    restoreRoute(context, map);
 
     double dt = context.getDeltaTime();
     if (searchCooldown > 0.0) {
@@ -138,7 +167,7 @@ public class DestinationMoveAction implements GameAction {
       if (searchCooldown > 0.0) {
         return;
       }
-      if (!selectNewDestination(map, self)) {
+      if (!selectNewDestination(context, map, self)) {
         searchCooldown = SEARCH_COOLDOWN;
         lastStatus = MoveStatus.FAILED;
         return;
@@ -152,22 +181,20 @@ public class DestinationMoveAction implements GameAction {
       return;
     }
 
-    if (path == null || pathIndex >= path.size()) {
-      List<Point2D.Double> newPath = findPath(map, self.getPosition(), destination);
-      if (newPath == null) {
+    if (!hasRoute()) {
+      if (!planRoute(context, map, self.getPosition())) {
         clearPath();
         searchCooldown = SEARCH_COOLDOWN;
         lastStatus = MoveStatus.FAILED;
         return;
       }
-      path = newPath;
-      pathIndex = 0;
     }
 
-    if (pathIndex < path.size()) {
-      Point2D.Double nextStep = path.get(pathIndex);
-      if (!isCellWalkable(map, nextStep)) {
-        if (!replanPath(map, self.getPosition())) {
+    int nextStep = nextRouteCell();
+    if (nextStep >= 0) {
+      if (!isCellWalkable(map, PathFinder.cellX(nextStep, pathWidth),
+          PathFinder.cellY(nextStep, pathWidth))) {
+        if (!replanPath(context, map, self.getPosition())) {
           clearPath();
           searchCooldown = SEARCH_COOLDOWN;
           lastStatus = MoveStatus.FAILED;
@@ -188,7 +215,7 @@ public class DestinationMoveAction implements GameAction {
   }
 
   private void moveAlongPath(BaseGameEntity self, double dt) {
-    if (path == null || pathIndex >= path.size()) {
+    if (!hasRoute()) {
       return;
     }
 
@@ -196,24 +223,29 @@ public class DestinationMoveAction implements GameAction {
     double x = self.getPosition().getX();
     double y = self.getPosition().getY();
 
-    while (remaining > 0.0 && pathIndex < path.size()) {
-      Point2D.Double target = path.get(pathIndex);
-      double dx = target.getX() - x;
-      double dy = target.getY() - y;
+    while (remaining > 0.0) {
+      int target = nextRouteCell();
+      if (target < 0) {
+        break;
+      }
+      int targetX = PathFinder.cellX(target, pathWidth);
+      int targetY = PathFinder.cellY(target, pathWidth);
+      double dx = targetX - x;
+      double dy = targetY - y;
       double dist = Math.hypot(dx, dy);
 
       if (dist <= ARRIVAL_EPSILON) {
-        x = target.getX();
-        y = target.getY();
-        pathIndex++;
+        x = targetX;
+        y = targetY;
+        advanceRoute(target);
         continue;
       }
 
       if (dist <= remaining) {
-        x = target.getX();
-        y = target.getY();
+        x = targetX;
+        y = targetY;
         remaining -= dist;
-        pathIndex++;
+        advanceRoute(target);
       } else {
         double ratio = remaining / dist;
         x += dx * ratio;
@@ -225,146 +257,180 @@ public class DestinationMoveAction implements GameAction {
     self.setPosition(new Point2D.Double(x, y));
   }
 
-  private boolean selectNewDestination(GameMap map, BaseGameEntity self) {
+  private boolean selectNewDestination(GameContext context, GameMap map, BaseGameEntity self) {
     Point2D.Double current = self.getPosition();
-    int startX = toCellIndex(current.getX(), map.getWidth());
+    int width = map.getWidth();
+    int startX = toCellIndex(current.getX(), width);
     int startY = toCellIndex(current.getY(), map.getHeight());
 
-    ThreadLocalRandom rng = ThreadLocalRandom.current();
+    // 出発地点と同じ連結成分から抽選するため、選んだ目的地には必ず経路がある。
+    WalkableRegions regions = map.getWalkableRegions();
+    int region = regions.getDepartureRegion(startX, startY);
+    if (region == WalkableRegions.NONE) {
+      return false;
+    }
     for (int i = 0; i < MAX_RANDOM_TRIES; i++) {
-      int x = rng.nextInt(map.getWidth());
-      int y = rng.nextInt(map.getHeight());
+      int cell = regions.randomCell(region, self.getRandom());
+      int x = PathFinder.cellX(cell, width);
+      int y = PathFinder.cellY(cell, width);
       if (x == startX && y == startY) {
         continue;
       }
-      if (!isCellWalkable(map, x, y)) {
-        continue;
-      }
-      Point2D.Double candidate = new Point2D.Double(x, y);
-      List<Point2D.Double> newPath = findPath(map, current, candidate);
-      if (newPath != null) {
-        destination = candidate;
-        path = newPath;
-        pathIndex = 0;
+      destination = new Point2D.Double(x, y);
+      sharedDestination = false;
+      if (planRoute(context, map, current)) {
         return true;
       }
-    }
-
-    for (int y = 0; y < map.getHeight(); y++) {
-      for (int x = 0; x < map.getWidth(); x++) {
-        if (x == startX && y == startY) {
-          continue;
-        }
-        if (!isCellWalkable(map, x, y)) {
-          continue;
-        }
-        Point2D.Double candidate = new Point2D.Double(x, y);
-        List<Point2D.Double> newPath = findPath(map, current, candidate);
-        if (newPath != null) {
-          destination = candidate;
-          path = newPath;
-          pathIndex = 0;
-          return true;
-        }
-      }
+      destination = null;
     }
 
     return false;
   }
 
-  private boolean replanPath(GameMap map, Point2D.Double startPos) {
+  private boolean replanPath(GameContext context, GameMap map, Point2D.Double startPos) {
     if (destination == null) {
       return false;
     }
-    List<Point2D.Double> newPath = findPath(map, startPos, destination);
-    if (newPath == null) {
-      return false;
-    }
-    path = newPath;
-    pathIndex = 0;
-    return true;
+    return planRoute(context, map, startPos);
   }
 
-  private List<Point2D.Double> findPath(
-      GameMap map,
-      Point2D.Double startPos,
-      Point2D.Double goalPos) {
+  private boolean planRoute(GameContext context, GameMap map, Point2D.Double startPos) {
     int width = map.getWidth();
     int height = map.getHeight();
     int startX = toCellIndex(startPos.getX(), width);
     int startY = toCellIndex(startPos.getY(), height);
-    int goalX = toCellIndex(goalPos.getX(), width);
-    int goalY = toCellIndex(goalPos.getY(), height);
+    int goalX = toCellIndex(destination.getX(), width);
+    int goalY = toCellIndex(destination.getY(), height);
+    JfrPathfindingEvent event = new JfrPathfindingEvent();
+    if (!event.isEnabled()) {
+      return planRoute(context, map, startX, startY, goalX, goalY);
+    }
+    long expandedBefore = PathFinder.expandedNodes();
+    event.begin();
+    boolean found = planRoute(context, map, startX, startY, goalX, goalY);
+    event.end();
+    if (event.shouldCommit()) {
+      event.startX = startX;
+      event.startY = startY;
+      event.goalX = goalX;
+      event.goalY = goalY;
+      event.found = found;
+      event.nodesExpanded = PathFinder.expandedNodes() - expandedBefore;
+      if (!found) {
+        event.method = "none";
+        event.pathLength = -1;
+      } else if (hierarchicalRoute != null) {
+        event.method = "hierarchical";
+        event.pathLength = hierarchicalRoute.getWaypointCount();
+      } else if (flowField != null) {
+        event.method = "flowField";
+        event.pathLength = -1;
+      } else {
+        event.method = "astar";
+        event.pathLength = path == null ? 0 : path.length;
+      }
+      event.commit();
+    }
+    return found;
+  }
 
-    if (startX == goalX && startY == goalY) {
-      return new ArrayList<>();
+  private boolean planRoute(GameContext context, GameMap map, int startX, int startY, int goalX,
+      int goalY) {
+    int width = map.getWidth();
+    if (!map.getWalkableRegions().isConnected(startX, startY, goalX, goalY)) {
+      return false;
     }
-    if (!isCellWalkable(map, goalX, goalY)) {
-      return null;
+
+    // 大きなマップではフローフィールドも1枚が重くなるため、常に階層型探索を使う。
+    if (map.usesHierarchicalPathfinding()) {
+      HierarchicalPathFinder.Route route = map.getHierarchicalPathFinder()
+          .findRoute(startX, startY, goalX, goalY);
+      if (route == null) {
+        return false;
+      }
+      setPath(null, width);
+      hierarchicalRoute = route;
+      return true;
     }
 
-    long[][] dist = new long[height][width];
-    for (int y = 0; y < height; y++) {
-      Arrays.fill(dist[y], COST_INF);
+    FlowFieldCache cache = sharedDestination ? context.getFlowFieldCache() : null;
+    if (cache != null) {
+      FlowField field = cache.get(goalX, goalY);
+      if (!field.isReachable(startX, startY)) {
+        return false;
+      }
+      setPath(null, width);
+      flowField = field;
+      flowCell = startY * width + startX;
+      return true;
     }
-    Point[][] prev = new Point[height][width];
-    PriorityQueue<Node> queue = new PriorityQueue<>(Comparator.comparingLong(n -> n.cost));
 
-    dist[startY][startX] = 0;
-    queue.add(new Node(startX, startY, 0));
+    int[] newPath = PathFinder.findPath(map, startX, startY, goalX, goalY);
+    if (newPath == null) {
+      return false;
+    }
+    setPath(newPath, width);
+    return true;
+  }
 
-    int[] dx = { 1, -1, 0, 0 };
-    int[] dy = { 0, 0, 1, -1 };
+  private void setPath(int[] newPath, int width) {
+    path = newPath;
+    pathWidth = width;
+    pathIndex = 0;
+    flowField = null;
+    hierarchicalRoute = null;
+  }
 
-    while (!queue.isEmpty()) {
-      Node current = queue.poll();
-      if (current.cost != dist[current.y][current.x]) {
-        continue;
-      }
-      if (current.x == goalX && current.y == goalY) {
-        break;
-      }
-      for (int i = 0; i < dx.length; i++) {
-        int nx = current.x + dx[i];
-        int ny = current.y + dy[i];
-        if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
-          continue;
-        }
-        if (!isCellWalkable(map, nx, ny)) {
-          continue;
-        }
-        MapCell cell = map.getCell(new Point2D.Double(nx, ny));
-        long stepCost = cell.getMoveCost();
-        if (stepCost >= COST_INF) {
-          continue;
-        }
-        long newCost = current.cost + stepCost;
-        if (newCost < dist[ny][nx]) {
-          dist[ny][nx] = newCost;
-          prev[ny][nx] = new Point(current.x, current.y);
-          queue.add(new Node(nx, ny, newCost));
-        }
+  /**
+   * 階層型経路の現在区間を使い切っていれば、次の区間を詳細化して経路に載せる。
+   * 詳細化に失敗した場合は経路を破棄し、呼び出し側に再計画させる。
+   */
+  private void refillSegment() {
+    while (hierarchicalRoute != null && (path == null || pathIndex >= path.length)
+        && hierarchicalRoute.hasNextSegment()) {
+      int[] segment = hierarchicalRoute.nextSegment();
+      if (segment == null) {
+        hierarchicalRoute = null;
+        path = null;
+        return;
       }
+      path = segment;
+      pathIndex = 0;
     }
+  }
 
-    if (dist[goalY][goalX] >= COST_INF) {
-      return null;
+  /**
+   * 辿るべき経路が残っているかを返す。
+   * フローフィールドがマップ変更で無効化された場合は経路なしとみなし、再取得させる。
+   */
+  private boolean hasRoute() {
+    if (flowField != null) {
+      return flowField.isValid() && flowCell != flowField.getGoal();
     }
+    refillSegment();
+    return path != null && pathIndex < path.length;
+  }
 
-    List<Point2D.Double> reversed = new ArrayList<>();
-    int cx = goalX;
-    int cy = goalY;
-    while (!(cx == startX && cy == startY)) {
-      reversed.add(new Point2D.Double(cx, cy));
-      Point step = prev[cy][cx];
-      if (step == null) {
-        return null;
+  private int nextRouteCell() {
+    if (flowField != null) {
+      if (flowCell == flowField.getGoal()) {
+        return -1;
       }
-      cx = step.x;
-      cy = step.y;
+      return flowField.nextCell(flowCell);
+    }
+    refillSegment();
+    if (path == null || pathIndex >= path.length) {
+      return -1;
+    }
+    return path[pathIndex];
+  }
+
+  private void advanceRoute(int reachedCell) {
+    if (flowField != null) {
+      flowCell = reachedCell;
+    } else {
+      pathIndex++;
     }
-    Collections.reverse(reversed);
-    return reversed;
   }
 
   private boolean isCellWalkable(GameMap map, Point2D.Double pos) {
@@ -374,11 +440,7 @@ public class DestinationMoveAction implements GameAction {
   }
 
   private boolean isCellWalkable(GameMap map, int x, int y) {
-    Point2D.Double pos = new Point2D.Double(x, y);
-    if (!map.isValidPosition(pos)) {
-      return false;
-    }
-    return map.getCell(pos).canWalk();
+    return map.isWalkable(x, y);
   }
 
   private int toCellIndex(double value, int limit) {
@@ -392,21 +454,88 @@ public class DestinationMoveAction implements GameAction {
     return index;
   }
 
+  /**
+   * 読み込んだ経路の位置を、キャッシュのフィールドや階層型経路に戻す。
+   */
+  private void restoreRoute(GameContext context, GameMap map) {
+    if (restoreFlowField) {
+      restoreFlowField = false;
+      FlowFieldCache cache = context.getFlowFieldCache();
+      if (cache != null && destination != null) {
+        flowField = cache.get(toCellIndex(destination.getX(), map.getWidth()),
+            toCellIndex(destination.getY(), map.getHeight()));
+      }
+    }
+    if (restoreWaypoints != null) {
+      if (map.usesHierarchicalPathfinding()) {
+        hierarchicalRoute = map.getHierarchicalPathFinder()
+            .restoreRoute(restoreWaypoints, restoreSegmentIndex);
+      }
+      restoreWaypoints = null;
+    }
+  }
+
   private void clearPath() {
     destination = null;
     path = null;
     pathIndex = 0;
+    flowField = null;
+    hierarchicalRoute = null;
+    restoreFlowField = false;
+    restoreWaypoints = null;
   }
 
-  private static final class Node {
-    private final int x;
-    private final int y;
-    private final long cost;
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    out.writeDouble(searchCooldown);
+    out.writeBoolean(destination != null);
+    if (destination != null) {
+      out.writeDouble(destination.getX());
+      out.writeDouble(destination.getY());
+    }
+    out.writeBoolean(sharedDestination);
+    out.writeInts(path);
+    out.writeInt(pathWidth);
+    out.writeInt(pathIndex);
+    out.writeEnum(lastStatus);
+    // 無効になったフィールドは次の更新で引き直すので、辿っていないものとして書く。
+    // 読み込み後まだ更新していない経路は、戻す前の値をそのまま書く
+    boolean followingFlowField = restoreFlowField || (flowField != null && flowField.isValid());
+    out.writeBoolean(followingFlowField);
+    if (followingFlowField) {
+      out.writeInt(flowCell);
+    }
+    if (restoreWaypoints != null) {
+      out.writeInts(restoreWaypoints);
+      out.writeInt(restoreSegmentIndex);
+    } else {
+      out.writeInts(hierarchicalRoute == null ? null : hierarchicalRoute.getWaypoints());
+      if (hierarchicalRoute != null) {
+        out.writeInt(hierarchicalRoute.getSegmentIndex());
+      }
+    }
+  }
 
-    private Node(int x, int y, long cost) {
-      this.x = x;
-      this.y = y;
-      this.cost = cost;
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    searchCooldown = in.readDouble();
+    destination = in.readBoolean() ? new Point2D.Double(in.readDouble(), in.readDouble()) : null;
+    sharedDestination = in.readBoolean();
+    path = in.readInts();
+    pathWidth = in.readInt();
+    pathIndex = in.readInt();
+    lastStatus = in.readEnum(MoveStatus.values());
+    flowField = null;
+    restoreFlowField = in.readBoolean();
+    if (restoreFlowField) {
+      flowCell = in.readInt();
+    }
+    hierarchicalRoute = null;
+    restoreWaypoints = in.readInts();
+    if (restoreWaypoints != null) {
+      restoreSegmentIndex = in.readInt();
     }
   }
 }
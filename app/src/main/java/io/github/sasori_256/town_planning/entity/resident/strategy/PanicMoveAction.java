@@ -3,15 +3,18 @@ package io.github.sasori_256.town_planning.entity.resident.strategy;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameAction;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 import io.github.sasori_256.town_planning.map.model.GameMap;
 import io.github.sasori_256.town_planning.common.core.GameConfig;
 import java.awt.geom.Point2D;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * パニック時に周囲をあたふた移動するアクション。
  */
-public class PanicMoveAction implements GameAction {
+public class PanicMoveAction implements GameAction, Persistable {
   private static final double SPEED = GameConfig.getResidentPanicSpeedTilesPerSecond(); // タイル/秒
   private static final double ARRIVAL_EPSILON = 1e-3;
   private static final double RETARGET_MIN = GameConfig.getResidentPanicRetargetMinSeconds();
@@ -80,7 +83,7 @@ public class PanicMoveAction implements GameAction {
     if (shouldRetarget(self)) {
       // 目標を短い間隔で更新し、落ち着きのない移動にする。
       selectTarget(map, self);
-      retargetCooldown = randomRange(RETARGET_MIN, RETARGET_MAX);
+      retargetCooldown = randomRange(self.getRandom(), RETARGET_MIN, RETARGET_MAX);
     }
 
     moveTowardTarget(self, dt);
@@ -91,7 +94,7 @@ public class PanicMoveAction implements GameAction {
     Point2D.Double pos = self.getPosition();
     // パニック開始時の位置を基準に、移動範囲を制限する。
     anchor = new Point2D.Double(pos.getX(), pos.getY());
-    panicDuration = randomRange(PANIC_DURATION_MIN, PANIC_DURATION_MAX);
+    panicDuration = randomRange(self.getRandom(), PANIC_DURATION_MIN, PANIC_DURATION_MAX);
     panicElapsed = 0.0;
     retargetCooldown = 0.0;
     target = null;
@@ -111,21 +114,17 @@ public class PanicMoveAction implements GameAction {
     Point2D.Double current = self.getPosition();
     int cx = toCellIndex(current.getX(), map.getWidth());
     int cy = toCellIndex(current.getY(), map.getHeight());
-    int[] order = shuffledOffsets();
+    int[] order = shuffledOffsets(self.getRandom());
     for (int index : order) {
       int nx = cx + OFFSETS[index][0];
       int ny = cy + OFFSETS[index][1];
-      Point2D.Double candidate = new Point2D.Double(nx, ny);
-      if (!map.isValidPosition(candidate)) {
+      if (!map.isWalkable(nx, ny)) {
         continue;
       }
-      if (!map.getCell(candidate).canWalk()) {
+      if (anchor != null && anchor.distance(nx, ny) > PANIC_RADIUS) {
         continue;
       }
-      if (anchor != null && candidate.distance(anchor) > PANIC_RADIUS) {
-        continue;
-      }
-      target = candidate;
+      target = new Point2D.Double(nx, ny);
       return;
     }
     target = new Point2D.Double(current.getX(), current.getY());
@@ -161,9 +160,8 @@ public class PanicMoveAction implements GameAction {
     return index;
   }
 
-  private int[] shuffledOffsets() {
+  private int[] shuffledOffsets(RandomGenerator rng) {
     int[] order = { 0, 1, 2, 3 };
-    ThreadLocalRandom rng = ThreadLocalRandom.current();
     for (int i = order.length - 1; i > 0; i--) {
       int j = rng.nextInt(i + 1);
       int tmp = order[i];
@@ -173,7 +171,41 @@ public class PanicMoveAction implements GameAction {
     return order;
   }
 
-  private double randomRange(double min, double max) {
-    return ThreadLocalRandom.current().nextDouble(min, max);
+  private double randomRange(RandomGenerator rng, double min, double max) {
+    return rng.nextDouble(min, max);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    out.writeBoolean(active);
+    out.writeDouble(panicDuration);
+    out.writeDouble(panicElapsed);
+    out.writeDouble(retargetCooldown);
+    writePoint(out, anchor);
+    writePoint(out, target);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    active = in.readBoolean();
+    panicDuration = in.readDouble();
+    panicElapsed = in.readDouble();
+    retargetCooldown = in.readDouble();
+    anchor = readPoint(in);
+    target = readPoint(in);
+  }
+
+  private static void writePoint(SaveOutput out, Point2D.Double point) {
+    out.writeBoolean(point != null);
+    if (point != null) {
+      out.writeDouble(point.getX());
+      out.writeDouble(point.getY());
+    }
+  }
+
+  private static Point2D.Double readPoint(SaveInput in) {
+    return in.readBoolean() ? new Point2D.Double(in.readDouble(), in.readDouble()) : null;
   }
 }
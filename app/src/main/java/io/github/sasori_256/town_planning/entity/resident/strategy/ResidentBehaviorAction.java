@@ -7,7 +7,7 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 
 import io.github.sasori_256.town_planning.common.core.GameConfig;
@@ -17,6 +17,9 @@ import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.CategoryType;
 import io.github.sasori_256.town_planning.entity.model.GameAction;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 import io.github.sasori_256.town_planning.entity.resident.Resident;
 import io.github.sasori_256.town_planning.entity.resident.ResidentState;
 import io.github.sasori_256.town_planning.map.model.GameMap;
@@ -24,7 +27,7 @@ import io.github.sasori_256.town_planning.map.model.GameMap;
 /**
  * 住民の移動・作業・帰宅を管理するアクション。
  */
-public class ResidentBehaviorAction implements GameAction {
+public class ResidentBehaviorAction implements GameAction, Persistable {
   // Timings are in game seconds unless noted.
   private static final double WORK_DURATION = GameConfig.getResidentWorkDurationSeconds();
   private static final double HOME_WAIT_MIN = GameConfig.getResidentHomeWaitMinSeconds();
@@ -113,21 +116,21 @@ public class ResidentBehaviorAction implements GameAction {
       return;
     }
     if (homeWaitDuration <= 0.0) {
-      scheduleHomeWait();
+      scheduleHomeWait(resident);
     }
     homeWaitTimer += context.getDeltaTime();
     if (homeWaitTimer < homeWaitDuration) {
       return;
     }
 
-    Point2D.Double entry = findHomeEntry(map, resident.getHomePosition());
+    Point2D.Double entry = findHomeEntry(map, resident.getHomePosition(), resident.getRandom());
     if (entry == null) {
-      scheduleHomeWait();
+      scheduleHomeWait(resident);
       return;
     }
     Point2D.Double destination = selectDestination(context, map, resident);
     if (destination == null) {
-      scheduleHomeWait();
+      scheduleHomeWait(resident);
       return;
     }
 
@@ -158,7 +161,7 @@ public class ResidentBehaviorAction implements GameAction {
       return;
     }
 
-    Point2D.Double entry = findHomeEntry(map, target);
+    Point2D.Double entry = findHomeEntry(map, target, resident.getRandom());
     if (entry == null) {
       cancelRelocation(resident);
       return;
@@ -167,7 +170,7 @@ public class ResidentBehaviorAction implements GameAction {
     if (currentDestination == null || currentDestination.distance(entry) > HOME_ENTRY_EPSILON) {
       Point2D.Double currentHome = resident.getHomePosition();
       if (resident.getPosition().distance(currentHome) <= HOME_ENTRY_EPSILON) {
-        Point2D.Double exit = findHomeEntry(map, currentHome);
+        Point2D.Double exit = findHomeEntry(map, currentHome, resident.getRandom());
         if (exit != null) {
           resident.setPosition(new Point2D.Double(exit.getX(), exit.getY()));
         }
@@ -219,7 +222,7 @@ public class ResidentBehaviorAction implements GameAction {
       enterIdle(resident, map);
       return;
     }
-    Point2D.Double entry = findHomeEntry(map, resident.getHomePosition());
+    Point2D.Double entry = findHomeEntry(map, resident.getHomePosition(), resident.getRandom());
     if (entry == null) {
       forceReturnHome(resident, true);
       return;
@@ -234,7 +237,7 @@ public class ResidentBehaviorAction implements GameAction {
     resident.setState(ResidentState.AT_HOME);
     mover.clearDestination();
     workTimer = 0.0;
-    scheduleHomeWait();
+    scheduleHomeWait(resident);
   }
 
   private void completeRelocation(Resident resident, Point2D.Double target) {
@@ -244,7 +247,7 @@ public class ResidentBehaviorAction implements GameAction {
     resident.setState(ResidentState.AT_HOME);
     mover.clearDestination();
     workTimer = 0.0;
-    scheduleHomeWait();
+    scheduleHomeWait(resident);
   }
 
   private void cancelRelocation(Resident resident) {
@@ -254,7 +257,7 @@ public class ResidentBehaviorAction implements GameAction {
     resident.setState(ResidentState.AT_HOME);
     mover.clearDestination();
     workTimer = 0.0;
-    scheduleHomeWait();
+    scheduleHomeWait(resident);
   }
 
   private void forceReturnHome(Resident resident, boolean penalizeFaith) {
@@ -266,13 +269,13 @@ public class ResidentBehaviorAction implements GameAction {
     resident.setState(ResidentState.AT_HOME);
     mover.clearDestination();
     workTimer = 0.0;
-    scheduleHomeWait();
+    scheduleHomeWait(resident);
   }
 
-  private void scheduleHomeWait() {
+  private void scheduleHomeWait(Resident resident) {
     // Used after normal completion and as a fallback when actions fail.
     homeWaitTimer = 0.0;
-    homeWaitDuration = ThreadLocalRandom.current().nextDouble(HOME_WAIT_MIN, HOME_WAIT_MAX);
+    homeWaitDuration = resident.getRandom().nextDouble(HOME_WAIT_MIN, HOME_WAIT_MAX);
   }
 
   private void clearHomeWait() {
@@ -288,9 +291,9 @@ public class ResidentBehaviorAction implements GameAction {
       return null;
     }
 
-    Collections.shuffle(candidates);
+    Collections.shuffle(candidates, resident.getRandom());
     for (Building building : candidates) {
-      Point2D.Double entry = findBuildingEntry(map, building);
+      Point2D.Double entry = findBuildingEntry(map, building, resident.getRandom());
       if (entry != null) {
         return entry;
       }
@@ -315,7 +318,7 @@ public class ResidentBehaviorAction implements GameAction {
     return !(building.getOriginX() == homeX && building.getOriginY() == homeY);
   }
 
-  private Point2D.Double findHomeEntry(GameMap map, Point2D.Double home) {
+  private Point2D.Double findHomeEntry(GameMap map, Point2D.Double home, RandomGenerator rng) {
     int homeX = (int) Math.round(home.getX());
     int homeY = (int) Math.round(home.getY());
 
@@ -338,7 +341,7 @@ public class ResidentBehaviorAction implements GameAction {
     if (alternatives.isEmpty()) {
       return null;
     }
-    return alternatives.get(ThreadLocalRandom.current().nextInt(alternatives.size()));
+    return alternatives.get(rng.nextInt(alternatives.size()));
   }
 
   private boolean isHomeAvailable(GameMap map, Point2D.Double home) {
@@ -355,7 +358,7 @@ public class ResidentBehaviorAction implements GameAction {
   private void enterIdle(Resident resident, GameMap map) {
     Point2D.Double home = resident.getHomePosition();
     if (home != null && resident.getPosition().distance(home) <= HOME_ENTRY_EPSILON) {
-      Point2D.Double exit = findHomeEntry(map, home);
+      Point2D.Double exit = findHomeEntry(map, home, resident.getRandom());
       if (exit != null) {
         resident.setPosition(exit);
       }
@@ -367,7 +370,7 @@ public class ResidentBehaviorAction implements GameAction {
     homeWaitDuration = 0.0;
   }
 
-  private Point2D.Double findBuildingEntry(GameMap map, Building building) {
+  private Point2D.Double findBuildingEntry(GameMap map, Building building, RandomGenerator rng) {
     BuildingType type = building.getType();
     int originX = building.getOriginX();
     int originY = building.getOriginY();
@@ -391,7 +394,7 @@ public class ResidentBehaviorAction implements GameAction {
     }
 
     if (!walkableInside.isEmpty()) {
-      return walkableInside.get(ThreadLocalRandom.current().nextInt(walkableInside.size()));
+      return walkableInside.get(rng.nextInt(walkableInside.size()));
     }
 
     Set<Point> adjacent = new LinkedHashSet<>();
@@ -417,7 +420,7 @@ public class ResidentBehaviorAction implements GameAction {
     }
 
     List<Point> candidateList = new ArrayList<>(adjacent);
-    Point selected = candidateList.get(ThreadLocalRandom.current().nextInt(candidateList.size()));
+    Point selected = candidateList.get(rng.nextInt(candidateList.size()));
     return new Point2D.Double(selected.x, selected.y);
   }
 
@@ -429,7 +432,26 @@ public class ResidentBehaviorAction implements GameAction {
   }
 
   private boolean isWalkable(GameMap map, int x, int y) {
-    Point2D.Double pos = new Point2D.Double(x, y);
-    return isWalkable(map, pos);
+    return map.isWalkable(x, y);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    out.writeDouble(workTimer);
+    out.writeDouble(homeWaitTimer);
+    out.writeDouble(homeWaitDuration);
+    mover.writeState(out);
+    panicAction.writeState(out);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    workTimer = in.readDouble();
+    homeWaitTimer = in.readDouble();
+    homeWaitDuration = in.readDouble();
+    mover.readState(in);
+    panicAction.readState(in);
   }
 }
@@ -6,17 +6,19 @@ import io.github.sasori_256.town_planning.common.event.events.SoulHarvestedEvent
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 import io.github.sasori_256.town_planning.entity.model.GameContext;
 import io.github.sasori_256.town_planning.entity.model.GameEffect;
+import io.github.sasori_256.town_planning.entity.model.save.Persistable;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 import io.github.sasori_256.town_planning.entity.resident.Resident;
 import io.github.sasori_256.town_planning.entity.resident.ResidentState;
 
 /**
  * 死亡後一定時間経過で消滅し、魂を獲得するEffect。
  */
-public class ResidentCorpseCleanupEffect implements GameEffect {
+public class ResidentCorpseCleanupEffect implements GameEffect, Persistable {
   private static final double HARVEST_DELAY_SECONDS = GameConfig.getCorpseHarvestDelaySeconds();
   private static final int BASE_SOUL = GameConfig.getCorpseSoulBase();
   private static final int FAITH_DIVISOR = Math.max(1, GameConfig.getCorpseSoulFaithDivisor());
-  private final EventBus eventBus = EventBus.getInstance();
 
   private double elapsed;
   private boolean harvested;
@@ -47,7 +49,21 @@ public class ResidentCorpseCleanupEffect implements GameEffect {
     harvested = true;
 
     int soulAmount = BASE_SOUL + (resident.getFaith() / FAITH_DIVISOR);
-    eventBus.publish(new SoulHarvestedEvent(soulAmount));
+    context.enqueueCommand(ctx -> ctx.getEventBus().publish(new SoulHarvestedEvent(soulAmount)));
     context.removeEntity(resident);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeState(SaveOutput out) {
+    out.writeDouble(elapsed);
+    out.writeBoolean(harvested);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readState(SaveInput in) {
+    elapsed = in.readDouble();
+    harvested = in.readBoolean();
+  }
 }
@@ -13,8 +13,6 @@ import io.github.sasori_256.town_planning.entity.resident.ResidentState;
  * 住民のライフサイクル（加齢、死亡）を管理するEffect。
  */
 public class ResidentLifeCycleEffect implements UpdateStrategy, GameEffect {
-  private final EventBus eventBus = EventBus.getInstance();
-
   /** {@inheritDoc} */
   @Override
   public void update(GameContext context, BaseGameEntity self) {
@@ -55,8 +53,9 @@ public class ResidentLifeCycleEffect implements UpdateStrategy, GameEffect {
     Resident resident = (Resident) self;
     resident.markDead();
 
-    // 死亡イベント発行
-    eventBus.publish(new ResidentDiedEvent(resident, context.getPopulationAlive()));
+    // 死亡イベント発行。購読側が共有状態を更新するため、全住民の更新後に発行する
+    context.enqueueCommand(ctx -> ctx.getEventBus()
+        .publish(new ResidentDiedEvent(resident, ctx.getPopulationAlive())));
   }
 
   /**
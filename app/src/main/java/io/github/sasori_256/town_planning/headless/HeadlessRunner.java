@@ -0,0 +1,96 @@
+package io.github.sasori_256.town_planning.headless;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import io.github.sasori_256.town_planning.entity.model.replay.ReplayEngine;
+
+/**
+ * 画面を使わずにシミュレーションを実行するコマンドラインの入口。
+ *
+ * <pre>
+ * ./gradlew :app:runHeadless --args="--seed 1 --runs 100 --size 128x128 --ticks 9000 --script town.txt"
+ * </pre>
+ *
+ * <p>
+ * 実行ごとにシード値を1ずつ進め、結果をCSVで標準出力へ書き出す。
+ * スクリプトの書式は{@link ScriptedCommand}を参照。
+ * {@code --record}を付けると1回目の実行の操作ログを書き出し、{@code --replay}でそのログを
+ * 再実行する。再実行ではシード値とマップサイズをログから読み、{@code --ticks}を省略すると
+ * 最後の操作のティックまで進める。
+ * {@code --save}を付けると1回目の実行の終了時の状態を保存し、{@code --load}で保存した状態から
+ * 実行を始める。読み込んだ場合はシード値とマップサイズをセーブデータから読む。
+ * </p>
+ */
+public final class HeadlessRunner {
+  private HeadlessRunner() {
+  }
+
+  /**
+   * シミュレーションを実行する。
+   *
+   * @param args {@code --seed}, {@code --runs}, {@code --size WxH}, {@code --ticks},
+   *             {@code --script}, {@code --record}, {@code --replay}, {@code --save},
+   *             {@code --load}
+   * @throws IOException スクリプトの読み込みに失敗した場合
+   */
+  public static void main(String[] args) throws IOException {
+    System.setProperty("java.awt.headless", "true");
+    long seed = 1L;
+    int runs = 1;
+    int width = 64;
+    int height = 64;
+    long ticks = -1L;
+    Path record = null;
+    Path replay = null;
+    Path save = null;
+    Path load = null;
+    List<ScriptedCommand> script = List.of();
+    for (int i = 0; i < args.length; i++) {
+      String value = i + 1 < args.length ? args[i + 1] : null;
+      switch (args[i]) {
+        case "--seed" -> seed = Long.parseLong(require(args[i], value));
+        case "--runs" -> runs = Integer.parseInt(require(args[i], value));
+        case "--ticks" -> ticks = Long.parseLong(require(args[i], value));
+        case "--record" -> record = Path.of(require(args[i], value));
+        case "--replay" -> replay = Path.of(require(args[i], value));
+        case "--save" -> save = Path.of(require(args[i], value));
+        case "--load" -> load = Path.of(require(args[i], value));
+        case "--script" -> script = ScriptedCommand.load(Path.of(require(args[i], value)));
+        case "--size" -> {
+          String[] size = require(args[i], value).toLowerCase(Locale.ROOT).split("x");
+          width = Integer.parseInt(size[0]);
+          height = Integer.parseInt(size.length > 1 ? size[1] : size[0]);
+        }
+        default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+      i++;
+    }
+
+    System.out.println(SimulationSummary.CSV_HEADER);
+    if (replay != null) {
+      ReplayEngine engine = ReplayEngine.load(replay);
+      long target = ticks >= 0 ? ticks : engine.getLastCommandTick();
+      for (int run = 0; run < runs; run++) {
+        System.out.println(HeadlessSimulation.replay(engine, target).toCsv());
+      }
+      return;
+    }
+    for (int run = 0; run < runs; run++) {
+      HeadlessSimulation simulation = load != null ? new HeadlessSimulation(load, script)
+          : new HeadlessSimulation(seed + run, width, height, script);
+      Path recordTo = run == 0 ? record : null;
+      Path saveTo = run == 0 ? save : null;
+      System.out.println(simulation.run(ticks >= 0 ? ticks : 3000L, recordTo, saveTo).toCsv());
+    }
+  }
+
+  private static String require(String option, String value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Missing value for " + option);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,170 @@
+package io.github.sasori_256.town_planning.headless;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.github.sasori_256.town_planning.common.core.GameConfig;
+import io.github.sasori_256.town_planning.common.event.Subscription;
+import io.github.sasori_256.town_planning.common.event.events.GameOverEvent;
+import io.github.sasori_256.town_planning.entity.model.GameModel;
+import io.github.sasori_256.town_planning.entity.model.manager.PopulationSnapshot;
+import io.github.sasori_256.town_planning.entity.model.replay.CommandLogHeader;
+import io.github.sasori_256.town_planning.entity.model.replay.CommandLogWriter;
+import io.github.sasori_256.town_planning.entity.model.replay.ReplayEngine;
+
+/**
+ * 描画やゲームループを使わずに{@link GameModel}を固定ステップで回すシミュレーション。
+ *
+ * <p>
+ * ステップ間に待ち時間を入れないため、CPUが許す限りの速度で進む。
+ * モデルはそれぞれ専用のイベントバスを持つため、同じJVMで複数の実行を並行させてもよい。
+ * </p>
+ */
+public final class HeadlessSimulation {
+  /** 新しいマップのシード値と大きさ。セーブデータから始める場合は使わない。 */
+  private final long seed;
+  private final int width;
+  private final int height;
+  private final List<ScriptedCommand> script;
+  /** 開始時に読み込むセーブデータ。新しいマップで始める場合はnull。 */
+  private final Path loadFrom;
+
+  /**
+   * シミュレーションを生成する。
+   *
+   * @param seed   マップのシード値
+   * @param width  マップの横幅
+   * @param height マップの縦幅
+   * @param script ティック順に並んだ操作
+   */
+  public HeadlessSimulation(long seed, int width, int height, List<ScriptedCommand> script) {
+    this.seed = seed;
+    this.width = width;
+    this.height = height;
+    this.script = List.copyOf(script);
+    this.loadFrom = null;
+  }
+
+  /**
+   * セーブデータから始めるシミュレーションを生成する。
+   * シード値とマップサイズはセーブデータのものを使い、操作のティックは読み込み時点から数える。
+   *
+   * @param loadFrom セーブデータ
+   * @param script   ティック順に並んだ操作
+   */
+  public HeadlessSimulation(Path loadFrom, List<ScriptedCommand> script) {
+    this.seed = 0L;
+    this.width = 0;
+    this.height = 0;
+    this.script = List.copyOf(script);
+    this.loadFrom = loadFrom;
+  }
+
+  /**
+   * 指定ティック数だけ進めて結果を返す。ゲームオーバーになった場合はそこで打ち切る。
+   *
+   * @param ticks 実行するティック数
+   * @return 実行結果
+   */
+  public SimulationSummary run(long ticks) {
+    try {
+      return run(ticks, null);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * 指定ティック数だけ進めて結果を返す。適用した操作は操作ログに記録する。
+   *
+   * @param ticks    実行するティック数
+   * @param recordTo 操作ログの出力先。記録しない場合はnull
+   * @return 実行結果
+   * @throws IOException 操作ログの作成に失敗した場合
+   */
+  public SimulationSummary run(long ticks, Path recordTo) throws IOException {
+    return run(ticks, recordTo, null);
+  }
+
+  /**
+   * 指定ティック数だけ進めて結果を返す。終了時の状態をセーブデータとして保存する。
+   *
+   * @param ticks    実行するティック数
+   * @param recordTo 操作ログの出力先。記録しない場合はnull
+   * @param saveTo   終了時のセーブデータの出力先。保存しない場合はnull
+   * @return 実行結果
+   * @throws IOException 操作ログやセーブデータの書き込み、セーブデータの読み込みに失敗した場合
+   */
+  public SimulationSummary run(long ticks, Path recordTo, Path saveTo) throws IOException {
+    if (recordTo != null && loadFrom != null) {
+      // 操作ログは新しいマップからの再実行を前提とするため、途中状態からは記録できない。
+      throw new IllegalArgumentException("Cannot record a simulation started from a save file.");
+    }
+    double dt = GameConfig.getGameLoopTimeStepSeconds();
+    AtomicBoolean gameOver = new AtomicBoolean(false);
+    GameModel model = loadFrom != null ? GameModel.load(loadFrom)
+        : new GameModel(width, height, seed);
+    Subscription gameOverSub = model.getEventBus().subscribe(GameOverEvent.class,
+        event -> gameOver.set(true));
+    try {
+      if (recordTo != null) {
+        model.setCommandLog(CommandLogWriter.create(recordTo,
+            new CommandLogHeader(seed, width, height, dt)));
+      }
+      int applied = 0;
+      int rejected = 0;
+      int next = 0;
+      long tick = 0;
+      long start = System.nanoTime();
+      while (tick < ticks && !gameOver.get()) {
+        while (next < script.size() && script.get(next).tick() <= tick) {
+          if (script.get(next++).apply(model)) {
+            applied++;
+          } else {
+            rejected++;
+          }
+        }
+        model.step(dt);
+        tick++;
+      }
+      long elapsed = System.nanoTime() - start;
+      if (saveTo != null) {
+        model.save(saveTo);
+      }
+      return summarize(model, tick, applied, rejected, gameOver.get(), elapsed);
+    } finally {
+      model.dispose();
+      gameOverSub.unsubscribe();
+    }
+  }
+
+  /**
+   * 操作ログを指定ティックまで再実行して結果を返す。
+   * 記録時と違い、ゲームオーバーでは打ち切らない。
+   *
+   * @param engine 再実行エンジン
+   * @param ticks  再実行するティック数
+   * @return 実行結果。適用した操作の数には指定ティックより前に記録された操作を数える
+   */
+  public static SimulationSummary replay(ReplayEngine engine, long ticks) {
+    long start = System.nanoTime();
+    GameModel model = engine.replay(ticks);
+    try {
+      long elapsed = System.nanoTime() - start;
+      return summarize(model, ticks, engine.countCommandsBefore(ticks), 0, false, elapsed);
+    } finally {
+      model.dispose();
+    }
+  }
+
+  private static SimulationSummary summarize(GameModel model, long ticks, int applied,
+      int rejected, boolean gameOver, long elapsed) {
+    PopulationSnapshot population = model.getPopulationSnapshot();
+    return new SimulationSummary(model.getSeed(), model.getGameMap().getWidth(),
+        model.getGameMap().getHeight(), ticks, model.getDay(), model.getSoul(),
+        population.alive(), population.dead(), population.max(), population.totalDeaths(),
+        applied, rejected, gameOver, elapsed);
+  }
+}
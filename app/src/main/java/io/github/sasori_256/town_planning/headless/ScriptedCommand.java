@@ -0,0 +1,113 @@
+package io.github.sasori_256.town_planning.headless;
+
+import java.awt.geom.Point2D;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+import io.github.sasori_256.town_planning.entity.disaster.Disaster;
+import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
+import io.github.sasori_256.town_planning.entity.model.GameModel;
+
+/**
+ * ヘッドレス実行で指定ティックに適用する操作。
+ *
+ * <p>
+ * スクリプトは1行1操作で、{@code <tick> build <BuildingType> <x> <y>} または
+ * {@code <tick> disaster <DisasterType> <x> <y>} の形式で書く。空行と{@code #}以降は無視する。
+ * </p>
+ *
+ * @param tick 適用するティック(0始まり、そのティックの更新前に適用)
+ * @param kind 操作の種類
+ * @param type 建物または災害の種別名
+ * @param x    対象セルX
+ * @param y    対象セルY
+ */
+public record ScriptedCommand(long tick, Kind kind, String type, int x, int y) {
+
+  /**
+   * 操作の種類。
+   */
+  public enum Kind {
+    /** 建物の建設。魂の消費と配置判定はUIからの建設と同じ。 */
+    BUILD,
+    /** 災害の発生。 */
+    DISASTER
+  }
+
+  /**
+   * 操作をモデルに適用する。
+   *
+   * @param model 対象のモデル
+   * @return 適用できた場合はtrue
+   */
+  public boolean apply(GameModel model) {
+    Point2D.Double pos = new Point2D.Double(x, y);
+    if (kind == Kind.BUILD) {
+      return model.constructBuilding(pos, BuildingType.valueOf(type));
+    }
+    if (!model.getGameMap().isValidPosition(pos)) {
+      return false;
+    }
+    model.addDisasterEntity(new Disaster(pos, DisasterType.valueOf(type)));
+    return true;
+  }
+
+  /**
+   * スクリプトファイルを読み込み、ティック順に並べて返す。
+   * 同じティックの操作は記述順を保つ。
+   *
+   * @param path スクリプトファイル
+   * @return 操作の一覧
+   * @throws IOException              読み込みに失敗した場合
+   * @throws IllegalArgumentException 書式が不正な場合
+   */
+  public static List<ScriptedCommand> load(Path path) throws IOException {
+    List<ScriptedCommand> commands = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        int comment = line.indexOf('#');
+        String body = (comment >= 0 ? line.substring(0, comment) : line).trim();
+        if (!body.isEmpty()) {
+          commands.add(parse(body, lineNumber));
+        }
+      }
+    }
+    commands.sort(Comparator.comparingLong(ScriptedCommand::tick));
+    return commands;
+  }
+
+  private static ScriptedCommand parse(String body, int lineNumber) {
+    String[] tokens = body.split("\\s+");
+    if (tokens.length != 5) {
+      throw new IllegalArgumentException("line " + lineNumber + ": expected 5 fields: " + body);
+    }
+    try {
+      long tick = Long.parseLong(tokens[0]);
+      Kind kind = Kind.valueOf(tokens[1].toUpperCase(Locale.ROOT));
+      String type = tokens[2].toUpperCase(Locale.ROOT);
+      if (kind == Kind.BUILD) {
+        BuildingType.valueOf(type);
+      } else {
+        DisasterType.valueOf(type);
+      }
+      if (tick < 0) {
+        throw new IllegalArgumentException("negative tick");
+      }
+      return new ScriptedCommand(tick, kind, type, Integer.parseInt(tokens[3]),
+          Integer.parseInt(tokens[4]));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage(), e);
+    }
+  }
+}
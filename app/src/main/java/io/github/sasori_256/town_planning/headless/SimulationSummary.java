@@ -0,0 +1,50 @@
+package io.github.sasori_256.town_planning.headless;
+
+import java.util.Locale;
+
+/**
+ * ヘッドレス実行1回分の結果。結果画面の{@code GameResult}と同じ値に実行情報を加えたもの。
+ *
+ * @param seed             マップのシード値
+ * @param width            マップの横幅
+ * @param height           マップの縦幅
+ * @param ticks            実行したティック数
+ * @param day              終了時の日数
+ * @param soul             終了時の魂所持量
+ * @param alive            終了時の生存住民数
+ * @param dead             終了時の死亡住民数(遺体が残っている数)
+ * @param maxPopulation    最大生存住民数
+ * @param totalDeaths      累計死亡住民数
+ * @param commandsApplied  適用できた操作の数
+ * @param commandsRejected 建設条件などで適用できなかった操作の数
+ * @param gameOver         ゲームオーバーで打ち切ったか
+ * @param elapsedNanos     実行にかかった実時間(ナノ秒)
+ */
+public record SimulationSummary(long seed, int width, int height, long ticks, int day, int soul,
+    int alive, int dead, int maxPopulation, int totalDeaths, int commandsApplied,
+    int commandsRejected, boolean gameOver, long elapsedNanos) {
+
+  /** {@link #toCsv()}の列名。 */
+  public static final String CSV_HEADER = "seed,width,height,ticks,day,soul,alive,dead,"
+      + "maxPopulation,totalDeaths,commandsApplied,commandsRejected,gameOver,msPerTick";
+
+  /**
+   * 1ティックあたりの平均実時間を返す。
+   *
+   * @return ミリ秒。ティック数が0なら0
+   */
+  public double msPerTick() {
+    return ticks == 0 ? 0.0 : elapsedNanos / 1_000_000.0 / ticks;
+  }
+
+  /**
+   * CSVの1行として返す。
+   *
+   * @return {@link #CSV_HEADER}の列順に並べた文字列
+   */
+  public String toCsv() {
+    return String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%b,%.4f", seed,
+        width, height, ticks, day, soul, alive, dead, maxPopulation, totalDeaths,
+        commandsApplied, commandsRejected, gameOver, msPerTick());
+  }
+}
@@ -11,8 +11,6 @@ import java.awt.event.MouseWheelListener;
 import java.awt.geom.Point2D;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
 
 import javax.swing.SwingUtilities;
 
@@ -22,15 +20,17 @@ import io.github.sasori_256.town_planning.common.event.events.SoulHarvestedEvent
 import io.github.sasori_256.town_planning.common.event.events.TemporaryBuildEvent;
 import io.github.sasori_256.town_planning.entity.Camera;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
+import io.github.sasori_256.town_planning.entity.model.GameModel;
 import io.github.sasori_256.town_planning.map.controller.handler.*;
 
 /**
  * マップ操作に関する入力イベントを扱うコントローラ。
+ * 状態ロックは取らず、ゲーム状態の変更は{@link GameModel#submit(Runnable)}で次のティックに渡す。
  */
 public class GameMapController implements MouseListener, MouseMotionListener, KeyListener, MouseWheelListener {
   private Camera camera;
   private final EventBus eventBus = EventBus.getInstance();
-  private final ReadWriteLock stateLock;
+  private final GameModel gameModel;
   private BiConsumer<Point2D.Double, Function<Point2D.Double, ? extends BaseGameEntity>> actionOnClick;
   private BiConsumer<Point2D.Double, Function<Point2D.Double, ? extends BaseGameEntity>> actionOnMove;
   private Function<Point2D.Double, ? extends BaseGameEntity> selectedEntityGenerator;
@@ -41,11 +41,11 @@ public class GameMapController implements MouseListener, MouseMotionListener, Ke
    * マップコントローラを生成する。
    *
    * @param camera    カメラ
-   * @param stateLock 状態ロック
+   * @param gameModel ゲームモデル
    */
-  public GameMapController(Camera camera, ReadWriteLock stateLock) {
+  public GameMapController(Camera camera, GameModel gameModel) {
     this.camera = camera;
-    this.stateLock = stateLock;
+    this.gameModel = gameModel;
     this.actionOnClick = new ClickGameMapHandler();
     this.actionOnMove = new MoveGameMapHandler();
     this.selectedEntityGenerator = (point) -> null;
@@ -115,13 +115,7 @@ public class GameMapController implements MouseListener, MouseMotionListener, Ke
   public void mouseClicked(MouseEvent e) {
     if (SwingUtilities.isLeftMouseButton(e)) {
       Point2D.Double isoPoint = camera.screenToIso(new Point2D.Double(e.getX(), e.getY()));
-      Lock writeLock = stateLock.writeLock();
-      writeLock.lock();
-      try {
-        actionOnClick.accept(isoPoint, selectedEntityGenerator);
-      } finally {
-        writeLock.unlock();
-      }
+      actionOnClick.accept(isoPoint, selectedEntityGenerator);
     }
   }
 
@@ -231,7 +225,8 @@ public class GameMapController implements MouseListener, MouseMotionListener, Ke
         camera.moveRight();
         break;
       case KeyEvent.VK_UP:
-        eventBus.publish(new SoulHarvestedEvent(500));
+        // 加算と操作ログへの記録が同じティックの合間に収まるよう、ティックの先頭で発行する。
+        gameModel.submit(() -> eventBus.publish(new SoulHarvestedEvent(500)));
         break;
       case KeyEvent.VK_SHIFT:
         this.setIsContinue(true);
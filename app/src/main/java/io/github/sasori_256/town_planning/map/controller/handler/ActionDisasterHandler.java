@@ -60,7 +60,8 @@ public class ActionDisasterHandler
     }
     BaseGameEntity entity = entityGenerator.apply(roundedPoint);
     if (entity instanceof Disaster disaster) {
-      gameModel.spawnEntity(disaster);
+      // ティックを待たずに戻れるよう、発生は次のティックの先頭で適用する
+      gameModel.submit(() -> gameModel.addDisasterEntity(disaster));
     } else {
       eventBus.publish(new EntitySpawnFailedEvent(
           EntitySpawnKind.DISASTER,
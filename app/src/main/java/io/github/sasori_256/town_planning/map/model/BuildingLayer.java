@@ -0,0 +1,161 @@
+package io.github.sasori_256.town_planning.map.model;
+
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+
+/**
+ * ある時点の建物配置の不変な写し。
+ *
+ * <p>
+ * セル番号(y * width + x)ごとの建物番号と建物内ローカル座標、地形、建物番号ごとの建物種別を持つ。
+ * 建物番号は{@link CompactMapGrid}のものをそのまま使う。配置が変わるまでは同じインスタンスを
+ * 使い回すため、描画用の写しを毎ティック作ってもセル数分のコピーは発生しない。
+ * 地形も持つため、建設プレビューの設置可否もロックを取らずにこの写しで判定できる。
+ * </p>
+ */
+public final class BuildingLayer {
+  private static final TerrainType[] TERRAINS = TerrainType.values();
+
+  private final int width;
+  private final int height;
+  private final int[] buildingIds;
+  /** 上位16bitがY、下位16bitがXのローカル座標。 */
+  private final int[] locals;
+  /** セルごとの地形の序数。 */
+  private final byte[] terrain;
+  private final BuildingType[] types;
+  private final int version;
+
+  /**
+   * 建物配置の写しを生成する。配列は呼び出し側で複製したものを渡すこと。
+   *
+   * @param width       横幅(セル数)
+   * @param height      縦幅(セル数)
+   * @param buildingIds セルごとの建物番号
+   * @param locals      セルごとのローカル座標
+   * @param terrain     セルごとの地形の序数
+   * @param types       建物番号ごとの建物種別。解放済みの番号はnull
+   * @param version     写した時点の配置のバージョン
+   */
+  BuildingLayer(int width, int height, int[] buildingIds, int[] locals, byte[] terrain,
+      BuildingType[] types, int version) {
+    this.width = width;
+    this.height = height;
+    this.buildingIds = buildingIds;
+    this.locals = locals;
+    this.terrain = terrain;
+    this.types = types;
+    this.version = version;
+  }
+
+  /**
+   * 横幅を返す。
+   *
+   * @return 横幅(セル数)
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * 縦幅を返す。
+   *
+   * @return 縦幅(セル数)
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * 写した時点の配置のバージョンを返す。
+   *
+   * @return バージョン
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * 建物番号の上限(未満)を返す。
+   *
+   * @return 建物番号の数
+   */
+  public int getBuildingCapacity() {
+    return types.length;
+  }
+
+  /**
+   * セルの建物番号を返す。
+   *
+   * @param x セルX
+   * @param y セルY
+   * @return 建物番号。未配置なら{@link CompactMapGrid#NO_BUILDING}
+   */
+  public int getBuildingId(int x, int y) {
+    return buildingIds[y * width + x];
+  }
+
+  /**
+   * 建物番号の建物種別を返す。
+   *
+   * @param buildingId 建物番号
+   * @return 建物種別。解放済みならnull
+   */
+  public BuildingType getType(int buildingId) {
+    return types[buildingId];
+  }
+
+  /**
+   * セルの建物内ローカルX座標を返す。
+   *
+   * @param x セルX
+   * @param y セルY
+   * @return ローカルX
+   */
+  public int getLocalX(int x, int y) {
+    return locals[y * width + x] & 0xFFFF;
+  }
+
+  /**
+   * セルの建物内ローカルY座標を返す。
+   *
+   * @param x セルX
+   * @param y セルY
+   * @return ローカルY
+   */
+  public int getLocalY(int x, int y) {
+    return locals[y * width + x] >>> 16;
+  }
+
+  /**
+   * 写した時点の配置で、建物の占有セルがすべて建築可能かを判定する。
+   * {@link CompactMapGrid#canPlace(int, int, BuildingType)}と同じ判定を行う。
+   *
+   * @param anchorX アンカーX
+   * @param anchorY アンカーY
+   * @param type    建物種別
+   * @return 建築可能ならtrue
+   */
+  public boolean canPlace(int anchorX, int anchorY, BuildingType type) {
+    int originX = anchorX - type.getAnchorX();
+    int originY = anchorY - type.getAnchorY();
+    boolean[][] footprint = type.getFootprintMask();
+    for (int y = 0; y < type.getHeight(); y++) {
+      for (int x = 0; x < type.getWidth(); x++) {
+        if (!footprint[y][x]) {
+          continue;
+        }
+        int mapX = originX + x;
+        int mapY = originY + y;
+        if (mapX < 0 || mapY < 0 || mapX >= width || mapY >= height) {
+          return false;
+        }
+        int idx = mapY * width + mapX;
+        if (buildingIds[idx] != CompactMapGrid.NO_BUILDING
+            || !TERRAINS[terrain[idx]].isBuildable()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
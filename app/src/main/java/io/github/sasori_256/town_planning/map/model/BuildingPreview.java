@@ -2,6 +2,7 @@ package io.github.sasori_256.town_planning.map.model;
 
 import java.awt.geom.Point2D;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 
 import io.github.sasori_256.town_planning.common.event.EventBus;
@@ -9,17 +10,23 @@ import io.github.sasori_256.town_planning.common.event.events.CancelBuildEvent;
 import io.github.sasori_256.town_planning.entity.building.BuildingType;
 import io.github.sasori_256.town_planning.entity.model.BaseGameEntity;
 
+/**
+ * 建設プレビューの位置と種別を保持する。
+ * マウス移動のたびに更新されるため、ゲーム状態のロックとは別のロックで保護し、
+ * 設置可否はティックの終わりに公開された建物配置の写しで判定する。
+ * ティックの更新中でもゲーム状態のロックを待つことはない。
+ */
 public class BuildingPreview {
-  private final EventBus eventBus = EventBus.getInstance();
-  private final ReadWriteLock stateLock;
+  private final EventBus eventBus;
+  private final ReadWriteLock previewLock = new ReentrantReadWriteLock();
   private Function<Point2D.Double, ? extends BaseGameEntity> entityGenerator = (point) -> null;
   private Point2D.Double buildingPreviewPos = null;
   private BuildingType buildingPreviewType = null;
   private boolean buildable = false;
   private GameMap gameMap;
 
-  public BuildingPreview(ReadWriteLock stateLock, GameMap gameMap) {
-    this.stateLock = stateLock;
+  public BuildingPreview(EventBus eventBus, GameMap gameMap) {
+    this.eventBus = eventBus;
     this.gameMap = gameMap;
     eventBus.subscribe(CancelBuildEvent.class, event -> {
       resetBuildingPreviewData();
@@ -29,25 +36,25 @@ public class BuildingPreview {
   public void setEntityGenerator(
       Function<Point2D.Double, ? extends BaseGameEntity> entityGenerator) {
     try {
-      stateLock.writeLock().lock();
+      previewLock.writeLock().lock();
       this.entityGenerator = entityGenerator;
     } finally {
-      stateLock.writeLock().unlock();
+      previewLock.writeLock().unlock();
     }
   }
 
   public Function<Point2D.Double, ? extends BaseGameEntity> getEntityGenerator() {
     try {
-      stateLock.readLock().lock();
+      previewLock.readLock().lock();
       return entityGenerator;
     } finally {
-      stateLock.readLock().unlock();
+      previewLock.readLock().unlock();
     }
   }
 
   public void setBuildingPreviewPos(Point2D.Double pos) {
     try {
-      stateLock.writeLock().lock();
+      previewLock.writeLock().lock();
       if (pos == null) {
         this.buildingPreviewPos = null;
         this.buildable = false;
@@ -55,61 +62,65 @@ public class BuildingPreview {
       }
       Point2D.Double roundedPos = new Point2D.Double(Math.round(pos.x), Math.round(pos.y));
       this.buildingPreviewPos = roundedPos;
-      this.buildable = gameMap.canPlaceBuilding(roundedPos, buildingPreviewType);
+      this.buildable = canPlace(roundedPos, buildingPreviewType);
     } finally {
-      stateLock.writeLock().unlock();
+      previewLock.writeLock().unlock();
     }
   }
 
   public Point2D.Double getBuildingPreviewPos() {
     try {
-      stateLock.readLock().lock();
+      previewLock.readLock().lock();
       return buildingPreviewPos;
     } finally {
-      stateLock.readLock().unlock();
+      previewLock.readLock().unlock();
     }
   }
 
   public void setBuildingPreviewType(BuildingType type) {
     try {
-      stateLock.writeLock().lock();
+      previewLock.writeLock().lock();
       this.buildingPreviewType = type;
       if (buildingPreviewPos != null && buildingPreviewType != null) {
-        this.buildable = gameMap.canPlaceBuilding(buildingPreviewPos, buildingPreviewType);
+        this.buildable = canPlace(buildingPreviewPos, buildingPreviewType);
       } else {
         this.buildable = false;
       }
     } finally {
-      stateLock.writeLock().unlock();
+      previewLock.writeLock().unlock();
     }
   }
 
   public BuildingType getBuildingPreviewType() {
     try {
-      stateLock.readLock().lock();
+      previewLock.readLock().lock();
       return buildingPreviewType;
     } finally {
-      stateLock.readLock().unlock();
+      previewLock.readLock().unlock();
     }
   }
 
   public boolean getBuildable() {
     try {
-      stateLock.readLock().lock();
+      previewLock.readLock().lock();
       return buildable;
     } finally {
-      stateLock.readLock().unlock();
+      previewLock.readLock().unlock();
     }
   }
 
+  private boolean canPlace(Point2D.Double pos, BuildingType type) {
+    return gameMap.canPlaceBuildingOnPublishedLayer(pos, type);
+  }
+
   private void resetBuildingPreviewData() {
     try {
-      stateLock.writeLock().lock();
+      previewLock.writeLock().lock();
       this.buildingPreviewPos = null;
       this.buildingPreviewType = null;
       this.buildable = false;
     } finally {
-      stateLock.writeLock().unlock();
+      previewLock.writeLock().unlock();
     }
   }
 
@@ -0,0 +1,57 @@
+package io.github.sasori_256.town_planning.map.model;
+
+import java.util.Arrays;
+
+/**
+ * 優先度とセル番号を1つのlongに詰めて保持する二分ヒープ。
+ * 優先度が同じ場合はセル番号の小さい方が先に取り出される。
+ */
+final class CellHeap {
+  private long[] heap = new long[64];
+  private int size;
+
+  void clear() {
+    size = 0;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void push(long priority, int cellIndex) {
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size * 2);
+    }
+    long entry = (priority << 32) | (cellIndex & 0xFFFFFFFFL);
+    int i = size++;
+    while (i > 0) {
+      int p = (i - 1) >>> 1;
+      if (heap[p] <= entry) {
+        break;
+      }
+      heap[i] = heap[p];
+      i = p;
+    }
+    heap[i] = entry;
+  }
+
+  int pop() {
+    long top = heap[0];
+    long last = heap[--size];
+    int i = 0;
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && heap[child + 1] < heap[child]) {
+        child++;
+      }
+      if (last <= heap[child]) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = last;
+    return (int) top;
+  }
+}
@@ -0,0 +1,542 @@
+package io.github.sasori_256.town_planning.map.model;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import io.github.sasori_256.town_planning.entity.building.Building;
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
+
+/**
+ * セル情報をプリミティブ配列の並びで保持するマップの記憶域。
+ *
+ * <p>
+ * セル番号(y * width + x)ごとに、地形の序数(byte)、建物番号(int)、建物内ローカル座標(上位16bitがY、
+ * 下位16bitがX)、歩行可否のビット、移動コストを並列配列で持つ。歩行可否と移動コストは
+ * 地形や建物が変わるたびに再計算しておくため、経路探索などのホットパスは
+ * {@link #isWalkable(int)}と{@link #moveCost(int)}で配列を直接参照できる。
+ * {@link MapCell}はUIなど向けに初回参照時に生成するビューで、書き込みはこの記憶域に反映される。
+ * </p>
+ */
+public class CompactMapGrid implements MapContext {
+  /** 建物が無いことを表す建物番号。 */
+  public static final int NO_BUILDING = -1;
+  private static final TerrainType[] TERRAINS = TerrainType.values();
+
+  private final int width;
+  private final int height;
+  private final byte[] terrain;
+  private final int[] buildingId;
+  private final int[] local;
+  private final long[] walkableBits;
+  private final int[] moveCost;
+  /** 建物番号から建物への対応。解放済みの番号はnull。 */
+  private final List<Building> buildings = new ArrayList<>();
+  /** 建物ごとの番号と占有セル数。 */
+  private final Map<Building, int[]> buildingSlots = new IdentityHashMap<>();
+  private final Deque<Integer> freeBuildingIds = new ArrayDeque<>();
+  /** 生成済みのセルビュー。 */
+  private final MapCell[] views;
+  /** 建物配置のバージョン。建物の設定・解除と地形の変更のたびに進む。 */
+  private int layoutVersion;
+  /** 地形の変更を派生データに伝える通知先。未設定なら通知しない。 */
+  private IntConsumer terrainListener;
+
+  /**
+   * 全セルを指定地形で初期化した記憶域を生成する。
+   *
+   * @param width          横幅(セル数)
+   * @param height         縦幅(セル数)
+   * @param initialTerrain 初期地形
+   */
+  public CompactMapGrid(int width, int height, TerrainType initialTerrain) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("width and height must be positive.");
+    }
+    if (TERRAINS.length > Byte.MAX_VALUE) {
+      throw new IllegalStateException("Too many terrain types for byte storage.");
+    }
+    this.width = width;
+    this.height = height;
+    int size = width * height;
+    this.terrain = new byte[size];
+    this.buildingId = new int[size];
+    this.local = new int[size];
+    this.walkableBits = new long[(size + 63) >>> 6];
+    this.moveCost = new int[size];
+    this.views = new MapCell[size];
+    Arrays.fill(terrain, (byte) initialTerrain.ordinal());
+    Arrays.fill(buildingId, NO_BUILDING);
+    for (int idx = 0; idx < size; idx++) {
+      refresh(idx);
+    }
+  }
+
+  // --- index-based accessors ---
+
+  /**
+   * 整数セル座標のセル番号を返す。
+   *
+   * @param x セルX
+   * @param y セルY
+   * @return セル番号
+   */
+  public int index(int x, int y) {
+    return y * width + x;
+  }
+
+  /**
+   * 住民が歩行可能かを返す。
+   *
+   * @param idx セル番号
+   * @return 歩行可能ならtrue
+   */
+  public boolean isWalkable(int idx) {
+    return (walkableBits[idx >>> 6] & (1L << idx)) != 0;
+  }
+
+  /**
+   * 移動コストを返す。
+   *
+   * @param idx セル番号
+   * @return 移動コスト
+   */
+  public int moveCost(int idx) {
+    return moveCost[idx];
+  }
+
+  /**
+   * 地形を返す。
+   *
+   * @param idx セル番号
+   * @return 地形
+   */
+  public TerrainType getTerrain(int idx) {
+    return TERRAINS[terrain[idx]];
+  }
+
+  /**
+   * 地形を更新する。通知先が設定されていれば、更新後にセル番号を渡す。
+   *
+   * @param idx  セル番号
+   * @param type 地形
+   */
+  public void setTerrain(int idx, TerrainType type) {
+    terrain[idx] = (byte) type.ordinal();
+    layoutVersion++;
+    refresh(idx);
+    if (terrainListener != null) {
+      terrainListener.accept(idx);
+    }
+  }
+
+  /**
+   * 地形の変更の通知先を設定する。
+   *
+   * @param listener 変更されたセル番号を受け取る処理
+   */
+  void setTerrainListener(IntConsumer listener) {
+    this.terrainListener = listener;
+  }
+
+  /**
+   * 建物を返す。
+   *
+   * @param idx セル番号
+   * @return 建物。未配置ならnull
+   */
+  public Building getBuilding(int idx) {
+    int id = buildingId[idx];
+    return id == NO_BUILDING ? null : buildings.get(id);
+  }
+
+  /**
+   * 建物番号を返す。
+   *
+   * @param idx セル番号
+   * @return 建物番号。未配置なら{@link #NO_BUILDING}
+   */
+  public int getBuildingId(int idx) {
+    return buildingId[idx];
+  }
+
+  /**
+   * 建物内のローカルX座標を返す。
+   *
+   * @param idx セル番号
+   * @return ローカルX
+   */
+  public int getLocalX(int idx) {
+    return local[idx] & 0xFFFF;
+  }
+
+  /**
+   * 建物内のローカルY座標を返す。
+   *
+   * @param idx セル番号
+   * @return ローカルY
+   */
+  public int getLocalY(int idx) {
+    return local[idx] >>> 16;
+  }
+
+  /**
+   * 建物とローカル座標を設定する。
+   * 地形と違い変更を通知しないため、{@link GameMap}が配置・撤去の後に派生データを更新する。
+   *
+   * @param idx      セル番号
+   * @param building 建物
+   * @param localX   建物内のローカルX
+   * @param localY   建物内のローカルY
+   */
+  void setBuilding(int idx, Building building, int localX, int localY) {
+    if (building == null) {
+      clearBuilding(idx);
+      return;
+    }
+    if (buildingId[idx] != NO_BUILDING) {
+      releaseBuilding(buildingId[idx]);
+    }
+    buildingId[idx] = acquireBuilding(building);
+    local[idx] = (localY << 16) | (localX & 0xFFFF);
+    layoutVersion++;
+    refresh(idx);
+  }
+
+  /**
+   * 建物情報をクリアする。
+   *
+   * @param idx セル番号
+   */
+  void clearBuilding(int idx) {
+    if (buildingId[idx] != NO_BUILDING) {
+      releaseBuilding(buildingId[idx]);
+    }
+    buildingId[idx] = NO_BUILDING;
+    local[idx] = 0;
+    layoutVersion++;
+    refresh(idx);
+  }
+
+  /**
+   * 建物番号の建物を返す。
+   *
+   * @param id 建物番号
+   * @return 建物。解放済みや範囲外ならnull
+   */
+  public Building getBuildingById(int id) {
+    return id >= 0 && id < buildings.size() ? buildings.get(id) : null;
+  }
+
+  /**
+   * 建物配置のバージョンを返す。建物の設定・解除と地形の変更のたびに進む。
+   *
+   * @return バージョン
+   */
+  public int getLayoutVersion() {
+    return layoutVersion;
+  }
+
+  /**
+   * 現在の建物配置の不変な写しを作る。
+   *
+   * @return 建物配置の写し
+   */
+  public BuildingLayer captureBuildingLayer() {
+    BuildingType[] types = new BuildingType[buildings.size()];
+    for (int id = 0; id < types.length; id++) {
+      Building building = buildings.get(id);
+      types[id] = building == null ? null : building.getType();
+    }
+    return new BuildingLayer(width, height, buildingId.clone(), local.clone(), terrain.clone(),
+        types, layoutVersion);
+  }
+
+  /**
+   * セルのビューを返す。初回参照時に生成する。
+   *
+   * @param idx セル番号
+   * @return セルのビュー
+   */
+  public MapCell cellView(int idx) {
+    MapCell view = views[idx];
+    if (view == null) {
+      view = new MapCell(this, idx, idx % width, idx / width);
+      views[idx] = view;
+    }
+    return view;
+  }
+
+  /**
+   * 配置中の建物を建物番号順に返す。
+   *
+   * @return 建物のリスト
+   */
+  public List<Building> getPlacedBuildings() {
+    List<Building> placed = new ArrayList<>(buildingSlots.size());
+    for (Building building : buildings) {
+      if (building != null) {
+        placed.add(building);
+      }
+    }
+    return placed;
+  }
+
+  /**
+   * 全セルの地形を序数の並びとして書き込む。
+   *
+   * @param out 書き込み先
+   */
+  void writeTerrain(SaveOutput out) {
+    out.writeBytes(terrain);
+  }
+
+  /**
+   * {@link #writeTerrain(SaveOutput)}で書いた地形を読み込み、歩行可否と移動コストを再計算する。
+   *
+   * @param in 読み込み元
+   */
+  void readTerrain(SaveInput in) {
+    byte[] values = in.readBytes();
+    if (values.length != terrain.length) {
+      throw new IllegalStateException("Terrain size mismatch: " + values.length);
+    }
+    for (byte value : values) {
+      if (value < 0 || value >= TERRAINS.length) {
+        throw new IllegalStateException("Invalid terrain: " + value);
+      }
+    }
+    System.arraycopy(values, 0, terrain, 0, values.length);
+    for (int idx = 0; idx < terrain.length; idx++) {
+      refresh(idx);
+    }
+  }
+
+  // --- MapContext ---
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isValidPosition(Point2D.Double pos) {
+    double x = pos.getX(); // 中心基準
+    double y = pos.getY();
+    return x >= -0.5 && x < width - 0.5
+        && y >= -0.5 && y < height - 0.5;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public MapCell getCell(Point2D.Double pos) {
+    if (!isValidPosition(pos)) {
+      throw new IndexOutOfBoundsException("Invalid position: " + pos);
+    }
+    return cellView(index((int) Math.round(pos.getX()), (int) Math.round(pos.getY())));
+  }
+
+  private int checkedIndex(int x, int y) {
+    if (!inBounds(x, y)) {
+      throw new IndexOutOfBoundsException("Invalid cell: (" + x + ", " + y + ")");
+    }
+    return index(x, y);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean inBounds(int x, int y) {
+    return x >= 0 && y >= 0 && x < width && y < height;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public MapCell getCell(int x, int y) {
+    return cellView(checkedIndex(x, y));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isWalkable(int x, int y) {
+    return inBounds(x, y) && isWalkable(index(x, y));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int moveCost(int x, int y) {
+    return moveCost(checkedIndex(x, y));
+  }
+
+  /**
+   * 建物の占有セルがすべて建築可能かを判定する。
+   *
+   * @param anchorX アンカーX
+   * @param anchorY アンカーY
+   * @param type    建物種別
+   * @return 建築可能ならtrue
+   */
+  public boolean canPlace(int anchorX, int anchorY, BuildingType type) {
+    int originX = anchorX - type.getAnchorX();
+    int originY = anchorY - type.getAnchorY();
+    boolean[][] footprint = type.getFootprintMask();
+    for (int y = 0; y < type.getHeight(); y++) {
+      for (int x = 0; x < type.getWidth(); x++) {
+        if (!footprint[y][x]) {
+          continue;
+        }
+        int mapX = originX + x;
+        int mapY = originY + y;
+        if (!inBounds(mapX, mapY)) {
+          return false;
+        }
+        int idx = index(mapX, mapY);
+        if (buildingId[idx] != NO_BUILDING || !getTerrain(idx).isBuildable()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean placeBuilding(Point2D.Double pos, Building building) {
+    if (building == null || !isValidPosition(pos)) {
+      return false;
+    }
+    int anchorX = (int) Math.round(pos.getX());
+    int anchorY = (int) Math.round(pos.getY());
+    BuildingType type = building.getType();
+    if (!canPlace(anchorX, anchorY, type)) {
+      return false;
+    }
+    int originX = anchorX - type.getAnchorX();
+    int originY = anchorY - type.getAnchorY();
+    building.setOrigin(originX, originY);
+    building.setPosition(new Point2D.Double(anchorX, anchorY));
+    boolean[][] footprint = type.getFootprintMask();
+    for (int y = 0; y < type.getHeight(); y++) {
+      for (int x = 0; x < type.getWidth(); x++) {
+        if (footprint[y][x]) {
+          setBuilding(index(originX + x, originY + y), building, x, y);
+        }
+      }
+    }
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean removeBuilding(Point2D.Double pos) {
+    if (!isValidPosition(pos)) {
+      return false;
+    }
+    return removeBuilding((int) Math.round(pos.getX()), (int) Math.round(pos.getY()));
+  }
+
+  /**
+   * 整数セル座標にある建物を占有セルごと撤去する。
+   *
+   * @param anchorX 対象セルX
+   * @param anchorY 対象セルY
+   * @return 撤去した場合はtrue
+   */
+  boolean removeBuilding(int anchorX, int anchorY) {
+    if (!inBounds(anchorX, anchorY)) {
+      return false;
+    }
+    Building building = getBuilding(index(anchorX, anchorY));
+    if (building == null) {
+      return false;
+    }
+    BuildingType type = building.getType();
+    int originX = building.getOriginX();
+    int originY = building.getOriginY();
+    boolean[][] footprint = type.getFootprintMask();
+    for (int y = 0; y < type.getHeight(); y++) {
+      for (int x = 0; x < type.getWidth(); x++) {
+        if (!footprint[y][x]) {
+          continue;
+        }
+        int mapX = originX + x;
+        int mapY = originY + y;
+        if (!inBounds(mapX, mapY)) {
+          continue;
+        }
+        int idx = index(mapX, mapY);
+        if (getBuilding(idx) == building) {
+          clearBuilding(idx);
+        }
+      }
+    }
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * 地形と建物から歩行可否と移動コストを再計算する。
+   */
+  private void refresh(int idx) {
+    TerrainType type = getTerrain(idx);
+    Building building = getBuilding(idx);
+    boolean walkable;
+    int cost;
+    if (building == null) {
+      walkable = type.isWalkable();
+      cost = type.getMoveCost();
+    } else {
+      int localX = getLocalX(idx);
+      int localY = getLocalY(idx);
+      walkable = type.isWalkable() && building.getType().isWalkable(localX, localY);
+      cost = building.getType().getMoveCost(localX, localY);
+    }
+    if (walkable) {
+      walkableBits[idx >>> 6] |= 1L << idx;
+    } else {
+      walkableBits[idx >>> 6] &= ~(1L << idx);
+    }
+    moveCost[idx] = cost;
+  }
+
+  private int acquireBuilding(Building building) {
+    int[] slot = buildingSlots.get(building);
+    if (slot == null) {
+      int id = freeBuildingIds.isEmpty() ? buildings.size() : freeBuildingIds.pop();
+      if (id == buildings.size()) {
+        buildings.add(building);
+      } else {
+        buildings.set(id, building);
+      }
+      slot = new int[] { id, 0 };
+      buildingSlots.put(building, slot);
+    }
+    slot[1]++;
+    return slot[0];
+  }
+
+  private void releaseBuilding(int id) {
+    Building building = buildings.get(id);
+    int[] slot = buildingSlots.get(building);
+    if (--slot[1] > 0) {
+      return;
+    }
+    buildingSlots.remove(building);
+    buildings.set(id, null);
+    freeBuildingIds.push(id);
+  }
+}
@@ -0,0 +1,257 @@
+package io.github.sasori_256.town_planning.map.model;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * 1つの目的地セルに向かう距離場と進行方向を保持するフローフィールド。
+ *
+ * <p>
+ * 目的地から逆向きにDijkstraを1回実行し、全セルについて目的地までの最小コストと
+ * 次に進むべき隣接セルを記録する。移動側は現在セルから次セルをO(1)で引ける。
+ * 次セルは最小コストを与える隣接セルのうち{@link PathFinder#DX}の順で最初のものに揃えるため、
+ * 同じマップからは探索の経緯に依らず同じフィールドになる。
+ * 生成後は不変で、マップの変化で古くなった場合は{@link #isValid()}がfalseになる。
+ * </p>
+ */
+public final class FlowField {
+  /** 到達不能を表す距離。 */
+  public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  private final int width;
+  private final int height;
+  private final int goal;
+  private final int[] distance;
+  private final int[] next;
+  private volatile boolean valid = true;
+
+  private FlowField(int width, int height, int goal, int[] distance, int[] next) {
+    this.width = width;
+    this.height = height;
+    this.goal = goal;
+    this.distance = distance;
+    this.next = next;
+  }
+
+  /**
+   * 目的地セルへのフローフィールドを計算する。
+   *
+   * @param map   対象マップ
+   * @param goalX 目的地セルX
+   * @param goalY 目的地セルY
+   * @return フローフィールド。目的地が範囲外なら全セル到達不能のフィールド
+   */
+  static FlowField compute(GameMap map, int goalX, int goalY) {
+    int width = map.getWidth();
+    int height = map.getHeight();
+    int size = width * height;
+    int[] distance = new int[size];
+    int[] next = new int[size];
+    Arrays.fill(distance, UNREACHABLE);
+    Arrays.fill(next, -1);
+    int goal = goalY * width + goalX;
+    FlowField field = new FlowField(width, height, goal, distance, next);
+    if (!PathFinder.inBounds(width, height, goalX, goalY)
+        || PathFinder.stepCost(map, goalX, goalY) < 0) {
+      return field;
+    }
+
+    // 移動コストは進入先セルにかかるため、セルbを確定したら隣接セルaの距離を
+    // dist[b] + cost(b)で更新する。歩行不可のセルは出発点としてのみ距離を持ち、展開しない。
+    CompactMapGrid grid = map.grid();
+    boolean[] closed = new boolean[size];
+    CellHeap open = new CellHeap();
+    distance[goal] = 0;
+    next[goal] = goal;
+    open.push(0, goal);
+    while (!open.isEmpty()) {
+      int current = open.pop();
+      if (closed[current]) {
+        continue;
+      }
+      closed[current] = true;
+      int cx = current % width;
+      int cy = current / width;
+      long enterCost = PathFinder.stepCost(grid, current);
+      long newCost = distance[current] + enterCost;
+      if (newCost >= UNREACHABLE) {
+        continue;
+      }
+      for (int i = 0; i < PathFinder.DX.length; i++) {
+        int nx = cx + PathFinder.DX[i];
+        int ny = cy + PathFinder.DY[i];
+        if (!PathFinder.inBounds(width, height, nx, ny)) {
+          continue;
+        }
+        int neighbor = ny * width + nx;
+        if (closed[neighbor] || newCost >= distance[neighbor]) {
+          continue;
+        }
+        distance[neighbor] = (int) newCost;
+        if (PathFinder.stepCost(grid, neighbor) >= 0) {
+          open.push(newCost, neighbor);
+        }
+      }
+    }
+    // 同じ距離の隣接セルのどれを選ぶかはヒープから取り出す順で変わるため、距離が決まってから選ぶ
+    for (int cell = 0; cell < size; cell++) {
+      if (cell != goal && distance[cell] != UNREACHABLE) {
+        next[cell] = field.bestNeighbor(grid, cell % width, cell / width);
+      }
+    }
+    return field;
+  }
+
+  /**
+   * 目的地のセル番号を返す。
+   *
+   * @return 目的地のセル番号
+   */
+  public int getGoal() {
+    return goal;
+  }
+
+  /**
+   * 指定セルから目的地まで到達できるかを返す。
+   *
+   * @param x セルX
+   * @param y セルY
+   * @return 到達できる場合はtrue
+   */
+  public boolean isReachable(int x, int y) {
+    return getDistance(x, y) != UNREACHABLE;
+  }
+
+  /**
+   * 指定セルから目的地までの最小移動コストを返す。
+   *
+   * @param x セルX
+   * @param y セルY
+   * @return 最小移動コスト。到達不能なら{@link #UNREACHABLE}
+   */
+  public int getDistance(int x, int y) {
+    if (!PathFinder.inBounds(width, height, x, y)) {
+      return UNREACHABLE;
+    }
+    return distance[y * width + x];
+  }
+
+  /**
+   * 指定セルから次に進むセル番号を返す。
+   *
+   * @param cellIndex 現在のセル番号
+   * @return 次のセル番号。目的地では目的地自身、到達不能なら-1
+   */
+  public int nextCell(int cellIndex) {
+    if (cellIndex < 0 || cellIndex >= next.length) {
+      return -1;
+    }
+    return next[cellIndex];
+  }
+
+  /**
+   * フィールドがマップの現状と一致しているかを返す。
+   *
+   * @return 有効ならtrue
+   */
+  public boolean isValid() {
+    return valid;
+  }
+
+  /**
+   * フィールドを無効化する。
+   */
+  void invalidate() {
+    valid = false;
+  }
+
+  /**
+   * 指定範囲のセルの通行可否や移動コストが変わった後で、このフィールドが古くなったかを判定する。
+   *
+   * <p>
+   * 各セルの距離は隣接セルの距離とその進入コストの最小値で決まり、変化したセルの進入コストを
+   * 参照するのは範囲とその隣接セルだけである。そこで範囲を1セル広げた各セルについて、
+   * 保持している距離を変化後のコストで求め直した値と比べ、次に進むセルがその最小値を
+   * 与える最初の隣接セルのままかを確かめる。すべて一致すれば作り直した場合と同じフィールドなので、
+   * 範囲の近くに距離が付いているだけのフィールドは破棄しない。
+   * </p>
+   *
+   * @param map  変化後のマップ
+   * @param area 変化したセル範囲
+   * @return 古くなった場合はtrue
+   */
+  boolean isAffectedBy(GameMap map, Rectangle area) {
+    CompactMapGrid grid = map.grid();
+    if (goal >= 0 && goal < distance.length && area.contains(goal % width, goal / width)) {
+      // 目的地の通行可否が変われば、空のフィールドとの間で作り直しになる
+      boolean walkable = PathFinder.stepCost(grid, goal) >= 0;
+      if (walkable == (distance[goal] == UNREACHABLE)) {
+        return true;
+      }
+    }
+    int minX = Math.max(0, area.x - 1);
+    int minY = Math.max(0, area.y - 1);
+    int maxX = Math.min(width - 1, area.x + area.width);
+    int maxY = Math.min(height - 1, area.y + area.height);
+    for (int y = minY; y <= maxY; y++) {
+      for (int x = minX; x <= maxX; x++) {
+        int cell = y * width + x;
+        if (cell != goal && !isConsistent(grid, cell, x, y)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 目的地以外のセルの距離と次セルが、現在の移動コストでの最小値と一致するかを返す。
+   */
+  private boolean isConsistent(CompactMapGrid grid, int cell, int x, int y) {
+    int best = bestNeighbor(grid, x, y);
+    long cost = best < 0 ? UNREACHABLE : enterCost(grid, best);
+    if (cost != distance[cell]) {
+      return false;
+    }
+    // 同じ距離でも、次セルが作り直した場合と変わるなら古い
+    return cost == UNREACHABLE || next[cell] == best;
+  }
+
+  /**
+   * 目的地までのコストが最小になる隣接セルを{@link PathFinder#DX}の順で最初に見つかったものから返す。
+   *
+   * @return 隣接セル番号。どの隣接セルからも到達できなければ-1
+   */
+  private int bestNeighbor(CompactMapGrid grid, int x, int y) {
+    long bestCost = UNREACHABLE;
+    int best = -1;
+    for (int i = 0; i < PathFinder.DX.length; i++) {
+      int nx = x + PathFinder.DX[i];
+      int ny = y + PathFinder.DY[i];
+      if (!PathFinder.inBounds(width, height, nx, ny)) {
+        continue;
+      }
+      int neighbor = ny * width + nx;
+      long via = enterCost(grid, neighbor);
+      if (via < bestCost) {
+        bestCost = via;
+        best = neighbor;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * 隣接セルからneighborへ進んだ場合の目的地までのコストを返す。
+   */
+  private long enterCost(CompactMapGrid grid, int neighbor) {
+    if (neighbor < 0 || distance[neighbor] == UNREACHABLE) {
+      return UNREACHABLE;
+    }
+    int cost = PathFinder.stepCost(grid, neighbor);
+    if (cost < 0) {
+      return UNREACHABLE;
+    }
+    return Math.min(UNREACHABLE, (long) distance[neighbor] + cost);
+  }
+}
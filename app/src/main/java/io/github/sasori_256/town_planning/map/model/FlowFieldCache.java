@@ -0,0 +1,216 @@
+package io.github.sasori_256.town_planning.map.model;
+
+import java.awt.Rectangle;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.github.sasori_256.town_planning.common.core.GameConfig;
+import io.github.sasori_256.town_planning.common.event.Subscription;
+import io.github.sasori_256.town_planning.common.event.events.MapUpdatedEvent;
+
+/**
+ * 目的地セルごとのフローフィールドを保持するキャッシュ。
+ *
+ * <p>
+ * 同じ目的地(自宅の入口や施設の入口)へ向かう住民は1つのフィールドを共有するため、
+ * 経路計算のコストは住民数ではなく目的地の種類数に比例する。
+ * 建物の配置・撤去を知らせる{@link MapUpdatedEvent}を受け取ると、
+ * 変化によって距離や進行方向が実際に変わるフィールドだけを無効化する。
+ * 1つのフィールドはマップのセル数に比例したメモリを使うため、保持する数はメモリの上限から決め、
+ * 超えた場合は最も長く使われていないフィールドから弱参照に降格する。
+ * 降格したフィールドも辿っている住民がいる間は再利用するため、同じ目的地のフィールドが
+ * 重複して作られることはない。
+ * </p>
+ *
+ * <p>
+ * フィールドの計算はキャッシュのロックの外で行い、ロックは表の参照と更新の間だけ持つ。
+ * 並列更新中に別々の目的地を求めたスレッドは互いを待たずに計算でき、
+ * 同じ目的地を同時に求めたスレッドは最初のスレッドの計算結果を待って共有する。
+ * </p>
+ */
+public class FlowFieldCache {
+  /** 1セルあたりのフィールドのメモリ量(距離と次セルのint2つ)。 */
+  private static final long BYTES_PER_CELL = 2L * Integer.BYTES;
+
+  private final GameMap map;
+  /** 強参照で保持するフィールド数の上限。 */
+  private final int capacity;
+  private final Map<Integer, FlowField> fields = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, FlowField> eldest) {
+      if (size() <= capacity) {
+        return false;
+      }
+      retire(eldest.getKey(), eldest.getValue());
+      return true;
+    }
+  };
+  /** 上限から溢れたフィールド。住民が辿っている間だけ残る。 */
+  private final Map<Integer, WeakReference<FlowField>> retired = new HashMap<>();
+  /** 計算中の目的地と、その結果を待つための完了通知。 */
+  private final Map<Integer, CompletableFuture<FlowField>> computing = new HashMap<>();
+  /** 無効化の回数。計算中にマップが変わったかの判定に使う。 */
+  private long invalidations;
+  private final Subscription mapSub;
+
+  /**
+   * キャッシュを生成し、マップのイベントバスで更新イベントを購読する。
+   *
+   * @param map 対象マップ
+   */
+  public FlowFieldCache(GameMap map) {
+    this.map = map;
+    long fieldBytes = BYTES_PER_CELL * map.getWidth() * map.getHeight();
+    long maxBytes = GameConfig.getPathfindingFlowFieldCacheMaxMegabytes() * 1024L * 1024L;
+    this.capacity = (int) Math.max(1L, Math.min(Integer.MAX_VALUE, maxBytes / fieldBytes));
+    this.mapSub = map.getEventBus().subscribe(MapUpdatedEvent.class, event -> {
+      if (event.area() != null) {
+        invalidate(event.area());
+      }
+    });
+  }
+
+  /**
+   * 目的地セルへのフローフィールドを返す。未計算なら計算してキャッシュする。
+   * 計算中にマップが変わった場合は、無効化済みのフィールドをキャッシュせずに返す。
+   *
+   * @param goalX 目的地セルX
+   * @param goalY 目的地セルY
+   * @return フローフィールド
+   */
+  public FlowField get(int goalX, int goalY) {
+    int key = goalY * map.getWidth() + goalX;
+    CompletableFuture<FlowField> pending;
+    long startInvalidations;
+    synchronized (this) {
+      FlowField field = fields.get(key);
+      if (field != null && field.isValid()) {
+        return field;
+      }
+      field = revive(key);
+      if (field != null) {
+        fields.put(key, field);
+        return field;
+      }
+      pending = computing.get(key);
+      if (pending == null) {
+        pending = new CompletableFuture<>();
+        computing.put(key, pending);
+        startInvalidations = invalidations;
+      } else {
+        startInvalidations = -1L;
+      }
+    }
+    if (startInvalidations < 0L) {
+      return pending.join();
+    }
+    FlowField field;
+    try {
+      field = FlowField.compute(map, goalX, goalY);
+    } catch (RuntimeException | Error e) {
+      synchronized (this) {
+        computing.remove(key);
+      }
+      pending.completeExceptionally(e);
+      throw e;
+    }
+    synchronized (this) {
+      computing.remove(key);
+      if (invalidations == startInvalidations) {
+        fields.put(key, field);
+      } else {
+        field.invalidate();
+      }
+    }
+    pending.complete(field);
+    return field;
+  }
+
+  private FlowField revive(int key) {
+    WeakReference<FlowField> ref = retired.remove(key);
+    FlowField field = ref == null ? null : ref.get();
+    return field != null && field.isValid() ? field : null;
+  }
+
+  private void retire(int key, FlowField field) {
+    retired.put(key, new WeakReference<>(field));
+    if (retired.size() > capacity * 4) {
+      retired.values().removeIf(ref -> ref.get() == null);
+    }
+  }
+
+  /**
+   * 指定範囲の変化で古くなったフィールドを無効化して破棄する。
+   *
+   * @param area 変化したセル範囲
+   */
+  public synchronized void invalidate(Rectangle area) {
+    invalidations++;
+    Iterator<FlowField> it = fields.values().iterator();
+    while (it.hasNext()) {
+      FlowField field = it.next();
+      if (field.isAffectedBy(map, area)) {
+        field.invalidate();
+        it.remove();
+      }
+    }
+    Iterator<WeakReference<FlowField>> refs = retired.values().iterator();
+    while (refs.hasNext()) {
+      FlowField field = refs.next().get();
+      if (field == null || field.isAffectedBy(map, area)) {
+        if (field != null) {
+          field.invalidate();
+        }
+        refs.remove();
+      }
+    }
+  }
+
+  /**
+   * 全フィールドを無効化して破棄する。
+   */
+  public synchronized void clear() {
+    invalidations++;
+    for (FlowField field : fields.values()) {
+      field.invalidate();
+    }
+    fields.clear();
+    for (WeakReference<FlowField> ref : retired.values()) {
+      FlowField field = ref.get();
+      if (field != null) {
+        field.invalidate();
+      }
+    }
+    retired.clear();
+  }
+
+  /**
+   * キャッシュ中のフィールド数を返す。
+   *
+   * @return フィールド数
+   */
+  public synchronized int size() {
+    return fields.size();
+  }
+
+  /**
+   * 強参照で保持するフィールド数の上限を返す。
+   *
+   * @return フィールド数の上限
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * イベント購読を解除する。
+   */
+  public void dispose() {
+    mapSub.unsubscribe();
+    clear();
+  }
+}
@@ -1,12 +1,17 @@
 package io.github.sasori_256.town_planning.map.model;
 
+import java.awt.Rectangle;
 import java.awt.geom.Point2D;
+import java.util.List;
 import java.util.Random;
 
+import io.github.sasori_256.town_planning.common.core.GameConfig;
 import io.github.sasori_256.town_planning.common.event.EventBus;
 import io.github.sasori_256.town_planning.common.event.events.MapUpdatedEvent;
 import io.github.sasori_256.town_planning.entity.building.Building;
 import io.github.sasori_256.town_planning.entity.building.BuildingType;
+import io.github.sasori_256.town_planning.entity.model.save.SaveInput;
+import io.github.sasori_256.town_planning.entity.model.save.SaveOutput;
 
 /**
  * ゲーム内のマップ状態を保持する実装。
@@ -14,25 +19,122 @@ import io.github.sasori_256.town_planning.entity.building.BuildingType;
 public class GameMap implements MapContext {
   private final int width;
   private final int height;
-  private final MapCell[][] cells;
-  private final EventBus eventBus = EventBus.getInstance();
+  /** セル情報の記憶域。 */
+  private final CompactMapGrid grid;
+  private final EventBus eventBus;
   private final Random random;
+  private final WalkableRegions walkableRegions;
+  /** 階層型経路探索。初回利用時に構築する。 */
+  private HierarchicalPathFinder hierarchicalPathFinder;
+  /**
+   * 直近に作った建物配置の写し。配置が変わるまで使い回す。
+   * 書き換えは状態ロック内だけで行い、設置可否の判定はロックを取らずに読む。
+   */
+  private volatile BuildingLayer buildingLayer;
 
   /**
-   * マップを生成する。
+   * 専用のイベントバスを持つマップを生成する。
    *
    * @param width  横幅(セル数)
    * @param height 縦幅(セル数)
    * @param seed   シード値
    */
   public GameMap(int width, int height, long seed) {
+    this(width, height, seed, new EventBus());
+  }
+
+  /**
+   * マップを生成する。
+   *
+   * @param width    横幅(セル数)
+   * @param height   縦幅(セル数)
+   * @param seed     シード値
+   * @param eventBus 更新イベントの発行先
+   */
+  public GameMap(int width, int height, long seed, EventBus eventBus) {
+    this(width, height, seed, eventBus, null);
+  }
+
+  /**
+   * マップを生成する。セーブデータが指定された場合は地形生成の代わりに読み込む。
+   *
+   * @param width  横幅(セル数)
+   * @param height 縦幅(セル数)
+   * @param seed     シード値
+   * @param eventBus 更新イベントの発行先
+   * @param in       セーブデータ。新規生成する場合はnull
+   */
+  private GameMap(int width, int height, long seed, EventBus eventBus, SaveInput in) {
+    this.eventBus = eventBus;
     this.width = width;
     this.height = height;
-    this.cells = new MapCell[height][width];
+    this.grid = new CompactMapGrid(width, height, TerrainType.ERROR);
     this.random = new Random(seed);
-    GenerateMapTerrain(seed); // マップの地形を生成
-    StylizeMapEdges(); // 地形の境界を整える
-    StylizeMapEdges(); // 地形の境界を整える
+    if (in == null) {
+      GenerateMapTerrain(seed); // マップの地形を生成
+      StylizeMapEdges(); // 地形の境界を整える
+      StylizeMapEdges(); // 地形の境界を整える
+    } else {
+      readCells(in);
+    }
+    this.walkableRegions = new WalkableRegions(this);
+    this.buildingLayer = grid.captureBuildingLayer();
+    // 生成後の地形変更は建物と同じく派生データに反映する。
+    grid.setTerrainListener(this::onTerrainChanged);
+  }
+
+  /**
+   * {@link #writeState(SaveOutput)}で書いたマップを読み込む。
+   *
+   * @param in       読み込み元
+   * @param seed     シード値
+   * @param eventBus 更新イベントの発行先
+   * @return マップ
+   */
+  public static GameMap restore(SaveInput in, long seed, EventBus eventBus) {
+    int width = in.readInt();
+    int height = in.readInt();
+    if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Invalid map size: " + width + "x" + height);
+    }
+    return new GameMap(width, height, seed, eventBus, in);
+  }
+
+  /**
+   * マップの大きさ、全セルの地形、配置中の全建物(木などエンティティでないものを含む)を書き込む。
+   *
+   * @param out 書き込み先
+   */
+  public void writeState(SaveOutput out) {
+    out.writeInt(width);
+    out.writeInt(height);
+    grid.writeTerrain(out);
+    List<Building> placed = grid.getPlacedBuildings();
+    out.writeInt(placed.size());
+    for (Building building : placed) {
+      out.writeEnum(building.getType());
+      building.writeState(out);
+    }
+  }
+
+  /**
+   * 地形と建物を読み込む。連結成分ラベルの構築前に呼ぶ。
+   */
+  private void readCells(SaveInput in) {
+    grid.readTerrain(in);
+    BuildingType[] types = BuildingType.values();
+    int count = in.readCount();
+    for (int i = 0; i < count; i++) {
+      BuildingType type = in.readEnum(types);
+      if (type == null) {
+        throw new IllegalStateException("Building type is missing.");
+      }
+      Building building = new Building(new Point2D.Double(0, 0), type);
+      building.readState(in);
+      if (!placeBuilding(building.getPosition(), building)) {
+        throw new IllegalStateException("Cannot place " + type + " at " + building.getPosition());
+      }
+    }
   }
 
   /**
@@ -61,7 +163,7 @@ public class GameMap implements MapContext {
           terrainType = TerrainType.getRandomGrassType(random);
 
         }
-        cells[y][x] = new MapCell(new Point2D.Double(x, y), terrainType);
+        grid.setTerrain(grid.index(x, y), terrainType);
         // 森を配置
         if (altitude > 0.7) {
           Building newTree = null;
@@ -107,7 +209,7 @@ public class GameMap implements MapContext {
    * @param y セルのY座標
    */
   private void StylizeCellEdge(int x, int y) {
-    String target = cells[y][x].getTerrain().getKind(); // 境界処理対象の地形種別
+    String target = grid.getTerrain(grid.index(x, y)).getKind(); // 境界処理対象の地形種別
     String collider = ""; // どの方向への境界かを定義するための文字列
     if (!target.equals(TerrainType.WATER.getKind())) { // 境界処理は水セルにのみ行う
       return;
@@ -118,28 +220,28 @@ public class GameMap implements MapContext {
      * き ☆ え
      * く か お
      */
-    String Terrain_S = (x + 1 < width && y + 1 < height) ? cells[y + 1][x + 1].getTerrain().getKind()
+    String Terrain_S = (x + 1 < width && y + 1 < height) ? grid.getTerrain(grid.index(x + 1, y + 1)).getKind()
         : TerrainType.WATER.getKind(); // 下方向の地形//：お
     boolean S = (Terrain_S.equals(collider));
-    String Terrain_E = (x + 1 < width && y - 1 >= 0) ? cells[y - 1][x + 1].getTerrain().getKind()
+    String Terrain_E = (x + 1 < width && y - 1 >= 0) ? grid.getTerrain(grid.index(x + 1, y - 1)).getKind()
         : TerrainType.WATER.getKind(); // 右方向の地形：う
     boolean E = (Terrain_E.equals(collider));
-    String Terrain_N = (x - 1 >= 0 && y - 1 >= 0) ? cells[y - 1][x - 1].getTerrain().getKind()
+    String Terrain_N = (x - 1 >= 0 && y - 1 >= 0) ? grid.getTerrain(grid.index(x - 1, y - 1)).getKind()
         : TerrainType.WATER.getKind(); // 上方向の地形 ：あ
     boolean N = (Terrain_N.equals(collider));
-    String Terrain_W = (x - 1 >= 0 && y + 1 < height) ? cells[y + 1][x - 1].getTerrain().getKind()
+    String Terrain_W = (x - 1 >= 0 && y + 1 < height) ? grid.getTerrain(grid.index(x - 1, y + 1)).getKind()
         : TerrainType.WATER.getKind(); // 左方向の地形 ：き
     boolean W = (Terrain_W.equals(collider));
-    String Terrain_Xp = x + 1 < width ? cells[y][x + 1].getTerrain().getKind()
+    String Terrain_Xp = x + 1 < width ? grid.getTerrain(grid.index(x + 1, y)).getKind()
         : TerrainType.WATER.getKind(); // 左上方向の地形：く
     boolean Xp = (Terrain_Xp.equals(collider));
-    String Terrain_Xm = x - 1 >= 0 ? cells[y][x - 1].getTerrain().getKind()
+    String Terrain_Xm = x - 1 >= 0 ? grid.getTerrain(grid.index(x - 1, y)).getKind()
         : TerrainType.WATER.getKind(); // 右下方向の地形：え
     boolean Xm = (Terrain_Xm.equals(collider));
-    String Terrain_Yp = y + 1 < height ? cells[y + 1][x].getTerrain().getKind()
+    String Terrain_Yp = y + 1 < height ? grid.getTerrain(grid.index(x, y + 1)).getKind()
         : TerrainType.WATER.getKind(); // 右上方向の地形：い
     boolean Yp = (Terrain_Yp.equals(collider));
-    String Terrain_Ym = y - 1 >= 0 ? cells[y - 1][x].getTerrain().getKind()
+    String Terrain_Ym = y - 1 >= 0 ? grid.getTerrain(grid.index(x, y - 1)).getKind()
         : TerrainType.WATER.getKind(); // 左下方向の地形：か
     boolean Ym = (Terrain_Ym.equals(collider));
     // 隣接するいずれかの地形と異なる場合、境界処理を行う
@@ -157,7 +259,7 @@ public class GameMap implements MapContext {
     // System.out.println("(" + x + ", " + y + ")" + newTerrainTypeName);
     TerrainType newTerrainType = TerrainType.fromDisplayName(newTerrainTypeName);
     if (newTerrainType != null) {
-      cells[y][x].setTerrain(newTerrainType);
+      grid.setTerrain(grid.index(x, y), newTerrainType);
     } else {
       System.out.println("(" + x + ", " + y + ")" + newTerrainTypeName + " Not found ");
     }
@@ -302,92 +404,106 @@ public class GameMap implements MapContext {
   /** {@inheritDoc} */
   @Override
   public boolean isValidPosition(Point2D.Double pos) {
-    double x = pos.getX(); // 中心基準
-    double y = pos.getY();
-    return x >= -0.5 && x < this.width - 0.5
-        && y >= -0.5 && y < this.height - 0.5;
+    return grid.isValidPosition(pos);
   }
 
   /** {@inheritDoc} */
   @Override
   public MapCell getCell(Point2D.Double pos) {
-    if (!isValidPosition(pos)) {
-      // 無効な位置へのアクセスは例外を投げる
-      // またはnullを返す、境界用のダミーセルを返すなどの方法も考えられる
-      throw new IndexOutOfBoundsException("Invalid position: " + pos);
-    }
-    return cells[(int) Math.round(pos.getY())][(int) Math.round(pos.getX())];
+    return grid.getCell(pos);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean inBounds(int x, int y) {
+    return grid.inBounds(x, y);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public MapCell getCell(int x, int y) {
+    return grid.getCell(x, y);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isWalkable(int x, int y) {
+    return grid.isWalkable(x, y);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int moveCost(int x, int y) {
+    return grid.moveCost(x, y);
+  }
+
+  /**
+   * セル情報の記憶域を返す。
+   * 経路探索など、セル番号で配列を直接参照したいホットパス向け。
+   *
+   * @return 記憶域
+   */
+  CompactMapGrid grid() {
+    return grid;
   }
 
   /** {@inheritDoc} */
   @Override
   public boolean placeBuilding(Point2D.Double pos, Building building) {
-    if (building == null) {
+    if (!grid.placeBuilding(pos, building)) {
       return false;
     }
-    // Validate the original continuous position before snapping to the grid.
-    if (!isValidPosition(pos)) {
-      return false;
-    }
-    int anchorX = (int) Math.round(pos.getX());
-    int anchorY = (int) Math.round(pos.getY());
-    Point2D.Double anchorPos = new Point2D.Double(anchorX, anchorY);
-
     BuildingType type = building.getType();
-    int originX = anchorX - type.getAnchorX();
-    int originY = anchorY - type.getAnchorY();
-    boolean[][] footprint = type.getFootprintMask();
+    publishFootprintChange(building.getPosition(), building.getOriginX(), building.getOriginY(),
+        type);
+    return true;
+  }
 
-    if (!canPlaceBuilding(pos, type)) {
+  /**
+   * 指定位置に建物を配置できるかを判定する。
+   *
+   * @param pos  アンカー位置
+   * @param type 建物種別
+   * @return 配置できる場合はtrue
+   */
+  public boolean canPlaceBuilding(Point2D.Double pos, BuildingType type) {
+    if (pos == null) {
       return false;
     }
-    building.setOrigin(originX, originY);
-    building.setPosition(anchorPos);
-
-    for (int y = 0; y < type.getHeight(); y++) {
-      for (int x = 0; x < type.getWidth(); x++) {
-        if (!footprint[y][x]) {
-          continue;
-        }
-        int mapX = originX + x;
-        int mapY = originY + y;
-        Point2D.Double cellPos = new Point2D.Double(mapX, mapY);
-        getCell(cellPos).setBuilding(building, x, y);
-      }
-    }
-
-    eventBus.publish(new MapUpdatedEvent(anchorPos));
-    return true;
+    return canPlaceBuilding((int) Math.round(pos.getX()), (int) Math.round(pos.getY()), type);
   }
 
-  public boolean canPlaceBuilding(Point2D.Double pos, BuildingType type) {
+  /**
+   * 直近に公開した建物配置の写しで、指定位置に建物を配置できるかを判定する。
+   * ロックを取らないため、ティックの更新中でもUIスレッドから待たずに呼べる。
+   * 判定は最後に{@link #publishBuildingLayer()}した時点のもので、実際の配置は
+   * 状態ロック内で{@link #canPlaceBuilding(Point2D.Double, BuildingType)}により確かめること。
+   *
+   * @param pos  アンカー位置
+   * @param type 建物種別
+   * @return 配置できる場合はtrue
+   */
+  public boolean canPlaceBuildingOnPublishedLayer(Point2D.Double pos, BuildingType type) {
     if (pos == null || type == null) {
       return false;
     }
-    int anchorX = (int) Math.round(pos.getX());
-    int anchorY = (int) Math.round(pos.getY());
-    int originX = anchorX - type.getAnchorX();
-    int originY = anchorY - type.getAnchorY();
-    boolean[][] footprint = type.getFootprintMask();
-
-    for (int y = 0; y < type.getHeight(); y++) {
-      for (int x = 0; x < type.getWidth(); x++) {
-        if (!footprint[y][x]) {
-          continue;
-        }
-        int mapX = originX + x;
-        int mapY = originY + y;
-        Point2D.Double cellPos = new Point2D.Double(mapX, mapY);
-        if (!isValidPosition(cellPos)) {
-          return false;
-        }
-        MapCell cell = getCell(cellPos);
-        if (cell.isOccupied() || !cell.getTerrain().isBuildable()) {
-          return false;
-        }
-      }
+    return buildingLayer.canPlace((int) Math.round(pos.getX()), (int) Math.round(pos.getY()),
+        type);
+  }
+
+  /**
+   * 整数セル座標のアンカーに建物を配置できるかを判定する。
+   *
+   * @param anchorX アンカーX
+   * @param anchorY アンカーY
+   * @param type    建物種別
+   * @return 配置できる場合はtrue
+   */
+  public boolean canPlaceBuilding(int anchorX, int anchorY, BuildingType type) {
+    if (type == null) {
+      return false;
     }
-    return true;
+    return grid.canPlace(anchorX, anchorY, type);
   }
 
   /** {@inheritDoc} */
@@ -395,43 +511,142 @@ public class GameMap implements MapContext {
   public boolean removeBuilding(Point2D.Double pos) {
     int anchorX = (int) Math.round(pos.getX());
     int anchorY = (int) Math.round(pos.getY());
-    Point2D.Double anchorPos = new Point2D.Double(anchorX, anchorY);
-    if (!isValidPosition(anchorPos)) {
+    if (!grid.inBounds(anchorX, anchorY)) {
       return false;
     }
-    MapCell cell = getCell(anchorPos);
-    Building building = cell.getBuilding();
-    if (building == null) {
+    Building building = grid.getBuilding(grid.index(anchorX, anchorY));
+    if (building == null || !grid.removeBuilding(anchorX, anchorY)) {
       return false;
     }
+    publishFootprintChange(new Point2D.Double(anchorX, anchorY), building.getOriginX(),
+        building.getOriginY(), building.getType());
+    return true;
+  }
 
-    BuildingType type = building.getType();
-    int originX = building.getOriginX();
-    int originY = building.getOriginY();
-    boolean[][] footprint = type.getFootprintMask();
-
-    for (int y = 0; y < type.getHeight(); y++) {
-      for (int x = 0; x < type.getWidth(); x++) {
-        if (!footprint[y][x]) {
-          continue;
-        }
-        int mapX = originX + x;
-        int mapY = originY + y;
-        Point2D.Double cellPos = new Point2D.Double(mapX, mapY);
-        if (!isValidPosition(cellPos)) {
-          continue;
-        }
-        MapCell target = getCell(cellPos);
-        if (target.getBuilding() == building) {
-          target.clearBuilding();
-        }
-      }
+  /**
+   * セルの地形を更新する。歩行可能領域などの派生データにも反映し、更新イベントを発行する。
+   *
+   * @param x       セルX
+   * @param y       セルY
+   * @param terrain 地形
+   * @return 範囲内で更新した場合はtrue
+   */
+  public boolean setTerrain(int x, int y, TerrainType terrain) {
+    if (!grid.inBounds(x, y)) {
+      return false;
     }
-
-    eventBus.publish(new MapUpdatedEvent(anchorPos));
+    grid.setTerrain(grid.index(x, y), terrain);
     return true;
   }
 
+  private void onTerrainChanged(int cell) {
+    int x = cell % width;
+    int y = cell / width;
+    publishAreaChange(new Point2D.Double(x, y), new Rectangle(x, y, 1, 1));
+  }
+
+  /**
+   * 建物の占有範囲が変化したことを派生データに反映し、更新イベントを発行する。
+   */
+  private void publishFootprintChange(Point2D.Double anchorPos, int originX, int originY,
+      BuildingType type) {
+    publishAreaChange(anchorPos,
+        new Rectangle(originX, originY, type.getWidth(), type.getHeight()));
+  }
+
+  private void publishAreaChange(Point2D.Double anchorPos, Rectangle area) {
+    // 地形生成中の配置はコンストラクタ末尾でまとめてラベル付けする。
+    if (walkableRegions != null) {
+      walkableRegions.update(area);
+    }
+    if (hierarchicalPathFinder != null) {
+      hierarchicalPathFinder.update(area);
+    }
+    eventBus.publish(new MapUpdatedEvent(anchorPos, area));
+  }
+
+  /**
+   * 現在の建物配置の不変な写しを返す。配置が変わっていなければ前回と同じインスタンスを返す。
+   * 返した写しはロックなしの設置可否の判定にも公開する。状態ロック内で呼ぶこと。
+   *
+   * @return 建物配置の写し
+   */
+  public BuildingLayer getBuildingLayer() {
+    BuildingLayer layer = buildingLayer;
+    if (layer == null || layer.getVersion() != grid.getLayoutVersion()) {
+      layer = grid.captureBuildingLayer();
+      buildingLayer = layer;
+    }
+    return layer;
+  }
+
+  /**
+   * 現在の建物配置を写し、ロックなしの設置可否の判定に公開する。配置が変わっていなければ
+   * 何も写さない。状態ロック内で呼ぶこと。
+   */
+  public void publishBuildingLayer() {
+    getBuildingLayer();
+  }
+
+  /**
+   * 建物配置のバージョンを返す。配置・撤去と地形の変更のたびに増える。状態ロック内で呼ぶこと。
+   *
+   * @return バージョン。{@link BuildingLayer#getVersion()}と比べられる
+   */
+  public int getLayoutVersion() {
+    return grid.getLayoutVersion();
+  }
+
+  /**
+   * 建物番号の建物を返す。
+   *
+   * @param id {@link BuildingLayer}の建物番号
+   * @return 建物。解放済みならnull
+   */
+  public Building getBuildingById(int id) {
+    return grid.getBuildingById(id);
+  }
+
+  /**
+   * 歩行可能セルの連結成分ラベルを返す。
+   *
+   * @return 連結成分ラベル
+   */
+  public WalkableRegions getWalkableRegions() {
+    return walkableRegions;
+  }
+
+  /**
+   * 配置や地形の変更を知らせる{@link MapUpdatedEvent}の発行先を返す。
+   *
+   * @return イベントバス
+   */
+  public EventBus getEventBus() {
+    return eventBus;
+  }
+
+  /**
+   * 階層型経路探索を使うべき大きさのマップかを返す。
+   *
+   * @return セル数が設定値以上ならtrue
+   */
+  public boolean usesHierarchicalPathfinding() {
+    return (long) width * height >= GameConfig.getPathfindingHierarchicalMinMapCells();
+  }
+
+  /**
+   * 階層型経路探索を返す。未構築なら構築する。
+   *
+   * @return 階層型経路探索
+   */
+  public synchronized HierarchicalPathFinder getHierarchicalPathFinder() {
+    if (hierarchicalPathFinder == null) {
+      hierarchicalPathFinder = new HierarchicalPathFinder(this,
+          GameConfig.getPathfindingHierarchicalClusterSize());
+    }
+    return hierarchicalPathFinder;
+  }
+
   /** {@inheritDoc} */
   @Override
   public int getWidth() {
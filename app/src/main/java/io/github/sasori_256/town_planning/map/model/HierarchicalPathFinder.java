@@ -0,0 +1,695 @@
+package io.github.sasori_256.town_planning.map.model;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * クラスタ分割による階層型経路探索(HPA*)。
+ *
+ * <p>
+ * マップを一辺clusterSizeのクラスタに分け、隣接クラスタ間の出入口セルを抽象ノード、
+ * クラスタ内の出入口間の最短コストを抽象エッジとして事前に計算しておく。
+ * 探索は抽象グラフ上のA*で通過点の列だけを求め、セル単位の経路は住民が歩くのに合わせて
+ * {@link Route#nextSegment()}で1区間ずつクラスタ内に限定したA*で詳細化する。
+ * 建物の配置・撤去時は変化範囲に接するクラスタの出入口と内部エッジだけを作り直し、
+ * ノードの番号と並びは全体を構築した場合と同じになるよう揃え直す。
+ * 抽象グラフは読み書きロックで保護し、探索同士は並行に、作り直しは探索と排他に行う。
+ * </p>
+ */
+public class HierarchicalPathFinder {
+  /** 出入口の区間がこの長さ以上なら両端に2つ、未満なら中央に1つ出入口を置く。 */
+  private static final int WIDE_ENTRANCE_LENGTH = 6;
+  private static final int INF = Integer.MAX_VALUE;
+
+  private final GameMap map;
+  private final int width;
+  private final int height;
+  private final int clusterSize;
+  private final int clustersX;
+  private final int clustersY;
+  /** クラスタごとの抽象ノード。 */
+  private final List<List<Node>> clusterNodes;
+  /** セル番号から抽象ノードへの対応。 */
+  private final Map<Integer, Node> nodesByCell = new HashMap<>();
+  /** ノード番号から抽象ノードへの対応。作り直しの途中で解放したものはnull。 */
+  private final List<Node> nodesById = new ArrayList<>();
+  private final ThreadLocal<Search> searches = ThreadLocal.withInitial(Search::new);
+  private final ReadWriteLock graphLock = new ReentrantReadWriteLock();
+
+  /**
+   * マップ全体の抽象グラフを構築する。
+   *
+   * @param map         対象マップ
+   * @param clusterSize クラスタ一辺のセル数
+   */
+  HierarchicalPathFinder(GameMap map, int clusterSize) {
+    if (clusterSize <= 1) {
+      throw new IllegalArgumentException("clusterSize must be greater than 1.");
+    }
+    this.map = map;
+    this.width = map.getWidth();
+    this.height = map.getHeight();
+    this.clusterSize = clusterSize;
+    this.clustersX = (width + clusterSize - 1) / clusterSize;
+    this.clustersY = (height + clusterSize - 1) / clusterSize;
+    this.clusterNodes = new ArrayList<>(clustersX * clustersY);
+    for (int i = 0; i < clustersX * clustersY; i++) {
+      clusterNodes.add(new ArrayList<>());
+    }
+    for (int cy = 0; cy < clustersY; cy++) {
+      for (int cx = 0; cx < clustersX; cx++) {
+        buildBorder(cx, cy, true);
+        buildBorder(cx, cy, false);
+      }
+    }
+    for (int cluster = 0; cluster < clusterNodes.size(); cluster++) {
+      buildIntraEdges(cluster);
+      sortCluster(cluster);
+    }
+    renumber();
+  }
+
+  /**
+   * 指定範囲のセルが変化した後に、影響するクラスタの抽象グラフを作り直す。
+   *
+   * @param area 変化したセル範囲
+   */
+  void update(Rectangle area) {
+    graphLock.writeLock().lock();
+    try {
+      rebuild(area);
+    } finally {
+      graphLock.writeLock().unlock();
+    }
+  }
+
+  private void rebuild(Rectangle area) {
+    int minCx = clamp((area.x - 1) / clusterSize, clustersX);
+    int minCy = clamp((area.y - 1) / clusterSize, clustersY);
+    int maxCx = clamp((area.x + area.width) / clusterSize, clustersX);
+    int maxCy = clamp((area.y + area.height) / clusterSize, clustersY);
+
+    Set<Integer> touched = new LinkedHashSet<>();
+    for (int cy = minCy; cy <= maxCy; cy++) {
+      for (int cx = minCx; cx <= maxCx; cx++) {
+        touched.add(cy * clustersX + cx);
+      }
+    }
+
+    // 変化したクラスタの全境界の出入口を外し、隣接クラスタも含めて内部エッジを作り直す。
+    Set<Integer> dirty = new LinkedHashSet<>();
+    for (int cy = Math.max(0, minCy - 1); cy <= Math.min(clustersY - 1, maxCy + 1); cy++) {
+      for (int cx = Math.max(0, minCx - 1); cx <= Math.min(clustersX - 1, maxCx + 1); cx++) {
+        dirty.add(cy * clustersX + cx);
+      }
+    }
+    for (int cluster : touched) {
+      for (Node node : new ArrayList<>(clusterNodes.get(cluster))) {
+        for (Edge edge : node.edges) {
+          if (edge.inter) {
+            edge.to.edges.removeIf(back -> back.inter && back.to == node);
+            releaseIfUnused(edge.to);
+          }
+        }
+        node.edges.removeIf(edge -> edge.inter);
+        releaseIfUnused(node);
+      }
+    }
+
+    for (int cluster : touched) {
+      int cx = cluster % clustersX;
+      int cy = cluster / clustersX;
+      buildBorder(cx, cy, true);
+      buildBorder(cx, cy, false);
+      if (cx > 0 && !touched.contains(cluster - 1)) {
+        buildBorder(cx - 1, cy, true);
+      }
+      if (cy > 0 && !touched.contains(cluster - clustersX)) {
+        buildBorder(cx, cy - 1, false);
+      }
+    }
+    for (int cluster : dirty) {
+      buildIntraEdges(cluster);
+      sortCluster(cluster);
+    }
+    renumber();
+  }
+
+  /**
+   * クラスタのノードと各ノードのエッジを、セル番号の順に並べる。
+   */
+  private void sortCluster(int cluster) {
+    List<Node> nodes = clusterNodes.get(cluster);
+    nodes.sort(Comparator.comparingInt(node -> node.cell));
+    for (Node node : nodes) {
+      node.edges.sort(Comparator.comparingInt(edge -> edge.to.cell));
+    }
+  }
+
+  /**
+   * クラスタ順、セル番号順にノード番号を振り直す。
+   * 探索は同じコストの候補をノード番号で選ぶため、番号を作り直しの経緯に依らず揃えて、
+   * 部分的に作り直したグラフでも全体を構築した場合と同じ経路を返すようにする。
+   */
+  private void renumber() {
+    nodesById.clear();
+    for (List<Node> nodes : clusterNodes) {
+      for (Node node : nodes) {
+        node.id = nodesById.size();
+        nodesById.add(node);
+      }
+    }
+  }
+
+  /**
+   * 開始セルから目標セルまでの抽象経路を求める。
+   *
+   * @param startX 開始セルX
+   * @param startY 開始セルY
+   * @param goalX  目標セルX
+   * @param goalY  目標セルY
+   * @return 区間ごとに詳細化する経路。到達不能ならnull
+   */
+  public Route findRoute(int startX, int startY, int goalX, int goalY) {
+    graphLock.readLock().lock();
+    try {
+      return searchRoute(startX, startY, goalX, goalY);
+    } finally {
+      graphLock.readLock().unlock();
+    }
+  }
+
+  private Route searchRoute(int startX, int startY, int goalX, int goalY) {
+    if (!PathFinder.inBounds(width, height, startX, startY)
+        || !PathFinder.inBounds(width, height, goalX, goalY)) {
+      return null;
+    }
+    int start = startY * width + startX;
+    int goal = goalY * width + goalX;
+    int startCluster = clusterOf(startX, startY);
+    int goalCluster = clusterOf(goalX, goalY);
+    if (start == goal) {
+      return new Route(new int[] { start });
+    }
+    if (PathFinder.stepCost(map, goalX, goalY) < 0) {
+      return null;
+    }
+    if (startCluster == goalCluster) {
+      Rectangle bounds = clusterBounds(startCluster);
+      int[] local = PathFinder.findPath(map, startX, startY, goalX, goalY, bounds.x, bounds.y,
+          bounds.x + bounds.width - 1, bounds.y + bounds.height - 1);
+      if (local != null) {
+        Route route = new Route(new int[] { start, goal });
+        route.prepared = local;
+        return route;
+      }
+    }
+
+    Search search = searches.get();
+    int nodeCount = nodesById.size();
+    int startId = nodeCount;
+    int goalId = nodeCount + 1;
+    int gen = search.begin(nodeCount + 2);
+
+    // 開始セルから同じクラスタの出入口へのコストと、目標クラスタの出入口から目標セルへのコスト。
+    List<Node> startNodes = clusterNodes.get(startCluster);
+    int[] startCosts = new int[startNodes.size()];
+    localCostsTo(start, startCluster, startNodes, false, startCosts, search);
+    List<Node> goalNodes = clusterNodes.get(goalCluster);
+    int[] goalCosts = new int[goalNodes.size()];
+    localCostsTo(goal, goalCluster, goalNodes, true, goalCosts, search);
+    for (int i = 0; i < goalNodes.size(); i++) {
+      int goalNode = goalNodes.get(i).id;
+      search.goalMark[goalNode] = gen;
+      search.goalIndex[goalNode] = i;
+    }
+
+    search.visit(startId, gen, 0, -1);
+    search.open.push(manhattan(start, goal), startId);
+    boolean found = false;
+    int expanded = 0;
+    while (!search.open.isEmpty()) {
+      int current = search.open.pop();
+      if (search.closed[current] == gen) {
+        continue;
+      }
+      search.closed[current] = gen;
+      expanded++;
+      if (current == goalId) {
+        found = true;
+        break;
+      }
+      long currentCost = search.cost[current];
+      if (current == startId) {
+        for (int i = 0; i < startNodes.size(); i++) {
+          if (startCosts[i] != INF) {
+            relax(search, gen, startId, startNodes.get(i).id, currentCost + startCosts[i],
+                startNodes.get(i).cell, goal);
+          }
+        }
+        continue;
+      }
+      Node node = nodesById.get(current);
+      for (Edge edge : node.edges) {
+        relax(search, gen, current, edge.to.id, currentCost + edge.cost, edge.to.cell, goal);
+      }
+      if (search.goalMark[current] == gen) {
+        int index = search.goalIndex[current];
+        if (goalCosts[index] != INF) {
+          relax(search, gen, current, goalId, currentCost + goalCosts[index], goal, goal);
+        }
+      }
+    }
+    PathFinder.addExpandedNodes(expanded);
+    if (!found) {
+      return null;
+    }
+
+    int length = 0;
+    for (int id = goalId; id != -1; id = search.parent[id]) {
+      length++;
+    }
+    int[] waypoints = new int[length];
+    int id = goalId;
+    for (int i = length - 1; i >= 0; i--) {
+      waypoints[i] = id == startId ? start : id == goalId ? goal : nodesById.get(id).cell;
+      id = search.parent[id];
+    }
+    return new Route(waypoints);
+  }
+
+  /**
+   * クラスタ一辺のセル数を返す。
+   *
+   * @return クラスタ一辺のセル数
+   */
+  public int getClusterSize() {
+    return clusterSize;
+  }
+
+  /**
+   * 保存しておいた抽象経路を、同じ区間から続きを詳細化できる状態で作り直す。
+   *
+   * @param waypoints    {@link Route#getWaypoints()}で取り出した通過点
+   * @param segmentIndex {@link Route#getSegmentIndex()}で取り出した区間の位置
+   * @return 経路
+   */
+  public Route restoreRoute(int[] waypoints, int segmentIndex) {
+    if (segmentIndex < 0 || segmentIndex >= Math.max(1, waypoints.length)) {
+      throw new IllegalArgumentException("Segment index out of range: " + segmentIndex);
+    }
+    Route route = new Route(waypoints.clone());
+    route.index = segmentIndex;
+    return route;
+  }
+
+  /**
+   * 抽象ノード数を返す。
+   *
+   * @return 抽象ノード数
+   */
+  public int getNodeCount() {
+    graphLock.readLock().lock();
+    try {
+      return nodesByCell.size();
+    } finally {
+      graphLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 抽象経路。通過点の間を1区間ずつ詳細化して返す。
+   */
+  public final class Route {
+    private final int[] waypoints;
+    private int index;
+    /** 経路探索時に詳細化済みの最初の区間。 */
+    private int[] prepared;
+
+    private Route(int[] waypoints) {
+      this.waypoints = waypoints;
+      this.index = 0;
+    }
+
+    /**
+     * 開始セルと目標セルを含む通過点の数を返す。
+     *
+     * @return 通過点の数
+     */
+    public int getWaypointCount() {
+      return waypoints.length;
+    }
+
+    /**
+     * 開始セルと目標セルを含む通過点のセル番号を返す。
+     *
+     * @return 通過点のセル番号の配列
+     */
+    public int[] getWaypoints() {
+      return waypoints.clone();
+    }
+
+    /**
+     * 次に詳細化する区間の始点が何番目の通過点かを返す。
+     *
+     * @return 通過点の位置
+     */
+    public int getSegmentIndex() {
+      return index;
+    }
+
+    /**
+     * 未詳細化の区間が残っているかを返す。
+     *
+     * @return 残っている場合はtrue
+     */
+    public boolean hasNextSegment() {
+      return index + 1 < waypoints.length;
+    }
+
+    /**
+     * 次の区間をセル単位の経路に詳細化する。
+     *
+     * @return 区間の始点を含まず終点を含むセル番号の配列。
+     *         区間が残っていないかマップ変化で通れなくなった場合はnull
+     */
+    public int[] nextSegment() {
+      if (!hasNextSegment()) {
+        return null;
+      }
+      int from = waypoints[index];
+      int to = waypoints[index + 1];
+      index++;
+      if (prepared != null) {
+        int[] segment = prepared;
+        prepared = null;
+        return segment;
+      }
+      int fromX = from % width;
+      int fromY = from / width;
+      int toX = to % width;
+      int toY = to / width;
+      Rectangle bounds = clusterBounds(clusterOf(fromX, fromY))
+          .union(clusterBounds(clusterOf(toX, toY)));
+      return PathFinder.findPath(map, fromX, fromY, toX, toY, bounds.x, bounds.y,
+          bounds.x + bounds.width - 1, bounds.y + bounds.height - 1);
+    }
+  }
+
+  private void relax(Search search, int gen, int from, int to, long newCost, int toCell,
+      int goal) {
+    if (newCost >= INF - (long) width - height || search.closed[to] == gen) {
+      return;
+    }
+    if (search.seen[to] != gen || newCost < search.cost[to]) {
+      search.visit(to, gen, (int) newCost, from);
+      search.open.push(newCost + manhattan(toCell, goal), to);
+    }
+  }
+
+  /**
+   * クラスタ境界の出入口を作る。
+   *
+   * @param cx   クラスタX
+   * @param cy   クラスタY
+   * @param east trueなら東側の境界、falseなら南側の境界
+   */
+  private void buildBorder(int cx, int cy, boolean east) {
+    int length;
+    if (east) {
+      if (cx + 1 >= clustersX) {
+        return;
+      }
+      length = Math.min(clusterSize, height - cy * clusterSize);
+    } else {
+      if (cy + 1 >= clustersY) {
+        return;
+      }
+      length = Math.min(clusterSize, width - cx * clusterSize);
+    }
+    int runStart = -1;
+    for (int i = 0; i <= length; i++) {
+      boolean open = i < length && isBorderOpen(cx, cy, east, i);
+      if (open && runStart < 0) {
+        runStart = i;
+      } else if (!open && runStart >= 0) {
+        int runEnd = i - 1;
+        if (runEnd - runStart + 1 >= WIDE_ENTRANCE_LENGTH) {
+          addTransition(cx, cy, east, runStart);
+          addTransition(cx, cy, east, runEnd);
+        } else {
+          addTransition(cx, cy, east, (runStart + runEnd) / 2);
+        }
+        runStart = -1;
+      }
+    }
+  }
+
+  private boolean isBorderOpen(int cx, int cy, boolean east, int offset) {
+    int[] cells = borderCells(cx, cy, east, offset);
+    return PathFinder.stepCost(map, cells[0], cells[1]) >= 0
+        && PathFinder.stepCost(map, cells[2], cells[3]) >= 0;
+  }
+
+  private int[] borderCells(int cx, int cy, boolean east, int offset) {
+    if (east) {
+      int x = (cx + 1) * clusterSize - 1;
+      int y = cy * clusterSize + offset;
+      return new int[] { x, y, x + 1, y };
+    }
+    int x = cx * clusterSize + offset;
+    int y = (cy + 1) * clusterSize - 1;
+    return new int[] { x, y, x, y + 1 };
+  }
+
+  private void addTransition(int cx, int cy, boolean east, int offset) {
+    int[] cells = borderCells(cx, cy, east, offset);
+    Node a = nodeAt(cells[0], cells[1]);
+    Node b = nodeAt(cells[2], cells[3]);
+    a.edges.add(new Edge(b, PathFinder.stepCost(map, cells[2], cells[3]), true));
+    b.edges.add(new Edge(a, PathFinder.stepCost(map, cells[0], cells[1]), true));
+  }
+
+  private Node nodeAt(int x, int y) {
+    int cell = y * width + x;
+    Node node = nodesByCell.get(cell);
+    if (node != null) {
+      return node;
+    }
+    node = new Node(nodesById.size(), cell, clusterOf(x, y));
+    nodesById.add(node);
+    nodesByCell.put(cell, node);
+    clusterNodes.get(node.cluster).add(node);
+    return node;
+  }
+
+  private void releaseIfUnused(Node node) {
+    for (Edge edge : node.edges) {
+      if (edge.inter) {
+        return;
+      }
+    }
+    if (nodesByCell.remove(node.cell) == null) {
+      return;
+    }
+    clusterNodes.get(node.cluster).remove(node);
+    nodesById.set(node.id, null);
+    node.edges.clear();
+  }
+
+  /**
+   * クラスタ内の出入口同士を結ぶエッジを作り直す。
+   */
+  private void buildIntraEdges(int cluster) {
+    List<Node> nodes = clusterNodes.get(cluster);
+    for (Node node : nodes) {
+      node.edges.removeIf(edge -> !edge.inter);
+    }
+    Search search = searches.get();
+    int[] costs = new int[nodes.size()];
+    for (Node node : nodes) {
+      localCostsTo(node.cell, cluster, nodes, false, costs, search);
+      for (int i = 0; i < nodes.size(); i++) {
+        Node other = nodes.get(i);
+        if (other != node && costs[i] != INF) {
+          node.edges.add(new Edge(other, costs[i], false));
+        }
+      }
+    }
+  }
+
+  /**
+   * クラスタ内に限定したDijkstraで、基準セルと各ノードの間のコストを求める。
+   *
+   * @param origin  基準セル
+   * @param cluster クラスタ番号
+   * @param targets コストを求めるノード
+   * @param reverse falseなら基準セルから各ノードへ、trueなら各ノードから基準セルへのコスト
+   * @param out     結果の格納先(targetsと同じ順序、到達不能はINF)
+   * @param search  作業領域
+   */
+  private void localCostsTo(int origin, int cluster, List<Node> targets, boolean reverse,
+      int[] out, Search search) {
+    Rectangle bounds = clusterBounds(cluster);
+    int size = clusterSize * clusterSize;
+    if (search.local.length < size) {
+      search.local = new int[size];
+    }
+    if (search.localDone.length < size) {
+      search.localDone = new boolean[size];
+    }
+    int[] local = search.local;
+    boolean[] done = search.localDone;
+    Arrays.fill(local, 0, size, INF);
+    Arrays.fill(done, 0, size, false);
+    CellHeap heap = search.localOpen;
+    heap.clear();
+
+    int originLocal = toLocal(origin, bounds);
+    local[originLocal] = 0;
+    heap.push(0, originLocal);
+    int expanded = 0;
+    while (!heap.isEmpty()) {
+      int current = heap.pop();
+      if (done[current]) {
+        continue;
+      }
+      done[current] = true;
+      expanded++;
+      int lx = current % clusterSize;
+      int ly = current / clusterSize;
+      int x = bounds.x + lx;
+      int y = bounds.y + ly;
+      // 順方向は進入先のコスト、逆方向は確定したセル自身のコストを加える。
+      long selfCost = reverse ? PathFinder.stepCost(map, x, y) : 0;
+      if (selfCost < 0) {
+        continue;
+      }
+      for (int i = 0; i < PathFinder.DX.length; i++) {
+        int nx = x + PathFinder.DX[i];
+        int ny = y + PathFinder.DY[i];
+        if (!bounds.contains(nx, ny)) {
+          continue;
+        }
+        int next = (ny - bounds.y) * clusterSize + (nx - bounds.x);
+        if (done[next]) {
+          continue;
+        }
+        long step = reverse ? selfCost : PathFinder.stepCost(map, nx, ny);
+        if (step < 0) {
+          continue;
+        }
+        long newCost = local[current] + step;
+        if (newCost < local[next]) {
+          local[next] = (int) newCost;
+          heap.push(newCost, next);
+        }
+      }
+    }
+    PathFinder.addExpandedNodes(expanded);
+    for (int i = 0; i < targets.size(); i++) {
+      out[i] = local[toLocal(targets.get(i).cell, bounds)];
+    }
+  }
+
+  private int toLocal(int cell, Rectangle bounds) {
+    return (cell / width - bounds.y) * clusterSize + (cell % width - bounds.x);
+  }
+
+  private Rectangle clusterBounds(int cluster) {
+    int cx = cluster % clustersX;
+    int cy = cluster / clustersX;
+    int x = cx * clusterSize;
+    int y = cy * clusterSize;
+    return new Rectangle(x, y, Math.min(clusterSize, width - x), Math.min(clusterSize, height - y));
+  }
+
+  private int clusterOf(int x, int y) {
+    return (y / clusterSize) * clustersX + (x / clusterSize);
+  }
+
+  private long manhattan(int a, int b) {
+    return Math.abs(a % width - b % width) + Math.abs(a / width - b / width);
+  }
+
+  private static int clamp(int index, int limit) {
+    return Math.max(0, Math.min(limit - 1, index));
+  }
+
+  /**
+   * 抽象グラフのノード(出入口セル)。
+   */
+  private static final class Node {
+    private int id;
+    private final int cell;
+    private final int cluster;
+    private final List<Edge> edges = new ArrayList<>();
+
+    private Node(int id, int cell, int cluster) {
+      this.id = id;
+      this.cell = cell;
+      this.cluster = cluster;
+    }
+  }
+
+  /**
+   * 抽象グラフの有向エッジ。interはクラスタ境界をまたぐ1歩の移動を表す。
+   */
+  private record Edge(Node to, int cost, boolean inter) {
+  }
+
+  /**
+   * スレッドごとの抽象探索作業領域。
+   */
+  private static final class Search {
+    private int[] cost = new int[0];
+    private int[] parent = new int[0];
+    private int[] seen = new int[0];
+    private int[] closed = new int[0];
+    /** 目標クラスタの出入口に今回の世代を付け、{@link #goalIndex}でその並び順を引く。 */
+    private int[] goalMark = new int[0];
+    private int[] goalIndex = new int[0];
+    private int[] local = new int[0];
+    private boolean[] localDone = new boolean[0];
+    private final CellHeap open = new CellHeap();
+    private final CellHeap localOpen = new CellHeap();
+    private int generation;
+
+    private int begin(int size) {
+      if (cost.length < size) {
+        int capacity = Math.max(size, cost.length * 2);
+        cost = new int[capacity];
+        parent = new int[capacity];
+        seen = new int[capacity];
+        closed = new int[capacity];
+        goalMark = new int[capacity];
+        goalIndex = new int[capacity];
+        generation = 0;
+      }
+      open.clear();
+      generation++;
+      if (generation == Integer.MAX_VALUE) {
+        Arrays.fill(seen, 0);
+        Arrays.fill(closed, 0);
+        Arrays.fill(goalMark, 0);
+        generation = 1;
+      }
+      return generation;
+    }
+
+    private void visit(int id, int gen, int newCost, int from) {
+      seen[id] = gen;
+      cost[id] = newCost;
+      parent[id] = from;
+    }
+  }
+}
@@ -7,31 +7,26 @@ import org.jspecify.annotations.Nullable;
 import io.github.sasori_256.town_planning.entity.building.Building;
 
 /**
- * マップ上の1セルの状態を保持するクラス。
+ * マップ上の1セルの状態を参照するビュー。
+ * 実データは{@link CompactMapGrid}の配列にあり、このクラスの読み書きはそこへ委譲される。
  */
 public class MapCell {
+  private final CompactMapGrid grid;
+  private final int index;
   private final Point2D.Double position;
-  private Terrain terrain;
-
-  @Nullable
-  private Building building;
-
-  private int localX;
-  private int localY;
 
   /**
-   * セルを生成する。
+   * セルのビューを生成する。
    *
-   * @param position    セル座標
-   * @param initTerrain 初期地形
+   * @param grid  記憶域
+   * @param index セル番号
+   * @param x     セルX
+   * @param y     セルY
    */
-  public MapCell(Point2D.Double position, Terrain initTerrain) {
-    this.position = position;
-    this.terrain = initTerrain;
-    // Buildingはnull許容に変更してResident通過判定や描画時に余計なメンバーにアクセス不可に
-    this.building = null;
-    this.localX = 0;
-    this.localY = 0;
+  MapCell(CompactMapGrid grid, int index, int x, int y) {
+    this.grid = grid;
+    this.index = index;
+    this.position = new Point2D.Double(x, y);
   }
 
   /**
@@ -43,24 +38,35 @@ public class MapCell {
     return position;
   }
 
+  /**
+   * セル番号(y * width + x)を返す。
+   *
+   * @return セル番号
+   */
+  public int getIndex() {
+    return index;
+  }
+
   /**
    * 地形を返す。
    *
    * @return 地形
    */
   public Terrain getTerrain() {
-    return terrain;
+    return grid.getTerrain(index);
   }
 
   /**
-   * 地形を更新する。
+   * 地形を更新する。マップの派生データ(歩行可能領域や経路探索の抽象グラフ)にも反映される。
    *
    * @param terrain 設定する地形
-   * @return 更新できた場合はtrue
+   * @throws IllegalArgumentException {@link TerrainType}以外の地形が指定された場合
    */
-  public boolean setTerrain(Terrain terrain) {
-    this.terrain = terrain;
-    return true;
+  public void setTerrain(Terrain terrain) {
+    if (!(terrain instanceof TerrainType type)) {
+      throw new IllegalArgumentException("Unsupported terrain: " + terrain);
+    }
+    grid.setTerrain(index, type);
   }
 
   /**
@@ -68,8 +74,9 @@ public class MapCell {
    *
    * @return 建物。未配置ならnull
    */
+  @Nullable
   public Building getBuilding() {
-    return building;
+    return grid.getBuilding(index);
   }
 
   /**
@@ -78,7 +85,7 @@ public class MapCell {
    * @return ローカルX
    */
   public int getLocalX() {
-    return localX;
+    return grid.getLocalX(index);
   }
 
   /**
@@ -87,7 +94,7 @@ public class MapCell {
    * @return ローカルY
    */
   public int getLocalY() {
-    return localY;
+    return grid.getLocalY(index);
   }
 
   /**
@@ -96,29 +103,28 @@ public class MapCell {
    * @return 建物がある場合はtrue
    */
   public boolean isOccupied() {
-    return building != null;
+    return grid.getBuildingId(index) != CompactMapGrid.NO_BUILDING;
   }
 
   /**
    * 建物とローカル座標を設定する。
+   * 歩行可能領域や経路探索の派生データは更新しないため、マップの外からは
+   * {@link GameMap#placeBuilding}を使う。
    *
    * @param building 建物
    * @param localX   建物内のローカルX
    * @param localY   建物内のローカルY
    */
-  public void setBuilding(Building building, int localX, int localY) {
-    this.building = building;
-    this.localX = localX;
-    this.localY = localY;
+  void setBuilding(Building building, int localX, int localY) {
+    grid.setBuilding(index, building, localX, localY);
   }
 
   /**
    * 建物情報をクリアする。
+   * 派生データは更新しないため、マップの外からは{@link GameMap#removeBuilding}を使う。
    */
-  public void clearBuilding() {
-    this.building = null;
-    this.localX = 0;
-    this.localY = 0;
+  void clearBuilding() {
+    grid.clearBuilding(index);
   }
 
   /**
@@ -126,7 +132,7 @@ public class MapCell {
    * 単純に地形が建築可能かつ建物が存在しない場合にtrueを返す
    */
   public boolean canBuild() {
-    return terrain.isBuildable() && building == null;
+    return getTerrain().isBuildable() && !isOccupied();
   }
 
   /**
@@ -134,13 +140,7 @@ public class MapCell {
    * 地形が歩行可能かつ建物が侵入可能ならtrueを返す
    */
   public boolean canWalk() {
-    if (!terrain.isWalkable()) {
-      return false;
-    }
-    if (building == null) {
-      return true;
-    }
-    return building.getType().isWalkable(localX, localY);
+    return grid.isWalkable(index);
   }
 
   /**
@@ -149,9 +149,6 @@ public class MapCell {
    * @return 移動コスト
    */
   public int getMoveCost() {
-    if (building == null) {
-      return terrain.getMoveCost();
-    }
-    return building.getType().getMoveCost(localX, localY);
+    return grid.moveCost(index);
   }
 }
@@ -22,6 +22,44 @@ public interface MapContext {
    */
   public MapCell getCell(Point2D.Double position);
 
+  /**
+   * 整数セル座標がマップの範囲内かを確認する。
+   *
+   * @param x セルX
+   * @param y セルY
+   * @return 範囲内ならtrue
+   */
+  public boolean inBounds(int x, int y);
+
+  /**
+   * 整数セル座標のセルを取得する。
+   *
+   * @param x セルX
+   * @param y セルY
+   * @return セル
+   * @throws IndexOutOfBoundsException 範囲外の場合
+   */
+  public MapCell getCell(int x, int y);
+
+  /**
+   * 整数セル座標のセルを住民が歩行できるかを返す。
+   *
+   * @param x セルX
+   * @param y セルY
+   * @return 範囲内かつ歩行可能ならtrue
+   */
+  public boolean isWalkable(int x, int y);
+
+  /**
+   * 整数セル座標のセルの移動コストを返す。
+   *
+   * @param x セルX
+   * @param y セルY
+   * @return 移動コスト
+   * @throws IndexOutOfBoundsException 範囲外の場合
+   */
+  public int moveCost(int x, int y);
+
   /**
    * マップ上のセルに建物を配置する。
    *
@@ -0,0 +1,274 @@
+package io.github.sasori_256.town_planning.map.model;
+
+import java.util.Arrays;
+
+import io.github.sasori_256.town_planning.common.core.GameConfig;
+
+/**
+ * マップ上の4近傍グリッドに対するA*経路探索。
+ *
+ * <p>
+ * 探索用の作業配列はスレッドごとに再利用し、世代番号で有効な要素を判定するため
+ * 探索のたびに配列をクリアしない。経路はセル番号(y * width + x)を詰めたint配列で返す。
+ * 移動コストは最低1として扱うため、マンハッタン距離は許容的なヒューリスティックになる。
+ * </p>
+ */
+public final class PathFinder {
+  private static final long COST_INF = GameConfig.getPathfindingCostInf();
+  static final int[] DX = { 1, -1, 0, 0 };
+  static final int[] DY = { 0, 0, 1, -1 };
+  private static final int[] EMPTY_PATH = new int[0];
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+  private PathFinder() {
+  }
+
+  /**
+   * 開始セルから目標セルまでの最短経路を探索する。
+   *
+   * @param map   対象マップ
+   * @param startX 開始セルX
+   * @param startY 開始セルY
+   * @param goalX  目標セルX
+   * @param goalY  目標セルY
+   * @return 開始セルを含まず目標セルを含むセル番号の配列。
+   *         開始と目標が同じなら空配列、到達不能ならnull
+   */
+  public static int[] findPath(GameMap map, int startX, int startY, int goalX, int goalY) {
+    return findPath(map, startX, startY, goalX, goalY,
+        0, 0, map.getWidth() - 1, map.getHeight() - 1);
+  }
+
+  /**
+   * 指定矩形の内側だけを通る経路を探索する。
+   * 階層型探索でクラスタ内の区間を詳細化する際に、探索範囲を局所に留めるために使う。
+   *
+   * @param map    対象マップ
+   * @param startX 開始セルX
+   * @param startY 開始セルY
+   * @param goalX  目標セルX
+   * @param goalY  目標セルY
+   * @param minX   探索範囲の最小X(含む)
+   * @param minY   探索範囲の最小Y(含む)
+   * @param maxX   探索範囲の最大X(含む)
+   * @param maxY   探索範囲の最大Y(含む)
+   * @return 開始セルを含まず目標セルを含むセル番号の配列。
+   *         開始と目標が同じなら空配列、到達不能ならnull
+   */
+  public static int[] findPath(GameMap map, int startX, int startY, int goalX, int goalY,
+      int minX, int minY, int maxX, int maxY) {
+    int width = map.getWidth();
+    int height = map.getHeight();
+    minX = Math.max(0, minX);
+    minY = Math.max(0, minY);
+    maxX = Math.min(width - 1, maxX);
+    maxY = Math.min(height - 1, maxY);
+    if (!inRect(startX, startY, minX, minY, maxX, maxY)
+        || !inRect(goalX, goalY, minX, minY, maxX, maxY)) {
+      return null;
+    }
+    if (startX == goalX && startY == goalY) {
+      return EMPTY_PATH;
+    }
+    CompactMapGrid grid = map.grid();
+    if (!grid.isWalkable(grid.index(goalX, goalY))) {
+      return null;
+    }
+
+    Scratch scratch = SCRATCH.get();
+    int gen = scratch.begin(width * height);
+    int[] cost = scratch.cost;
+    int[] parent = scratch.parent;
+    int[] seen = scratch.seen;
+    int[] closed = scratch.closed;
+    CellHeap open = scratch.open;
+
+    // 優先度(コスト + ヒューリスティック)がintに収まる範囲だけを探索する。
+    long costLimit = (long) Integer.MAX_VALUE - width - height;
+    int start = startY * width + startX;
+    int goal = goalY * width + goalX;
+    seen[start] = gen;
+    cost[start] = 0;
+    parent[start] = -1;
+    open.push(heuristic(startX, startY, goalX, goalY), start);
+
+    boolean found = false;
+    int expanded = 0;
+    while (!open.isEmpty()) {
+      int current = open.pop();
+      if (closed[current] == gen) {
+        continue;
+      }
+      closed[current] = gen;
+      expanded++;
+      if (current == goal) {
+        found = true;
+        break;
+      }
+      int cx = current % width;
+      int cy = current / width;
+      int currentCost = cost[current];
+      for (int i = 0; i < DX.length; i++) {
+        int nx = cx + DX[i];
+        int ny = cy + DY[i];
+        if (!inRect(nx, ny, minX, minY, maxX, maxY)) {
+          continue;
+        }
+        int next = ny * width + nx;
+        if (closed[next] == gen) {
+          continue;
+        }
+        int stepCost = stepCost(grid, next);
+        if (stepCost < 0) {
+          continue;
+        }
+        long newCost = (long) currentCost + stepCost;
+        if (newCost >= costLimit) {
+          continue;
+        }
+        if (seen[next] != gen || newCost < cost[next]) {
+          seen[next] = gen;
+          cost[next] = (int) newCost;
+          parent[next] = current;
+          open.push(newCost + heuristic(nx, ny, goalX, goalY), next);
+        }
+      }
+    }
+
+    scratch.expanded += expanded;
+    if (!found) {
+      return null;
+    }
+    int length = 0;
+    for (int node = goal; node != start; node = parent[node]) {
+      length++;
+    }
+    int[] path = new int[length];
+    int node = goal;
+    for (int i = length - 1; i >= 0; i--) {
+      path[i] = node;
+      node = parent[node];
+    }
+    return path;
+  }
+
+  /**
+   * 呼び出し元のスレッドでこれまでに展開したノード数の累計を返す。
+   * 探索の前後の差を取ると、その間の探索で展開したノード数になる。
+   *
+   * @return 展開ノード数の累計
+   */
+  public static long expandedNodes() {
+    return SCRATCH.get().expanded;
+  }
+
+  /**
+   * 呼び出し元のスレッドの展開ノード数の累計に加算する。階層型探索の抽象グラフ探索用。
+   *
+   * @param count 展開したノード数
+   */
+  static void addExpandedNodes(int count) {
+    SCRATCH.get().expanded += count;
+  }
+
+  /**
+   * セル番号からX座標を取り出す。
+   *
+   * @param cellIndex セル番号
+   * @param width     マップの横幅
+   * @return セルX
+   */
+  public static int cellX(int cellIndex, int width) {
+    return cellIndex % width;
+  }
+
+  /**
+   * セル番号からY座標を取り出す。
+   *
+   * @param cellIndex セル番号
+   * @param width     マップの横幅
+   * @return セルY
+   */
+  public static int cellY(int cellIndex, int width) {
+    return cellIndex / width;
+  }
+
+  /**
+   * セルへ進入するコストを返す。
+   * コストは最低1に丸め、マンハッタン距離が許容的であることを保証する。
+   *
+   * @param grid 記憶域
+   * @param idx  進入先のセル番号
+   * @return 進入コスト。進入できない場合は-1
+   */
+  static int stepCost(CompactMapGrid grid, int idx) {
+    if (!grid.isWalkable(idx)) {
+      return -1;
+    }
+    long cost = grid.moveCost(idx);
+    if (cost >= COST_INF) {
+      return -1;
+    }
+    return (int) Math.max(1L, cost);
+  }
+
+  /**
+   * 整数セル座標のセルへ進入するコストを返す。
+   *
+   * @param map 対象マップ
+   * @param x   セルX
+   * @param y   セルY
+   * @return 進入コスト。進入できない場合は-1
+   */
+  static int stepCost(GameMap map, int x, int y) {
+    CompactMapGrid grid = map.grid();
+    return stepCost(grid, grid.index(x, y));
+  }
+
+  private static long heuristic(int x, int y, int goalX, int goalY) {
+    return Math.abs(goalX - x) + Math.abs(goalY - y);
+  }
+
+  static boolean inBounds(int width, int height, int x, int y) {
+    return x >= 0 && y >= 0 && x < width && y < height;
+  }
+
+  private static boolean inRect(int x, int y, int minX, int minY, int maxX, int maxY) {
+    return x >= minX && y >= minY && x <= maxX && y <= maxY;
+  }
+
+  /**
+   * スレッドごとの探索作業領域。
+   */
+  private static final class Scratch {
+    private int[] cost = new int[0];
+    private int[] parent = new int[0];
+    private int[] seen = new int[0];
+    private int[] closed = new int[0];
+    private final CellHeap open = new CellHeap();
+    private int generation;
+    /** このスレッドで展開したノード数の累計。 */
+    private long expanded;
+
+    /**
+     * 新しい探索を開始し、その世代番号を返す。
+     */
+    private int begin(int size) {
+      if (cost.length < size) {
+        cost = new int[size];
+        parent = new int[size];
+        seen = new int[size];
+        closed = new int[size];
+        generation = 0;
+      }
+      open.clear();
+      generation++;
+      if (generation == Integer.MAX_VALUE) {
+        Arrays.fill(seen, 0);
+        Arrays.fill(closed, 0);
+        generation = 1;
+      }
+      return generation;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package io.github.sasori_256.town_planning.common.ui.main.scene;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DepthDrawListTest {
+  /** 以前の描画エントリと同じ並び順。 */
+  private static final Comparator<Entry> DEPTH_ORDER = Comparator
+      .comparingDouble((Entry entry) -> entry.x() + entry.y())
+      .thenComparingDouble(Entry::y)
+      .thenComparingDouble(Entry::x)
+      .thenComparingInt(Entry::kind);
+
+  @Test
+  void sortMatchesTheStableDepthOrder() {
+    Random random = new Random(9L);
+    DepthDrawList list = new DepthDrawList();
+    // 使い回しで前回の要素が残らないことも確かめる
+    for (int round = 0; round < 20; round++) {
+      list.clear();
+      List<Entry> expected = new ArrayList<>();
+      int count = random.nextInt(1000);
+      for (int i = 0; i < count; i++) {
+        expected.add(addRandom(list, random, i));
+      }
+      expected.sort(DEPTH_ORDER);
+      list.sort();
+
+      assertEquals(expected, entries(list));
+    }
+  }
+
+  @Test
+  void equalEntriesKeepTheirInsertionOrder() {
+    DepthDrawList list = new DepthDrawList();
+    list.addResident(2, 3.5, 4.0);
+    list.addDisaster(0, 3.5, 4.0);
+    list.addResident(0, 3.5, 4.0);
+    list.addBuildingTile(3, 4);
+    list.addResident(1, 3.5, 4.0);
+    list.sort();
+
+    assertEquals(List.of(
+        new Entry(DepthDrawList.BUILDING_TILE, -1, 3.0, 4.0),
+        new Entry(DepthDrawList.RESIDENT, 2, 3.5, 4.0),
+        new Entry(DepthDrawList.RESIDENT, 0, 3.5, 4.0),
+        new Entry(DepthDrawList.RESIDENT, 1, 3.5, 4.0),
+        new Entry(DepthDrawList.DISASTER, 0, 3.5, 4.0)), entries(list));
+  }
+
+  /**
+   * 同じ深さや同じ座標が多く出るよう、粗い刻みの座標で要素を足す。マップ外の負の座標も含める。
+   */
+  private static Entry addRandom(DepthDrawList list, Random random, int index) {
+    int kind = random.nextInt(3);
+    if (kind == DepthDrawList.BUILDING_TILE) {
+      int x = random.nextInt(12) - 2;
+      int y = random.nextInt(12) - 2;
+      list.addBuildingTile(x, y);
+      return new Entry(kind, -1, x, y);
+    }
+    double x = random.nextInt(48) / 4.0 - 2.0;
+    double y = random.nextInt(48) / 4.0 - 2.0;
+    if (kind == DepthDrawList.RESIDENT) {
+      list.addResident(index, x, y);
+    } else {
+      list.addDisaster(index, x, y);
+    }
+    return new Entry(kind, index, x, y);
+  }
+
+  private static List<Entry> entries(DepthDrawList list) {
+    List<Entry> entries = new ArrayList<>();
+    for (int i = 0; i < list.size(); i++) {
+      entries.add(new Entry(list.kindAt(i), list.indexAt(i), list.xAt(i), list.yAt(i)));
+    }
+    return entries;
+  }
+
+  private record Entry(int kind, int index, double x, double y) {
+  }
+}
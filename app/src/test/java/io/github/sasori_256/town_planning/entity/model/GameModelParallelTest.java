@@ -0,0 +1,42 @@
+package io.github.sasori_256.town_planning.entity.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.sasori_256.town_planning.testing.Town;
+
+class GameModelParallelTest {
+  private static final int MAP_SIZE = 96;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void parallelUpdateMatchesSerialUpdate() throws IOException {
+    Town serial = Town.create(MAP_SIZE, 6, 60, 700, 5L);
+    Town parallel = Town.create(MAP_SIZE, 6, 60, 700, 5L);
+    serial.model().setParallelOverride(false);
+    parallel.model().setParallelOverride(true);
+
+    // 疫病で死亡・転居が起き、チャンクごとのコマンドバッファに副作用が積まれる。
+    for (Town town : new Town[] { serial, parallel }) {
+      town.run(300);
+      town.startPlague();
+      town.run(2700);
+    }
+
+    assertTrue(serial.model().getPopulationSnapshot().totalDeaths() > 0);
+    assertEquals(serial.model().getPopulationSnapshot(),
+        parallel.model().getPopulationSnapshot());
+    assertArrayEquals(serial.saveBytes(dir), parallel.saveBytes(dir));
+    serial.model().dispose();
+    parallel.model().dispose();
+  }
+}
@@ -0,0 +1,89 @@
+package io.github.sasori_256.town_planning.entity.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.sasori_256.town_planning.common.event.events.EntitySpawnFailureReason;
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+import io.github.sasori_256.town_planning.map.model.BuildingPreview;
+import io.github.sasori_256.town_planning.map.model.GameMap;
+import io.github.sasori_256.town_planning.testing.Town;
+
+class GameModelPlacementTest {
+  private static final int MAP_SIZE = 64;
+  private static final BuildingType HOUSE = BuildingType.RED_ROOFED_HOUSE;
+
+  @Test
+  void placementChecksDoNotWaitForARunningStep() throws Exception {
+    Town town = Town.create(MAP_SIZE, 2, 10, 40, 3L);
+    GameModel model = town.model();
+    model.addSoul(HOUSE.getCost());
+    town.run(1);
+    Point2D.Double free = firstBuildable(model.getGameMap());
+    BuildingPreview preview = model.getBuildingPreview();
+
+    // ティックの更新と同じく、別スレッドが書き込みロックを持ち続ける
+    CountDownLatch stepping = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread simulation = new Thread(() -> {
+      Lock writeLock = model.getStateLock().writeLock();
+      writeLock.lock();
+      try {
+        stepping.countDown();
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        writeLock.unlock();
+      }
+    });
+    simulation.start();
+    stepping.await();
+    ExecutorService ui = Executors.newSingleThreadExecutor();
+    try {
+      // 更新の終わりを待つ実装では時間切れで失敗する
+      assertNull(ui.submit(() -> model.validateConstruction(free, HOUSE))
+          .get(5, TimeUnit.SECONDS));
+      assertTrue(ui.submit(() -> {
+        preview.setBuildingPreviewType(HOUSE);
+        preview.setBuildingPreviewPos(free);
+        return preview.getBuildable();
+      }).get(5, TimeUnit.SECONDS));
+    } finally {
+      release.countDown();
+      simulation.join();
+      ui.shutdownNow();
+    }
+
+    // ループが止まっていれば、受け付けた建設はその場で写しに反映される
+    model.submit(() -> model.constructBuilding(free, HOUSE));
+    preview.setBuildingPreviewPos(free);
+    assertFalse(preview.getBuildable());
+    assertEquals(EntitySpawnFailureReason.PLACEMENT_BLOCKED,
+        model.validateConstruction(free, HOUSE));
+    model.dispose();
+  }
+
+  private static Point2D.Double firstBuildable(GameMap map) {
+    for (int y = 0; y < MAP_SIZE; y++) {
+      for (int x = 0; x < MAP_SIZE; x++) {
+        Point2D.Double pos = new Point2D.Double(x, y);
+        if (map.canPlaceBuilding(pos, HOUSE)) {
+          return pos;
+        }
+      }
+    }
+    throw new IllegalStateException("No buildable cell on the map");
+  }
+}
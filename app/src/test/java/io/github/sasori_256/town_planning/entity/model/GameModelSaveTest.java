@@ -0,0 +1,64 @@
+package io.github.sasori_256.town_planning.entity.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.sasori_256.town_planning.testing.Town;
+
+class GameModelSaveTest {
+  private static final int MAP_SIZE = 64;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void savedFileLoadsBackToTheSameState() throws IOException {
+    Town town = Town.create(MAP_SIZE, 6, 20, 120, 7L);
+    town.run(300);
+    Path saved = dir.resolve("saved.tpsave");
+    town.model().save(saved);
+    Town loaded = new Town(GameModel.load(saved), town.houses());
+
+    assertEquals(town.model().getTick(), loaded.model().getTick());
+    assertEquals(town.model().getPopulationSnapshot(), loaded.model().getPopulationSnapshot());
+    assertArrayEquals(town.saveBytes(dir), loaded.saveBytes(dir));
+    town.model().dispose();
+    loaded.model().dispose();
+  }
+
+  @Test
+  void loadedModelContinuesLikeTheUnsavedRun() throws IOException {
+    Town town = Town.create(MAP_SIZE, 6, 30, 200, 11L);
+    town.run(300);
+    town.startPlague();
+    town.run(300);
+    Path saved = dir.resolve("saved.tpsave");
+    town.model().save(saved);
+    Town loaded = new Town(GameModel.load(saved), town.houses());
+
+    town.run(1500);
+    loaded.run(1500);
+
+    assertEquals(town.model().getPopulationSnapshot(), loaded.model().getPopulationSnapshot());
+    assertArrayEquals(town.saveBytes(dir), loaded.saveBytes(dir));
+    town.model().dispose();
+    loaded.model().dispose();
+  }
+
+  @Test
+  void splitMix64ResumesFromItsState() {
+    SplitMix64 random = new SplitMix64(42L);
+    random.nextLong();
+    SplitMix64 resumed = new SplitMix64(random.getState());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(random.nextLong(), resumed.nextLong());
+    }
+    assertEquals(random.split().nextLong(), resumed.split().nextLong());
+  }
+}
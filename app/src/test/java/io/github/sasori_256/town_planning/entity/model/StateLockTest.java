@@ -0,0 +1,63 @@
+package io.github.sasori_256.town_planning.entity.model;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.jupiter.api.Test;
+
+class StateLockTest {
+
+  @Test
+  void writeConditionReleasesNestedHoldsWhileWaiting() throws Exception {
+    StateLock stateLock = new StateLock();
+    Lock writeLock = stateLock.writeLock();
+    Condition ready = writeLock.newCondition();
+    CountDownLatch waiting = new CountDownLatch(1);
+    boolean[] signalled = new boolean[1];
+    ExecutorService worker = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> relocked = worker.submit(() -> {
+        writeLock.lock();
+        writeLock.lock();
+        try {
+          waiting.countDown();
+          while (!signalled[0]) {
+            if (!ready.await(5, TimeUnit.SECONDS)) {
+              return false;
+            }
+          }
+          return stateLock.isWriteLockedByCurrentThread();
+        } finally {
+          writeLock.unlock();
+          writeLock.unlock();
+        }
+      });
+      waiting.await();
+      // 待機側が入れ子の分まで手放していなければ、ここで取れずに時間切れになる
+      assertTrue(writeLock.tryLock(5, TimeUnit.SECONDS));
+      try {
+        signalled[0] = true;
+        ready.signalAll();
+      } finally {
+        writeLock.unlock();
+      }
+      assertTrue(relocked.get(5, TimeUnit.SECONDS));
+    } finally {
+      worker.shutdownNow();
+    }
+  }
+
+  @Test
+  void readLockHasNoConditions() {
+    StateLock stateLock = new StateLock();
+    assertThrows(UnsupportedOperationException.class, () -> stateLock.readLock().newCondition());
+  }
+}
@@ -0,0 +1,96 @@
+package io.github.sasori_256.town_planning.entity.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EntityStoreTest {
+
+  @Test
+  void handlesSurviveRemovalOfOtherEntities() {
+    EntityStore<Object> store = new EntityStore<>();
+    List<Object> entities = new ArrayList<>();
+    List<Long> handles = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Object entity = new Object();
+      assertTrue(store.add(entity));
+      entities.add(entity);
+      handles.add(store.handleOf(entity));
+    }
+    assertFalse(store.add(entities.get(0)));
+
+    // 先頭付近を消すと末尾の要素が空いた位置へ移るが、ハンドルは同じものを指し続ける
+    Random random = new Random(3L);
+    for (int i = 0; i < 40; i++) {
+      int victim = random.nextInt(entities.size());
+      assertTrue(store.remove(entities.remove(victim)));
+      handles.remove(victim);
+    }
+    assertEquals(entities.size(), store.size());
+    for (int i = 0; i < entities.size(); i++) {
+      assertSame(entities.get(i), store.get(handles.get(i)));
+      assertEquals((long) handles.get(i), store.handleOf(entities.get(i)));
+    }
+  }
+
+  @Test
+  void staleHandleDoesNotResolveAfterIdReuse() {
+    EntityStore<Object> store = new EntityStore<>();
+    Object first = new Object();
+    store.add(first);
+    long stale = store.handleOf(first);
+    assertTrue(store.remove(first));
+    assertFalse(store.remove(first));
+
+    assertNull(store.get(stale));
+    assertEquals(EntityStore.NO_HANDLE, store.handleOf(first));
+
+    Object second = new Object();
+    store.add(second);
+    long fresh = store.handleOf(second);
+    // 同じIDが再利用されても世代が違う
+    assertEquals((int) stale, (int) fresh);
+    assertNotEquals(stale, fresh);
+    assertNull(store.get(stale));
+    assertSame(second, store.get(fresh));
+    assertNull(store.get(EntityStore.NO_HANDLE));
+  }
+
+  @Test
+  void snapshotIsReusedUntilChangedAndHandlesFollowItsOrder() {
+    EntityStore<Object> store = new EntityStore<>();
+    for (int i = 0; i < 10; i++) {
+      store.add(new Object());
+    }
+    List<Object> snapshot = store.snapshot();
+    assertSame(snapshot, store.snapshot());
+
+    store.remove(snapshot.get(2));
+    List<Object> changed = store.snapshot();
+    assertNotSame(snapshot, changed);
+    assertEquals(10, snapshot.size());
+    assertEquals(9, changed.size());
+
+    long[] reuse = new long[32];
+    long[] handles = store.snapshotHandles(reuse);
+    assertSame(reuse, handles);
+    long[] expected = new long[changed.size()];
+    for (int i = 0; i < changed.size(); i++) {
+      expected[i] = store.handleOf(changed.get(i));
+      assertSame(changed.get(i), store.get(handles[i]));
+    }
+    assertArrayEquals(expected, store.snapshotHandles(null));
+    assertEquals(changed, store.stream().toList());
+  }
+}
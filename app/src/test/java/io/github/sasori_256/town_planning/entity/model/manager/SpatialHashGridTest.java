@@ -0,0 +1,187 @@
+package io.github.sasori_256.town_planning.entity.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.sasori_256.town_planning.common.core.strategy.UpdateStrategy;
+import io.github.sasori_256.town_planning.entity.model.GameEntity;
+
+class SpatialHashGridTest {
+  private static final int MAP_SIZE = 64;
+
+  @Test
+  void queriesMatchBruteForceSearch() {
+    Random random = new Random(1L);
+    SpatialHashGrid<Marker> grid = new SpatialHashGrid<>(MAP_SIZE, MAP_SIZE, 8.0);
+    List<Marker> markers = scatter(random, 400);
+    markers.forEach(grid::insert);
+    // 半分を動かし、一部を消してから比べる
+    for (int i = 0; i < markers.size(); i += 2) {
+      markers.get(i).setPosition(randomPoint(random));
+      grid.update(markers.get(i));
+    }
+    for (int i = 0; i < 50; i++) {
+      grid.remove(markers.remove(random.nextInt(markers.size())));
+    }
+    assertEquals(markers.size(), grid.size());
+
+    Predicate<Marker> even = marker -> marker.id % 2 == 0;
+    for (int i = 0; i < 200; i++) {
+      Point2D.Double center = randomPoint(random);
+      double inner = random.nextDouble() * 10.0 - 2.0;
+      double outer = Math.max(0.0, inner) + random.nextDouble() * 20.0;
+
+      assertEquals(ids(bruteForceRing(markers, center, -1.0, outer)),
+          ids(grid.queryRadius(center, outer)));
+      assertEquals(ids(bruteForceRing(markers, center, inner, outer)),
+          ids(grid.queryRing(center, inner, outer)));
+      assertNearest(bruteForceNearest(markers, center, outer, null), center,
+          grid.nearest(center, outer, null));
+      assertNearest(bruteForceNearest(markers, center, outer, even), center,
+          grid.nearest(center, outer, even));
+    }
+  }
+
+  @Test
+  void radiusIncludesBoundaryAndRingExcludesInnerBoundary() {
+    SpatialHashGrid<Marker> grid = new SpatialHashGrid<>(MAP_SIZE, MAP_SIZE, 4.0);
+    Marker center = new Marker(0, 10.0, 10.0);
+    Marker onBoundary = new Marker(1, 13.0, 14.0);
+    grid.insert(center);
+    grid.insert(onBoundary);
+    Point2D.Double origin = new Point2D.Double(10.0, 10.0);
+
+    assertEquals(List.of(0, 1), ids(grid.queryRadius(origin, 5.0)));
+    assertEquals(List.of(1), ids(grid.queryRing(origin, 0.0, 5.0)));
+    assertEquals(List.of(), ids(grid.queryRing(origin, 5.0, 6.0)));
+  }
+
+  @Test
+  void entitiesOutsideTheMapAreStillFound() {
+    SpatialHashGrid<Marker> grid = new SpatialHashGrid<>(MAP_SIZE, MAP_SIZE, 8.0);
+    Marker west = new Marker(0, -6.0, 30.0);
+    Marker south = new Marker(1, 30.0, MAP_SIZE + 5.0);
+    grid.insert(west);
+    grid.insert(south);
+
+    assertSame(west, grid.nearest(new Point2D.Double(0.0, 30.0), 10.0, null));
+    assertSame(south, grid.nearest(new Point2D.Double(30.0, MAP_SIZE - 1.0), 10.0, null));
+    assertEquals(List.of(0), ids(grid.queryRadius(new Point2D.Double(-6.0, 30.0), 1.0)));
+
+    west.setPosition(new Point2D.Double(40.0, 40.0));
+    grid.update(west);
+    assertNull(grid.nearest(new Point2D.Double(0.0, 30.0), 10.0, null));
+  }
+
+  private static void assertNearest(Marker expected, Point2D.Double center, Marker actual) {
+    if (expected == null) {
+      assertNull(actual);
+      return;
+    }
+    // 同距離の候補が複数ある場合はどれを返してもよい
+    assertNotNull(actual);
+    assertEquals(expected.getPosition().distanceSq(center),
+        actual.getPosition().distanceSq(center));
+  }
+
+  private static List<Marker> bruteForceRing(List<Marker> markers, Point2D.Double center,
+      double inner, double outer) {
+    List<Marker> result = new ArrayList<>();
+    for (Marker marker : markers) {
+      double distSq = marker.getPosition().distanceSq(center);
+      if (distSq <= outer * outer && (inner < 0.0 || distSq > inner * inner)) {
+        result.add(marker);
+      }
+    }
+    return result;
+  }
+
+  private static Marker bruteForceNearest(List<Marker> markers, Point2D.Double center,
+      double maxRadius, Predicate<Marker> filter) {
+    Marker best = null;
+    for (Marker marker : markers) {
+      double distSq = marker.getPosition().distanceSq(center);
+      if (distSq > maxRadius * maxRadius || (filter != null && !filter.test(marker))) {
+        continue;
+      }
+      if (best == null || distSq < best.getPosition().distanceSq(center)) {
+        best = marker;
+      }
+    }
+    return best;
+  }
+
+  private static List<Marker> scatter(Random random, int count) {
+    List<Marker> markers = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Point2D.Double pos = randomPoint(random);
+      markers.add(new Marker(i, pos.x, pos.y));
+    }
+    return markers;
+  }
+
+  /** マップの少し外側も含めた座標を返す。 */
+  private static Point2D.Double randomPoint(Random random) {
+    return new Point2D.Double(random.nextDouble() * (MAP_SIZE + 8) - 4.0,
+        random.nextDouble() * (MAP_SIZE + 8) - 4.0);
+  }
+
+  private static List<Integer> ids(List<Marker> markers) {
+    Set<Marker> unique = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<Integer> ids = new ArrayList<>();
+    for (Marker marker : markers) {
+      assertTrue(unique.add(marker), "duplicated entity " + marker.id);
+      ids.add(marker.id);
+    }
+    Collections.sort(ids);
+    return ids;
+  }
+
+  /** 位置だけを持つテスト用エンティティ。 */
+  private static final class Marker implements GameEntity {
+    private final int id;
+    private Point2D.Double position;
+
+    Marker(int id, double x, double y) {
+      this.id = id;
+      this.position = new Point2D.Double(x, y);
+    }
+
+    @Override
+    public int getLayerIndex() {
+      return 0;
+    }
+
+    @Override
+    public void setLayerIndex(int layerIndex) {
+    }
+
+    @Override
+    public Point2D.Double getPosition() {
+      return position;
+    }
+
+    @Override
+    public void setPosition(Point2D.Double position) {
+      this.position = position;
+    }
+
+    @Override
+    public void setUpdateStrategy(UpdateStrategy updateStrategy) {
+    }
+  }
+}
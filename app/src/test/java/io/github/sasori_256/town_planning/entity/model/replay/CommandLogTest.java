@@ -0,0 +1,147 @@
+package io.github.sasori_256.town_planning.entity.model.replay;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.geom.Point2D;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+import io.github.sasori_256.town_planning.entity.disaster.Disaster;
+import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
+import io.github.sasori_256.town_planning.entity.model.GameModel;
+import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+import io.github.sasori_256.town_planning.entity.resident.ResidentType;
+
+class CommandLogTest {
+  private static final int MAP_SIZE = 64;
+  private static final long SEED = 13L;
+  private static final double DT = 1.0 / 30.0;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void writtenCommandsReadBackUnchanged() throws IOException {
+    CommandLogHeader header = new CommandLogHeader(SEED, MAP_SIZE, 48, DT);
+    List<RecordedCommand> commands = List.of(
+        new RecordedCommand(0L, new GameCommand.AddBuilding(3.0, 4.0, BuildingType.CHURCH)),
+        new RecordedCommand(0L, new GameCommand.AddResident(3.25, 4.5, ResidentType.CITIZEN,
+            ResidentState.AT_HOME, 3.0, 4.0)),
+        new RecordedCommand(7L, new GameCommand.ConstructBuilding(10.0, 11.0,
+            BuildingType.RED_ROOFED_HOUSE)),
+        new RecordedCommand(7L, new GameCommand.AddSoul(-25)),
+        new RecordedCommand(300L, new GameCommand.SetSoul(1234)),
+        new RecordedCommand(1L << 40, new GameCommand.AddDisaster(-1.5, 70.0,
+            DisasterType.METEOR)),
+        new RecordedCommand(1L << 40, new GameCommand.HarvestSoulAt(2.5, 2.5)),
+        new RecordedCommand((1L << 40) + 1, new GameCommand.RemoveBuilding(3.0, 4.0)));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (CommandLogWriter writer = new CommandLogWriter(bytes, header)) {
+      for (RecordedCommand command : commands) {
+        writer.append(command.tick(), command.command());
+      }
+      assertThrows(IllegalArgumentException.class,
+          () -> writer.append(5L, new GameCommand.AddSoul(1)));
+    }
+    CommandLogReader.CommandLog log =
+        CommandLogReader.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+    assertEquals(header, log.header());
+    assertEquals(commands, log.commands());
+  }
+
+  @Test
+  void replayReachesTheRecordedState() throws IOException {
+    Path logFile = dir.resolve("session.tplog");
+    GameModel live = new GameModel(MAP_SIZE, MAP_SIZE, SEED);
+    live.setCommandLog(CommandLogWriter.create(logFile,
+        new CommandLogHeader(SEED, MAP_SIZE, MAP_SIZE, DT)));
+    List<Point2D.Double> homes = buildTown(live);
+
+    for (int tick = 0; tick < 900; tick++) {
+      switch (tick) {
+        case 200 -> live.addDisasterEntity(new Disaster(
+            new Point2D.Double(homes.get(0).x, homes.get(0).y), DisasterType.PLAGUE));
+        case 300 -> live.addSoul(2000);
+        case 301 -> constructSomewhere(live);
+        case 450 -> live.harvestSoulAt(homes.get(1));
+        case 600 -> new GameCommand.RemoveBuilding(homes.get(2).x, homes.get(2).y).apply(live);
+        default -> {
+        }
+      }
+      live.step(DT);
+    }
+    live.setCommandLog(null);
+
+    ReplayEngine engine = ReplayEngine.load(logFile);
+    assertEquals(600L, engine.getLastCommandTick());
+    GameModel replayed = engine.replay(live.getTick());
+
+    assertEquals(live.getTick(), replayed.getTick());
+    assertEquals(live.getSoul(), replayed.getSoul());
+    assertEquals(live.getPopulationSnapshot(), replayed.getPopulationSnapshot());
+    assertArrayEquals(stateOf(live), stateOf(replayed));
+    live.dispose();
+    replayed.dispose();
+  }
+
+  /**
+   * 記録される操作だけで町を作り、家の位置を返す。
+   */
+  private static List<Point2D.Double> buildTown(GameModel model) {
+    Random random = new Random(SEED);
+    BuildingType[] types = { BuildingType.PLAZA, BuildingType.CHURCH };
+    List<Point2D.Double> homes = new ArrayList<>();
+    int destinations = 0;
+    for (int i = 0; i < 100_000 && homes.size() < 20; i++) {
+      Point2D.Double pos = new Point2D.Double(random.nextInt(MAP_SIZE), random.nextInt(MAP_SIZE));
+      BuildingType type = destinations < types.length * 2
+          ? types[destinations % types.length]
+          : BuildingType.RED_ROOFED_HOUSE;
+      if (!model.getGameMap().canPlaceBuilding(pos, type)) {
+        continue;
+      }
+      new GameCommand.AddBuilding(pos.x, pos.y, type).apply(model);
+      if (type == BuildingType.RED_ROOFED_HOUSE) {
+        homes.add(pos);
+      } else {
+        destinations++;
+      }
+    }
+    for (int i = 0; i < 150; i++) {
+      Point2D.Double home = homes.get(i % homes.size());
+      new GameCommand.AddResident(home.x, home.y, ResidentType.CITIZEN, ResidentState.AT_HOME,
+          home.x, home.y).apply(model);
+    }
+    return homes;
+  }
+
+  private static void constructSomewhere(GameModel model) {
+    for (int y = 0; y < MAP_SIZE; y++) {
+      for (int x = 0; x < MAP_SIZE; x++) {
+        if (model.constructBuilding(new Point2D.Double(x, y), BuildingType.RED_ROOFED_HOUSE)) {
+          return;
+        }
+      }
+    }
+  }
+
+  private byte[] stateOf(GameModel model) throws IOException {
+    Path file = Files.createTempFile(dir, "state", ".tpsave");
+    model.save(file);
+    return Files.readAllBytes(file);
+  }
+}
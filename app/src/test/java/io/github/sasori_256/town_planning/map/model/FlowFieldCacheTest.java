@@ -0,0 +1,85 @@
+package io.github.sasori_256.town_planning.map.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.sasori_256.town_planning.entity.building.Building;
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+
+class FlowFieldCacheTest {
+  private static final int MAP_SIZE = 256;
+  private static final int THREADS = 8;
+
+  @Test
+  void concurrentRequestsShareOneField() throws Exception {
+    GameMap map = new GameMap(MAP_SIZE, MAP_SIZE, 8L);
+    FlowFieldCache cache = new FlowFieldCache(map);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<FlowField>> results = new ArrayList<>();
+      for (int i = 0; i < THREADS * 4; i++) {
+        int goal = i % 2 == 0 ? 10 : 200;
+        results.add(pool.submit(() -> {
+          start.await();
+          return cache.get(goal, goal);
+        }));
+      }
+      start.countDown();
+      FlowField near = cache.get(10, 10);
+      FlowField far = cache.get(200, 200);
+      for (int i = 0; i < results.size(); i++) {
+        assertSame(i % 2 == 0 ? near : far, results.get(i).get());
+      }
+      assertEquals(2, cache.size());
+    } finally {
+      pool.shutdownNow();
+      cache.dispose();
+    }
+  }
+
+  @Test
+  void buildingOnTheGoalReplacesTheField() {
+    GameMap map = new GameMap(MAP_SIZE, MAP_SIZE, 8L);
+    Point2D.Double goal = firstBuildable(map);
+    int gx = (int) goal.x;
+    int gy = (int) goal.y;
+    FlowFieldCache cache = new FlowFieldCache(map);
+    FlowField before = cache.get(gx, gy);
+    assertTrue(before.isReachable(gx, gy));
+
+    map.placeBuilding(goal, new Building(goal, BuildingType.RED_ROOFED_HOUSE));
+    FlowField after = cache.get(gx, gy);
+
+    assertFalse(before.isValid());
+    assertTrue(after.isValid());
+    assertNotSame(before, after);
+    assertSame(after, cache.get(gx, gy));
+    cache.dispose();
+  }
+
+  private static Point2D.Double firstBuildable(GameMap map) {
+    for (int y = 0; y < MAP_SIZE; y++) {
+      for (int x = 0; x < MAP_SIZE; x++) {
+        Point2D.Double pos = new Point2D.Double(x, y);
+        if (map.canPlaceBuilding(pos, BuildingType.RED_ROOFED_HOUSE)) {
+          return pos;
+        }
+      }
+    }
+    throw new IllegalStateException("No buildable cell on the map");
+  }
+}
@@ -0,0 +1,166 @@
+package io.github.sasori_256.town_planning.map.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.sasori_256.town_planning.entity.building.Building;
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+
+class PathFinderTest {
+  private static final int MAP_SIZE = 64;
+  private static final long COST_INF = 1_000_000L;
+
+  @Test
+  void aStarFindsPathsAsCheapAsDijkstra() {
+    for (long seed = 1L; seed <= 3L; seed++) {
+      GameMap map = createMap(seed);
+      Random random = new Random(seed);
+      int reachable = 0;
+      for (int i = 0; i < 150; i++) {
+        int sx = random.nextInt(MAP_SIZE);
+        int sy = random.nextInt(MAP_SIZE);
+        int gx = random.nextInt(MAP_SIZE);
+        int gy = random.nextInt(MAP_SIZE);
+        long expected = dijkstraCost(map, sx, sy, gx, gy);
+        int[] path = PathFinder.findPath(map, sx, sy, gx, gy);
+        String pair = "(" + sx + "," + sy + ")->(" + gx + "," + gy + ") seed=" + seed;
+        if (expected < 0) {
+          assertNull(path, pair);
+          continue;
+        }
+        assertNotNull(path, pair);
+        assertEquals(expected, pathCost(map, sx, sy, path), pair);
+        reachable++;
+      }
+      assertTrue(reachable > 0, "no reachable pair for seed " + seed);
+    }
+  }
+
+  @Test
+  void sameStartAndGoalGivesEmptyPath() {
+    GameMap map = createMap(1L);
+    for (int y = 0; y < MAP_SIZE; y++) {
+      for (int x = 0; x < MAP_SIZE; x++) {
+        if (map.getCell(x, y).canWalk()) {
+          assertArrayEquals(new int[0], PathFinder.findPath(map, x, y, x, y));
+          return;
+        }
+      }
+    }
+  }
+
+  @Test
+  void boundedSearchStaysInsideItsRectangle() {
+    GameMap map = createMap(2L);
+    Random random = new Random(2L);
+    for (int i = 0; i < 200; i++) {
+      int minX = random.nextInt(MAP_SIZE - 16);
+      int minY = random.nextInt(MAP_SIZE - 16);
+      int maxX = minX + 15;
+      int maxY = minY + 15;
+      int sx = minX + random.nextInt(16);
+      int sy = minY + random.nextInt(16);
+      int gx = minX + random.nextInt(16);
+      int gy = minY + random.nextInt(16);
+      int[] path = PathFinder.findPath(map, sx, sy, gx, gy, minX, minY, maxX, maxY);
+      if (path == null) {
+        continue;
+      }
+      pathCost(map, sx, sy, path);
+      for (int cell : path) {
+        int x = PathFinder.cellX(cell, MAP_SIZE);
+        int y = PathFinder.cellY(cell, MAP_SIZE);
+        assertTrue(x >= minX && x <= maxX && y >= minY && y <= maxY,
+            "(" + x + "," + y + ") outside the search rectangle");
+      }
+    }
+    assertNull(PathFinder.findPath(map, 0, 0, 20, 20, 0, 0, 10, 10));
+  }
+
+  private static GameMap createMap(long seed) {
+    GameMap map = new GameMap(MAP_SIZE, MAP_SIZE, seed);
+    Random random = new Random(seed);
+    BuildingType[] types = { BuildingType.PLAZA, BuildingType.CHURCH,
+        BuildingType.RED_ROOFED_HOUSE };
+    int placed = 0;
+    for (int i = 0; i < 10_000 && placed < 40; i++) {
+      Point2D.Double pos = new Point2D.Double(random.nextInt(MAP_SIZE), random.nextInt(MAP_SIZE));
+      BuildingType type = types[placed % types.length];
+      if (map.canPlaceBuilding(pos, type)) {
+        map.placeBuilding(pos, new Building(pos, type));
+        placed++;
+      }
+    }
+    return map;
+  }
+
+  /**
+   * 経路が隣接セルを歩ける所だけ辿って目標に着くことを確かめ、そのコストを返す。
+   */
+  private static long pathCost(GameMap map, int sx, int sy, int[] path) {
+    long cost = 0L;
+    int x = sx;
+    int y = sy;
+    for (int cell : path) {
+      int nx = PathFinder.cellX(cell, MAP_SIZE);
+      int ny = PathFinder.cellY(cell, MAP_SIZE);
+      assertEquals(1, Math.abs(nx - x) + Math.abs(ny - y), "path step is not adjacent");
+      assertTrue(map.getCell(nx, ny).canWalk(), "path enters a blocked cell");
+      cost += map.getCell(nx, ny).getMoveCost();
+      x = nx;
+      y = ny;
+    }
+    return cost;
+  }
+
+  /**
+   * 以前の探索と同じダイクストラ法で最短コストを求める。到達不能なら-1。
+   */
+  private static long dijkstraCost(GameMap map, int sx, int sy, int gx, int gy) {
+    long[] dist = new long[MAP_SIZE * MAP_SIZE];
+    Arrays.fill(dist, COST_INF);
+    PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(n -> n[2]));
+    dist[sy * MAP_SIZE + sx] = 0L;
+    queue.add(new long[] { sx, sy, 0L });
+    while (!queue.isEmpty()) {
+      long[] current = queue.poll();
+      int cx = (int) current[0];
+      int cy = (int) current[1];
+      if (current[2] != dist[cy * MAP_SIZE + cx]) {
+        continue;
+      }
+      if (cx == gx && cy == gy) {
+        break;
+      }
+      for (int i = 0; i < PathFinder.DX.length; i++) {
+        int nx = cx + PathFinder.DX[i];
+        int ny = cy + PathFinder.DY[i];
+        if (!PathFinder.inBounds(MAP_SIZE, MAP_SIZE, nx, ny) || !map.getCell(nx, ny).canWalk()) {
+          continue;
+        }
+        long stepCost = map.getCell(nx, ny).getMoveCost();
+        if (stepCost >= COST_INF) {
+          continue;
+        }
+        long newCost = current[2] + stepCost;
+        if (newCost < dist[ny * MAP_SIZE + nx]) {
+          dist[ny * MAP_SIZE + nx] = newCost;
+          queue.add(new long[] { nx, ny, newCost });
+        }
+      }
+    }
+    long cost = dist[gy * MAP_SIZE + gx];
+    return cost >= COST_INF ? -1L : cost;
+  }
+}
@@ -0,0 +1,69 @@
+package io.github.sasori_256.town_planning.map.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.sasori_256.town_planning.entity.building.Building;
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+import io.github.sasori_256.town_planning.entity.model.SplitMix64;
+
+class WalkableRegionsTest {
+  private static final int MAP_SIZE = 48;
+
+  @Test
+  void incrementalUpdatesMatchAFreshLabelling() {
+    GameMap map = new GameMap(MAP_SIZE, MAP_SIZE, 4L);
+    Random random = new Random(4L);
+    List<Point2D.Double> placed = new ArrayList<>();
+    BuildingType[] types = { BuildingType.RED_ROOFED_HOUSE, BuildingType.PLAZA,
+        BuildingType.CHURCH };
+    for (int step = 0; step < 400; step++) {
+      if (!placed.isEmpty() && random.nextInt(3) == 0) {
+        assertTrue(map.removeBuilding(placed.remove(random.nextInt(placed.size()))));
+      } else {
+        Point2D.Double pos = new Point2D.Double(random.nextInt(MAP_SIZE),
+            random.nextInt(MAP_SIZE));
+        BuildingType type = types[random.nextInt(types.length)];
+        if (map.canPlaceBuilding(pos, type)) {
+          map.placeBuilding(pos, new Building(pos, type));
+          placed.add(pos);
+        }
+      }
+      if (step % 40 == 0) {
+        assertSameRegions(new WalkableRegions(map), map.getWalkableRegions());
+      }
+    }
+    assertSameRegions(new WalkableRegions(map), map.getWalkableRegions());
+  }
+
+  /**
+   * 領域の分け方が同じで、同じ乱数から同じセルを抽選することを確かめる。
+   */
+  private static void assertSameRegions(WalkableRegions expected, WalkableRegions actual) {
+    for (int y = 0; y < MAP_SIZE; y++) {
+      for (int x = 0; x < MAP_SIZE; x++) {
+        int region = actual.getRegion(x, y);
+        int fresh = expected.getRegion(x, y);
+        assertEquals(fresh == WalkableRegions.NONE, region == WalkableRegions.NONE);
+        if (region == WalkableRegions.NONE) {
+          continue;
+        }
+        assertEquals(expected.getRegionSize(fresh), actual.getRegionSize(region));
+        SplitMix64 expectedRng = new SplitMix64(y * MAP_SIZE + x);
+        SplitMix64 actualRng = new SplitMix64(y * MAP_SIZE + x);
+        for (int i = 0; i < 4; i++) {
+          int cell = actual.randomCell(region, actualRng);
+          assertEquals(expected.randomCell(fresh, expectedRng), cell);
+          assertEquals(region, actual.getRegion(cell % MAP_SIZE, cell / MAP_SIZE));
+        }
+      }
+    }
+  }
+}
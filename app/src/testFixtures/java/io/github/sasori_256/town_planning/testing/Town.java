@@ -0,0 +1,120 @@
+package io.github.sasori_256.town_planning.testing;
+
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import io.github.sasori_256.town_planning.common.core.GameConfig;
+import io.github.sasori_256.town_planning.entity.building.Building;
+import io.github.sasori_256.town_planning.entity.building.BuildingType;
+import io.github.sasori_256.town_planning.entity.disaster.Disaster;
+import io.github.sasori_256.town_planning.entity.disaster.DisasterType;
+import io.github.sasori_256.town_planning.entity.model.GameModel;
+import io.github.sasori_256.town_planning.entity.resident.Resident;
+import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+import io.github.sasori_256.town_planning.entity.resident.ResidentType;
+import io.github.sasori_256.town_planning.map.model.GameMap;
+
+/**
+ * テストとベンチマーク用に建物と住民を配置したゲームモデル。
+ *
+ * <p>
+ * 職場として広場と教会を交互に、住宅として赤い屋根の家をランダムな位置に置き、
+ * 住民は家に順番に割り当てて在宅状態で追加する。同じ引数からは常に同じ町ができる。
+ * </p>
+ *
+ * @param model  ゲームモデル
+ * @param houses 配置した家
+ */
+public record Town(GameModel model, List<Building> houses) {
+
+  /**
+   * 町を生成する。
+   *
+   * @param mapSize    マップ一辺のセル数
+   * @param workplaces 職場の数の上限
+   * @param houses     家の数の上限
+   * @param residents  住民数
+   * @param seed       シード値
+   * @return 生成した町
+   * @throws IllegalStateException 家を1軒も置けなかった場合
+   */
+  public static Town create(int mapSize, int workplaces, int houses, int residents, long seed) {
+    GameModel model = new GameModel(mapSize, mapSize, seed);
+    GameMap map = model.getGameMap();
+    Random random = new Random(seed);
+    int placed = 0;
+    for (int i = 0; i < workplaces * 100 && placed < workplaces; i++) {
+      Point2D.Double pos = new Point2D.Double(random.nextInt(mapSize), random.nextInt(mapSize));
+      BuildingType type = placed % 2 == 0 ? BuildingType.PLAZA : BuildingType.CHURCH;
+      if (place(model, map, pos, type) != null) {
+        placed++;
+      }
+    }
+    List<Building> homes = new ArrayList<>();
+    for (int i = 0; i < houses * 500 && homes.size() < houses; i++) {
+      Point2D.Double pos = new Point2D.Double(random.nextInt(mapSize), random.nextInt(mapSize));
+      Building home = place(model, map, pos, BuildingType.RED_ROOFED_HOUSE);
+      if (home != null) {
+        homes.add(home);
+      }
+    }
+    if (homes.isEmpty()) {
+      throw new IllegalStateException("No house could be placed on a " + mapSize + " map");
+    }
+    for (int i = 0; i < residents; i++) {
+      Point2D.Double home = homes.get(i % homes.size()).getPosition();
+      model.addResidentEntity(new Resident(new Point2D.Double(home.x, home.y),
+          ResidentType.CITIZEN, ResidentState.AT_HOME, home));
+    }
+    return new Town(model, homes);
+  }
+
+  /**
+   * 設定の時間刻みで指定ティック数だけ更新する。
+   *
+   * @param ticks ティック数
+   */
+  public void run(int ticks) {
+    double dt = GameConfig.getGameLoopTimeStepSeconds();
+    for (int i = 0; i < ticks; i++) {
+      model.step(dt);
+    }
+  }
+
+  /**
+   * 最初の家に疫病を起こす。その家の住民が確実に巻き込まれる。
+   */
+  public void startPlague() {
+    Point2D.Double home = houses.get(0).getPosition();
+    model.addDisasterEntity(new Disaster(new Point2D.Double(home.x, home.y), DisasterType.PLAGUE));
+  }
+
+  /**
+   * モデルの全状態をセーブデータの形で返す。状態の比較に使う。
+   *
+   * @param dir 一時ファイルを置くディレクトリ
+   * @return セーブデータのバイト列
+   * @throws IOException 書き込みに失敗した場合
+   */
+  public byte[] saveBytes(Path dir) throws IOException {
+    Path file = Files.createTempFile(dir, "state", ".tpsave");
+    model.save(file);
+    return Files.readAllBytes(file);
+  }
+
+  private static Building place(GameModel model, GameMap map, Point2D.Double pos,
+      BuildingType type) {
+    if (!map.canPlaceBuilding(pos, type)) {
+      return null;
+    }
+    Building building = new Building(pos, type);
+    map.placeBuilding(pos, building);
+    model.addBuildingEntity(building);
+    return building;
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * JMH benchmarks for the simulation hot paths.
+ *
+ * Run all benchmarks with `./gradlew :benchmarks:jmh`. Use -Pjmh.includes=<regex> to select
+ * benchmarks and -Pjmh.params=<name>=<v1>,<v2> to override a @Param, for example
+ * `./gradlew :benchmarks:jmh -Pjmh.includes=TickBench -Pjmh.params=residents=10000`.
+ */
+
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    jmhImplementation(project(":app"))
+    jmhImplementation(testFixtures(project(":app")))
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(25)
+    }
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    resultFormat = "JSON"
+    jvmArgs = listOf("-Djava.awt.headless=true")
+    (findProperty("jmh.includes") as String?)?.let { includes = listOf(it) }
+    (findProperty("jmh.params") as String?)?.let { spec ->
+        val (name, values) = spec.split("=", limit = 2)
+        benchmarkParameters.put(name, objects.listProperty<String>().value(values.split(",")))
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.sasori_256.town_planning.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.sasori_256.town_planning.common.event.EventBus;
+import io.github.sasori_256.town_planning.common.event.Subscription;
+
+/**
+ * 購読者数ごとのイベント発行の時間。購読者0は該当するリスナーがない場合の経路。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventBusBench {
+  /** ベンチマーク専用のイベント。ゲーム側の購読者に届かないようにする。 */
+  public record BenchEvent(int value) {
+  }
+
+  @Param({ "0", "1", "8", "64" })
+  public int subscribers;
+
+  private final EventBus eventBus = EventBus.getInstance();
+  private final List<Subscription> subscriptions = new ArrayList<>();
+  /** リスナーが書き込む値。最適化でリスナーの処理が消えないようにする。 */
+  private long sink;
+  private int value;
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < subscribers; i++) {
+      subscriptions.add(eventBus.subscribe(BenchEvent.class, event -> sink += event.value()));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    subscriptions.forEach(Subscription::unsubscribe);
+    subscriptions.clear();
+  }
+
+  @Benchmark
+  public long publish() {
+    eventBus.publish(new BenchEvent(value++));
+    return sink;
+  }
+}
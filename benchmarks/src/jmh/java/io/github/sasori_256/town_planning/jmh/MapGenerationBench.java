@@ -0,0 +1,32 @@
+package io.github.sasori_256.town_planning.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.sasori_256.town_planning.map.model.GameMap;
+
+/**
+ * マップ生成(ノイズによる地形生成と境界の整形)の時間。
+ * 呼び出しごとにシード値を変え、同じ地形の繰り返しにならないようにする。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MapGenerationBench {
+  @Param({ "64", "256", "512", "1024" })
+  public int mapSize;
+
+  private long seed;
+
+  @Benchmark
+  public GameMap generate() {
+    return new GameMap(mapSize, mapSize, seed++);
+  }
+}
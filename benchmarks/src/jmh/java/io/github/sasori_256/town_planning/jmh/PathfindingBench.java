@@ -0,0 +1,200 @@
+package io.github.sasori_256.town_planning.jmh;
+
+import java.awt.Point;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.sasori_256.town_planning.map.model.FlowFieldCache;
+import io.github.sasori_256.town_planning.map.model.GameMap;
+import io.github.sasori_256.town_planning.map.model.HierarchicalPathFinder;
+import io.github.sasori_256.town_planning.map.model.PathFinder;
+import io.github.sasori_256.town_planning.map.model.WalkableRegions;
+
+/**
+ * 住民の経路計画で使う各探索方式の1回あたりの時間。
+ *
+ * <p>
+ * DestinationMoveActionの経路計画は、大きなマップでは階層型探索、共有の目的地には
+ * フローフィールド、それ以外はA*を使う。ここではそれぞれを同じ出発地・目的地の組で計測し、
+ * 比較の基準としてA*導入前のDijkstraも計測する。
+ * 組は最大の歩行可能領域から選ぶため、すべて到達可能である。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PathfindingBench {
+  private static final int QUERIES = 256;
+  private static final long COST_INF = 1_000_000L;
+
+  @Param({ "128", "256", "512" })
+  public int mapSize;
+
+  private GameMap map;
+  private FlowFieldCache flowFieldCache;
+  private int[][] pairs;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    map = new GameMap(mapSize, mapSize, 1L);
+    flowFieldCache = new FlowFieldCache(map);
+    pairs = samplePairs(map, new Random(1L));
+    // 前処理は計測に含めない。
+    map.getHierarchicalPathFinder();
+  }
+
+  @TearDown
+  public void tearDown() {
+    flowFieldCache.dispose();
+  }
+
+  private int[] nextPair() {
+    int[] pair = pairs[next];
+    next = (next + 1) % pairs.length;
+    return pair;
+  }
+
+  /**
+   * A*導入前のDijkstra(二次元配列とPoint2D経由のセル参照)で経路を求める。
+   */
+  @Benchmark
+  public int[] legacyDijkstra() {
+    int[] p = nextPair();
+    return legacyDijkstra(map, p[0], p[1], p[2], p[3]);
+  }
+
+  @Benchmark
+  public int[] astar() {
+    int[] p = nextPair();
+    return PathFinder.findPath(map, p[0], p[1], p[2], p[3]);
+  }
+
+  /**
+   * 抽象経路を求め、全区間をセル単位に詳細化する。
+   */
+  @Benchmark
+  public void hierarchical(Blackhole bh) {
+    int[] p = nextPair();
+    HierarchicalPathFinder.Route route = map.getHierarchicalPathFinder()
+        .findRoute(p[0], p[1], p[2], p[3]);
+    while (route != null && route.hasNextSegment()) {
+      bh.consume(route.nextSegment());
+    }
+  }
+
+  /**
+   * キャッシュに乗っていない目的地のフローフィールドを作る。
+   */
+  @Benchmark
+  public Object flowField() {
+    int[] p = nextPair();
+    flowFieldCache.clear();
+    return flowFieldCache.get(p[2], p[3]);
+  }
+
+  private static int[][] samplePairs(GameMap map, Random random) {
+    WalkableRegions regions = map.getWalkableRegions();
+    int width = map.getWidth();
+    int region = WalkableRegions.NONE;
+    for (int i = 0; i < 1_000; i++) {
+      int candidate = regions.getRegion(random.nextInt(width), random.nextInt(map.getHeight()));
+      if (candidate != WalkableRegions.NONE
+          && (region == WalkableRegions.NONE
+              || regions.getRegionSize(candidate) > regions.getRegionSize(region))) {
+        region = candidate;
+      }
+    }
+    if (region == WalkableRegions.NONE) {
+      throw new IllegalStateException("No walkable region on a " + width + " map");
+    }
+    int[][] pairs = new int[QUERIES][];
+    for (int i = 0; i < QUERIES; i++) {
+      int from = regions.randomCell(region, random);
+      int to = regions.randomCell(region, random);
+      pairs[i] = new int[] { from % width, from / width, to % width, to / width };
+    }
+    return pairs;
+  }
+
+  /**
+   * 平坦なA*導入前のDijkstra実装。比較の基準として当時の構造のまま残している。
+   */
+  private static int[] legacyDijkstra(GameMap map, int startX, int startY, int goalX,
+      int goalY) {
+    int width = map.getWidth();
+    int height = map.getHeight();
+    long[][] dist = new long[height][width];
+    for (int y = 0; y < height; y++) {
+      Arrays.fill(dist[y], COST_INF);
+    }
+    Point[][] prev = new Point[height][width];
+    PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(n -> n[2]));
+    dist[startY][startX] = 0;
+    queue.add(new long[] { startX, startY, 0 });
+    int[] dx = { 1, -1, 0, 0 };
+    int[] dy = { 0, 0, 1, -1 };
+    while (!queue.isEmpty()) {
+      long[] current = queue.poll();
+      int cx = (int) current[0];
+      int cy = (int) current[1];
+      if (current[2] != dist[cy][cx]) {
+        continue;
+      }
+      if (cx == goalX && cy == goalY) {
+        break;
+      }
+      for (int i = 0; i < dx.length; i++) {
+        int nx = cx + dx[i];
+        int ny = cy + dy[i];
+        if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+          continue;
+        }
+        Point2D.Double pos = new Point2D.Double(nx, ny);
+        if (!map.getCell(pos).canWalk()) {
+          continue;
+        }
+        long stepCost = map.getCell(pos).getMoveCost();
+        if (stepCost >= COST_INF) {
+          continue;
+        }
+        long newCost = current[2] + stepCost;
+        if (newCost < dist[ny][nx]) {
+          dist[ny][nx] = newCost;
+          prev[ny][nx] = new Point(cx, cy);
+          queue.add(new long[] { nx, ny, newCost });
+        }
+      }
+    }
+    if (dist[goalY][goalX] >= COST_INF) {
+      return null;
+    }
+    int length = 0;
+    for (Point p = new Point(goalX, goalY); !(p.x == startX && p.y == startY);
+        p = prev[p.y][p.x]) {
+      length++;
+    }
+    int[] path = new int[length];
+    Point p = new Point(goalX, goalY);
+    for (int i = length - 1; i >= 0; i--) {
+      path[i] = p.y * width + p.x;
+      p = prev[p.y][p.x];
+    }
+    return path;
+  }
+}
@@ -0,0 +1,80 @@
+package io.github.sasori_256.town_planning.jmh;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.sasori_256.town_planning.entity.model.GameModel;
+import io.github.sasori_256.town_planning.entity.resident.DebuffType;
+import io.github.sasori_256.town_planning.entity.resident.Resident;
+import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+import io.github.sasori_256.town_planning.entity.resident.ResidentType;
+import io.github.sasori_256.town_planning.testing.Town;
+
+/**
+ * 疫病の1回の作用(スリップダメージと周囲への感染)を密集した住民全員に適用する時間。
+ *
+ * <p>
+ * 住民は1タイル間隔の正方格子に並べるため、感染半径内には常に数人の住民がいる。
+ * ダメージで住民が死ぬと結果が変わるため、呼び出しごとに住民を入れ替える。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlagueSpreadBench {
+  private static final int INFECTION_LEVEL = 3;
+
+  @Param({ "1000", "10000" })
+  public int residents;
+
+  private GameModel model;
+  private List<Resident> crowd = new ArrayList<>();
+
+  @Setup
+  public void setUp() {
+    model = Town.create(256, 0, 1, 0, 13L).model();
+  }
+
+  @Setup(Level.Invocation)
+  public void spawnCrowd() {
+    for (Resident resident : crowd) {
+      model.removeEntity(resident);
+    }
+    crowd = new ArrayList<>(residents);
+    int side = (int) Math.ceil(Math.sqrt(residents));
+    Point2D.Double home = new Point2D.Double(0, 0);
+    for (int i = 0; i < residents; i++) {
+      Point2D.Double pos = new Point2D.Double(64 + i % side + 0.5, 64 + i / side + 0.5);
+      Resident resident = new Resident(pos, ResidentType.CITIZEN, ResidentState.WORKING, home);
+      model.addResidentEntity(resident);
+      resident.addDebuff(DebuffType.PLAGUE, DebuffType.INFECTION_DURATION_SECONDS,
+          INFECTION_LEVEL);
+      crowd.add(resident);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    model.dispose();
+  }
+
+  @Benchmark
+  public void spread() {
+    for (Resident resident : crowd) {
+      DebuffType.PLAGUE.apply(model, resident, INFECTION_LEVEL);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package io.github.sasori_256.town_planning.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.sasori_256.town_planning.entity.building.Building;
+import io.github.sasori_256.town_planning.entity.model.GameModel;
+import io.github.sasori_256.town_planning.entity.model.manager.EntityManager;
+import io.github.sasori_256.town_planning.entity.model.manager.RelocationManager;
+import io.github.sasori_256.town_planning.entity.resident.Resident;
+import io.github.sasori_256.town_planning.entity.resident.ResidentState;
+import io.github.sasori_256.town_planning.testing.Town;
+
+/**
+ * 日次の住民の引っ越し調整の時間。
+ *
+ * <p>
+ * 町のエンティティを専用のEntityManagerに登録し直し、RelocationManagerを直接呼ぶ。
+ * 住民は全員を最初の家に割り当てておき、毎回の呼び出しで家の数だけ引っ越し先が決まるようにする。
+ * 割り当ては呼び出しごとに元に戻す。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RebalanceBench {
+  @Param({ "50", "200" })
+  public int houses;
+
+  @Param({ "1000", "10000" })
+  public int residents;
+
+  private GameModel model;
+  private RelocationManager relocationManager;
+  private List<Resident> residentList;
+  private Building firstHouse;
+
+  @Setup
+  public void setUp() {
+    Town town = Town.create(256, 0, houses, residents, 11L);
+    model = town.model();
+    firstHouse = town.houses().get(0);
+    EntityManager entityManager = new EntityManager(model.getEventBus(), model.getStateLock(),
+        256, 256);
+    model.getBuildingEntities().forEach(building -> entityManager.spawnEntity(building, model));
+    model.getResidentEntities().forEach(resident -> entityManager.spawnEntity(resident, model));
+    residentList = entityManager.snapshotResidents();
+    relocationManager = new RelocationManager(model.getStateLock(), entityManager);
+  }
+
+  @Setup(Level.Invocation)
+  public void resetAssignments() {
+    for (Resident resident : residentList) {
+      resident.clearRelocationTarget();
+      resident.setHomePosition(firstHouse.getPosition());
+      resident.setState(ResidentState.AT_HOME);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    model.dispose();
+  }
+
+  @Benchmark
+  public void rebalance() {
+    relocationManager.rebalanceResidents();
+  }
+}
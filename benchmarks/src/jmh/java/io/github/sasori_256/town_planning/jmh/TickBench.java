@@ -0,0 +1,61 @@
+package io.github.sasori_256.town_planning.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.sasori_256.town_planning.common.core.GameConfig;
+import io.github.sasori_256.town_planning.entity.model.GameModel;
+import io.github.sasori_256.town_planning.testing.Town;
+
+/**
+ * 住民数ごとの1ティックの更新時間。
+ *
+ * <p>
+ * EntityManager.updateEntitiesはGameModelの更新の中で遅延操作の反映と組で呼ぶ前提のため、
+ * 単体ではなく{@link GameModel#step(double)}を計測する。時間の大半は住民の更新が占める。
+ * 住民は計測中も動き続けるので、反復ごとの値は町の状態の変化を含む。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TickBench {
+  @Param({ "1000", "10000", "50000" })
+  public int residents;
+
+  @Param({ "256" })
+  public int mapSize;
+
+  private GameModel model;
+  private double dt;
+
+  @Setup
+  public void setUp() {
+    model = Town.create(mapSize, 40, 200, residents, 7L).model();
+    dt = GameConfig.getGameLoopTimeStepSeconds();
+    // 住民が家を出て経路を持った状態から計測する。
+    for (int i = 0; i < 60; i++) {
+      model.step(dt);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    model.dispose();
+  }
+
+  @Benchmark
+  public long step() {
+    model.step(dt);
+    return model.getTick();
+  }
+}
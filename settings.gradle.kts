@@ -12,3 +12,4 @@ plugins {
 
 rootProject.name = "MPro-Town-Planning"
 include("app")
+include("benchmarks")